@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Date;
+import org.openjdk.jol.info.GraphLayout;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * Compares the heap footprint of {@link UserEntity} and {@link
+ * CompactUserRecord} holding the same users, measured by JOL.
+ *
+ * <p>
+ * The users are generated as if they had been read from a database, so
+ * each {@code UserEntity} has its own copies of repeating values such as
+ * genders, locales and countries. The number of users can be given as the
+ * argument (100,000 by default).
+ * </p>
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbench.main=com.authlete.jaxrs.server.db.UserRecordFootprint
+ * </pre>
+ */
+public class UserRecordFootprint
+{
+    private static final String[] GENDERS   = { "male", "female", "other" };
+    private static final String[] ZONEINFO  = { "Asia/Tokyo", "Europe/London", "America/New_York", "Europe/Berlin" };
+    private static final String[] LOCALES   = { "ja-JP", "en-GB", "en-US", "de-DE" };
+    private static final String[] COUNTRIES = { "Japan", "United Kingdom", "United States", "Germany" };
+    private static final String[] REGIONS   = { "Tokyo", "England", "New York", "Berlin" };
+
+
+    public static void main(String[] args)
+    {
+        int count = (args.length == 0) ? 100000 : Integer.parseInt(args[0]);
+
+        UserEntity[] entities = new UserEntity[count];
+        CompactUserRecord[] records = new CompactUserRecord[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            entities[i] = createUser(i);
+            records[i]  = CompactUserRecord.of(entities[i]);
+        }
+
+        report("UserEntity", GraphLayout.parseInstance((Object)entities), count);
+        report("CompactUserRecord", GraphLayout.parseInstance((Object)records), count);
+
+        System.out.println();
+        System.out.println(GraphLayout.parseInstance((Object)entities).toFootprint());
+        System.out.println(GraphLayout.parseInstance((Object)records).toFootprint());
+    }
+
+
+    private static UserEntity createUser(int i)
+    {
+        int c = i % COUNTRIES.length;
+
+        Address address = new Address()
+                .setCountry(copy(COUNTRIES[c]))
+                .setRegion(copy(REGIONS[c]))
+                .setLocality("City " + (i % 1000))
+                .setStreetAddress(i + " Main Street");
+
+        return new UserEntity(
+                String.valueOf(100000000 + i), "user" + i, "password" + i, "Given" + i + " Family" + i,
+                "user" + i + "@example.com", address, "+1 (425) 555-" + i, String.valueOf(i),
+                "Given" + i, "Family" + i, null, null,
+                "https://example.com/user" + i, "https://example.com/user" + i + "/me.jpg", null,
+                copy(GENDERS[i % GENDERS.length]), copy(ZONEINFO[c]), copy(LOCALES[c]),
+                "user" + i, "19" + (50 + i % 50) + "-01-01", new Date(1577836800000L + i));
+    }
+
+
+    private static String copy(String value)
+    {
+        // A string read from a database is not shared with other rows.
+        return new String(value.toCharArray());
+    }
+
+
+    private static void report(String type, GraphLayout layout, int count)
+    {
+        System.out.format("%-18s %,14d bytes  %,6d bytes/user  %,10d objects%n",
+                type, layout.totalSize(), layout.totalSize() / count, layout.totalCount());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Lookups of users in {@link InMemoryUserRepository} by the subject, the
+ * email address and the phone number, compared with a linear scan of the
+ * users (the lookup that the repository replaced).
+ *
+ * <p>
+ * 10 million users need a heap of about 8 GB, e.g. {@code
+ * -Djmh.args="UserRepositoryBenchmark -jvmArgs -Xmx8g"}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserRepositoryBenchmark
+{
+    @Param({ "10000", "1000000", "10000000" })
+    public int size;
+
+
+    private List<CompactUserRecord> mUsers;
+    private InMemoryUserRepository mRepository;
+
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        mUsers = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            Object[] values = new Object[Claim.VALUES.length];
+            values[Claim.NAME.ordinal()]         = "User " + i;
+            values[Claim.EMAIL.ordinal()]        = "user" + i + "@example.com";
+            values[Claim.PHONE_NUMBER.ordinal()] = "+1 (425) " + i;
+
+            mUsers.add(CompactUserRecord.of(subject(i), "user" + i, "password", values, null));
+        }
+
+        mRepository = new InMemoryUserRepository(mUsers);
+    }
+
+
+    private static String subject(int i)
+    {
+        return String.valueOf(100000000 + i);
+    }
+
+
+    private int random()
+    {
+        return ThreadLocalRandom.current().nextInt(size);
+    }
+
+
+    @Benchmark
+    public UserRecord findBySubject()
+    {
+        return mRepository.findBySubject(subject(random()));
+    }
+
+
+    @Benchmark
+    public UserRecord findByEmail()
+    {
+        // Looked up case-insensitively.
+        return mRepository.findByEmail("User" + random() + "@Example.com");
+    }
+
+
+    @Benchmark
+    public UserRecord findByPhoneNumber()
+    {
+        return mRepository.findByPhoneNumber("+1-425-" + random());
+    }
+
+
+    @Benchmark
+    public UserRecord scanBySubject()
+    {
+        String subject = subject(random());
+
+        for (CompactUserRecord user : mUsers)
+        {
+            if (subject.equals(user.getSubject()))
+            {
+                return user;
+            }
+        }
+
+        return null;
+    }
+}
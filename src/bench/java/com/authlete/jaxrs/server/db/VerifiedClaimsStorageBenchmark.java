@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Issuer;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * Lookups of the verified claims selected by a request, as {@link
+ * VerifiedClaimsDao#get(String, VerifiedClaimsMatcher)} does, kept as
+ * objects (the default of {@link VerifiedClaimsDao}) and as {@link
+ * VerifiedClaimsFragments}. Run with {@code -prof gc} to compare the
+ * allocations, e.g. {@code
+ * -Djmh.args="VerifiedClaimsStorageBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifiedClaimsStorageBenchmark
+{
+    private static final int USERS = 10000;
+
+
+    /**
+     * "objects" or "fragments".
+     */
+    @Param({ "objects", "fragments" })
+    public String storage;
+
+
+    /**
+     * The request: all the verified claims, two of the claims, or one
+     * claim with the evidence.
+     */
+    @Param({ "all", "claims", "evidence" })
+    public String request;
+
+
+    private VerifiedClaimsRepository mRepository;
+    private VerifiedClaimsMatcher mMatcher;
+
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        if ("fragments".equals(storage))
+        {
+            FragmentVerifiedClaimsRepository repository = new FragmentVerifiedClaimsRepository();
+
+            for (int i = 0; i < USERS; i++)
+            {
+                repository.put(subject(i), createVerifiedClaims(i));
+            }
+
+            mRepository = repository;
+        }
+        else
+        {
+            Map<String, VerifiedClaims> map = new ConcurrentHashMap<>();
+
+            for (int i = 0; i < USERS; i++)
+            {
+                map.put(subject(i), createVerifiedClaims(i));
+            }
+
+            mRepository = map::get;
+        }
+
+        mMatcher = createMatcher(request);
+    }
+
+
+    private static String subject(int i)
+    {
+        return String.valueOf(100000000 + i);
+    }
+
+
+    private static VerifiedClaims createVerifiedClaims(int i)
+    {
+        return new VerifiedClaims()
+                .setVerification(new Verification()
+                        .setTrustFramework("de_aml")
+                        .setTime("2012-04-23T18:25:43+01")
+                        .setVerificationProcess("process-" + i)
+                        .addEvidence(new IDDocument()
+                                .setMethod("pipp")
+                                .setDocument(new Document()
+                                        .setType("idcard")
+                                        .setIssuer(new Issuer()
+                                                .setName("Stadt Augsburg")
+                                                .setCountry("DE"))
+                                        .setNumber(String.valueOf(50000000 + i))
+                                        .setDateOfIssuance("2012-04-23")
+                                        .setDateOfExpiry("2022-04-22"))))
+                .setClaims(new Claims()
+                        .putClaim("given_name", "Given" + i)
+                        .putClaim("family_name", "Family" + i)
+                        .putClaim("birthdate", "1956-01-28"));
+    }
+
+
+    private static VerifiedClaimsMatcher createMatcher(String request)
+    {
+        switch (request)
+        {
+            case "claims":
+                // {"verification":{"trust_framework":null},
+                //  "claims":{"given_name":null,"family_name":null}}
+                return VerifiedClaimsMatcher.compile(map(
+                        "verification", map("trust_framework", null),
+                        "claims", map("given_name", null, "family_name", null)));
+
+            case "evidence":
+                // {"verification":{"trust_framework":null,"time":null,
+                //   "evidence":[{"method":null,"document":{"type":null}}]},
+                //  "claims":{"given_name":null}}
+                return VerifiedClaimsMatcher.compile(map(
+                        "verification", map("trust_framework", null, "time", null,
+                                "evidence", Collections.singletonList(
+                                        map("method", null, "document", map("type", null)))),
+                        "claims", map("given_name", null)));
+
+            default:
+                return VerifiedClaimsMatcher.ALL;
+        }
+    }
+
+
+    private static Map<String, Object> map(Object... members)
+    {
+        Map<String, Object> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < members.length; i += 2)
+        {
+            map.put((String)members[i], members[i + 1]);
+        }
+
+        return map;
+    }
+
+
+    @Benchmark
+    public VerifiedClaims get()
+    {
+        String subject = subject(ThreadLocalRandom.current().nextInt(USERS));
+
+        return mRepository.findSelected(subject, mMatcher);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * Compares {@link HeapIntrospectionStore} and {@link
+ * OffHeapIntrospectionStore} on lookups and replacements of entries in a
+ * full store. Run with {@code -prof gc} to see the allocation per
+ * operation; off-heap lookups decode a record into a new response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntrospectionStoreBenchmark
+{
+    @Param({ "heap", "offheap" })
+    public String storage;
+
+
+    @Param({ "100000" })
+    public int size;
+
+
+    private IntrospectionStore mStore;
+    private String[] mKeys;
+    private Entry mEntry;
+
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        mStore = "offheap".equals(storage)
+               ? new OffHeapIntrospectionStore(size, 512)
+               : new HeapIntrospectionStore(size);
+
+        long now = System.currentTimeMillis();
+        mEntry   = new Entry(createResponse(now), now + 3600_000L, now + 3600_000L, now + 3000_000L);
+        mKeys    = new String[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            mKeys[i] = IntrospectionCache.hash("access-token-" + i);
+            mStore.put(mKeys[i], mEntry, now);
+        }
+    }
+
+
+    private static IntrospectionResponse createResponse(long now)
+    {
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(Action.OK);
+        response.setClientId(1234567890L);
+        response.setSubject("1001");
+        response.setScopes(new String[] { "openid", "profile", "email", "accounts" });
+        response.setExpiresAt(now + 3600_000L);
+        response.setExistent(true);
+        response.setUsable(true);
+        response.setSufficient(true);
+
+        return response;
+    }
+
+
+    private String randomKey()
+    {
+        return mKeys[ThreadLocalRandom.current().nextInt(mKeys.length)];
+    }
+
+
+    @Benchmark
+    public Entry get()
+    {
+        return mStore.get(randomKey());
+    }
+
+
+    @Benchmark
+    public int put()
+    {
+        return mStore.put(randomKey(), mEntry, System.currentTimeMillis());
+    }
+}
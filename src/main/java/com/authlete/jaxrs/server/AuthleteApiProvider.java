@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server;
+
+
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiFactory;
+import com.authlete.jaxrs.server.introspection.CachingApiHandler;
+import com.authlete.jaxrs.server.transport.CircuitBreakerApiHandler;
+import com.authlete.jaxrs.server.transport.PooledApiHandler;
+
+
+/**
+ * Provider of the {@link AuthleteApi} instance used by the endpoints of
+ * this resource server.
+ *
+ * <p>
+ * The instance is the default one created by {@link
+ * AuthleteApiFactory#getDefaultApi()}, decorated with the limiter of
+ * concurrent calls to Authlete, the circuit breaker and the introspection cache shared by
+ * all the resource endpoints.
+ * </p>
+ */
+public final class AuthleteApiProvider
+{
+    private AuthleteApiProvider()
+    {
+    }
+
+
+    /**
+     * Lazily-initialized holder of the instance. The JVM guarantees that
+     * the instance is created only once without explicit locking.
+     */
+    private static final class Holder
+    {
+        static final AuthleteApi API = create();
+    }
+
+
+    private static AuthleteApi create()
+    {
+        // The keep-alive cache has to be configured before the first
+        // connection to Authlete is made.
+        AuthleteApi api = PooledApiHandler.wrap(AuthleteApiFactory.getDefaultApi());
+
+        // Fail fast while Authlete is unavailable.
+        api = CircuitBreakerApiHandler.wrap(api);
+
+        return CachingApiHandler.wrap(api);
+    }
+
+
+    /**
+     * Get the {@link AuthleteApi} instance.
+     */
+    public static AuthleteApi get()
+    {
+        return Holder.API;
+    }
+}
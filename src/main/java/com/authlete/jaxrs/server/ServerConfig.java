@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server;
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+
+/**
+ * Settings of this resource server.
+ *
+ * <p>
+ * The settings are read from the same configuration file as the one used
+ * to create the default {@link com.authlete.common.api.AuthleteApi
+ * AuthleteApi} instance, that is, the file specified by the system property
+ * {@code authlete.configuration.file} or {@code authlete.properties} when
+ * the system property is not set. The file is searched for in the file
+ * system first and then in the class path.
+ * </p>
+ *
+ * <p>
+ * A system property with the same name as a configuration key takes
+ * precedence over the value in the configuration file.
+ * </p>
+ */
+public final class ServerConfig
+{
+    private static final String SYSTEM_PROPERTY_CONFIG_FILE = "authlete.configuration.file";
+    private static final String DEFAULT_CONFIG_FILE = "authlete.properties";
+
+
+    /**
+     * The content of the configuration file.
+     */
+    private static final Properties sProperties = load();
+
+
+    private ServerConfig()
+    {
+    }
+
+
+    private static Properties load()
+    {
+        Properties properties = new Properties();
+
+        // The name of the configuration file.
+        String file = System.getProperty(SYSTEM_PROPERTY_CONFIG_FILE, DEFAULT_CONFIG_FILE);
+
+        try (InputStream in = open(file))
+        {
+            if (in != null)
+            {
+                properties.load(in);
+            }
+        }
+        catch (IOException cause)
+        {
+            // Write an error log.
+            System.err.format("Failed to load the configuration file '%s': %s%n", file, cause.getMessage());
+        }
+
+        return properties;
+    }
+
+
+    private static InputStream open(String file) throws IOException
+    {
+        // Look up the file in the file system.
+        File f = new File(file);
+
+        if (f.isFile())
+        {
+            return new FileInputStream(f);
+        }
+
+        // Look up the file in the class path.
+        return Thread.currentThread().getContextClassLoader().getResourceAsStream(file);
+    }
+
+
+    /**
+     * Get the value of a configuration key as a string.
+     *
+     * @param key
+     *         A configuration key.
+     *
+     * @param defaultValue
+     *         The value returned when the key is not configured.
+     *
+     * @return
+     *         The configured value or {@code defaultValue}.
+     */
+    public static String getString(String key, String defaultValue)
+    {
+        String value = System.getProperty(key);
+
+        if (value == null)
+        {
+            value = sProperties.getProperty(key);
+        }
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        value = value.trim();
+
+        return value.isEmpty() ? defaultValue : value;
+    }
+
+
+    /**
+     * Get the value of a configuration key as a boolean.
+     */
+    public static boolean getBoolean(String key, boolean defaultValue)
+    {
+        String value = getString(key, null);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        return Boolean.parseBoolean(value);
+    }
+
+
+    /**
+     * Get the value of a configuration key as an integer.
+     */
+    public static int getInt(String key, int defaultValue)
+    {
+        return (int)getLong(key, defaultValue);
+    }
+
+
+    /**
+     * Get the value of a configuration key as a long integer.
+     */
+    public static long getLong(String key, long defaultValue)
+    {
+        String value = getString(key, null);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            // Write an error log.
+            System.err.format("The value of '%s' is not a number: %s%n", key, value);
+
+            return defaultValue;
+        }
+    }
+
+
+    /**
+     * Get the value of a configuration key as a floating-point number.
+     */
+    public static double getDouble(String key, double defaultValue)
+    {
+        String value = getString(key, null);
+
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Double.parseDouble(value);
+        }
+        catch (NumberFormatException e)
+        {
+            // Write an error log.
+            System.err.format("The value of '%s' is not a number: %s%n", key, value);
+
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server;
+
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import com.authlete.jaxrs.server.api.ResponseSigningKey;
+import com.authlete.jaxrs.server.api.rsc.RscJwksEndpoint;
+import com.authlete.jaxrs.server.bus.InvalidationBus;
+import com.authlete.jaxrs.server.db.UserDao;
+import com.authlete.jaxrs.server.db.UserDatabase;
+import com.authlete.jaxrs.server.introspection.CacheSnapshot;
+import com.authlete.jaxrs.server.introspection.RevokedTokenFilter;
+
+
+/**
+ * A listener that starts and stops the background services of this
+ * resource server together with the web application.
+ *
+ * <p>
+ * On startup, this listener connects to the user database, if configured
+ * (see {@link UserDatabase}), restores the token caches from the snapshot
+ * written by the previous process (see {@link CacheSnapshot}), subscribes
+ * the caches of this node to the {@link InvalidationBus} and starts it.
+ * On shutdown, it stops the bus, writes a snapshot and closes the
+ * connections to the user database.
+ * </p>
+ *
+ * <ul>
+ *   <li>{@link InvalidationBus#TOKEN_REVOKED} is recorded in {@link
+ *       RevokedTokenFilter}, which is checked before the introspection
+ *       cache and local JWT validation are used.
+ *   <li>{@link InvalidationBus#USER_UPDATED} is passed to {@link
+ *       UserDao#invalidate(String)}.
+ *   <li>{@link InvalidationBus#SIGNING_KEY_ROTATED} discards the loaded
+ *       {@link ResponseSigningKey} and JWK Set document.
+ * </ul>
+ */
+public class ServerContextListener implements ServletContextListener
+{
+    @Override
+    public void contextInitialized(ServletContextEvent event)
+    {
+        // Before any request is accepted.
+        UserDatabase.open();
+        CacheSnapshot.restore();
+
+        InvalidationBus bus = InvalidationBus.getInstance();
+
+        bus.subscribe(InvalidationBus.TOKEN_REVOKED, args -> {
+            RevokedTokenFilter.getInstance().revoke(args[0], Long.parseLong(args[1]));
+        });
+
+        bus.subscribe(InvalidationBus.USER_UPDATED, args -> {
+            UserDao.invalidate(args[0]);
+        });
+
+        bus.subscribe(InvalidationBus.SIGNING_KEY_ROTATED, args -> {
+            ResponseSigningKey.invalidate();
+            RscJwksEndpoint.invalidate();
+        });
+
+        bus.start();
+    }
+
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event)
+    {
+        InvalidationBus.getInstance().stop();
+
+        // For the next process.
+        CacheSnapshot.save();
+
+        UserDatabase.close();
+    }
+}
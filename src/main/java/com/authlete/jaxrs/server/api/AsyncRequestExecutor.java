@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * Executor of the Authlete-bound part of request processing.
+ *
+ * <p>
+ * The endpoints that call Authlete APIs suspend their requests with
+ * {@link AsyncResponse} and pass the Authlete-bound part of the processing
+ * to {@link #execute(AsyncResponse, Supplier)}. Everything that needs the
+ * {@code HttpServletRequest} has to be extracted before the call.
+ * </p>
+ *
+ * <p>
+ * In the {@code sync} mode (default), the task runs on the container thread
+ * as before. In the {@code async} mode, the task runs on a bounded thread
+ * pool, and the container thread is released while the task waits for
+ * Authlete. When the queue of the pool is full, the request is rejected
+ * with {@code 503 Service Unavailable}.
+ * </p>
+ *
+ * <p>
+ * In the {@code virtual} mode, which requires Java 21 or newer, each task
+ * runs on its own virtual thread, so blocking calls to Authlete no longer
+ * occupy platform threads. The number of tasks in flight is limited by
+ * {@code resource.execution.max_in_flight} instead of the size of a pool.
+ * When the runtime does not support virtual threads, the {@code sync} mode
+ * is used.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.execution.mode}</td><td>{@code sync}</td></tr>
+ *   <tr><td>{@code resource.execution.threads}</td><td>{@code 64}</td></tr>
+ *   <tr><td>{@code resource.execution.queue_size}</td><td>{@code 1000}</td></tr>
+ *   <tr><td>{@code resource.execution.max_in_flight}</td><td>{@code 10000}</td></tr>
+ *   <tr><td>{@code resource.execution.timeout}</td><td>{@code 30} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public final class AsyncRequestExecutor implements AsyncRequestExecutorMXBean
+{
+    private static final AsyncRequestExecutor sInstance = new AsyncRequestExecutor(
+            ServerConfig.getString("resource.execution.mode", "sync"),
+            ServerConfig.getInt("resource.execution.threads", 64),
+            ServerConfig.getInt("resource.execution.queue_size", 1000),
+            ServerConfig.getInt("resource.execution.max_in_flight", 10000),
+            ServerConfig.getLong("resource.execution.timeout", 30));
+
+
+    static
+    {
+        MBeans.register("AsyncRequestExecutor", sInstance);
+    }
+
+
+    private final String mMode;
+    private final ExecutorService mExecutor;
+    private final Semaphore mPermits;
+    private final int mMaxInFlight;
+    private final long mTimeout;
+    private final LongAdder mRejected = new LongAdder();
+    private final LongAdder mTimedOut = new LongAdder();
+
+
+    AsyncRequestExecutor(
+            String mode, int threads, int queueSize, int maxInFlight, long timeout)
+    {
+        ExecutorService executor = null;
+
+        if ("async".equals(mode))
+        {
+            executor = createExecutor(threads, queueSize);
+        }
+        else if ("virtual".equals(mode))
+        {
+            executor = createVirtualThreadExecutor();
+        }
+
+        mMode        = (executor != null) ? mode : "sync";
+        mExecutor    = executor;
+        mPermits     = "virtual".equals(mMode) ? new Semaphore(maxInFlight) : null;
+        mMaxInFlight = maxInFlight;
+        mTimeout     = timeout;
+    }
+
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueSize)
+    {
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "authlete-call-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory);
+
+        // Let idle threads go away.
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+
+    private static ExecutorService createVirtualThreadExecutor()
+    {
+        try
+        {
+            // Executors.newVirtualThreadPerTaskExecutor() is available since
+            // Java 21. Reflection keeps this class loadable on Java 8.
+            return (ExecutorService)Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException cause)
+        {
+            System.err.format("Virtual threads are not available (%s). " +
+                    "The sync execution mode is used instead.%n", cause);
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Execute a task and resume the suspended request with its result.
+     *
+     * @param asyncResponse
+     *         The suspended response of the request.
+     *
+     * @param task
+     *         The task which builds the response. A {@code
+     *         WebApplicationException} thrown by the task is mapped to its
+     *         response as if it were thrown by the resource method.
+     */
+    public static void execute(AsyncResponse asyncResponse, Supplier<Response> task)
+    {
+        sInstance.submit(asyncResponse, task);
+    }
+
+
+    void submit(AsyncResponse asyncResponse, Supplier<Response> task)
+    {
+        if (mExecutor == null)
+        {
+            // Run the task on the container thread.
+            run(asyncResponse, task);
+            return;
+        }
+
+        if (0 < mTimeout)
+        {
+            asyncResponse.setTimeoutHandler(ar -> {
+                mTimedOut.increment();
+                ar.resume(Response.status(Status.SERVICE_UNAVAILABLE).build());
+            });
+            asyncResponse.setTimeout(mTimeout, TimeUnit.SECONDS);
+        }
+
+        if (mPermits == null)
+        {
+            try
+            {
+                mExecutor.execute(() -> run(asyncResponse, task));
+            }
+            catch (RejectedExecutionException e)
+            {
+                reject(asyncResponse);
+            }
+
+            return;
+        }
+
+        // Virtual threads are not pooled, so the number of tasks in flight
+        // is limited by the permits instead.
+        if (!mPermits.tryAcquire())
+        {
+            reject(asyncResponse);
+            return;
+        }
+
+        try
+        {
+            mExecutor.execute(() -> {
+                try
+                {
+                    run(asyncResponse, task);
+                }
+                finally
+                {
+                    mPermits.release();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            mPermits.release();
+            reject(asyncResponse);
+        }
+    }
+
+
+    private void reject(AsyncResponse asyncResponse)
+    {
+        mRejected.increment();
+
+        // Too many requests are waiting for Authlete.
+        asyncResponse.resume(Response
+                .status(Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .build());
+    }
+
+
+    private static void run(AsyncResponse asyncResponse, Supplier<Response> task)
+    {
+        try
+        {
+            asyncResponse.resume(task.get());
+        }
+        catch (Throwable cause)
+        {
+            // Let the JAX-RS runtime map the exception to a response.
+            asyncResponse.resume(cause);
+        }
+    }
+
+
+    @Override
+    public String getMode()
+    {
+        return mMode;
+    }
+
+
+    @Override
+    public int getActiveCount()
+    {
+        if (mExecutor instanceof ThreadPoolExecutor)
+        {
+            return ((ThreadPoolExecutor)mExecutor).getActiveCount();
+        }
+
+        if (mPermits != null)
+        {
+            return mMaxInFlight - mPermits.availablePermits();
+        }
+
+        return 0;
+    }
+
+
+    @Override
+    public int getQueueSize()
+    {
+        if (mExecutor instanceof ThreadPoolExecutor)
+        {
+            return ((ThreadPoolExecutor)mExecutor).getQueue().size();
+        }
+
+        return 0;
+    }
+
+
+    @Override
+    public long getRejected()
+    {
+        return mRejected.sum();
+    }
+
+
+    @Override
+    public long getTimedOut()
+    {
+        return mTimedOut.sum();
+    }
+}
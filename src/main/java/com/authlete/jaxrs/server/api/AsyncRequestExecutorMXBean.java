@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+/**
+ * JMX view of {@link AsyncRequestExecutor}.
+ */
+public interface AsyncRequestExecutorMXBean
+{
+    /**
+     * The execution mode ({@code sync}, {@code async} or {@code virtual}).
+     */
+    String getMode();
+
+
+    /**
+     * The number of requests being processed by the executor.
+     */
+    int getActiveCount();
+
+
+    /**
+     * The number of requests waiting for a thread of the executor. Always
+     * zero in the {@code virtual} mode.
+     */
+    int getQueueSize();
+
+
+    /**
+     * The number of requests rejected because the queue was full or too
+     * many requests were in flight.
+     */
+    long getRejected();
+
+
+    /**
+     * The number of requests that timed out while suspended.
+     */
+    long getTimedOut();
+}
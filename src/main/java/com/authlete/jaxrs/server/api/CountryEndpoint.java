@@ -28,13 +28,14 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import com.authlete.common.api.AuthleteApiFactory;
 import com.authlete.jaxrs.AccessTokenValidator.Params;
-import com.authlete.jaxrs.BaseResourceEndpoint;
+import com.authlete.jaxrs.server.AuthleteApiProvider;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.neovisionaries.i18n.CountryCode;
@@ -83,7 +84,7 @@ import com.neovisionaries.i18n.CountryCode;
  * @author Takahiko Kawasaki
  */
 @Path("/api/country/{code}")
-public class CountryEndpoint extends BaseResourceEndpoint
+public class CountryEndpoint extends ResourceEndpoint
 {
     /**
      * JSON generator.
@@ -92,7 +93,8 @@ public class CountryEndpoint extends BaseResourceEndpoint
 
 
     @GET
-    public Response get(
+    public void get(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("DPoP") String dpop,
             @QueryParam("access_token") String accessToken,
@@ -105,13 +107,14 @@ public class CountryEndpoint extends BaseResourceEndpoint
         // an access token from a client application.
         String token = extractAccessToken(authorization, accessToken);
 
-        return process(request, token, dpop, code);
+        process(asyncResponse, request, token, dpop, code);
     }
 
 
     @POST
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
-    public Response post(
+    public void post(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("DPoP") String dpop,
             @FormParam("access_token") String accessToken,
@@ -124,12 +127,25 @@ public class CountryEndpoint extends BaseResourceEndpoint
         // an access token from a client application.
         String token = extractAccessToken(authorization, accessToken);
 
-        return process(request, token, dpop, code);
+        process(asyncResponse, request, token, dpop, code);
     }
 
 
-    private Response process(
-            HttpServletRequest request, String accessToken, String dpop, String code)
+    private void process(
+            AsyncResponse asyncResponse, HttpServletRequest request,
+            String accessToken, String dpop, String code)
+    {
+        // Parameters for access token validation. They must be extracted
+        // from the request before the processing goes asynchronous.
+        Params params = buildParams(request, accessToken, dpop);
+
+        // Validate the access token and build the response, on another
+        // thread if the asynchronous execution mode is enabled.
+        AsyncRequestExecutor.execute(asyncResponse, () -> process(params, code));
+    }
+
+
+    private Response process(Params params, String code)
     {
         // Validate the access token.
         //
@@ -144,8 +160,7 @@ public class CountryEndpoint extends BaseResourceEndpoint
         // instance of AccessTokenInfo class. If you want to get information
         // even in the case where validateAccessToken() throws an exception,
         // call AuthleteApi.introspect(IntrospectionRequest) directly.
-        Params params = buildParams(request, accessToken, dpop);
-        validateAccessToken(AuthleteApiFactory.getDefaultApi(), params);
+        validateAccessToken(AuthleteApiProvider.get(), params);
 
         // The access token presented by the client application is valid.
 
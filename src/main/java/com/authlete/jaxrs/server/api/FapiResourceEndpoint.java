@@ -31,17 +31,18 @@ import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
-import com.authlete.common.api.AuthleteApiFactory;
 import com.authlete.common.dto.IntrospectionRequest;
 import com.authlete.common.dto.IntrospectionResponse;
 import com.authlete.hms.SignatureInfo;
 import com.authlete.hms.fapi.FapiResourceResponseSigner;
-import com.authlete.jaxrs.BaseResourceEndpoint;
+import com.authlete.jaxrs.server.AuthleteApiProvider;
 import com.authlete.jaxrs.util.RequestUrlResolver;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -49,7 +50,7 @@ import com.google.gson.JsonObject;
 
 
 @Path("/api/fapi/{endpoint: .*}")
-public class FapiResourceEndpoint extends BaseResourceEndpoint
+public class FapiResourceEndpoint extends ResourceEndpoint
 {
 
     /**
@@ -63,7 +64,8 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
     private static Logger logger = Logger.getLogger(FapiResourceEndpoint.class.getName());
 
     @GET
-    public Response get(
+    public void get(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("x-fapi-financial-id") @DefaultValue("") String financialId,
             @HeaderParam("x-fapi-interaction-id") @DefaultValue("") String interactionId,
@@ -74,21 +76,29 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
         // Extract an access token from the Authorization header (note we don't pass in the query parameter)
         String token = extractAccessToken(authorization, null);
 
-        return process(request, token, financialId, interactionId, authDate, customerIpAddress);
+        // Everything needed from the request must be extracted before the
+        // processing goes asynchronous.
+        IntrospectionRequest ireq = createIntrospectionRequest(request, token);
+        String method = request.getMethod();
+        URI targetUri = resolveOriginalRequestUrl(request);
+
+        // Process the request, on another thread if the asynchronous
+        // execution mode is enabled.
+        AsyncRequestExecutor.execute(asyncResponse, () -> process(
+                ireq, method, targetUri, financialId, interactionId, authDate, customerIpAddress));
     }
 
 
     private Response process(
-            HttpServletRequest request,
-            String accessToken, String financialId, String incomingInteractionId,
+            IntrospectionRequest ireq, String method, URI targetUri,
+            String financialId, String incomingInteractionId,
             String authDate, String customerIpAddress)
     {
         // validateAccessToken() throws a WebApplicationException when the given
         // access token is invalid. The response contained in the exception
         // complies with RFC 6750, so you don't have to build the content of
         // WWW-Authenticate header in the error response by yourself.
-        IntrospectionRequest  ireq = createIntrospectionRequest(request, accessToken);
-        IntrospectionResponse ires = validateAccessToken(AuthleteApiFactory.getDefaultApi(), ireq);
+        IntrospectionResponse ires = validateAccessToken(AuthleteApiProvider.get(), ireq);
 
         // The access token presented by the client application is valid.
 
@@ -110,7 +120,7 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
             logCustomerIpAddress(customerIpAddress);
 
             // Build an HTTP response.
-            return buildResponse(request, ires, outgoingInteractionId);
+            return buildResponse(method, targetUri, ires, outgoingInteractionId);
         }
         catch (IllegalArgumentException | ParseException e)
         {
@@ -211,7 +221,7 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
 
 
     private Response buildResponse(
-            HttpServletRequest req, IntrospectionResponse ires, String outgoingInteractionId)
+            String method, URI targetUri, IntrospectionResponse ires, String outgoingInteractionId)
     {
         // The message body of the response.
         String body = GSON.toJson(new JsonObject());
@@ -234,7 +244,7 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
         {
             // Add HTTP fields required for HTTP message signing,
             // such as "Signature" and "Signature-Input".
-            processResponseSigning(rb, req, body);
+            processResponseSigning(rb, method, targetUri, body);
         }
 
         return rb.build();
@@ -242,7 +252,7 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
 
 
     private void processResponseSigning(
-            ResponseBuilder rb, HttpServletRequest req, String body)
+            ResponseBuilder rb, String method, URI targetUri, String body)
     {
         // The logic here complies with FAPI 2.0 Message Signing /
         // Resource Response Signing.
@@ -263,8 +273,8 @@ public class FapiResourceEndpoint extends BaseResourceEndpoint
 
         // Create a signer.
         FapiResourceResponseSigner signer = new FapiResourceResponseSigner()
-                .setMethod(req.getMethod())
-                .setTargetUri(resolveOriginalRequestUrl(req))
+                .setMethod(method)
+                .setTargetUri(targetUri)
                 .setStatus(200)
                 .setResponseContentDigest(contentDigest)
                 .setSigningKey(ResponseSigningKey.get())
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import javax.ws.rs.WebApplicationException;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.dto.IntrospectionRequest;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.jaxrs.AccessTokenInfo;
+import com.authlete.jaxrs.AccessTokenValidator.Params;
+import com.authlete.jaxrs.BaseResourceEndpoint;
+import com.authlete.jaxrs.server.introspection.InvalidTokenFilter;
+
+
+/**
+ * The base class of the protected resource endpoints of this resource server.
+ *
+ * <p>
+ * Before an access token is validated by {@link BaseResourceEndpoint},
+ * it is checked by {@link InvalidTokenFilter} so that malformed tokens and
+ * tokens known to be invalid are rejected without asking Authlete.
+ * </p>
+ */
+public abstract class ResourceEndpoint extends BaseResourceEndpoint
+{
+    @Override
+    public AccessTokenInfo validateAccessToken(
+            AuthleteApi api, Params params) throws WebApplicationException
+    {
+        // Reject the access token immediately if it is obviously invalid.
+        InvalidTokenFilter.getInstance().check(
+                params.getAccessToken(), params.getClientCertificate(), params.getDpop());
+
+        return super.validateAccessToken(api, params);
+    }
+
+
+    @Override
+    public IntrospectionResponse validateAccessToken(
+            AuthleteApi api, IntrospectionRequest request) throws WebApplicationException
+    {
+        // Reject the access token immediately if it is obviously invalid.
+        InvalidTokenFilter.getInstance().check(
+                request.getToken(), request.getClientCertificate(), request.getDpop());
+
+        return super.validateAccessToken(api, request);
+    }
+}
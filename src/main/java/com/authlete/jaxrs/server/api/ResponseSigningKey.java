@@ -32,21 +32,34 @@ import com.nimbusds.jose.util.IOUtils;
  * @see <a href="https://openid.bitbucket.io/fapi/fapi-2_0-message-signing.html"
  *      >FAPI 2.0 Message Signing</a>
  */
-class ResponseSigningKey
+public class ResponseSigningKey
 {
     private static final String KEY_FILE = "/response-signing.jwk";
-    private static JWK key;
+    private static volatile JWK key;
 
 
     public static JWK get()
     {
-        if (key == null)
+        JWK jwk = key;
+
+        if (jwk == null)
         {
             // Load the key.
-            key = loadKey();
+            jwk = loadKey();
+            key = jwk;
         }
 
-        return key;
+        return jwk;
+    }
+
+
+    /**
+     * Discard the loaded key so that the key file is read again when the
+     * key is used next time. Called when the signing keys are rotated.
+     */
+    public static void invalidate()
+    {
+        key = null;
     }
 
 
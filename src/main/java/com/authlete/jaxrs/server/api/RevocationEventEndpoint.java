@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.bus.InvalidationBus;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache;
+import com.authlete.jaxrs.server.introspection.RevokedTokenFilter;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+
+
+/**
+ * A webhook endpoint that receives token revocation and deletion events
+ * from the authorization server.
+ *
+ * <p>
+ * The request body is a JSON object or a JSON array of JSON objects with
+ * the following properties.
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Property</th><th>Description</th></tr>
+ *   <tr><td>{@code type}</td><td>{@code revoked} or {@code deleted} (optional)</td></tr>
+ *   <tr><td>{@code token}</td><td>The access token.</td></tr>
+ *   <tr><td>{@code token_hash}</td><td>The base64url-encoded SHA-256 hash of
+ *       the access token. Used when {@code token} is not given.</td></tr>
+ *   <tr><td>{@code exp}</td><td>The expiration time of the access token in
+ *       seconds since the Unix epoch (optional).</td></tr>
+ * </table>
+ * </blockquote>
+ *
+ * <p>
+ * The caller must present the secret configured by {@code
+ * resource.revocation_webhook.secret} as a Bearer token. If no secret is
+ * configured, the endpoint is disabled and returns {@code 404 Not Found}.
+ * The events are recorded in {@link RevokedTokenFilter} without blocking
+ * the requests to the resource endpoints, and published to the other nodes
+ * of the cluster by {@link InvalidationBus}.
+ * </p>
+ */
+@Path("/api/revocation-events")
+public class RevocationEventEndpoint
+{
+    // JSON processor
+    private static final Gson GSON = new Gson();
+
+
+    private static final byte[] SECRET = toBytes(
+            ServerConfig.getString("resource.revocation_webhook.secret", null));
+
+
+    /**
+     * A token revocation or deletion event.
+     */
+    private static class Event
+    {
+        String type;
+        String token;
+
+        @SerializedName("token_hash")
+        String tokenHash;
+
+        long exp;
+    }
+
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response post(
+            @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization, String body)
+    {
+        if (SECRET == null)
+        {
+            // The webhook is not configured.
+            return Response.status(Status.NOT_FOUND).build();
+        }
+
+        if (!isAuthenticated(authorization))
+        {
+            return Response.status(Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .build();
+        }
+
+        Event[] events = parse(body);
+
+        if (events == null)
+        {
+            return error("The request body is not a valid event or array of events.");
+        }
+
+        RevokedTokenFilter filter = RevokedTokenFilter.getInstance();
+        int accepted = 0;
+
+        for (Event event : events)
+        {
+            if (event != null && process(filter, event))
+            {
+                accepted++;
+            }
+        }
+
+        // Create a response with the status code "200 OK".
+        return Response.ok(GSON.toJson(Collections.singletonMap("accepted", accepted)),
+                MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+
+    private static boolean isAuthenticated(String authorization)
+    {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7))
+        {
+            return false;
+        }
+
+        // Compare in constant time.
+        return MessageDigest.isEqual(SECRET, toBytes(authorization.substring(7).trim()));
+    }
+
+
+    private static Event[] parse(String body)
+    {
+        if (body == null)
+        {
+            return null;
+        }
+
+        String json = body.trim();
+
+        try
+        {
+            if (json.startsWith("["))
+            {
+                // A batch of events.
+                return GSON.fromJson(json, Event[].class);
+            }
+
+            if (json.startsWith("{"))
+            {
+                // A single event.
+                return new Event[] { GSON.fromJson(json, Event.class) };
+            }
+        }
+        catch (JsonParseException e)
+        {
+            // Malformed JSON.
+        }
+
+        return null;
+    }
+
+
+    private static boolean process(RevokedTokenFilter filter, Event event)
+    {
+        if (event.type != null && !"revoked".equals(event.type) && !"deleted".equals(event.type))
+        {
+            // Not an event of interest.
+            return false;
+        }
+
+        String tokenHash = (event.token != null)
+                ? IntrospectionCache.hash(event.token) : event.tokenHash;
+
+        long expiresAt = event.exp * 1000L;
+
+        if (!filter.revoke(tokenHash, expiresAt))
+        {
+            return false;
+        }
+
+        // The event is delivered to only one of the nodes.
+        InvalidationBus.getInstance().publish(
+                InvalidationBus.TOKEN_REVOKED, tokenHash, String.valueOf(expiresAt));
+
+        return true;
+    }
+
+
+    private static Response error(String description)
+    {
+        String json = GSON.toJson(Collections.singletonMap("error_description", description));
+
+        return Response.status(Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(json)
+                .build();
+    }
+
+
+    private static byte[] toBytes(String value)
+    {
+        return (value != null && !value.isEmpty()) ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.db.UserDao;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * A cache of the claims assembled by {@link UserInfoRequestHandlerSpiImpl}.
+ *
+ * <p>
+ * An entry holds the values of the requested claims of a user, keyed by
+ * the requested claim names (e.g. {@code name#ja}). The names are sorted
+ * to make the key, so requests that ask for the same claims in the same
+ * languages share an entry. A hit saves the lookup of the user and the
+ * calls of the claim providers. The access token is still validated by
+ * Authlete for every request, because the cache is consulted only after
+ * {@code /auth/userinfo} has told the subject and the claims.
+ * </p>
+ *
+ * <p>
+ * Entries are grouped by subject, so that all the entries of a user are
+ * discarded at once when {@link UserDao#invalidate(String)} announces an
+ * update. A lookup that started before an invalidation of the same user
+ * does not put its result into the cache; updates of other users do not
+ * affect it. At most {@code max_claim_sets} entries are kept
+ * per user. When the number of users exceeds the limit, expired entries
+ * are purged first and then arbitrary users are evicted until the cache
+ * shrinks to 90% of the limit.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.userinfo.claims_cache.enabled}</td><td>{@code false}</td></tr>
+ *   <tr><td>{@code resource.userinfo.claims_cache.max_size}</td><td>{@code 100000} (users)</td></tr>
+ *   <tr><td>{@code resource.userinfo.claims_cache.max_claim_sets}</td><td>{@code 8}</td></tr>
+ *   <tr><td>{@code resource.userinfo.claims_cache.ttl}</td><td>{@code 30} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class UserInfoClaimsCache implements UserInfoClaimsCacheMXBean
+{
+    private static final UserInfoClaimsCache sInstance = new UserInfoClaimsCache(
+            ServerConfig.getBoolean("resource.userinfo.claims_cache.enabled", false),
+            ServerConfig.getInt("resource.userinfo.claims_cache.max_size", 100000),
+            ServerConfig.getInt("resource.userinfo.claims_cache.max_claim_sets", 8),
+            ServerConfig.getLong("resource.userinfo.claims_cache.ttl", 30) * 1000L);
+
+
+    static
+    {
+        MBeans.register("UserInfoClaimsCache", sInstance);
+    }
+
+
+    /**
+     * Assembled claims of a user.
+     */
+    private static final class Entry
+    {
+        final Map<String, Object> claims;
+        final long expiresAt;
+
+
+        Entry(Map<String, Object> claims, long expiresAt)
+        {
+            this.claims    = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+
+    private final boolean mEnabled;
+    private final int mMaxSize;
+    private final int mMaxClaimSets;
+    private final long mTtl;
+
+
+    /**
+     * The number of epochs, among which subjects are spread by hash.
+     */
+    private static final int EPOCHS = 1024;
+
+
+    /**
+     * Entries grouped by subject and keyed by the sorted claim names.
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Entry>> mUsers = new ConcurrentHashMap<>();
+    private final AtomicBoolean mEvicting = new AtomicBoolean();
+    private final Consumer<String> mListener = this::invalidate;
+
+
+    /**
+     * Epochs of users, one of which is incremented when a user is
+     * invalidated. See {@link #put(String, String, Map, long)}.
+     */
+    private final AtomicLongArray mEpochs = new AtomicLongArray(EPOCHS);
+    private final LongAdder mHits = new LongAdder();
+    private final LongAdder mMisses = new LongAdder();
+    private final LongAdder mInvalidations = new LongAdder();
+    private final LongAdder mEvictions = new LongAdder();
+
+
+    UserInfoClaimsCache(boolean enabled, int maxSize, int maxClaimSets, long ttl)
+    {
+        mEnabled      = enabled;
+        mMaxSize      = maxSize;
+        mMaxClaimSets = maxClaimSets;
+        mTtl          = ttl;
+
+        UserDao.addUpdateListener(mListener);
+    }
+
+
+    /**
+     * Get the cache shared by the userinfo endpoint.
+     */
+    public static UserInfoClaimsCache getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if this cache is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+
+    /**
+     * Make the key of a set of requested claims.
+     *
+     * @param claimNames
+     *         The requested claim names, which may have language tags.
+     *
+     * @return
+     *         The sorted claim names separated by spaces.
+     */
+    static String key(String[] claimNames)
+    {
+        if (claimNames == null || claimNames.length == 0)
+        {
+            return "";
+        }
+
+        String[] sorted = claimNames.clone();
+        Arrays.sort(sorted);
+
+        return String.join(" ", sorted);
+    }
+
+
+    /**
+     * Stop receiving the invalidations announced by {@link UserDao}. The
+     * cache shared by the userinfo endpoint is never closed.
+     */
+    void close()
+    {
+        UserDao.removeUpdateListener(mListener);
+    }
+
+
+    /**
+     * Get the current epoch of a user, which has to be passed to {@link
+     * #put(String, String, Map, long)} after the claims are assembled.
+     * Users share an epoch with about 1/1024 of the others, so an update
+     * rarely keeps the claims of another user from being cached.
+     */
+    long getEpoch(String subject)
+    {
+        return mEpochs.get(epochIndex(subject));
+    }
+
+
+    private static int epochIndex(String subject)
+    {
+        int hash = subject.hashCode();
+
+        return (hash ^ (hash >>> 16)) & (EPOCHS - 1);
+    }
+
+
+    /**
+     * Get the cached claims of a user.
+     *
+     * @return
+     *         The claims, or {@code null} if not cached or expired.
+     */
+    Map<String, Object> get(String subject, String key)
+    {
+        ConcurrentHashMap<String, Entry> entries = mUsers.get(subject);
+        Entry entry = (entries != null) ? entries.get(key) : null;
+
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis())
+        {
+            mMisses.increment();
+            return null;
+        }
+
+        mHits.increment();
+
+        return entry.claims;
+    }
+
+
+    /**
+     * Cache the claims of a user unless the user has been invalidated
+     * since {@code epoch}.
+     */
+    void put(String subject, String key, Map<String, Object> claims, long epoch)
+    {
+        int index = epochIndex(subject);
+
+        if (mEpochs.get(index) != epoch)
+        {
+            // The user may have been updated during the lookup.
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        ConcurrentHashMap<String, Entry> entries =
+                mUsers.computeIfAbsent(subject, s -> new ConcurrentHashMap<>());
+
+        if (mMaxClaimSets <= entries.size())
+        {
+            // The clients ask for too many combinations of claims.
+            entries.clear();
+        }
+
+        Entry entry = new Entry(claims, now + mTtl);
+        entries.put(key, entry);
+
+        if (mEpochs.get(index) != epoch)
+        {
+            // Invalidated after the check above. Take the entry back.
+            entries.remove(key, entry);
+        }
+
+        if (mMaxSize < mUsers.size())
+        {
+            evict(now);
+        }
+    }
+
+
+    /**
+     * Discard the cached claims of a user.
+     *
+     * @param subject
+     *         The subject of the updated user.
+     */
+    public void invalidate(String subject)
+    {
+        if (subject == null)
+        {
+            return;
+        }
+
+        mEpochs.incrementAndGet(epochIndex(subject));
+
+        if (mUsers.remove(subject) != null)
+        {
+            mInvalidations.increment();
+        }
+    }
+
+
+    private void evict(long now)
+    {
+        // Let only one thread evict entries.
+        if (!mEvicting.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            for (ConcurrentHashMap<String, Entry> entries : mUsers.values())
+            {
+                entries.values().removeIf(entry -> entry.expiresAt <= now);
+            }
+
+            mUsers.values().removeIf(Map::isEmpty);
+
+            int target = mMaxSize / 10 * 9;
+            Iterator<ConcurrentHashMap<String, Entry>> it = mUsers.values().iterator();
+
+            while (target < mUsers.size() && it.hasNext())
+            {
+                it.next();
+                it.remove();
+                mEvictions.increment();
+            }
+        }
+        finally
+        {
+            mEvicting.set(false);
+        }
+    }
+
+
+    @Override
+    public long getHits()
+    {
+        return mHits.sum();
+    }
+
+
+    @Override
+    public long getMisses()
+    {
+        return mMisses.sum();
+    }
+
+
+    @Override
+    public long getInvalidations()
+    {
+        return mInvalidations.sum();
+    }
+
+
+    @Override
+    public long getEvictions()
+    {
+        return mEvictions.sum();
+    }
+
+
+    @Override
+    public int getSize()
+    {
+        return mUsers.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < EPOCHS; i++)
+        {
+            mEpochs.incrementAndGet(i);
+        }
+
+        mUsers.clear();
+    }
+}
@@ -17,19 +17,26 @@
 package com.authlete.jaxrs.server.api;
 
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import com.authlete.common.api.AuthleteApiFactory;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.dto.UserInfoResponse;
 import com.authlete.jaxrs.BaseUserInfoEndpoint;
 import com.authlete.jaxrs.UserInfoRequestHandler.Params;
+import com.authlete.jaxrs.server.AuthleteApiProvider;
+import com.authlete.jaxrs.server.introspection.InvalidTokenFilter;
 import com.authlete.jaxrs.util.JaxRsUtils;
 
 
@@ -53,7 +60,8 @@ public class UserInfoEndpoint extends BaseUserInfoEndpoint
      *      >OpenID Connect Core 1.0, 5.3.1. UserInfo Request</a>
      */
     @GET
-    public Response get(
+    public void get(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("DPoP") String dpop,
             @QueryParam("access_token") String accessToken,
@@ -64,7 +72,7 @@ public class UserInfoEndpoint extends BaseUserInfoEndpoint
         accessToken = extractAccessToken(authorization, accessToken);
 
         // Handle the userinfo request.
-        return handle(request, accessToken, dpop);
+        handle(asyncResponse, request, accessToken, dpop);
     }
 
 
@@ -75,7 +83,8 @@ public class UserInfoEndpoint extends BaseUserInfoEndpoint
      *      >OpenID Connect Core 1.0, 5.3.1. UserInfo Request</a>
      */
     @POST
-    public Response post(
+    public void post(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("DPoP") String dpop,
             @Context HttpServletRequest request, String body)
@@ -101,7 +110,7 @@ public class UserInfoEndpoint extends BaseUserInfoEndpoint
         accessToken = extractAccessToken(authorization, accessToken);
 
         // Handle the userinfo request.
-        return handle(request, accessToken, dpop);
+        handle(asyncResponse, request, accessToken, dpop);
     }
 
 
@@ -122,12 +131,68 @@ public class UserInfoEndpoint extends BaseUserInfoEndpoint
     /**
      * Handle the userinfo request.
      */
-    private Response handle(HttpServletRequest request, String accessToken, String dpop)
+    private void handle(
+            AsyncResponse asyncResponse, HttpServletRequest request,
+            String accessToken, String dpop)
     {
         Params params = buildParams(request, accessToken, dpop);
 
-        return handle(AuthleteApiFactory.getDefaultApi(),
-                new UserInfoRequestHandlerSpiImpl(), params);
+        // Reject the access token immediately if it is obviously invalid.
+        InvalidTokenFilter.getInstance().check(
+                accessToken, params.getClientCertificate(), dpop);
+
+        // Call Authlete's APIs, on another thread if the asynchronous
+        // execution mode is enabled.
+        AsyncRequestExecutor.execute(asyncResponse, () -> process(params));
+    }
+
+
+    private Response process(Params params)
+    {
+        UserInfoRequestHandlerSpiImpl spi = new UserInfoRequestHandlerSpiImpl();
+        AuthleteApi api = captureClaimsRequest(AuthleteApiProvider.get(), spi);
+        UserInfoFastPath fastPath = UserInfoFastPath.getInstance();
+
+        if (fastPath.isEnabled())
+        {
+            // Build plain JSON responses locally when possible.
+            return fastPath.handle(this, api, spi, params);
+        }
+
+        return handle(api, spi, params);
+    }
+
+
+    /**
+     * Wrap an {@link AuthleteApi} so that the {@code userinfo} claims
+     * request in the response from {@code /auth/userinfo} is passed to
+     * the SPI.
+     */
+    private static AuthleteApi captureClaimsRequest(
+            AuthleteApi api, UserInfoRequestHandlerSpiImpl spi)
+    {
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                (proxy, method, args) -> {
+                    Object result;
+
+                    try
+                    {
+                        result = method.invoke(api, args);
+                    }
+                    catch (InvocationTargetException e)
+                    {
+                        throw e.getCause();
+                    }
+
+                    if (result instanceof UserInfoResponse)
+                    {
+                        spi.setUserInfoClaims(((UserInfoResponse)result).getUserInfoClaims());
+                    }
+
+                    return result;
+                });
     }
 
 
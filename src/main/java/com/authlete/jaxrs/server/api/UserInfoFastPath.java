@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.common.dto.Client;
+import com.authlete.common.dto.UserInfoRequest;
+import com.authlete.common.dto.UserInfoResponse;
+import com.authlete.common.types.SubjectType;
+import com.authlete.common.util.Utils;
+import com.authlete.jaxrs.BaseUserInfoEndpoint;
+import com.authlete.jaxrs.UserInfoRequestHandler.Params;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+import com.authlete.jaxrs.spi.UserInfoRequestHandlerSpi;
+
+
+/**
+ * A fast path of the userinfo endpoint that builds plain JSON responses
+ * locally instead of calling Authlete's {@code /auth/userinfo/issue} API.
+ *
+ * <p>
+ * The access token is always validated by Authlete's {@code /auth/userinfo}
+ * API, which also tells the subject and the names of the claims to return.
+ * If the client requires neither signed nor encrypted userinfo responses,
+ * does not use pairwise subject identifiers, and no verified or transformed
+ * claims are requested, the claims are collected from {@link
+ * UserInfoRequestHandlerSpi} and the response is built here, which saves
+ * one round trip to Authlete. Otherwise, the request is handed over to the
+ * full flow of {@link BaseUserInfoEndpoint} together with the result of
+ * {@code /auth/userinfo} (or the exception it threw), so that the API is
+ * not called twice.
+ * </p>
+ *
+ * <p>
+ * Whether a client can use the fast path is decided from its metadata,
+ * which is fetched once and remembered for {@code
+ * resource.userinfo.fast_path.client_cache_ttl} seconds. A client whose
+ * metadata is changed to require signed or encrypted userinfo responses,
+ * or pairwise subject identifiers, may receive plain responses for that
+ * long. Call {@code clearClientCache} of the {@code UserInfoFastPath}
+ * MBean after such a change to apply it at once.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.userinfo.fast_path.enabled}</td><td>{@code false}</td></tr>
+ *   <tr><td>{@code resource.userinfo.fast_path.client_cache_ttl}</td><td>{@code 30} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class UserInfoFastPath implements UserInfoFastPathMXBean
+{
+    private static final UserInfoFastPath sInstance = new UserInfoFastPath(
+            ServerConfig.getBoolean("resource.userinfo.fast_path.enabled", false),
+            ServerConfig.getLong("resource.userinfo.fast_path.client_cache_ttl", 30) * 1000L);
+
+
+    static
+    {
+        MBeans.register("UserInfoFastPath", sInstance);
+    }
+
+
+    /**
+     * Whether a client can use the fast path.
+     */
+    private static final class ClientDecision
+    {
+        final boolean eligible;
+        final long expiresAt;
+
+
+        ClientDecision(boolean eligible, long expiresAt)
+        {
+            this.eligible  = eligible;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+
+    private final boolean mEnabled;
+    private final long mClientCacheTtl;
+    private final ConcurrentHashMap<Long, ClientDecision> mClients = new ConcurrentHashMap<>();
+    private final LongAdder mLocalResponses = new LongAdder();
+    private final LongAdder mDelegated = new LongAdder();
+    private final LongAdder mClientLookups = new LongAdder();
+
+
+    UserInfoFastPath(boolean enabled, long clientCacheTtl)
+    {
+        mEnabled        = enabled;
+        mClientCacheTtl = clientCacheTtl;
+    }
+
+
+    /**
+     * Get the fast path shared by the userinfo endpoint.
+     */
+    public static UserInfoFastPath getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if the fast path is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+
+    /**
+     * Handle a userinfo request.
+     *
+     * @param endpoint
+     *         The userinfo endpoint, which runs the full flow.
+     *
+     * @param api
+     *         An {@link AuthleteApi} instance.
+     *
+     * @param spi
+     *         The SPI that provides claims of users.
+     *
+     * @param params
+     *         The parameters of the userinfo request.
+     *
+     * @return
+     *         The userinfo response.
+     */
+    Response handle(
+            UserInfoEndpoint endpoint, AuthleteApi api, UserInfoRequestHandlerSpi spi, Params params)
+    {
+        UserInfoResponse response;
+
+        try
+        {
+            // Validate the access token.
+            response = api.userinfo(new UserInfoRequest()
+                    .setToken(params.getAccessToken())
+                    .setClientCertificate(params.getClientCertificate())
+                    .setDpop(params.getDpop())
+                    .setHtm(params.getHtm())
+                    .setHtu(params.getHtu()));
+        }
+        catch (AuthleteApiException e)
+        {
+            // Let the full flow report the error in its own way without
+            // calling the API again.
+            mDelegated.increment();
+            return endpoint.handle(replay(api, null, e), spi, params);
+        }
+
+        if (response.getAction() != UserInfoResponse.Action.OK || !isEligible(api, response))
+        {
+            // Errors, signed or encrypted responses and verified claims.
+            mDelegated.increment();
+            return endpoint.handle(replay(api, response, null), spi, params);
+        }
+
+        mLocalResponses.increment();
+
+        return buildResponse(response, collectClaims(spi, response));
+    }
+
+
+    private boolean isEligible(AuthleteApi api, UserInfoResponse response)
+    {
+        String userInfoClaims = response.getUserInfoClaims();
+
+        if (userInfoClaims != null &&
+                (userInfoClaims.contains("verified_claims") || userInfoClaims.contains("transformed_claims")))
+        {
+            // Identity assurance is processed by Authlete.
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+        ClientDecision decision = mClients.get(response.getClientId());
+
+        if (decision == null || decision.expiresAt <= now)
+        {
+            Client client;
+
+            try
+            {
+                mClientLookups.increment();
+                client = api.getClient(response.getClientId());
+            }
+            catch (AuthleteApiException e)
+            {
+                // Use the full flow until the client can be looked up.
+                return false;
+            }
+
+            decision = new ClientDecision(isEligible(client), now + mClientCacheTtl);
+            mClients.put(response.getClientId(), decision);
+        }
+
+        return decision.eligible;
+    }
+
+
+    private static boolean isEligible(Client client)
+    {
+        // The "sub" claim of a pairwise client is computed by Authlete.
+        return client != null
+            && client.getUserInfoSignAlg() == null
+            && client.getUserInfoEncryptionAlg() == null
+            && client.getSubjectType() != SubjectType.PAIRWISE;
+    }
+
+
+    private static Map<String, Object> collectClaims(UserInfoRequestHandlerSpi spi, UserInfoResponse response)
+    {
+        Map<String, Object> claims = new LinkedHashMap<>();
+
+        // The "sub" claim is always included.
+        claims.put("sub", response.getSubject());
+
+        String[] claimNames = response.getClaims();
+
+        if (claimNames == null || claimNames.length == 0)
+        {
+            return claims;
+        }
+
+        spi.prepareUserClaims(response.getSubject(), claimNames);
+
+        String[] consented = response.getConsentedClaims();
+        Set<String> consentedClaims = (consented != null) ? new HashSet<>(Arrays.asList(consented)) : null;
+
+        for (String claimName : claimNames)
+        {
+            // A claim name may have a language tag, e.g. "name#ja".
+            int sharp          = claimName.indexOf('#');
+            String baseName    = (sharp < 0) ? claimName : claimName.substring(0, sharp);
+            String languageTag = (sharp < 0) ? null : claimName.substring(sharp + 1);
+
+            if (baseName.isEmpty() || (consentedClaims != null && !consentedClaims.contains(baseName)))
+            {
+                continue;
+            }
+
+            Object value = spi.getUserClaim(baseName, languageTag);
+
+            if (value != null)
+            {
+                claims.put(claimName, value);
+            }
+        }
+
+        return claims;
+    }
+
+
+    private static Response buildResponse(UserInfoResponse response, Map<String, Object> claims)
+    {
+        // Serialize the claims in the same way as the full flow does for
+        // Authlete's /auth/userinfo/issue API.
+        Response.ResponseBuilder rb = Response.ok(Utils.toJson(claims), MediaType.APPLICATION_JSON_TYPE)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header("Pragma", "no-cache");
+
+        if (response.getDpopNonce() != null)
+        {
+            rb.header("DPoP-Nonce", response.getDpopNonce());
+        }
+
+        return rb.build();
+    }
+
+
+    /**
+     * Wrap an {@link AuthleteApi} so that its {@code userinfo} method
+     * returns the given response, or throws the given exception, instead
+     * of calling Authlete again.
+     */
+    private static AuthleteApi replay(
+            AuthleteApi api, UserInfoResponse response, AuthleteApiException failure)
+    {
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                (proxy, method, args) -> {
+                    if ("userinfo".equals(method.getName()))
+                    {
+                        if (failure != null)
+                        {
+                            throw failure;
+                        }
+
+                        return response;
+                    }
+
+                    return invoke(api, method, args);
+                });
+    }
+
+
+    private static Object invoke(AuthleteApi api, Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(api, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    @Override
+    public long getLocalResponses()
+    {
+        return mLocalResponses.sum();
+    }
+
+
+    @Override
+    public long getDelegated()
+    {
+        return mDelegated.sum();
+    }
+
+
+    @Override
+    public long getClientLookups()
+    {
+        return mClientLookups.sum();
+    }
+
+
+    @Override
+    public void clearClientCache()
+    {
+        mClients.clear();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+/**
+ * JMX view of {@link UserInfoFastPath}.
+ */
+public interface UserInfoFastPathMXBean
+{
+    /**
+     * The number of userinfo responses built locally.
+     */
+    long getLocalResponses();
+
+
+    /**
+     * The number of userinfo requests handed over to the full flow (signed
+     * or encrypted responses, pairwise subjects, verified claims and
+     * errors).
+     */
+    long getDelegated();
+
+
+    /**
+     * The number of client metadata lookups made to decide whether the
+     * fast path can be used for a client.
+     */
+    long getClientLookups();
+
+
+    /**
+     * Forget the cached decisions for clients, e.g. after client metadata
+     * has been changed.
+     */
+    void clearClientCache();
+}
@@ -17,12 +17,21 @@
 package com.authlete.jaxrs.server.api;
 
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import com.authlete.common.assurance.VerifiedClaims;
 import com.authlete.common.assurance.constraint.VerifiedClaimsConstraint;
-import com.authlete.common.types.User;
+import com.authlete.jaxrs.server.claims.ClaimProviders;
+import com.authlete.jaxrs.server.claims.PendingClaims;
+import com.authlete.jaxrs.server.db.Claim;
+import com.authlete.jaxrs.server.db.ClaimSet;
+import com.authlete.jaxrs.server.db.LanguageTag;
+import com.authlete.jaxrs.server.db.UserClaims;
 import com.authlete.jaxrs.server.db.UserDao;
 import com.authlete.jaxrs.server.db.VerifiedClaimsDao;
+import com.authlete.jaxrs.server.db.VerifiedClaimsMatchers;
 import com.authlete.jaxrs.spi.UserInfoRequestHandlerSpiAdapter;
 
 
@@ -36,19 +45,150 @@ import com.authlete.jaxrs.spi.UserInfoRequestHandlerSpiAdapter;
  */
 public class UserInfoRequestHandlerSpiImpl extends UserInfoRequestHandlerSpiAdapter
 {
-    private User mUser;
+    private final UserInfoClaimsCache mCache;
+    private UserClaims mUser;
+    private Map<String, Object> mProvidedClaims = Collections.emptyMap();
+    private String mUserInfoClaims;
+
+
+    // The claims served from UserInfoClaimsCache, keyed by the requested
+    // claim names (e.g. "name#ja").
+    private Map<String, Object> mCachedClaims;
+
+
+    // The last language tag and its normalized form. A request usually
+    // asks for claims in one language.
+    private String mLanguageTag;
+    private LanguageTag mNormalizedLanguageTag;
+
+
+    public UserInfoRequestHandlerSpiImpl()
+    {
+        this(UserInfoClaimsCache.getInstance());
+    }
+
+
+    UserInfoRequestHandlerSpiImpl(UserInfoClaimsCache cache)
+    {
+        mCache = cache;
+    }
+
+
+    /**
+     * Set the {@code userinfo} claims request reported by Authlete's
+     * {@code /auth/userinfo} API, from which the {@code verified_claims}
+     * request is compiled.
+     */
+    void setUserInfoClaims(String userInfoClaims)
+    {
+        mUserInfoClaims = userInfoClaims;
+    }
 
 
     @Override
     public void prepareUserClaims(String subject, String[] claimNames)
     {
-        // Look up a user who has the subject.
-        mUser = UserDao.getBySubject(subject);
+        if (!mCache.isEnabled())
+        {
+            loadUserClaims(subject, claimNames);
+            return;
+        }
+
+        // The access token has been validated by /auth/userinfo already.
+        // The cache saves only the lookup of the user and the claims.
+        String key = UserInfoClaimsCache.key(claimNames);
+        mCachedClaims = mCache.get(subject, key);
+
+        if (mCachedClaims != null)
+        {
+            return;
+        }
+
+        long epoch = mCache.getEpoch(subject);
+
+        loadUserClaims(subject, claimNames);
+
+        if (mUser == null)
+        {
+            // Unknown users are not cached.
+            return;
+        }
+
+        mCachedClaims = renderUserClaims(claimNames);
+        mCache.put(subject, key, mCachedClaims, epoch);
+    }
+
+
+    private void loadUserClaims(String subject, String[] claimNames)
+    {
+        // Start fetching claims from the claim providers, which run while
+        // the user database is read.
+        PendingClaims pending = ClaimProviders.getInstance().start(subject, claimNames);
+
+        try
+        {
+            // Look up the requested claims of a user who has the subject.
+            // The claim names are resolved to claim IDs here only once.
+            mUser = UserDao.getBySubject(subject, ClaimSet.of(claimNames));
+        }
+        catch (RuntimeException e)
+        {
+            pending.cancel();
+            throw e;
+        }
+
+        if (mUser == null)
+        {
+            // The claims of an unknown user are not needed.
+            pending.cancel();
+            return;
+        }
+
+        mProvidedClaims = pending.await();
+    }
+
+
+    private Map<String, Object> renderUserClaims(String[] claimNames)
+    {
+        Map<String, Object> claims = new HashMap<>();
+
+        if (claimNames == null)
+        {
+            return claims;
+        }
+
+        for (String claimName : claimNames)
+        {
+            // A claim name may have a language tag (e.g. "name#ja").
+            int hash = claimName.indexOf('#');
+
+            Object value = (hash < 0)
+                    ? getLoadedUserClaim(claimName, null)
+                    : getLoadedUserClaim(claimName.substring(0, hash), claimName.substring(hash + 1));
+
+            if (value != null)
+            {
+                claims.put(claimName, value);
+            }
+        }
+
+        return claims;
     }
 
 
     @Override
     public Object getUserClaim(String claimName, String languageTag)
+    {
+        if (mCachedClaims != null)
+        {
+            return mCachedClaims.get((languageTag == null) ? claimName : claimName + "#" + languageTag);
+        }
+
+        return getLoadedUserClaim(claimName, languageTag);
+    }
+
+
+    private Object getLoadedUserClaim(String claimName, String languageTag)
     {
         // If looking up a user has failed in prepareUserClaims().
         if (mUser == null)
@@ -57,14 +197,46 @@ public class UserInfoRequestHandlerSpiImpl extends UserInfoRequestHandlerSpiAdap
             return null;
         }
 
-        // Get the value of the claim.
-        return mUser.getClaim(claimName, languageTag);
+        Claim claim = Claim.of(claimName);
+
+        // Get the value of the claim, in the language if a language tag
+        // is given (e.g. "name#ja").
+        Object value = (claim != null) ? getUserClaim(claim, languageTag) : null;
+
+        if (value != null)
+        {
+            // The user database takes precedence over the claim providers.
+            return value;
+        }
+
+        return mProvidedClaims.get((languageTag == null) ? claimName : claimName + "#" + languageTag);
+    }
+
+
+    private Object getUserClaim(Claim claim, String languageTag)
+    {
+        if (languageTag == null)
+        {
+            return mUser.get(claim);
+        }
+
+        if (!languageTag.equals(mLanguageTag))
+        {
+            mLanguageTag           = languageTag;
+            mNormalizedLanguageTag = LanguageTag.of(languageTag);
+        }
+
+        // A language tag that is not well-formed matches no value.
+        return (mNormalizedLanguageTag != null) ? mUser.get(claim, mNormalizedLanguageTag) : null;
     }
 
 
     @Override
     public List<VerifiedClaims> getVerifiedClaims(String subject, VerifiedClaimsConstraint constraint)
     {
-        return VerifiedClaimsDao.get(subject, constraint);
+        // The constraint is built by the library from the verified_claims
+        // request, which is evaluated locally by a compiled matcher.
+        return VerifiedClaimsDao.get(subject,
+                VerifiedClaimsMatchers.getInstance().get(mUserInfoClaims));
     }
 }
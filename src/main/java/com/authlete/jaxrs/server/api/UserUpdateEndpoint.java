@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.db.UserUpdateFeed;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * An internal endpoint that receives incremental updates of users and
+ * passes them to {@link UserUpdateFeed}.
+ *
+ * <p>
+ * The request body is a JSON object or a JSON array of JSON objects in the
+ * format described in {@link UserUpdateFeed}. The caller must present the
+ * secret configured by {@code resource.user_feed.secret} as a Bearer token.
+ * If no secret is configured or the feed is disabled, the endpoint returns
+ * {@code 404 Not Found}. Updates are applied asynchronously; the response
+ * tells how many of them have been accepted.
+ * </p>
+ *
+ * <p>
+ * Updates posted to this endpoint are applied only on the node that
+ * receives them; they are not forwarded to other nodes. In a cluster, either
+ * let every node tail a shared {@code resource.user_feed.file} or post each
+ * update to every node.
+ * </p>
+ */
+@Path("/api/admin/user-updates")
+public class UserUpdateEndpoint
+{
+    // JSON processor
+    private static final Gson GSON = new Gson();
+
+
+    private static final byte[] SECRET = toBytes(
+            ServerConfig.getString("resource.user_feed.secret", null));
+
+
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response post(
+            @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization, String body)
+    {
+        UserUpdateFeed feed = UserUpdateFeed.getInstance();
+
+        if (SECRET == null || !feed.isEnabled())
+        {
+            // The endpoint is not configured.
+            return Response.status(Status.NOT_FOUND).build();
+        }
+
+        if (!isAuthenticated(authorization))
+        {
+            return Response.status(Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .build();
+        }
+
+        Map<?, ?>[] updates = parse(body);
+
+        if (updates == null)
+        {
+            return error("The request body is not a valid update or array of updates.");
+        }
+
+        int accepted = 0;
+
+        for (Map<?, ?> update : updates)
+        {
+            if (feed.submit(update))
+            {
+                accepted++;
+            }
+        }
+
+        // Create a response with the status code "200 OK".
+        return Response.ok(GSON.toJson(Collections.singletonMap("accepted", accepted)),
+                MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+
+    private static boolean isAuthenticated(String authorization)
+    {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7))
+        {
+            return false;
+        }
+
+        // Compare in constant time.
+        return MessageDigest.isEqual(SECRET, toBytes(authorization.substring(7).trim()));
+    }
+
+
+    private static Map<?, ?>[] parse(String body)
+    {
+        if (body == null)
+        {
+            return null;
+        }
+
+        String json = body.trim();
+
+        try
+        {
+            if (json.startsWith("["))
+            {
+                // A batch of updates.
+                return GSON.fromJson(json, Map[].class);
+            }
+
+            if (json.startsWith("{"))
+            {
+                // A single update.
+                return new Map<?, ?>[] { GSON.fromJson(json, Map.class) };
+            }
+        }
+        catch (JsonParseException e)
+        {
+            // Malformed JSON.
+        }
+
+        return null;
+    }
+
+
+    private static Response error(String description)
+    {
+        String json = GSON.toJson(Collections.singletonMap("error_description", description));
+
+        return Response.status(Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(json)
+                .build();
+    }
+
+
+    private static byte[] toBytes(String value)
+    {
+        return (value != null && !value.isEmpty()) ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
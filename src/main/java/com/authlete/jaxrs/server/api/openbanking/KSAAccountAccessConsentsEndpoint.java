@@ -17,11 +17,12 @@
 package com.authlete.jaxrs.server.api.openbanking;
 
 
-import com.authlete.common.api.AuthleteApiFactory;
 import com.authlete.common.util.Utils;
 import com.authlete.jaxrs.AccessTokenInfo;
 import com.authlete.jaxrs.AccessTokenValidator.Params;
-import com.authlete.jaxrs.BaseResourceEndpoint;
+import com.authlete.jaxrs.server.AuthleteApiProvider;
+import com.authlete.jaxrs.server.api.AsyncRequestExecutor;
+import com.authlete.jaxrs.server.api.ResourceEndpoint;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.Consumes;
@@ -29,6 +30,8 @@ import javax.ws.rs.DefaultValue;
 import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
@@ -44,17 +47,31 @@ import java.util.UUID;
  * which is defined in the specification of KSA / SAMA Open Banking.
  */
 @Path("/api/open-banking/v1.1/account-access-consents")
-public class KSAAccountAccessConsentsEndpoint extends BaseResourceEndpoint
+public class KSAAccountAccessConsentsEndpoint extends ResourceEndpoint
 {
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response post(
+    public void post(
+            @Suspended AsyncResponse asyncResponse,
             @HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
             @HeaderParam("x-fapi-interaction-id") @DefaultValue("") String incomingInteractionId,
             @Context HttpServletRequest request)
+    {
+        // Extract the access token and the client certificate before the
+        // processing goes asynchronous.
+        Params params = buildParams(authorization, request);
+
+        // Process the request, on another thread if the asynchronous
+        // execution mode is enabled.
+        AsyncRequestExecutor.execute(asyncResponse,
+                () -> process(params, incomingInteractionId));
+    }
+
+
+    private Response process(Params params, String incomingInteractionId)
     {
         // Process the access token.
-        AccessTokenInfo atInfo = processAccessToken(authorization, request);
+        AccessTokenInfo atInfo = processAccessToken(params);
 
         // Prepare the content of the response.
         Map<String, Object> content = buildContent(atInfo);
@@ -67,7 +84,7 @@ public class KSAAccountAccessConsentsEndpoint extends BaseResourceEndpoint
     }
 
 
-    private AccessTokenInfo processAccessToken(String authorization, HttpServletRequest request)
+    private Params buildParams(String authorization, HttpServletRequest request)
     {
         // Extract an access token from the Authorization header.
         String accessToken = extractAccessToken(authorization, null);
@@ -83,10 +100,20 @@ public class KSAAccountAccessConsentsEndpoint extends BaseResourceEndpoint
         }
 
         // Parameters for access token validation.
-        Params params = new Params().setAccessToken(accessToken).setClientCertificate(certificate);
+        return new Params().setAccessToken(accessToken).setClientCertificate(certificate);
+    }
+
+
+    private AccessTokenInfo processAccessToken(Params params)
+    {
+        // If the request does not contain an access token.
+        if (params == null)
+        {
+            return null;
+        }
 
         // Validate the access token.
-        return validateAccessToken(AuthleteApiFactory.getDefaultApi(), params);
+        return validateAccessToken(AuthleteApiProvider.get(), params);
     }
 
 
@@ -37,20 +37,33 @@ import com.nimbusds.jose.util.IOUtils;
 public class RscJwksEndpoint
 {
     private static final String JWKSET_FILE = "/resource.jwkset.json";
-    private static String jwkset;
+    private static volatile String jwkset;
 
 
     @GET
     public Response get()
     {
-        if (jwkset == null)
+        String document = jwkset;
+
+        if (document == null)
         {
             // Load the JWK Set document.
-            jwkset = loadJwkset();
+            document = loadJwkset();
+            jwkset   = document;
         }
 
         // Create a response with the status code "200 OK".
-        return Response.ok(jwkset, "application/jwk-set+json").build();
+        return Response.ok(document, "application/jwk-set+json").build();
+    }
+
+
+    /**
+     * Discard the loaded JWK Set document so that it is read again when it
+     * is requested next time. Called when the signing keys are rotated.
+     */
+    public static void invalidate()
+    {
+        jwkset = null;
     }
 
 
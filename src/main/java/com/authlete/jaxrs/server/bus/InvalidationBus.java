@@ -0,0 +1,821 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * A bus that broadcasts invalidations of per-node caches to the other
+ * nodes of a cluster.
+ *
+ * <p>
+ * Each node caches introspection results, revoked tokens, user data and
+ * keys independently. When one node learns that an entry is no longer
+ * valid (e.g. a revocation event is delivered to it by the load balancer),
+ * it publishes a message, and the other nodes pass the message to the
+ * handlers subscribed for its type. The following types are defined.
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Type</th><th>Arguments</th></tr>
+ *   <tr><td>{@link #TOKEN_REVOKED}</td><td>token hash, expiration time in milliseconds</td></tr>
+ *   <tr><td>{@link #USER_UPDATED}</td><td>subject</td></tr>
+ *   <tr><td>{@link #SIGNING_KEY_ROTATED}</td><td>(none)</td></tr>
+ * </table>
+ * </blockquote>
+ *
+ * <p>
+ * Messages are queued and sent in batches every {@code
+ * resource.invalidation_bus.batch_interval} milliseconds, so that a burst
+ * of revocations costs a few datagrams. A batch is sent {@code
+ * resource.invalidation_bus.repeat} times in successive intervals because
+ * the transport may lose it. Every message carries the identifier of the
+ * publishing node and a sequence number, and a receiver applies a message
+ * only once, so repeated and duplicated deliveries are harmless. Handlers
+ * must be idempotent anyway, because a message that has been forgotten
+ * after {@code resource.invalidation_bus.dedup_window} seconds may be
+ * applied again.
+ * </p>
+ *
+ * <p>
+ * Batches are authenticated with HMAC-SHA256 using {@code
+ * resource.invalidation_bus.secret}, and batches without a valid MAC are
+ * ignored. The secret is required by the {@code multicast} transport:
+ * without it, any host that can reach the multicast group could revoke
+ * arbitrary tokens or flush the caches of every node, so the bus stays
+ * disabled. Only the in-process {@code loopback} transport works without
+ * a secret.
+ * </p>
+ *
+ * <p>
+ * The authenticated header of a batch carries the time when it was first
+ * sent, and batches whose time differs from the receiver's clock by more
+ * than {@code resource.invalidation_bus.max_skew} seconds are ignored, so
+ * that a recorded batch cannot be replayed after its messages have been
+ * forgotten. Messages are remembered for at least twice the skew, which
+ * covers the whole period in which a replayed batch would be accepted.
+ * The clocks of the nodes must be synchronized within the skew.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.invalidation_bus.transport}</td><td>{@code none} ({@code none},
+ *       {@code loopback} or {@code multicast})</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.multicast.group}</td><td>{@code 239.255.77.77}</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.multicast.port}</td><td>{@code 45700}</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.multicast.ttl}</td><td>{@code 1}</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.batch_interval}</td><td>{@code 100} (milliseconds)</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.max_batch_size}</td><td>{@code 1400} (bytes)</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.repeat}</td><td>{@code 2}</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.dedup_window}</td><td>{@code 600} (seconds)</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.max_skew}</td><td>{@code 30} (seconds)</td></tr>
+ *   <tr><td>{@code resource.invalidation_bus.secret}</td><td>(none; required by {@code multicast})</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class InvalidationBus implements InvalidationBusMXBean
+{
+    /**
+     * An access token has been revoked.
+     */
+    public static final String TOKEN_REVOKED = "TOKEN_REVOKED";
+
+
+    /**
+     * The data of a user has been updated.
+     */
+    public static final String USER_UPDATED = "USER_UPDATED";
+
+
+    /**
+     * The signing keys have been rotated.
+     */
+    public static final String SIGNING_KEY_ROTATED = "SIGNING_KEY_ROTATED";
+
+
+    /**
+     * The first token of the header line of a batch.
+     */
+    private static final String MAGIC = "IB1";
+
+
+    /**
+     * The maximum number of messages waiting to be sent.
+     */
+    private static final int MAX_PENDING = 100000;
+
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+
+    private static final InvalidationBus sInstance = new InvalidationBus(
+            createTransport(),
+            ServerConfig.getLong("resource.invalidation_bus.batch_interval", 100),
+            ServerConfig.getInt("resource.invalidation_bus.max_batch_size", 1400),
+            ServerConfig.getInt("resource.invalidation_bus.repeat", 2),
+            ServerConfig.getLong("resource.invalidation_bus.dedup_window", 600) * 1000L,
+            ServerConfig.getLong("resource.invalidation_bus.max_skew", 30) * 1000L,
+            ServerConfig.getString("resource.invalidation_bus.secret", null));
+
+
+    static
+    {
+        MBeans.register("InvalidationBus", sInstance);
+    }
+
+
+    /**
+     * A batch that has to be sent again.
+     */
+    private static class Retransmission
+    {
+        final byte[] batch;
+        int remaining;
+
+
+        Retransmission(byte[] batch, int remaining)
+        {
+            this.batch     = batch;
+            this.remaining = remaining;
+        }
+    }
+
+
+    private final String mNodeId = UUID.randomUUID().toString();
+    private final InvalidationTransport mTransport;
+    private final long mBatchInterval;
+    private final int mMaxBatchSize;
+    private final int mRepeat;
+    private final long mDedupWindow;
+    private final long mMaxSkew;
+    private final SecretKeySpec mSecret;
+    private final AtomicLong mSequence = new AtomicLong();
+    private final AtomicBoolean mStarted = new AtomicBoolean();
+    private final ConcurrentHashMap<String, List<Consumer<String[]>>> mHandlers = new ConcurrentHashMap<>();
+
+
+    /**
+     * Encoded messages waiting to be sent.
+     */
+    private final Queue<String> mPending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mPendingCount = new AtomicInteger();
+
+
+    /**
+     * Batches to send again. Accessed only by the flusher thread.
+     */
+    private final List<Retransmission> mRetransmissions = new ArrayList<>();
+
+
+    /**
+     * Identifiers of received messages mapped to the time when they are
+     * forgotten.
+     */
+    private final ConcurrentHashMap<String, Long> mSeen = new ConcurrentHashMap<>();
+    private volatile long mLastPurge;
+
+
+    private volatile ScheduledExecutorService mFlusher;
+    private final LongAdder mPublished = new LongAdder();
+    private final LongAdder mDropped = new LongAdder();
+    private final LongAdder mBatchesSent = new LongAdder();
+    private final LongAdder mSendFailures = new LongAdder();
+    private final LongAdder mReceived = new LongAdder();
+    private final LongAdder mDuplicates = new LongAdder();
+    private final LongAdder mRejectedBatches = new LongAdder();
+
+
+    InvalidationBus(
+            InvalidationTransport transport, long batchInterval, int maxBatchSize,
+            int repeat, long dedupWindow, long maxSkew, String secret)
+    {
+        mTransport     = transport;
+        mBatchInterval = batchInterval;
+        mMaxBatchSize  = Math.min(maxBatchSize, MulticastTransport.MAX_DATAGRAM_SIZE - MAC_LENGTH);
+        mRepeat        = Math.max(1, repeat);
+        mMaxSkew       = maxSkew;
+        // A replayed batch is accepted for up to twice the skew after its
+        // messages are first received.
+        mDedupWindow   = Math.max(dedupWindow, maxSkew * 2);
+        mSecret        = (secret != null && !secret.isEmpty())
+                       ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM) : null;
+    }
+
+
+    private static InvalidationTransport createTransport()
+    {
+        String transport = ServerConfig.getString("resource.invalidation_bus.transport", "none");
+
+        if ("loopback".equals(transport))
+        {
+            return new LoopbackTransport();
+        }
+
+        if (!"multicast".equals(transport))
+        {
+            return null;
+        }
+
+        if (ServerConfig.getString("resource.invalidation_bus.secret", null) == null)
+        {
+            // Unsigned batches from any host on the network would be accepted.
+            System.err.println("resource.invalidation_bus.secret is not set. The multicast invalidation bus is disabled.");
+            return null;
+        }
+
+        String group = ServerConfig.getString("resource.invalidation_bus.multicast.group", "239.255.77.77");
+
+        try
+        {
+            return new MulticastTransport(InetAddress.getByName(group),
+                    ServerConfig.getInt("resource.invalidation_bus.multicast.port", 45700),
+                    ServerConfig.getInt("resource.invalidation_bus.multicast.ttl", 1));
+        }
+        catch (IOException cause)
+        {
+            System.err.format("Invalid multicast group for the invalidation bus: %s%n", group);
+
+            return null;
+        }
+    }
+
+
+    /**
+     * Get the bus shared by all the components of this server.
+     */
+    public static InvalidationBus getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if this bus is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mTransport != null;
+    }
+
+
+    /**
+     * Register a handler of messages of a type. Handlers should be
+     * registered before {@link #start()} is called.
+     *
+     * @param type
+     *         A message type such as {@link #TOKEN_REVOKED}.
+     *
+     * @param handler
+     *         A handler that receives the arguments of messages. It may be
+     *         called concurrently and more than once for a message.
+     */
+    public void subscribe(String type, Consumer<String[]> handler)
+    {
+        mHandlers.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+
+    /**
+     * Start sending and receiving messages. Messages published before
+     * this method is called are sent when it is called.
+     */
+    public void start()
+    {
+        if (mTransport == null || !mStarted.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            mTransport.start(this::receive);
+        }
+        catch (IOException cause)
+        {
+            System.err.format("Failed to start the invalidation bus (%s): %s%n",
+                    mTransport.getName(), cause.getMessage());
+            return;
+        }
+
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-bus-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flush, mBatchInterval, mBatchInterval, TimeUnit.MILLISECONDS);
+
+        mFlusher = flusher;
+    }
+
+
+    /**
+     * Send the messages waiting to be sent and stop the bus.
+     */
+    public void stop()
+    {
+        ScheduledExecutorService flusher = mFlusher;
+
+        if (flusher == null)
+        {
+            return;
+        }
+
+        flusher.shutdown();
+
+        try
+        {
+            flusher.awaitTermination(mBatchInterval * 2, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+
+        try
+        {
+            mTransport.close();
+        }
+        catch (IOException cause)
+        {
+            // Ignore.
+        }
+    }
+
+
+    /**
+     * Publish a message to the other nodes. The message is not passed to
+     * the handlers of this node.
+     *
+     * @param type
+     *         A message type such as {@link #TOKEN_REVOKED}.
+     *
+     * @param args
+     *         The arguments of the message.
+     */
+    public void publish(String type, String... args)
+    {
+        if (mTransport == null)
+        {
+            return;
+        }
+
+        if (MAX_PENDING <= mPendingCount.get())
+        {
+            // The transport cannot keep up. The caches of the other nodes
+            // expire eventually.
+            mDropped.increment();
+            return;
+        }
+
+        StringBuilder line = new StringBuilder()
+                .append(mSequence.incrementAndGet()).append(' ').append(type);
+
+        for (String arg : args)
+        {
+            line.append(' ').append(encode(arg));
+        }
+
+        mPending.add(line.toString());
+        mPendingCount.incrementAndGet();
+        mPublished.increment();
+    }
+
+
+    /**
+     * Pass a message to the handlers of this node and publish it to the
+     * other nodes.
+     *
+     * @param type
+     *         A message type such as {@link #TOKEN_REVOKED}.
+     *
+     * @param args
+     *         The arguments of the message.
+     */
+    public void broadcast(String type, String... args)
+    {
+        dispatch(type, args);
+        publish(type, args);
+    }
+
+
+    private void flush()
+    {
+        try
+        {
+            // Repeat the batches sent in the previous intervals first.
+            Iterator<Retransmission> it = mRetransmissions.iterator();
+
+            while (it.hasNext())
+            {
+                Retransmission retransmission = it.next();
+                send(retransmission.batch);
+
+                if (--retransmission.remaining <= 0)
+                {
+                    it.remove();
+                }
+            }
+
+            byte[] batch;
+
+            while ((batch = nextBatch()) != null)
+            {
+                send(batch);
+
+                if (1 < mRepeat)
+                {
+                    mRetransmissions.add(new Retransmission(batch, mRepeat - 1));
+                }
+            }
+
+            purgeSeen();
+        }
+        catch (RuntimeException cause)
+        {
+            // Keep the flusher running.
+            System.err.format("Failed to flush the invalidation bus: %s%n", cause.getMessage());
+        }
+    }
+
+
+    private byte[] nextBatch()
+    {
+        if (mPending.isEmpty())
+        {
+            return null;
+        }
+
+        StringBuilder batch = new StringBuilder(mMaxBatchSize).append(MAGIC)
+                .append(' ').append(mNodeId).append(' ').append(System.currentTimeMillis());
+        int headerLength = batch.length();
+        String line;
+
+        // Messages are ASCII strings, so the number of characters is the
+        // number of bytes.
+        while ((line = mPending.peek()) != null)
+        {
+            if (mMaxBatchSize < batch.length() + 1 + line.length() && headerLength < batch.length())
+            {
+                // The batch is full. A single message larger than the limit
+                // is sent alone.
+                break;
+            }
+
+            mPending.poll();
+            mPendingCount.decrementAndGet();
+            batch.append('\n').append(line);
+        }
+
+        return sign(batch.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+
+    private void send(byte[] batch)
+    {
+        try
+        {
+            mTransport.send(batch);
+            mBatchesSent.increment();
+        }
+        catch (IOException cause)
+        {
+            mSendFailures.increment();
+        }
+    }
+
+
+    private void receive(byte[] batch)
+    {
+        byte[] payload = verify(batch);
+
+        if (payload == null)
+        {
+            mRejectedBatches.increment();
+            return;
+        }
+
+        String[] lines = new String(payload, StandardCharsets.US_ASCII).split("\n");
+        String[] header = lines[0].split(" ");
+
+        if (header.length != 3 || !MAGIC.equals(header[0]))
+        {
+            mRejectedBatches.increment();
+            return;
+        }
+
+        String nodeId = header[1];
+
+        if (mNodeId.equals(nodeId))
+        {
+            // Sent by this node.
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (!isFresh(header[2], now))
+        {
+            // Replayed, or the clocks are not synchronized.
+            mRejectedBatches.increment();
+            return;
+        }
+
+        long forgetAt = now + mDedupWindow;
+
+        for (int i = 1; i < lines.length; i++)
+        {
+            String[] tokens = lines[i].split(" ");
+
+            if (tokens.length < 2)
+            {
+                continue;
+            }
+
+            // The sequence number is unique in the publishing node.
+            if (mSeen.putIfAbsent(nodeId + ':' + tokens[0], forgetAt) != null)
+            {
+                mDuplicates.increment();
+                continue;
+            }
+
+            String[] args = new String[tokens.length - 2];
+
+            for (int j = 0; j < args.length; j++)
+            {
+                args[j] = decode(tokens[j + 2]);
+            }
+
+            mReceived.increment();
+            dispatch(tokens[1], args);
+        }
+    }
+
+
+    private boolean isFresh(String sentAt, long now)
+    {
+        try
+        {
+            return Math.abs(now - Long.parseLong(sentAt)) <= mMaxSkew;
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
+        }
+    }
+
+
+    private void dispatch(String type, String[] args)
+    {
+        List<Consumer<String[]>> handlers = mHandlers.get(type);
+
+        if (handlers == null)
+        {
+            return;
+        }
+
+        for (Consumer<String[]> handler : handlers)
+        {
+            try
+            {
+                handler.accept(args);
+            }
+            catch (RuntimeException cause)
+            {
+                System.err.format("Failed to handle an invalidation message (%s): %s%n",
+                        type, cause.getMessage());
+            }
+        }
+    }
+
+
+    private void purgeSeen()
+    {
+        long now = System.currentTimeMillis();
+
+        if (now - mLastPurge < mDedupWindow / 10)
+        {
+            return;
+        }
+
+        mLastPurge = now;
+        mSeen.values().removeIf(forgetAt -> forgetAt <= now);
+    }
+
+
+    private byte[] sign(byte[] payload)
+    {
+        if (mSecret == null)
+        {
+            return payload;
+        }
+
+        byte[] batch = Arrays.copyOf(payload, payload.length + MAC_LENGTH);
+        System.arraycopy(mac(payload), 0, batch, payload.length, MAC_LENGTH);
+
+        return batch;
+    }
+
+
+    private byte[] verify(byte[] batch)
+    {
+        if (mSecret == null)
+        {
+            return batch;
+        }
+
+        if (batch.length <= MAC_LENGTH)
+        {
+            return null;
+        }
+
+        byte[] payload = Arrays.copyOf(batch, batch.length - MAC_LENGTH);
+        byte[] mac     = Arrays.copyOfRange(batch, payload.length, batch.length);
+
+        // Compare in constant time.
+        return MessageDigest.isEqual(mac(payload), mac) ? payload : null;
+    }
+
+
+    private byte[] mac(byte[] payload)
+    {
+        try
+        {
+            // Mac instances are not thread-safe.
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(mSecret);
+
+            return mac.doFinal(payload);
+        }
+        catch (GeneralSecurityException cause)
+        {
+            // HmacSHA256 is supported by all Java platforms.
+            throw new IllegalStateException(cause);
+        }
+    }
+
+
+    private static String encode(String value)
+    {
+        try
+        {
+            // Spaces are encoded as '+', so tokens never contain spaces.
+            return URLEncoder.encode(value, "UTF-8");
+        }
+        catch (UnsupportedEncodingException e)
+        {
+            // UTF-8 is always supported.
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static String decode(String value)
+    {
+        try
+        {
+            return URLDecoder.decode(value, "UTF-8");
+        }
+        catch (UnsupportedEncodingException | IllegalArgumentException e)
+        {
+            return value;
+        }
+    }
+
+
+    @Override
+    public String getTransport()
+    {
+        return (mTransport != null) ? mTransport.getName() : "none";
+    }
+
+
+    @Override
+    public String getNodeId()
+    {
+        return mNodeId;
+    }
+
+
+    @Override
+    public long getPublished()
+    {
+        return mPublished.sum();
+    }
+
+
+    @Override
+    public int getPending()
+    {
+        return mPendingCount.get();
+    }
+
+
+    @Override
+    public long getDropped()
+    {
+        return mDropped.sum();
+    }
+
+
+    @Override
+    public long getBatchesSent()
+    {
+        return mBatchesSent.sum();
+    }
+
+
+    @Override
+    public long getSendFailures()
+    {
+        return mSendFailures.sum();
+    }
+
+
+    @Override
+    public long getReceived()
+    {
+        return mReceived.sum();
+    }
+
+
+    @Override
+    public long getDuplicates()
+    {
+        return mDuplicates.sum();
+    }
+
+
+    @Override
+    public long getRejectedBatches()
+    {
+        return mRejectedBatches.sum();
+    }
+
+
+    @Override
+    public void publishUserUpdated(String subject)
+    {
+        broadcast(USER_UPDATED, subject);
+    }
+
+
+    @Override
+    public void publishSigningKeyRotated()
+    {
+        broadcast(SIGNING_KEY_ROTATED);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+/**
+ * JMX view of {@link InvalidationBus}.
+ */
+public interface InvalidationBusMXBean
+{
+    /**
+     * The name of the transport, or {@code none} if the bus is disabled.
+     */
+    String getTransport();
+
+
+    /**
+     * The identifier of this node.
+     */
+    String getNodeId();
+
+
+    /**
+     * The number of messages published by this node.
+     */
+    long getPublished();
+
+
+    /**
+     * The number of messages waiting to be sent.
+     */
+    int getPending();
+
+
+    /**
+     * The number of messages dropped because too many were waiting.
+     */
+    long getDropped();
+
+
+    /**
+     * The number of batches sent, including repeated ones.
+     */
+    long getBatchesSent();
+
+
+    /**
+     * The number of batches that could not be sent.
+     */
+    long getSendFailures();
+
+
+    /**
+     * The number of messages received from other nodes and applied.
+     */
+    long getReceived();
+
+
+    /**
+     * The number of messages ignored because they had already been
+     * received.
+     */
+    long getDuplicates();
+
+
+    /**
+     * The number of batches ignored because they were malformed, their
+     * MAC was not valid or they were sent too long ago.
+     */
+    long getRejectedBatches();
+
+
+    /**
+     * Tell all the nodes including this one that the data of a user has
+     * been updated.
+     */
+    void publishUserUpdated(String subject);
+
+
+    /**
+     * Tell all the nodes including this one that the signing keys have
+     * been rotated.
+     */
+    void publishSigningKeyRotated();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+
+/**
+ * A transport that carries batches of invalidation messages between the
+ * nodes of a cluster.
+ *
+ * <p>
+ * A transport does not have to be reliable or ordered, and may deliver a
+ * batch more than once. {@link InvalidationBus} ignores duplicates.
+ * </p>
+ *
+ * @see LoopbackTransport
+ * @see MulticastTransport
+ */
+public interface InvalidationTransport extends Closeable
+{
+    /**
+     * Get the name of this transport.
+     */
+    String getName();
+
+
+    /**
+     * Start receiving batches sent by other nodes.
+     *
+     * @param receiver
+     *         The receiver of batches. It may be called concurrently.
+     */
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+
+    /**
+     * Send a batch to the other nodes.
+     *
+     * @param batch
+     *         A batch of messages encoded by {@link InvalidationBus}.
+     */
+    void send(byte[] batch) throws IOException;
+}
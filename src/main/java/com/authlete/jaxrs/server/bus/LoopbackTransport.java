@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+
+/**
+ * A transport that delivers batches to all the buses started in the same
+ * class loader.
+ *
+ * <p>
+ * This transport is intended for tests and for trying the invalidation
+ * bus on one machine. Batches are delivered synchronously by the sending
+ * thread, including to the sender itself, which ignores its own messages.
+ * </p>
+ */
+public class LoopbackTransport implements InvalidationTransport
+{
+    private static final List<Consumer<byte[]>> sReceivers = new CopyOnWriteArrayList<>();
+
+
+    private volatile Consumer<byte[]> mReceiver;
+
+
+    @Override
+    public String getName()
+    {
+        return "loopback";
+    }
+
+
+    @Override
+    public void start(Consumer<byte[]> receiver)
+    {
+        mReceiver = receiver;
+        sReceivers.add(receiver);
+    }
+
+
+    @Override
+    public void send(byte[] batch)
+    {
+        for (Consumer<byte[]> receiver : sReceivers)
+        {
+            receiver.accept(batch);
+        }
+    }
+
+
+    @Override
+    public void close()
+    {
+        Consumer<byte[]> receiver = mReceiver;
+
+        if (receiver != null)
+        {
+            sReceivers.remove(receiver);
+        }
+    }
+}
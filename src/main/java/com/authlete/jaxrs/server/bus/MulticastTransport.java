@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+
+/**
+ * A transport that sends batches as UDP multicast datagrams.
+ *
+ * <p>
+ * All the nodes join the same multicast group. Datagrams are looped back
+ * to the sending host, so several nodes on one machine can talk to each
+ * other. Datagrams may be lost; {@link InvalidationBus} sends each batch
+ * {@code resource.invalidation_bus.repeat} times to mask occasional loss.
+ * </p>
+ */
+public class MulticastTransport implements InvalidationTransport
+{
+    /**
+     * The maximum size of a UDP payload.
+     */
+    static final int MAX_DATAGRAM_SIZE = 65507;
+
+
+    private final InetAddress mGroup;
+    private final int mPort;
+    private final int mTimeToLive;
+    private volatile MulticastSocket mSocket;
+
+
+    public MulticastTransport(InetAddress group, int port, int timeToLive)
+    {
+        mGroup      = group;
+        mPort       = port;
+        mTimeToLive = timeToLive;
+    }
+
+
+    @Override
+    public String getName()
+    {
+        return "multicast";
+    }
+
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException
+    {
+        MulticastSocket socket = new MulticastSocket(mPort);
+        socket.setTimeToLive(mTimeToLive);
+        socket.joinGroup(mGroup);
+
+        mSocket = socket;
+
+        Thread thread = new Thread(() -> receive(socket, receiver), "invalidation-bus-receiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    private static void receive(MulticastSocket socket, Consumer<byte[]> receiver)
+    {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+
+        while (!socket.isClosed())
+        {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+
+            try
+            {
+                socket.receive(packet);
+            }
+            catch (IOException cause)
+            {
+                if (!socket.isClosed())
+                {
+                    System.err.format("Failed to receive an invalidation batch: %s%n", cause.getMessage());
+                }
+
+                continue;
+            }
+
+            receiver.accept(Arrays.copyOfRange(
+                    packet.getData(), packet.getOffset(), packet.getOffset() + packet.getLength()));
+        }
+    }
+
+
+    @Override
+    public void send(byte[] batch) throws IOException
+    {
+        MulticastSocket socket = mSocket;
+
+        if (socket == null)
+        {
+            throw new IOException("The multicast transport has not been started.");
+        }
+
+        socket.send(new DatagramPacket(batch, batch.length, mGroup, mPort));
+    }
+
+
+    @Override
+    public void close()
+    {
+        MulticastSocket socket = mSocket;
+
+        if (socket == null)
+        {
+            return;
+        }
+
+        try
+        {
+            socket.leaveGroup(mGroup);
+        }
+        catch (IOException cause)
+        {
+            // The socket is closed anyway.
+        }
+
+        socket.close();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * A source of claims of users other than the user database, such as a
+ * profile service, a KYC service or a loyalty program.
+ *
+ * <p>
+ * Providers are listed in {@code resource.claim_providers} by class name
+ * and instantiated by their public no-argument constructors. They are
+ * called concurrently by {@link ClaimProviders} from its own threads, so
+ * implementations must be thread-safe. A call that does not finish within
+ * the timeout of the provider is interrupted.
+ * </p>
+ */
+public interface ClaimProvider
+{
+    /**
+     * Get the name of this provider, which is used in the configuration
+     * keys and the name of the MBean of this provider.
+     */
+    String getName();
+
+
+    /**
+     * Get the names of the claims that this provider supplies. This
+     * provider is called only when at least one of them is requested.
+     */
+    Set<String> getClaimNames();
+
+
+    /**
+     * Get claims of a user.
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param claimNames
+     *         The names of the requested claims, which are a subset of
+     *         {@link #getClaimNames()}.
+     *
+     * @return
+     *         The values of the claims that are available. Claims that are
+     *         not available may be omitted.
+     *
+     * @throws Exception
+     *         The claims could not be obtained. The failure policy of this
+     *         provider is applied.
+     */
+    Map<String, Object> getClaims(String subject, Set<String> claimNames) throws Exception;
+}
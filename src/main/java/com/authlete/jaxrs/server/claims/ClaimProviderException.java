@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+/**
+ * An exception thrown when a claim provider whose failure policy is
+ * {@code fail} cannot supply claims.
+ */
+public class ClaimProviderException extends RuntimeException
+{
+    private static final long serialVersionUID = 1L;
+
+
+    public ClaimProviderException(String message)
+    {
+        super(message);
+    }
+
+
+    public ClaimProviderException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.claims.ManagedClaimProvider.FailurePolicy;
+import com.authlete.jaxrs.server.db.UserDao;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * Fetches claims from the {@link ClaimProvider}s concurrently.
+ *
+ * <p>
+ * {@link #start(String, String[])} submits a call to every provider that
+ * supplies some of the requested claims and is not served from its cache,
+ * and {@link PendingClaims#await()} waits for the results, each until the
+ * timeout of its provider counted from the start. Because the calls run
+ * in parallel, a request waits for the slowest provider instead of the
+ * sum of their latencies. The user database is read while they run.
+ * </p>
+ *
+ * <p>
+ * Providers are listed by class name in {@code resource.claim_providers},
+ * separated by commas. When two providers supply the same claim, the one
+ * listed first wins. The settings of each provider are read from keys
+ * prefixed with {@code resource.claim_provider.{name}.}, where {@code
+ * {name}} is the value of {@link ClaimProvider#getName()}. The metrics of
+ * each provider are exposed as the MBean {@code
+ * type=ClaimProvider,name={name}}. The cached claims of a user are
+ * discarded when {@link UserDao#invalidate(String)} announces an update.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.claim_providers}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.claim_providers.threads}</td><td>{@code 32}</td></tr>
+ *   <tr><td>{@code resource.claim_providers.queue_size}</td><td>{@code 1000}</td></tr>
+ *   <tr><td>{@code resource.claim_provider.{name}.timeout}</td><td>{@code 500} (milliseconds)</td></tr>
+ *   <tr><td>{@code resource.claim_provider.{name}.failure_policy}</td><td>{@code omit}</td></tr>
+ *   <tr><td>{@code resource.claim_provider.{name}.cache_ttl}</td><td>{@code 60} (seconds)</td></tr>
+ *   <tr><td>{@code resource.claim_provider.{name}.cache_max_size}</td><td>{@code 100000}</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public final class ClaimProviders
+{
+    private static final ClaimProviders sInstance = new ClaimProviders(
+            loadProviders(ServerConfig.getString("resource.claim_providers", null)),
+            ServerConfig.getInt("resource.claim_providers.threads", 32),
+            ServerConfig.getInt("resource.claim_providers.queue_size", 1000));
+
+
+    private final List<ManagedClaimProvider> mProviders;
+    private final ThreadPoolExecutor mExecutor;
+
+
+    ClaimProviders(List<ManagedClaimProvider> providers, int threads, int queueSize)
+    {
+        mProviders = providers;
+        mExecutor  = providers.isEmpty() ? null : createExecutor(threads, queueSize);
+
+        if (!providers.isEmpty())
+        {
+            UserDao.addUpdateListener(this::invalidate);
+        }
+    }
+
+
+    static List<ManagedClaimProvider> loadProviders(String classNames)
+    {
+        if (classNames == null || classNames.trim().isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        List<ManagedClaimProvider> providers = new ArrayList<>();
+
+        for (String className : classNames.trim().split("\\s*,\\s*"))
+        {
+            ClaimProvider provider;
+
+            try
+            {
+                provider = (ClaimProvider)Class.forName(className).getDeclaredConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException | ClassCastException cause)
+            {
+                System.err.format("Failed to load the claim provider '%s': %s%n", className, cause);
+                continue;
+            }
+
+            String prefix = "resource.claim_provider." + provider.getName() + ".";
+
+            ManagedClaimProvider managed = new ManagedClaimProvider(provider,
+                    ServerConfig.getLong(prefix + "timeout", 500),
+                    getFailurePolicy(provider.getName(), ServerConfig.getString(prefix + "failure_policy", "omit")),
+                    ServerConfig.getLong(prefix + "cache_ttl", 60) * 1000L,
+                    ServerConfig.getInt(prefix + "cache_max_size", 100000));
+
+            MBeans.register("ClaimProvider,name=" + provider.getName(), managed);
+            providers.add(managed);
+        }
+
+        return providers;
+    }
+
+
+    private static FailurePolicy getFailurePolicy(String name, String policy)
+    {
+        try
+        {
+            return FailurePolicy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.err.format("Unknown failure policy '%s' of the claim provider '%s'. 'omit' is used.%n", policy, name);
+            return FailurePolicy.OMIT;
+        }
+    }
+
+
+    private static ThreadPoolExecutor createExecutor(int threads, int queueSize)
+    {
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "claim-provider-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), factory);
+
+        // Let idle threads go away.
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+
+    /**
+     * Get the claim providers configured for this server.
+     */
+    public static ClaimProviders getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Start fetching claims of a user from the providers.
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param claimNames
+     *         The names of the requested claims.
+     *
+     * @return
+     *         The claims being fetched.
+     */
+    public PendingClaims start(String subject, String[] claimNames)
+    {
+        if (mProviders.isEmpty() || subject == null || claimNames == null)
+        {
+            return PendingClaims.NONE;
+        }
+
+        long started = System.nanoTime();
+        PendingClaims pending = new PendingClaims(subject, started);
+
+        for (ManagedClaimProvider provider : mProviders)
+        {
+            Set<String> selected = provider.select(claimNames);
+
+            if (selected == null)
+            {
+                // The provider supplies none of the requested claims.
+                continue;
+            }
+
+            Map<String, Object> cached = provider.getCached(subject, selected);
+
+            if (cached != null)
+            {
+                pending.add(provider, CompletableFuture.completedFuture(cached));
+                continue;
+            }
+
+            try
+            {
+                pending.add(provider, mExecutor.submit(() -> provider.fetch(subject, selected)));
+            }
+            catch (RejectedExecutionException e)
+            {
+                // Too many calls in progress.
+                pending.add(provider, PendingClaims.failed(e));
+            }
+        }
+
+        return pending;
+    }
+
+
+    /**
+     * Discard the cached claims of a user.
+     */
+    public void invalidate(String subject)
+    {
+        for (ManagedClaimProvider provider : mProviders)
+        {
+            provider.invalidate(subject);
+        }
+    }
+}
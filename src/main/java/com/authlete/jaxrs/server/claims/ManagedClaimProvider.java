@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A {@link ClaimProvider} together with its configuration, its cache and
+ * its metrics.
+ *
+ * <p>
+ * Claims obtained from the provider are cached per subject for the TTL.
+ * A request is served from the cache if the cached entry is fresh and
+ * covers the requested claims. Otherwise, the union of the requested
+ * claims and the cached ones is fetched, so that the entry converges to
+ * the set of claims clients actually request.
+ * </p>
+ *
+ * <p>
+ * When a call fails or times out, the failure policy decides the result:
+ * {@code omit} leaves out the claims of the provider, {@code stale} uses
+ * the cached claims even if they have expired (and omits them if there
+ * are none), and {@code fail} fails the request with {@link
+ * ClaimProviderException}.
+ * </p>
+ */
+final class ManagedClaimProvider implements ManagedClaimProviderMXBean
+{
+    /**
+     * What to do when a provider cannot supply claims.
+     */
+    enum FailurePolicy
+    {
+        OMIT,
+        STALE,
+        FAIL
+    }
+
+
+    /**
+     * Claims of a user fetched from the provider.
+     */
+    private static final class Entry
+    {
+        final Set<String> claimNames;
+        final Map<String, Object> claims;
+        final long expiresAt;
+
+
+        Entry(Set<String> claimNames, Map<String, Object> claims, long expiresAt)
+        {
+            this.claimNames = claimNames;
+            this.claims     = claims;
+            this.expiresAt  = expiresAt;
+        }
+    }
+
+
+    private final ClaimProvider mProvider;
+    private final Set<String> mClaimNames;
+    private final long mTimeout;
+    private final FailurePolicy mPolicy;
+    private final long mTtl;
+    private final int mMaxSize;
+    private final ConcurrentHashMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+
+
+    /**
+     * Incremented on every invalidation. See {@link #fetch(String, Set)}.
+     */
+    private final AtomicLong mEpoch = new AtomicLong();
+    private final LongAdder mCalls = new LongAdder();
+    private final LongAdder mCacheHits = new LongAdder();
+    private final LongAdder mFailures = new LongAdder();
+    private final LongAdder mTimeouts = new LongAdder();
+    private final LongAdder mStaleResponses = new LongAdder();
+    private final LongAdder mLatencyNanos = new LongAdder();
+    private final AtomicLong mMaxLatencyNanos = new AtomicLong();
+
+
+    ManagedClaimProvider(
+            ClaimProvider provider, long timeout, FailurePolicy policy, long ttl, int maxSize)
+    {
+        mProvider   = provider;
+        mClaimNames = new HashSet<>(provider.getClaimNames());
+        mTimeout    = timeout;
+        mPolicy     = policy;
+        mTtl        = ttl;
+        mMaxSize    = maxSize;
+    }
+
+
+    String getName()
+    {
+        return mProvider.getName();
+    }
+
+
+    /**
+     * The timeout of a call in nanoseconds.
+     */
+    long getTimeoutNanos()
+    {
+        return mTimeout * 1000000L;
+    }
+
+
+    /**
+     * Get the requested claims that this provider supplies.
+     *
+     * @return
+     *         The claim names, or {@code null} if none of them is supplied.
+     */
+    Set<String> select(String[] claimNames)
+    {
+        Set<String> selected = null;
+
+        for (String claimName : claimNames)
+        {
+            if (!mClaimNames.contains(claimName))
+            {
+                continue;
+            }
+
+            if (selected == null)
+            {
+                selected = new HashSet<>();
+            }
+
+            selected.add(claimName);
+        }
+
+        return selected;
+    }
+
+
+    /**
+     * Get the cached claims of a user if they are fresh and cover the
+     * requested claims.
+     */
+    Map<String, Object> getCached(String subject, Set<String> claimNames)
+    {
+        Entry entry = mEntries.get(subject);
+
+        if (entry == null || entry.expiresAt <= System.currentTimeMillis() ||
+                !entry.claimNames.containsAll(claimNames))
+        {
+            return null;
+        }
+
+        mCacheHits.increment();
+
+        return entry.claims;
+    }
+
+
+    /**
+     * Call the provider. Invoked on a thread of {@link ClaimProviders}.
+     */
+    Map<String, Object> fetch(String subject, Set<String> claimNames) throws Exception
+    {
+        Entry cached = mEntries.get(subject);
+
+        if (cached != null)
+        {
+            // Fetch the union so that the entry keeps covering the claims
+            // requested before.
+            claimNames = new HashSet<>(claimNames);
+            claimNames.addAll(cached.claimNames);
+        }
+
+        long epoch = mEpoch.get();
+        mCalls.increment();
+        long started = System.nanoTime();
+        Map<String, Object> claims;
+
+        try
+        {
+            claims = mProvider.getClaims(subject, claimNames);
+        }
+        finally
+        {
+            long latency = System.nanoTime() - started;
+            mLatencyNanos.add(latency);
+            mMaxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+
+        if (claims == null)
+        {
+            claims = Collections.emptyMap();
+        }
+
+        if (mTtl <= 0 || mEpoch.get() != epoch)
+        {
+            // Not cached, or the user may have been updated during the call.
+            return claims;
+        }
+
+        Entry entry = new Entry(claimNames, claims, System.currentTimeMillis() + mTtl);
+        mEntries.put(subject, entry);
+
+        if (mEpoch.get() != epoch)
+        {
+            // Invalidated after the check above. Take the entry back.
+            mEntries.remove(subject, entry);
+        }
+
+        evict();
+
+        return claims;
+    }
+
+
+    /**
+     * Apply the failure policy.
+     *
+     * @param subject
+     *         The subject of the user.
+     *
+     * @param cause
+     *         The cause of the failure.
+     *
+     * @param timedOut
+     *         {@code true} if the call timed out.
+     *
+     * @return
+     *         The claims to use instead.
+     *
+     * @throws ClaimProviderException
+     *         The failure policy is {@code fail}.
+     */
+    Map<String, Object> onFailure(String subject, Throwable cause, boolean timedOut)
+    {
+        if (timedOut)
+        {
+            mTimeouts.increment();
+        }
+        else
+        {
+            mFailures.increment();
+        }
+
+        switch (mPolicy)
+        {
+            case FAIL:
+                throw new ClaimProviderException(String.format(
+                        "The claim provider '%s' failed: %s", getName(),
+                        timedOut ? "timed out" : String.valueOf(cause)), cause);
+
+            case STALE:
+                Entry entry = mEntries.get(subject);
+
+                if (entry != null)
+                {
+                    mStaleResponses.increment();
+                    return entry.claims;
+                }
+
+                return Collections.emptyMap();
+
+            default:
+                return Collections.emptyMap();
+        }
+    }
+
+
+    /**
+     * Discard the cached claims of a user.
+     */
+    void invalidate(String subject)
+    {
+        mEpoch.incrementAndGet();
+        mEntries.remove(subject);
+    }
+
+
+    private void evict()
+    {
+        // Evict arbitrary entries. Expired entries are kept for the stale
+        // policy until then.
+        Iterator<Entry> it = mEntries.values().iterator();
+
+        while (mMaxSize < mEntries.size() && it.hasNext())
+        {
+            it.next();
+            it.remove();
+        }
+    }
+
+
+    @Override
+    public String getFailurePolicy()
+    {
+        return mPolicy.name().toLowerCase(Locale.ROOT);
+    }
+
+
+    @Override
+    public long getTimeoutMillis()
+    {
+        return mTimeout;
+    }
+
+
+    @Override
+    public long getCalls()
+    {
+        return mCalls.sum();
+    }
+
+
+    @Override
+    public long getCacheHits()
+    {
+        return mCacheHits.sum();
+    }
+
+
+    @Override
+    public long getFailures()
+    {
+        return mFailures.sum();
+    }
+
+
+    @Override
+    public long getTimeouts()
+    {
+        return mTimeouts.sum();
+    }
+
+
+    @Override
+    public long getStaleResponses()
+    {
+        return mStaleResponses.sum();
+    }
+
+
+    @Override
+    public double getAverageLatencyMillis()
+    {
+        long calls = mCalls.sum();
+
+        return (calls == 0) ? 0 : mLatencyNanos.sum() / 1e6 / calls;
+    }
+
+
+    @Override
+    public double getMaxLatencyMillis()
+    {
+        return mMaxLatencyNanos.get() / 1e6;
+    }
+
+
+    @Override
+    public int getCacheSize()
+    {
+        return mEntries.size();
+    }
+
+
+    @Override
+    public void clearCache()
+    {
+        mEpoch.incrementAndGet();
+        mEntries.clear();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+/**
+ * JMX view of a claim provider managed by {@link ClaimProviders}.
+ */
+public interface ManagedClaimProviderMXBean
+{
+    /**
+     * The failure policy: {@code omit}, {@code stale} or {@code fail}.
+     */
+    String getFailurePolicy();
+
+
+    /**
+     * The timeout of a call in milliseconds.
+     */
+    long getTimeoutMillis();
+
+
+    /**
+     * The number of calls of the provider.
+     */
+    long getCalls();
+
+
+    /**
+     * The number of requests served from the cache.
+     */
+    long getCacheHits();
+
+
+    /**
+     * The number of calls that failed.
+     */
+    long getFailures();
+
+
+    /**
+     * The number of calls that timed out.
+     */
+    long getTimeouts();
+
+
+    /**
+     * The number of failures for which expired claims were used.
+     */
+    long getStaleResponses();
+
+
+    /**
+     * The average latency of calls in milliseconds, including calls that
+     * finished after they timed out.
+     */
+    double getAverageLatencyMillis();
+
+
+    /**
+     * The maximum latency of calls in milliseconds.
+     */
+    double getMaxLatencyMillis();
+
+
+    /**
+     * The current number of cached users.
+     */
+    int getCacheSize();
+
+
+    /**
+     * Discard all the cached claims.
+     */
+    void clearCache();
+}
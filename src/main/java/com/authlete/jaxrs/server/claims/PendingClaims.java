@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+
+/**
+ * Claims of a user being fetched from claim providers. See {@link
+ * ClaimProviders#start(String, String[])}.
+ */
+public final class PendingClaims
+{
+    /**
+     * No claims to fetch.
+     */
+    static final PendingClaims NONE = new PendingClaims(null, 0);
+
+
+    private final String mSubject;
+    private final long mStarted;
+    private final List<ManagedClaimProvider> mProviders = new ArrayList<>();
+    private final List<Future<Map<String, Object>>> mFutures = new ArrayList<>();
+
+
+    PendingClaims(String subject, long started)
+    {
+        mSubject = subject;
+        mStarted = started;
+    }
+
+
+    void add(ManagedClaimProvider provider, Future<Map<String, Object>> future)
+    {
+        mProviders.add(provider);
+        mFutures.add(future);
+    }
+
+
+    static Future<Map<String, Object>> failed(Throwable cause)
+    {
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+
+        return future;
+    }
+
+
+    /**
+     * Wait for the providers and merge their claims. A provider that does
+     * not finish within its timeout, counted from the start, is cancelled
+     * and its failure policy is applied.
+     *
+     * @return
+     *         The merged claims. When two providers supply the same claim,
+     *         the value of the one listed first is used.
+     *
+     * @throws ClaimProviderException
+     *         A provider whose failure policy is {@code fail} did not
+     *         supply claims. The calls still in progress are cancelled.
+     */
+    public Map<String, Object> await()
+    {
+        if (mFutures.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Object> merged = new HashMap<>();
+
+        for (int i = 0; i < mFutures.size(); i++)
+        {
+            Map<String, Object> claims;
+
+            try
+            {
+                claims = await(mProviders.get(i), mFutures.get(i));
+            }
+            catch (ClaimProviderException e)
+            {
+                // The claims of the other providers are not needed.
+                cancel();
+                throw e;
+            }
+
+            for (Map.Entry<String, Object> entry : claims.entrySet())
+            {
+                if (entry.getValue() != null)
+                {
+                    merged.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        return merged;
+    }
+
+
+    /**
+     * Cancel the calls in progress, e.g. when the user is not found and
+     * the claims are not needed. Their threads are interrupted.
+     */
+    public void cancel()
+    {
+        for (Future<Map<String, Object>> future : mFutures)
+        {
+            future.cancel(true);
+        }
+    }
+
+
+    private Map<String, Object> await(ManagedClaimProvider provider, Future<Map<String, Object>> future)
+    {
+        long remaining = mStarted + provider.getTimeoutNanos() - System.nanoTime();
+
+        try
+        {
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException e)
+        {
+            // Release the thread.
+            future.cancel(true);
+            return provider.onFailure(mSubject, e, true);
+        }
+        catch (ExecutionException e)
+        {
+            return provider.onFailure(mSubject, e.getCause(), false);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return provider.onFailure(mSubject, e, false);
+        }
+    }
+}
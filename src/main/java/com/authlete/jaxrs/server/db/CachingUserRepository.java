@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A {@link UserRepository} that caches the claims of users read from
+ * another repository.
+ *
+ * <p>
+ * {@link #findClaims(String, ClaimSet)} is served from the cache if the
+ * cached projection of the user is younger than the TTL and covers the
+ * requested claims. Otherwise, the union of the requested claims and the
+ * cached ones is read from the repository in one query, so that the entry
+ * converges to the set of claims clients actually request. Subjects that
+ * do not exist are cached, too. The other lookups, which are used to
+ * authenticate users, are not cached.
+ * </p>
+ *
+ * <p>
+ * {@link #invalidate(String)} discards the entry of an updated user. It
+ * is registered as a listener of {@link UserDao#invalidate(String)}, so
+ * updates announced on any node of the cluster take effect immediately.
+ * A read that started before an invalidation does not put its result into
+ * the cache.
+ * </p>
+ *
+ * <p>
+ * When the number of entries exceeds the limit, expired entries are purged
+ * first and then arbitrary entries are evicted until the cache shrinks to
+ * 90% of the limit.
+ * </p>
+ */
+public class CachingUserRepository implements UserRepository, CachingUserRepositoryMXBean
+{
+    /**
+     * A cached projection, or {@code null} claims for a subject that does
+     * not exist.
+     */
+    private static final class Entry
+    {
+        final UserClaims claims;
+        final long expiresAt;
+
+
+        Entry(UserClaims claims, long expiresAt)
+        {
+            this.claims    = claims;
+            this.expiresAt = expiresAt;
+        }
+
+
+        boolean covers(ClaimSet requested)
+        {
+            return claims == null || claims.getClaims().containsAll(requested);
+        }
+    }
+
+
+    private final UserRepository mRepository;
+    private final int mMaxSize;
+    private final long mTtl;
+    private final ConcurrentHashMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+    private final AtomicBoolean mEvicting = new AtomicBoolean();
+
+
+    /**
+     * Incremented on every invalidation. See {@link #load(String, ClaimSet, long)}.
+     */
+    private final AtomicLong mEpoch = new AtomicLong();
+    private final LongAdder mHits = new LongAdder();
+    private final LongAdder mMisses = new LongAdder();
+    private final LongAdder mInvalidations = new LongAdder();
+    private final LongAdder mEvictions = new LongAdder();
+
+
+    /**
+     * Constructor.
+     *
+     * @param repository
+     *         The repository to read users from.
+     *
+     * @param maxSize
+     *         The maximum number of cached users.
+     *
+     * @param ttl
+     *         The time in milliseconds for which cached claims are used.
+     */
+    public CachingUserRepository(UserRepository repository, int maxSize, long ttl)
+    {
+        mRepository = repository;
+        mMaxSize    = maxSize;
+        mTtl        = ttl;
+    }
+
+
+    @Override
+    public UserRecord findBySubject(String subject)
+    {
+        return mRepository.findBySubject(subject);
+    }
+
+
+    @Override
+    public UserRecord findByLoginId(String loginId)
+    {
+        return mRepository.findByLoginId(loginId);
+    }
+
+
+    @Override
+    public UserRecord findByEmail(String email)
+    {
+        return mRepository.findByEmail(email);
+    }
+
+
+    @Override
+    public UserRecord findByPhoneNumber(String phoneNumber)
+    {
+        return mRepository.findByPhoneNumber(phoneNumber);
+    }
+
+
+    @Override
+    public UserClaims findClaims(String subject, ClaimSet claims)
+    {
+        if (subject == null)
+        {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = mEntries.get(subject);
+
+        if (entry != null && now < entry.expiresAt && entry.covers(claims))
+        {
+            mHits.increment();
+            return (entry.claims != null) ? entry.claims.select(claims) : null;
+        }
+
+        mMisses.increment();
+
+        // Keep the claims read before, unless they have expired.
+        ClaimSet fetch = (entry != null && now < entry.expiresAt && entry.claims != null)
+                ? claims.union(entry.claims.getClaims()) : claims;
+
+        UserClaims loaded = load(subject, fetch, now);
+
+        return (loaded != null) ? loaded.select(claims) : null;
+    }
+
+
+    private UserClaims load(String subject, ClaimSet claims, long now)
+    {
+        long epoch = mEpoch.get();
+
+        UserClaims loaded = mRepository.findClaims(subject, claims);
+
+        if (mEpoch.get() != epoch)
+        {
+            // The user may have been updated during the read.
+            return loaded;
+        }
+
+        Entry entry = new Entry(loaded, now + mTtl);
+        mEntries.put(subject, entry);
+
+        if (mEpoch.get() != epoch)
+        {
+            // Invalidated after the check above. Take the entry back.
+            mEntries.remove(subject, entry);
+        }
+
+        if (mMaxSize < mEntries.size())
+        {
+            evict(now);
+        }
+
+        return loaded;
+    }
+
+
+    /**
+     * Discard the cached claims of a user.
+     *
+     * @param subject
+     *         The subject of the updated user.
+     */
+    public void invalidate(String subject)
+    {
+        mEpoch.incrementAndGet();
+
+        if (subject != null && mEntries.remove(subject) != null)
+        {
+            mInvalidations.increment();
+        }
+    }
+
+
+    private void evict(long now)
+    {
+        // Let only one thread evict entries.
+        if (!mEvicting.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            mEntries.values().removeIf(entry -> entry.expiresAt <= now);
+
+            int target = mMaxSize / 10 * 9;
+            Iterator<Entry> it = mEntries.values().iterator();
+
+            while (target < mEntries.size() && it.hasNext())
+            {
+                it.next();
+                it.remove();
+                mEvictions.increment();
+            }
+        }
+        finally
+        {
+            mEvicting.set(false);
+        }
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mRepository.size();
+    }
+
+
+    @Override
+    public long getHits()
+    {
+        return mHits.sum();
+    }
+
+
+    @Override
+    public long getMisses()
+    {
+        return mMisses.sum();
+    }
+
+
+    @Override
+    public long getInvalidations()
+    {
+        return mInvalidations.sum();
+    }
+
+
+    @Override
+    public long getEvictions()
+    {
+        return mEvictions.sum();
+    }
+
+
+    @Override
+    public int getSize()
+    {
+        return mEntries.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        mEpoch.incrementAndGet();
+        mEntries.clear();
+    }
+}
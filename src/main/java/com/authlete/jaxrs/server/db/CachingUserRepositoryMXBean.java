@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * JMX view of {@link CachingUserRepository}.
+ */
+public interface CachingUserRepositoryMXBean
+{
+    /**
+     * The number of lookups served from the cache.
+     */
+    long getHits();
+
+
+    /**
+     * The number of lookups that read the repository.
+     */
+    long getMisses();
+
+
+    /**
+     * The number of entries discarded because the users were updated.
+     */
+    long getInvalidations();
+
+
+    /**
+     * The number of entries evicted to keep the cache within the limit.
+     */
+    long getEvictions();
+
+
+    /**
+     * The current number of entries.
+     */
+    int getSize();
+
+
+    /**
+     * Discard all the entries.
+     */
+    void clear();
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.HashMap;
+import java.util.Map;
+import com.authlete.common.types.StandardClaims;
+
+
+/**
+ * Claims of users supported by the user database.
+ *
+ * <p>
+ * Claim names are resolved to constants of this enum once per request,
+ * so that claim values can be looked up by ordinal (see {@link ClaimSet}
+ * and {@link UserClaims}) instead of by comparing strings.
+ * </p>
+ *
+ * @see <a href="https://openid.net/specs/openid-connect-core-1_0.html#StandardClaims"
+ *      >OpenID Connect Core 1.0, 5.1. Standard Claims</a>
+ */
+public enum Claim
+{
+    NAME(StandardClaims.NAME),
+    GIVEN_NAME(StandardClaims.GIVEN_NAME),
+    FAMILY_NAME(StandardClaims.FAMILY_NAME),
+    MIDDLE_NAME(StandardClaims.MIDDLE_NAME),
+    NICKNAME(StandardClaims.NICKNAME),
+    PREFERRED_USERNAME(StandardClaims.PREFERRED_USERNAME),
+    PROFILE(StandardClaims.PROFILE),
+    PICTURE(StandardClaims.PICTURE),
+    WEBSITE(StandardClaims.WEBSITE),
+    EMAIL(StandardClaims.EMAIL),
+    EMAIL_VERIFIED(StandardClaims.EMAIL_VERIFIED),
+    GENDER(StandardClaims.GENDER),
+    BIRTHDATE(StandardClaims.BIRTHDATE),
+    ZONEINFO(StandardClaims.ZONEINFO),
+    LOCALE(StandardClaims.LOCALE),
+    PHONE_NUMBER(StandardClaims.PHONE_NUMBER),
+    PHONE_NUMBER_VERIFIED(StandardClaims.PHONE_NUMBER_VERIFIED),
+    ADDRESS(StandardClaims.ADDRESS),
+    UPDATED_AT(StandardClaims.UPDATED_AT),
+    ;
+
+
+    /**
+     * All the claims, indexed by ordinal. Not to be modified.
+     */
+    static final Claim[] VALUES = values();
+
+
+    private static final Map<String, Claim> sByName = new HashMap<>();
+
+
+    static
+    {
+        for (Claim claim : VALUES)
+        {
+            sByName.put(claim.mName, claim);
+        }
+    }
+
+
+    private final String mName;
+
+
+    private Claim(String name)
+    {
+        mName = name;
+    }
+
+
+    /**
+     * Get the name of this claim.
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+
+    /**
+     * Check if values of this claim repeat heavily across users, so that
+     * they are worth storing in a dictionary.
+     */
+    public boolean isLowCardinality()
+    {
+        switch (this)
+        {
+            case GENDER:
+            case LOCALE:
+            case ZONEINFO:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+
+    /**
+     * Get the claim that has the name.
+     *
+     * @param claimName
+     *         A claim name without a language tag.
+     *
+     * @return
+     *         The claim, or {@code null} if the claim is not supported.
+     */
+    public static Claim of(String claimName)
+    {
+        return (claimName != null) ? sByName.get(claimName) : null;
+    }
+}
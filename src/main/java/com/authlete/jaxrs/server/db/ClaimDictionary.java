@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+
+/**
+ * A process-wide dictionary of claim values that repeat across users,
+ * such as genders, locales, time zones and countries.
+ *
+ * <p>
+ * Each distinct value is given a 16-bit code, so that {@link
+ * CompactUserRecord} can hold it in a few bits instead of a reference to
+ * its own copy of the string. Codes are never reused. When all the codes
+ * have been given, further values are not encoded.
+ * </p>
+ */
+final class ClaimDictionary
+{
+    /**
+     * The code that means "no value".
+     */
+    static final int NONE = 0;
+
+
+    private static final int MAX_CODE = 0xFFFF;
+
+
+    private static final ConcurrentHashMap<String, Integer> sCodes = new ConcurrentHashMap<>();
+    private static final AtomicReferenceArray<String> sValues = new AtomicReferenceArray<>(MAX_CODE + 1);
+    private static final AtomicInteger sLastCode = new AtomicInteger(NONE);
+
+
+    private ClaimDictionary()
+    {
+    }
+
+
+    /**
+     * Get the code of a value, giving it a new code if it has none.
+     *
+     * @return
+     *         The code, or {@link #NONE} if {@code value} is {@code null} or
+     *         no more codes are available.
+     */
+    static int encode(String value)
+    {
+        if (value == null)
+        {
+            return NONE;
+        }
+
+        Integer code = sCodes.get(value);
+
+        if (code != null)
+        {
+            return code;
+        }
+
+        if (MAX_CODE <= sLastCode.get())
+        {
+            return NONE;
+        }
+
+        code = sCodes.computeIfAbsent(value, v -> {
+            int next = sLastCode.incrementAndGet();
+
+            if (MAX_CODE < next)
+            {
+                return null;
+            }
+
+            // Before the code is published by the map.
+            sValues.set(next, v);
+
+            return next;
+        });
+
+        return (code != null) ? code : NONE;
+    }
+
+
+    /**
+     * Get the value of a code.
+     */
+    static String decode(int code)
+    {
+        return (code == NONE) ? null : sValues.get(code);
+    }
+
+
+    /**
+     * Get the shared instance of a value, if it is in the dictionary.
+     */
+    static String intern(String value)
+    {
+        int code = encode(value);
+
+        return (code != NONE) ? decode(code) : value;
+    }
+
+
+    /**
+     * The number of values in the dictionary.
+     */
+    static int size()
+    {
+        return sCodes.size();
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * An immutable set of {@link Claim}s, held as a bit mask.
+ */
+public final class ClaimSet
+{
+    /**
+     * The empty set.
+     */
+    public static final ClaimSet NONE = new ClaimSet(0L);
+
+
+    /**
+     * The set of all the supported claims.
+     */
+    public static final ClaimSet ALL = new ClaimSet((1L << Claim.VALUES.length) - 1);
+
+
+    private final long mBits;
+
+
+    private ClaimSet(long bits)
+    {
+        mBits = bits;
+    }
+
+
+    /**
+     * Resolve claim names to a set of claims.
+     *
+     * @param claimNames
+     *         Claim names, which may have language tags (e.g. {@code
+     *         name#ja}). Unsupported claims are ignored. May be {@code null}.
+     *
+     * @return
+     *         The set of the supported claims among the names.
+     */
+    public static ClaimSet of(String... claimNames)
+    {
+        if (claimNames == null)
+        {
+            return NONE;
+        }
+
+        long bits = 0;
+
+        for (String claimName : claimNames)
+        {
+            if (claimName == null)
+            {
+                continue;
+            }
+
+            // Remove the language tag, if any.
+            int sharp = claimName.indexOf('#');
+            Claim claim = Claim.of((sharp < 0) ? claimName : claimName.substring(0, sharp));
+
+            if (claim != null)
+            {
+                bits |= 1L << claim.ordinal();
+            }
+        }
+
+        return (bits == 0) ? NONE : new ClaimSet(bits);
+    }
+
+
+    /**
+     * Check if this set contains the claim.
+     */
+    public boolean contains(Claim claim)
+    {
+        return (mBits & (1L << claim.ordinal())) != 0;
+    }
+
+
+    /**
+     * Check if this set contains all the claims of another set.
+     */
+    public boolean containsAll(ClaimSet other)
+    {
+        return (mBits & other.mBits) == other.mBits;
+    }
+
+
+    /**
+     * Get the union of this set and another set.
+     */
+    public ClaimSet union(ClaimSet other)
+    {
+        return containsAll(other) ? this : new ClaimSet(mBits | other.mBits);
+    }
+
+
+    /**
+     * Check if this set is empty.
+     */
+    public boolean isEmpty()
+    {
+        return mBits == 0;
+    }
+
+
+    /**
+     * The number of claims in this set.
+     */
+    public int size()
+    {
+        return Long.bitCount(mBits);
+    }
+
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return (other instanceof ClaimSet) && ((ClaimSet)other).mBits == mBits;
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(mBits);
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import com.authlete.common.dto.Address;
+
+
+/**
+ * A compact in-heap representation of a user record.
+ *
+ * <p>
+ * {@link UserEntity} has a field per claim, most of which refer to their
+ * own copies of strings that repeat across millions of users. This class
+ * instead holds
+ * </p>
+ *
+ * <ul>
+ *   <li>the values of low-cardinality claims (see {@link
+ *       Claim#isLowCardinality()}) as 16-bit codes of {@link
+ *       ClaimDictionary}, packed into one {@code long};
+ *   <li>{@code email_verified} and {@code phone_number_verified} as bits;
+ *   <li>{@code updated_at} as a primitive {@code long};
+ *   <li>the other present claims in a dense array ordered by claim ordinal,
+ *       with a bit mask telling which claims are in it. The country and
+ *       region of the address are shared through the dictionary.
+ * </ul>
+ *
+ * <p>
+ * Values in other languages, if any, are held by {@link LocalizedClaims}.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable.
+ * </p>
+ */
+public final class CompactUserRecord implements UserRecord
+{
+    /**
+     * Positions of the 16-bit codes of low-cardinality claims in {@link
+     * #mCodes}, indexed by claim ordinal, or -1.
+     */
+    private static final int[] SLOTS = new int[Claim.VALUES.length];
+
+
+    static
+    {
+        int slot = 0;
+
+        for (Claim claim : Claim.VALUES)
+        {
+            SLOTS[claim.ordinal()] = claim.isLowCardinality() ? slot++ : -1;
+        }
+
+        if (4 < slot)
+        {
+            throw new AssertionError("Too many low-cardinality claims.");
+        }
+    }
+
+
+    // Bits of mFlags.
+    private static final int EMAIL_VERIFIED_PRESENT        = 0x1;
+    private static final int EMAIL_VERIFIED_VALUE          = 0x2;
+    private static final int PHONE_NUMBER_VERIFIED_PRESENT = 0x4;
+    private static final int PHONE_NUMBER_VERIFIED_VALUE   = 0x8;
+
+
+    private static final long NO_UPDATED_AT = Long.MIN_VALUE;
+    private static final Object[] NO_VALUES = new Object[0];
+
+
+    private final String mSubject;
+    private final String mLoginId;
+    private final String mPassword;
+    private final long mCodes;
+    private final byte mFlags;
+    private final long mUpdatedAt;
+    private final int mMask;
+    private final Object[] mValues;
+    private final LocalizedClaims mLocalizedClaims;
+
+
+    private CompactUserRecord(
+            String subject, String loginId, String password,
+            long codes, byte flags, long updatedAt, int mask, Object[] values,
+            LocalizedClaims localizedClaims)
+    {
+        mSubject   = subject;
+        mLoginId   = loginId;
+        mPassword  = password;
+        mCodes     = codes;
+        mFlags     = flags;
+        mUpdatedAt = updatedAt;
+        mMask      = mask;
+        mValues    = values;
+        mLocalizedClaims = localizedClaims;
+    }
+
+
+    /**
+     * Create a compact copy of a user record. Attributes of the user are
+     * not copied.
+     */
+    public static CompactUserRecord of(UserRecord record)
+    {
+        if (record instanceof CompactUserRecord)
+        {
+            return (CompactUserRecord)record;
+        }
+
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            values[claim.ordinal()] = record.getClaim(claim);
+        }
+
+        return of(record.getSubject(), record.getLoginId(), record.getPassword(),
+                values, record.getLocalizedClaims());
+    }
+
+
+    /**
+     * Create a compact user record.
+     *
+     * @param values
+     *         The values of the claims, indexed by the ordinals of {@link
+     *         Claim}. Modified by this method.
+     *
+     * @param localizedClaims
+     *         The values of claims in other languages, or {@code null}.
+     */
+    static CompactUserRecord of(
+            String subject, String loginId, String password,
+            Object[] values, LocalizedClaims localizedClaims)
+    {
+        long codes = 0;
+        int flags = 0;
+        long updatedAt = NO_UPDATED_AT;
+        int mask = 0;
+        int count = 0;
+
+        for (Claim claim : Claim.VALUES)
+        {
+            Object value = values[claim.ordinal()];
+
+            if (value == null)
+            {
+                continue;
+            }
+
+            int slot = SLOTS[claim.ordinal()];
+
+            if (slot >= 0)
+            {
+                long code = ClaimDictionary.encode(value.toString());
+
+                if (code != ClaimDictionary.NONE)
+                {
+                    codes |= code << (slot * 16);
+                    continue;
+                }
+
+                // The dictionary is full. Hold the value as is.
+            }
+
+            switch (claim)
+            {
+                case EMAIL_VERIFIED:
+                    flags |= EMAIL_VERIFIED_PRESENT | (Boolean.TRUE.equals(value) ? EMAIL_VERIFIED_VALUE : 0);
+                    continue;
+
+                case PHONE_NUMBER_VERIFIED:
+                    flags |= PHONE_NUMBER_VERIFIED_PRESENT |
+                            (Boolean.TRUE.equals(value) ? PHONE_NUMBER_VERIFIED_VALUE : 0);
+                    continue;
+
+                case UPDATED_AT:
+                    updatedAt = ((Number)value).longValue();
+                    continue;
+
+                case ADDRESS:
+                    value = compact((Address)value);
+                    break;
+
+                default:
+                    break;
+            }
+
+            mask |= 1 << claim.ordinal();
+            values[count++] = value;
+        }
+
+        Object[] dense = (count == 0) ? NO_VALUES : new Object[count];
+        System.arraycopy(values, 0, dense, 0, count);
+
+        return new CompactUserRecord(subject, loginId, password,
+                codes, (byte)flags, updatedAt, mask, dense, localizedClaims);
+    }
+
+
+    private static Address compact(Address address)
+    {
+        return new Address()
+                .setFormatted(address.getFormatted())
+                .setStreetAddress(address.getStreetAddress())
+                .setLocality(address.getLocality())
+                .setRegion(ClaimDictionary.intern(address.getRegion()))
+                .setPostalCode(address.getPostalCode())
+                .setCountry(ClaimDictionary.intern(address.getCountry()));
+    }
+
+
+    @Override
+    public String getSubject()
+    {
+        return mSubject;
+    }
+
+
+    @Override
+    public String getLoginId()
+    {
+        return mLoginId;
+    }
+
+
+    @Override
+    public String getPassword()
+    {
+        return mPassword;
+    }
+
+
+    @Override
+    public Object getClaim(Claim claim)
+    {
+        int ordinal = claim.ordinal();
+        int bit = 1 << ordinal;
+
+        if ((mMask & bit) != 0)
+        {
+            // The number of claims in the array before this one.
+            return mValues[Integer.bitCount(mMask & (bit - 1))];
+        }
+
+        int slot = SLOTS[ordinal];
+
+        if (slot >= 0)
+        {
+            return ClaimDictionary.decode((int)(mCodes >>> (slot * 16)) & 0xFFFF);
+        }
+
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+                return flag(EMAIL_VERIFIED_PRESENT, EMAIL_VERIFIED_VALUE);
+
+            case PHONE_NUMBER_VERIFIED:
+                return flag(PHONE_NUMBER_VERIFIED_PRESENT, PHONE_NUMBER_VERIFIED_VALUE);
+
+            case UPDATED_AT:
+                return (mUpdatedAt != NO_UPDATED_AT) ? mUpdatedAt : null;
+
+            default:
+                return null;
+        }
+    }
+
+
+    private Boolean flag(int present, int value)
+    {
+        return ((mFlags & present) == 0) ? null : (mFlags & value) != 0;
+    }
+
+
+    @Override
+    public LocalizedClaims getLocalizedClaims()
+    {
+        return mLocalizedClaims;
+    }
+
+
+    @Override
+    public Object getClaim(String claimName, String languageTag)
+    {
+        return LocalizedClaims.getClaim(this, claimName, languageTag);
+    }
+
+
+    @Override
+    public Object getAttribute(String attributeName)
+    {
+        return null;
+    }
+}
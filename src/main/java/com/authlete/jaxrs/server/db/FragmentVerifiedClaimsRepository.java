@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.concurrent.ConcurrentHashMap;
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * A {@link VerifiedClaimsRepository} that keeps the verified claims of
+ * users in memory as {@link VerifiedClaimsFragments}.
+ *
+ * <p>
+ * A user's verified claims take one byte array and a small index instead
+ * of a graph of objects, and a lookup for a request builds only the parts
+ * that its matcher selects. Used by {@link VerifiedClaimsDao} when
+ * {@code resource.verified_claims.storage} is {@code fragments}.
+ * </p>
+ */
+public class FragmentVerifiedClaimsRepository implements VerifiedClaimsRepository
+{
+    private final ConcurrentHashMap<String, VerifiedClaimsFragments> mFragments = new ConcurrentHashMap<>();
+
+
+    /**
+     * Store the verified claims of a user.
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param verifiedClaims
+     *         The verified claims of the user, or {@code null} to remove
+     *         them.
+     */
+    public void put(String subject, VerifiedClaims verifiedClaims)
+    {
+        if (verifiedClaims == null)
+        {
+            mFragments.remove(subject);
+            return;
+        }
+
+        mFragments.put(subject, VerifiedClaimsFragments.of(verifiedClaims));
+    }
+
+
+    /**
+     * The number of users that have verified claims.
+     */
+    public int size()
+    {
+        return mFragments.size();
+    }
+
+
+    @Override
+    public VerifiedClaims findBySubject(String subject)
+    {
+        return findSelected(subject, VerifiedClaimsMatcher.ALL);
+    }
+
+
+    @Override
+    public VerifiedClaims findSelected(String subject, VerifiedClaimsMatcher matcher)
+    {
+        if (subject == null)
+        {
+            return null;
+        }
+
+        VerifiedClaimsFragments fragments = mFragments.get(subject);
+
+        return (fragments != null) ? fragments.select(matcher) : null;
+    }
+}
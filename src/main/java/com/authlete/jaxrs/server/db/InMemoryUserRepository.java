@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * A {@link UserRepository} that holds all the users in memory with hash
+ * indexes on the subject, the login ID, the normalized email address and
+ * the normalized phone number.
+ *
+ * <p>
+ * The indexes are immutable and published through a volatile field, so
+ * lookups take no lock and run in constant time regardless of the number
+ * of users. {@link #replaceAll(Collection)} builds new indexes and swaps
+ * them atomically; lookups in progress keep using the previous ones.
+ * When several users share an identifier, the first one wins.
+ * </p>
+ *
+ * <p>
+ * To hold millions of users, pass {@link CompactUserRecord}s rather than
+ * {@link UserEntity} instances.
+ * </p>
+ */
+public class InMemoryUserRepository implements UserRepository
+{
+    /**
+     * An immutable version of the indexes.
+     */
+    private static final class Index
+    {
+        final Map<String, UserRecord> bySubject;
+        final Map<String, UserRecord> byLoginId;
+        final Map<String, UserRecord> byEmail;
+        final Map<String, UserRecord> byPhoneNumber;
+
+
+        Index(Collection<? extends UserRecord> users)
+        {
+            // Avoid rehashing while millions of users are added.
+            int capacity = (int)Math.min(Integer.MAX_VALUE, users.size() * 4L / 3 + 1);
+
+            bySubject     = new HashMap<>(capacity);
+            byLoginId     = new HashMap<>(capacity);
+            byEmail       = new HashMap<>(capacity);
+            byPhoneNumber = new HashMap<>(capacity);
+
+            for (UserRecord user : users)
+            {
+                put(bySubject, user.getSubject(), user);
+                put(byLoginId, user.getLoginId(), user);
+                put(byEmail, UserIdentifiers.normalizeEmail(
+                        (String)user.getClaim(Claim.EMAIL)), user);
+                put(byPhoneNumber, UserIdentifiers.normalizePhoneNumber(
+                        (String)user.getClaim(Claim.PHONE_NUMBER)), user);
+            }
+        }
+
+
+        private static void put(Map<String, UserRecord> index, String key, UserRecord user)
+        {
+            if (key != null)
+            {
+                index.putIfAbsent(key, user);
+            }
+        }
+    }
+
+
+    private volatile Index mIndex;
+
+
+    /**
+     * Constructor with the initial users.
+     */
+    public InMemoryUserRepository(Collection<? extends UserRecord> users)
+    {
+        mIndex = new Index(users);
+    }
+
+
+    /**
+     * Replace all the users.
+     */
+    public void replaceAll(Collection<? extends UserRecord> users)
+    {
+        mIndex = new Index(users);
+    }
+
+
+    @Override
+    public UserRecord findBySubject(String subject)
+    {
+        return (subject != null) ? mIndex.bySubject.get(subject) : null;
+    }
+
+
+    @Override
+    public UserRecord findByLoginId(String loginId)
+    {
+        return (loginId != null) ? mIndex.byLoginId.get(loginId) : null;
+    }
+
+
+    @Override
+    public UserRecord findByEmail(String email)
+    {
+        String key = UserIdentifiers.normalizeEmail(email);
+
+        return (key != null) ? mIndex.byEmail.get(key) : null;
+    }
+
+
+    @Override
+    public UserRecord findByPhoneNumber(String phoneNumber)
+    {
+        String key = UserIdentifiers.normalizePhoneNumber(phoneNumber);
+
+        return (key != null) ? mIndex.byPhoneNumber.get(key) : null;
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mIndex.bySubject.size();
+    }
+}
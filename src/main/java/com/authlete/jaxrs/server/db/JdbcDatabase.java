@@ -0,0 +1,564 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+
+/**
+ * A JDBC database with a bounded pool of connections, which executes
+ * read-only queries by prepared statements.
+ *
+ * <p>
+ * Each pooled connection keeps the statements it has prepared, so a query
+ * is prepared once per connection rather than once per execution. Idle
+ * connections are reused most-recently-used first and validated before
+ * reuse if they have been idle for a while. A connection on which a query
+ * fails is closed instead of being returned to the pool.
+ * </p>
+ *
+ * <p>
+ * The latency of each query, including the time spent waiting for a
+ * connection, is recorded and exposed via JMX. Queries slower than the
+ * threshold are logged.
+ * </p>
+ *
+ * @see UserDatabase
+ */
+public class JdbcDatabase implements JdbcDatabaseMXBean, AutoCloseable
+{
+    /**
+     * Binds parameters to a prepared statement.
+     */
+    @FunctionalInterface
+    interface Binder
+    {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+
+    /**
+     * Reads the result of a query.
+     */
+    @FunctionalInterface
+    interface Reader<T>
+    {
+        T read(ResultSet resultSet) throws SQLException;
+    }
+
+
+    /**
+     * Executes queries on one connection. See {@link
+     * JdbcDatabase#withConnection(Work)}.
+     */
+    @FunctionalInterface
+    interface Work<T>
+    {
+        T run(Session session) throws SQLException;
+    }
+
+
+    /**
+     * Queries on a connection acquired by {@link
+     * JdbcDatabase#withConnection(Work)}. Used by one thread at a time.
+     */
+    final class Session
+    {
+        private final PooledConnection mConnection;
+        private long mStarted;
+
+
+        private Session(PooledConnection connection, long started)
+        {
+            mConnection = connection;
+            mStarted    = started;
+        }
+
+
+        /**
+         * Execute a query on the connection of this session.
+         *
+         * @see JdbcDatabase#query(String, Binder, Reader)
+         */
+        <T> T query(String sql, Binder binder, Reader<T> reader) throws SQLException
+        {
+            try
+            {
+                PreparedStatement statement = mConnection.prepare(sql);
+                binder.bind(statement);
+
+                try (ResultSet resultSet = statement.executeQuery())
+                {
+                    return reader.read(resultSet);
+                }
+            }
+            finally
+            {
+                // The first query includes the time spent waiting for the
+                // connection.
+                long now = System.nanoTime();
+                record(sql, now - mStarted);
+                mStarted = now;
+            }
+        }
+    }
+
+
+    /**
+     * A pooled connection and the statements prepared on it. Used by one
+     * thread at a time.
+     */
+    private static final class PooledConnection
+    {
+        final Connection connection;
+        final int queryTimeout;
+        final Map<String, PreparedStatement> statements;
+        final LongAdder prepared;
+        long lastUsed;
+
+
+        PooledConnection(Connection connection, int maxStatements, int queryTimeout, LongAdder prepared)
+        {
+            this.connection   = connection;
+            this.queryTimeout = queryTimeout;
+            this.prepared     = prepared;
+            this.statements   = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest)
+                {
+                    if (size() <= maxStatements)
+                    {
+                        return false;
+                    }
+
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+            };
+        }
+
+
+        PreparedStatement prepare(String sql) throws SQLException
+        {
+            PreparedStatement statement = statements.get(sql);
+
+            if (statement == null)
+            {
+                statement = connection.prepareStatement(sql);
+                statement.setQueryTimeout(queryTimeout);
+                statements.put(sql, statement);
+                prepared.increment();
+            }
+
+            return statement;
+        }
+
+
+        void close()
+        {
+            statements.values().forEach(JdbcDatabase::closeQuietly);
+            statements.clear();
+            closeQuietly(connection);
+        }
+    }
+
+
+    private static final Logger sLogger = Logger.getLogger(JdbcDatabase.class.getName());
+
+
+    /**
+     * Idle connections older than this are validated before reuse.
+     */
+    private static final long VALIDATION_INTERVAL = 30 * 1000L;
+
+
+    private final String mUrl;
+    private final Properties mInfo;
+    private final int mMaxConnections;
+    private final int mMaxStatements;
+    private final long mAcquireTimeout;
+    private final int mQueryTimeout;
+    private final long mSlowQueryThreshold;
+    private final Semaphore mPermits;
+    private final ConcurrentLinkedDeque<PooledConnection> mIdle = new ConcurrentLinkedDeque<>();
+    private volatile boolean mClosed;
+    private final LongAdder mConnectionsOpened = new LongAdder();
+    private final LongAdder mAcquireTimeouts = new LongAdder();
+    private final LongAdder mStatementsPrepared = new LongAdder();
+    private final LongAdder mQueries = new LongAdder();
+    private final LongAdder mQueryErrors = new LongAdder();
+    private final LongAdder mSlowQueries = new LongAdder();
+    private final LongAdder mQueryNanos = new LongAdder();
+    private final AtomicLong mMaxQueryNanos = new AtomicLong();
+
+
+    /**
+     * Constructor.
+     *
+     * @param url
+     *         The JDBC URL of the database.
+     *
+     * @param info
+     *         Connection properties such as {@code user} and {@code password}.
+     *
+     * @param maxConnections
+     *         The maximum number of connections.
+     *
+     * @param maxStatements
+     *         The maximum number of prepared statements kept per connection.
+     *
+     * @param acquireTimeout
+     *         The maximum time in milliseconds to wait for a connection.
+     *
+     * @param queryTimeout
+     *         The query timeout in seconds, or 0 for no timeout.
+     *
+     * @param slowQueryThreshold
+     *         Queries that take this many milliseconds or longer are logged.
+     *         0 disables logging.
+     */
+    public JdbcDatabase(
+            String url, Properties info, int maxConnections, int maxStatements,
+            long acquireTimeout, int queryTimeout, long slowQueryThreshold)
+    {
+        mUrl                = url;
+        mInfo               = info;
+        mMaxConnections     = maxConnections;
+        mMaxStatements      = maxStatements;
+        mAcquireTimeout     = acquireTimeout;
+        mQueryTimeout       = queryTimeout;
+        mSlowQueryThreshold = slowQueryThreshold;
+        mPermits            = new Semaphore(maxConnections, true);
+    }
+
+
+    /**
+     * Execute a query.
+     *
+     * @param sql
+     *         The SQL statement, which is prepared once per connection.
+     *
+     * @param binder
+     *         Binds the parameters of the statement.
+     *
+     * @param reader
+     *         Reads the result. Must not keep the result set.
+     *
+     * @return
+     *         The value returned by the reader.
+     *
+     * @throws DataAccessException
+     *         No connection is available or the query failed.
+     */
+    <T> T query(String sql, Binder binder, Reader<T> reader)
+    {
+        return withConnection(session -> session.query(sql, binder, reader));
+    }
+
+
+    /**
+     * Execute queries on one connection, so that a lookup made of several
+     * queries acquires a connection from the pool only once.
+     *
+     * @param work
+     *         Executes queries by {@link Session#query(String, Binder, Reader)}.
+     *
+     * @return
+     *         The value returned by the work.
+     *
+     * @throws DataAccessException
+     *         No connection is available or a query failed.
+     */
+    <T> T withConnection(Work<T> work)
+    {
+        long started = System.nanoTime();
+        PooledConnection conn = acquire();
+        boolean broken = true;
+
+        try
+        {
+            T result = work.run(new Session(conn, started));
+
+            broken = false;
+
+            return result;
+        }
+        catch (SQLException cause)
+        {
+            mQueryErrors.increment();
+            throw new DataAccessException("Failed to query the user database: " + cause.getMessage(), cause);
+        }
+        finally
+        {
+            release(conn, broken);
+        }
+    }
+
+
+    private PooledConnection acquire()
+    {
+        if (mClosed)
+        {
+            throw new DataAccessException("The user database has been closed.");
+        }
+
+        boolean acquired;
+
+        try
+        {
+            acquired = mPermits.tryAcquire(mAcquireTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for a connection to the user database.", e);
+        }
+
+        if (!acquired)
+        {
+            mAcquireTimeouts.increment();
+            throw new DataAccessException("Timed out waiting for a connection to the user database.");
+        }
+
+        try
+        {
+            PooledConnection conn = reuse();
+
+            return (conn != null) ? conn : open();
+        }
+        catch (RuntimeException e)
+        {
+            mPermits.release();
+            throw e;
+        }
+    }
+
+
+    private PooledConnection reuse()
+    {
+        PooledConnection conn;
+
+        // The most recently used connection first, which is least likely
+        // to have been closed by the server.
+        while ((conn = mIdle.pollFirst()) != null)
+        {
+            if (System.currentTimeMillis() - conn.lastUsed < VALIDATION_INTERVAL || isValid(conn))
+            {
+                return conn;
+            }
+
+            conn.close();
+        }
+
+        return null;
+    }
+
+
+    private static boolean isValid(PooledConnection conn)
+    {
+        try
+        {
+            return conn.connection.isValid(1);
+        }
+        catch (SQLException e)
+        {
+            return false;
+        }
+    }
+
+
+    private PooledConnection open()
+    {
+        try
+        {
+            Connection connection = DriverManager.getConnection(mUrl, mInfo);
+            connection.setReadOnly(true);
+            connection.setAutoCommit(true);
+
+            mConnectionsOpened.increment();
+
+            return new PooledConnection(connection, mMaxStatements, mQueryTimeout, mStatementsPrepared);
+        }
+        catch (SQLException cause)
+        {
+            throw new DataAccessException("Failed to connect to the user database: " + cause.getMessage(), cause);
+        }
+    }
+
+
+    private void release(PooledConnection conn, boolean broken)
+    {
+        if (broken || mClosed)
+        {
+            conn.close();
+        }
+        else
+        {
+            conn.lastUsed = System.currentTimeMillis();
+            mIdle.offerFirst(conn);
+        }
+
+        mPermits.release();
+    }
+
+
+    private void record(String sql, long elapsed)
+    {
+        mQueries.increment();
+        mQueryNanos.add(elapsed);
+        mMaxQueryNanos.accumulateAndGet(elapsed, Math::max);
+
+        if (0 < mSlowQueryThreshold && mSlowQueryThreshold * 1000000L <= elapsed)
+        {
+            mSlowQueries.increment();
+            sLogger.warning(String.format("Slow query (%.1f ms): %s", elapsed / 1e6, sql));
+        }
+    }
+
+
+    /**
+     * Close the idle connections and refuse further queries. Connections
+     * in use are closed when they are released.
+     */
+    @Override
+    public void close()
+    {
+        mClosed = true;
+
+        PooledConnection conn;
+
+        while ((conn = mIdle.pollFirst()) != null)
+        {
+            conn.close();
+        }
+    }
+
+
+    private static void closeQuietly(AutoCloseable closeable)
+    {
+        try
+        {
+            closeable.close();
+        }
+        catch (Exception e)
+        {
+            // Ignore.
+        }
+    }
+
+
+    @Override
+    public int getMaxConnections()
+    {
+        return mMaxConnections;
+    }
+
+
+    @Override
+    public int getActive()
+    {
+        return mMaxConnections - mPermits.availablePermits();
+    }
+
+
+    @Override
+    public int getIdle()
+    {
+        return mIdle.size();
+    }
+
+
+    @Override
+    public int getWaiting()
+    {
+        return mPermits.getQueueLength();
+    }
+
+
+    @Override
+    public long getConnectionsOpened()
+    {
+        return mConnectionsOpened.sum();
+    }
+
+
+    @Override
+    public long getAcquireTimeouts()
+    {
+        return mAcquireTimeouts.sum();
+    }
+
+
+    @Override
+    public long getStatementsPrepared()
+    {
+        return mStatementsPrepared.sum();
+    }
+
+
+    @Override
+    public long getQueries()
+    {
+        return mQueries.sum();
+    }
+
+
+    @Override
+    public long getQueryErrors()
+    {
+        return mQueryErrors.sum();
+    }
+
+
+    @Override
+    public long getSlowQueries()
+    {
+        return mSlowQueries.sum();
+    }
+
+
+    @Override
+    public double getAverageQueryMillis()
+    {
+        long count = mQueries.sum();
+
+        return (count == 0) ? 0 : mQueryNanos.sum() / 1e6 / count;
+    }
+
+
+    @Override
+    public double getMaxQueryMillis()
+    {
+        return mMaxQueryNanos.get() / 1e6;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * JMX view of {@link JdbcDatabase}.
+ */
+public interface JdbcDatabaseMXBean
+{
+    /**
+     * The size of the connection pool.
+     */
+    int getMaxConnections();
+
+
+    /**
+     * The number of connections in use.
+     */
+    int getActive();
+
+
+    /**
+     * The number of open connections not used by any query.
+     */
+    int getIdle();
+
+
+    /**
+     * The number of callers waiting for a connection.
+     */
+    int getWaiting();
+
+
+    /**
+     * The number of connections opened so far.
+     */
+    long getConnectionsOpened();
+
+
+    /**
+     * The number of callers that gave up waiting for a connection.
+     */
+    long getAcquireTimeouts();
+
+
+    /**
+     * The number of statements prepared. Keeps growing with the queries if
+     * {@code resource.user_db.max_statements} is smaller than the number of
+     * distinct queries.
+     */
+    long getStatementsPrepared();
+
+
+    /**
+     * The number of queries executed.
+     */
+    long getQueries();
+
+
+    /**
+     * The number of queries that failed.
+     */
+    long getQueryErrors();
+
+
+    /**
+     * The number of queries slower than the threshold.
+     */
+    long getSlowQueries();
+
+
+    /**
+     * The average time in milliseconds taken by a query, including the
+     * time spent waiting for a connection.
+     */
+    double getAverageQueryMillis();
+
+
+    /**
+     * The longest time in milliseconds taken by a query.
+     */
+    double getMaxQueryMillis();
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.ConcurrentHashMap;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * A {@link UserRepository} backed by a table of a relational database.
+ *
+ * <p>
+ * Each claim is stored in a column of the same name, except that the
+ * members of {@code address} are stored in separate columns. {@code
+ * email_key} and {@code phone_number_key} hold the email address and the
+ * phone number normalized by {@link UserIdentifiers}, so that users can be
+ * looked up by indexes on these columns. The application that writes the
+ * table is responsible for keeping them up to date.
+ * </p>
+ *
+ * <pre>
+ * CREATE TABLE users (
+ *   subject                VARCHAR(255) PRIMARY KEY,
+ *   login_id               VARCHAR(255) UNIQUE,
+ *   password               VARCHAR(255),
+ *   email_key              VARCHAR(255),
+ *   phone_number_key       VARCHAR(32),
+ *   name                   VARCHAR(255),
+ *   given_name             VARCHAR(255),
+ *   family_name            VARCHAR(255),
+ *   middle_name            VARCHAR(255),
+ *   nickname               VARCHAR(255),
+ *   preferred_username     VARCHAR(255),
+ *   profile                VARCHAR(1024),
+ *   picture                VARCHAR(1024),
+ *   website                VARCHAR(1024),
+ *   email                  VARCHAR(255),
+ *   email_verified         BOOLEAN,
+ *   gender                 VARCHAR(32),
+ *   birthdate              VARCHAR(10),
+ *   zoneinfo               VARCHAR(64),
+ *   locale                 VARCHAR(35),
+ *   phone_number           VARCHAR(64),
+ *   phone_number_verified  BOOLEAN,
+ *   address_formatted      VARCHAR(1024),
+ *   address_street_address VARCHAR(255),
+ *   address_locality       VARCHAR(255),
+ *   address_region         VARCHAR(255),
+ *   address_postal_code    VARCHAR(32),
+ *   address_country        VARCHAR(255),
+ *   updated_at             TIMESTAMP
+ * );
+ *
+ * CREATE INDEX users_email_key ON users (email_key);
+ * CREATE INDEX users_phone_number_key ON users (phone_number_key);
+ * </pre>
+ *
+ * <p>
+ * {@link #findClaims(String, ClaimSet)} selects only the columns of the
+ * requested claims in a single query, whose SQL is built once per set of
+ * claims and prepared once per connection.
+ * </p>
+ *
+ * <p>
+ * The table has no columns for values in other languages (see {@link
+ * LocalizedClaims}), so claims requested with a language tag, e.g. {@code
+ * name#ja}, are never returned by this repository.
+ * </p>
+ */
+public class JdbcUserRepository implements UserRepository
+{
+    /**
+     * Columns of the claims, indexed by the ordinals of {@link Claim}.
+     */
+    private static final String[][] COLUMNS = new String[Claim.VALUES.length][];
+
+
+    static
+    {
+        for (Claim claim : Claim.VALUES)
+        {
+            COLUMNS[claim.ordinal()] = (claim == Claim.ADDRESS)
+                    ? new String[] {
+                            "address_formatted", "address_street_address", "address_locality",
+                            "address_region", "address_postal_code", "address_country" }
+                    : new String[] { claim.getName() };
+        }
+    }
+
+
+    private static final String TABLE = "users";
+
+
+    private final JdbcDatabase mDatabase;
+    private final String mSelectAll;
+
+
+    /**
+     * SQL statements to select the claims, keyed by the sets of claims.
+     */
+    private final ConcurrentHashMap<ClaimSet, String> mSelectClaims = new ConcurrentHashMap<>();
+
+
+    public JdbcUserRepository(JdbcDatabase database)
+    {
+        mDatabase  = database;
+        mSelectAll = select(ClaimSet.ALL, "login_id, password, ");
+    }
+
+
+    private static String select(ClaimSet claims, String prefix)
+    {
+        StringBuilder sb = new StringBuilder("SELECT ").append(prefix).append("subject");
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if (claims.contains(claim))
+            {
+                for (String column : COLUMNS[claim.ordinal()])
+                {
+                    sb.append(", ").append(column);
+                }
+            }
+        }
+
+        return sb.append(" FROM ").append(TABLE).append(" WHERE ").toString();
+    }
+
+
+    @Override
+    public UserRecord findBySubject(String subject)
+    {
+        return findRecord("subject", subject);
+    }
+
+
+    @Override
+    public UserRecord findByLoginId(String loginId)
+    {
+        return findRecord("login_id", loginId);
+    }
+
+
+    @Override
+    public UserRecord findByEmail(String email)
+    {
+        return findRecord("email_key", UserIdentifiers.normalizeEmail(email));
+    }
+
+
+    @Override
+    public UserRecord findByPhoneNumber(String phoneNumber)
+    {
+        return findRecord("phone_number_key", UserIdentifiers.normalizePhoneNumber(phoneNumber));
+    }
+
+
+    private UserRecord findRecord(String column, String value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        return mDatabase.query(mSelectAll + column + " = ?",
+                statement -> statement.setString(1, value),
+                resultSet -> {
+                    if (!resultSet.next())
+                    {
+                        return null;
+                    }
+
+                    UserClaims claims = readClaims(resultSet, 3, ClaimSet.ALL);
+
+                    return new UserRow(resultSet.getString(1), resultSet.getString(2), claims);
+                });
+    }
+
+
+    @Override
+    public UserClaims findClaims(String subject, ClaimSet claims)
+    {
+        if (subject == null)
+        {
+            return null;
+        }
+
+        String sql = mSelectClaims.computeIfAbsent(claims, set -> select(set, "") + "subject = ?");
+
+        return mDatabase.query(sql,
+                statement -> statement.setString(1, subject),
+                resultSet -> resultSet.next() ? readClaims(resultSet, 1, claims) : null);
+    }
+
+
+    private static UserClaims readClaims(ResultSet resultSet, int index, ClaimSet claims) throws SQLException
+    {
+        String subject = resultSet.getString(index++);
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if (claims.contains(claim))
+            {
+                values[claim.ordinal()] = readClaim(resultSet, index, claim);
+                index += COLUMNS[claim.ordinal()].length;
+            }
+        }
+
+        return new UserClaims(subject, claims, values);
+    }
+
+
+    private static Object readClaim(ResultSet resultSet, int index, Claim claim) throws SQLException
+    {
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
+                boolean verified = resultSet.getBoolean(index);
+                return resultSet.wasNull() ? null : verified;
+
+            case UPDATED_AT:
+                Timestamp updatedAt = resultSet.getTimestamp(index);
+                return (updatedAt != null) ? updatedAt.getTime() / 1000L : null;
+
+            case ADDRESS:
+                return readAddress(resultSet, index);
+
+            default:
+                return resultSet.getString(index);
+        }
+    }
+
+
+    private static Address readAddress(ResultSet resultSet, int index) throws SQLException
+    {
+        String formatted     = resultSet.getString(index);
+        String streetAddress = resultSet.getString(index + 1);
+        String locality      = resultSet.getString(index + 2);
+        String region        = resultSet.getString(index + 3);
+        String postalCode    = resultSet.getString(index + 4);
+        String country       = resultSet.getString(index + 5);
+
+        return UserRecords.toAddress(formatted, streetAddress, locality, region, postalCode, country);
+    }
+
+
+    @Override
+    public int size()
+    {
+        Integer count = mDatabase.query("SELECT COUNT(*) FROM " + TABLE,
+                statement -> {},
+                resultSet -> resultSet.next() ? resultSet.getInt(1) : 0);
+
+        return count;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Issuer;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * A {@link VerifiedClaimsRepository} backed by tables of a relational
+ * database.
+ *
+ * <p>
+ * A user has at most one set of verified claims. Its verification, the
+ * evidence and the claims are stored in separate tables and read by three
+ * queries on one connection. Only {@code id_document} evidence is supported. The evidence
+ * is not read if the request does not select it.
+ * </p>
+ *
+ * <pre>
+ * CREATE TABLE verified_claims (
+ *   subject              VARCHAR(255) PRIMARY KEY,
+ *   trust_framework      VARCHAR(255) NOT NULL,
+ *   verification_time    VARCHAR(32),
+ *   verification_process VARCHAR(255)
+ * );
+ *
+ * CREATE TABLE verified_claims_evidence (
+ *   subject              VARCHAR(255) NOT NULL,
+ *   seq                  INTEGER NOT NULL,
+ *   method               VARCHAR(32),
+ *   document_type        VARCHAR(64),
+ *   document_number      VARCHAR(255),
+ *   issuer_name          VARCHAR(255),
+ *   issuer_country       VARCHAR(64),
+ *   date_of_issuance     VARCHAR(10),
+ *   date_of_expiry       VARCHAR(10),
+ *   PRIMARY KEY (subject, seq)
+ * );
+ *
+ * CREATE TABLE verified_claims_claims (
+ *   subject              VARCHAR(255) NOT NULL,
+ *   seq                  INTEGER NOT NULL,
+ *   name                 VARCHAR(255) NOT NULL,
+ *   claim_value          VARCHAR(1024),
+ *   PRIMARY KEY (subject, seq)
+ * );
+ * </pre>
+ */
+public class JdbcVerifiedClaimsRepository implements VerifiedClaimsRepository
+{
+    private static final String SELECT_VERIFICATION =
+            "SELECT trust_framework, verification_time, verification_process " +
+            "FROM verified_claims WHERE subject = ?";
+
+
+    private static final String SELECT_EVIDENCE =
+            "SELECT method, document_type, document_number, issuer_name, issuer_country, " +
+            "date_of_issuance, date_of_expiry " +
+            "FROM verified_claims_evidence WHERE subject = ? ORDER BY seq";
+
+
+    private static final String SELECT_CLAIMS =
+            "SELECT name, claim_value FROM verified_claims_claims WHERE subject = ? ORDER BY seq";
+
+
+    private final JdbcDatabase mDatabase;
+
+
+    public JdbcVerifiedClaimsRepository(JdbcDatabase database)
+    {
+        mDatabase = database;
+    }
+
+
+    @Override
+    public VerifiedClaims findBySubject(String subject)
+    {
+        return findBySubject(subject, VerifiedClaimsMatcher.ALL);
+    }
+
+
+    @Override
+    public VerifiedClaims findBySubject(String subject, VerifiedClaimsMatcher matcher)
+    {
+        if (subject == null)
+        {
+            return null;
+        }
+
+        return mDatabase.withConnection(session -> {
+            Verification verification = session.query(SELECT_VERIFICATION,
+                    statement -> statement.setString(1, subject),
+                    resultSet -> {
+                        if (!resultSet.next())
+                        {
+                            return null;
+                        }
+
+                        return new Verification()
+                                .setTrustFramework(resultSet.getString(1))
+                                .setTime(resultSet.getString(2))
+                                .setVerificationProcess(resultSet.getString(3));
+                    });
+
+            if (verification == null)
+            {
+                // The user has no verified claims.
+                return null;
+            }
+
+            if (matcher.requiresEvidence())
+            {
+                session.query(SELECT_EVIDENCE,
+                        statement -> statement.setString(1, subject),
+                        resultSet -> {
+                            while (resultSet.next())
+                            {
+                                verification.addEvidence(new IDDocument()
+                                        .setMethod(resultSet.getString(1))
+                                        .setDocument(new Document()
+                                                .setType(resultSet.getString(2))
+                                                .setNumber(resultSet.getString(3))
+                                                .setIssuer(new Issuer()
+                                                        .setName(resultSet.getString(4))
+                                                        .setCountry(resultSet.getString(5)))
+                                                .setDateOfIssuance(resultSet.getString(6))
+                                                .setDateOfExpiry(resultSet.getString(7))));
+                            }
+
+                            return null;
+                        });
+            }
+
+            Claims claims = session.query(SELECT_CLAIMS,
+                    statement -> statement.setString(1, subject),
+                    resultSet -> {
+                        Claims result = new Claims();
+
+                        while (resultSet.next())
+                        {
+                            result.putClaim(resultSet.getString(1), resultSet.getString(2));
+                        }
+
+                        return result;
+                    });
+
+            return new VerifiedClaims()
+                    .setVerification(verification)
+                    .setClaims(claims);
+        });
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * A normalized BCP 47 language tag together with its fallback chain.
+ *
+ * <p>
+ * Tags are normalized by {@link Locale#forLanguageTag(String)}, e.g.
+ * {@code zh-hant-tw} becomes {@code zh-Hant-TW}. The fallback chain is
+ * computed by the lookup scheme of RFC 4647: subtags are removed from the
+ * end one by one, together with a preceding single-character subtag, e.g.
+ * {@code zh-Hant-TW}, {@code zh-Hant}, {@code zh}.
+ * </p>
+ *
+ * <p>
+ * Resolved tags are cached by both the given and the normalized form, so
+ * that a tag is parsed once. Because tags come from requests, the cache
+ * stops growing at {@code 10000} entries; tags beyond that are resolved
+ * on every call.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc4647#section-3.4"
+ *      >RFC 4647, 3.4. Lookup</a>
+ */
+public final class LanguageTag
+{
+    private static final int MAX_CACHED = 10000;
+
+
+    private static final ConcurrentHashMap<String, LanguageTag> sCache = new ConcurrentHashMap<>();
+
+
+    private final String mTag;
+
+
+    /**
+     * This tag followed by less specific tags.
+     */
+    private final LanguageTag[] mFallbacks;
+
+
+    private LanguageTag(String tag, LanguageTag parent)
+    {
+        mTag = tag;
+
+        if (parent == null)
+        {
+            mFallbacks = new LanguageTag[] { this };
+        }
+        else
+        {
+            mFallbacks = new LanguageTag[parent.mFallbacks.length + 1];
+            mFallbacks[0] = this;
+            System.arraycopy(parent.mFallbacks, 0, mFallbacks, 1, parent.mFallbacks.length);
+        }
+    }
+
+
+    /**
+     * Get the language tag.
+     *
+     * @param tag
+     *         A BCP 47 language tag in any case, e.g. {@code ja-jp}.
+     *
+     * @return
+     *         The normalized language tag, or {@code null} if {@code tag} is
+     *         {@code null} or not well-formed.
+     */
+    public static LanguageTag of(String tag)
+    {
+        if (tag == null)
+        {
+            return null;
+        }
+
+        LanguageTag resolved = sCache.get(tag);
+
+        if (resolved != null)
+        {
+            return resolved;
+        }
+
+        String normalized = normalize(tag);
+
+        if (normalized == null)
+        {
+            return null;
+        }
+
+        resolved = sCache.get(normalized);
+
+        if (resolved == null)
+        {
+            resolved = new LanguageTag(normalized, of(truncate(normalized)));
+            cache(normalized, resolved);
+        }
+
+        cache(tag, resolved);
+
+        return resolved;
+    }
+
+
+    private static void cache(String key, LanguageTag tag)
+    {
+        if (sCache.size() < MAX_CACHED)
+        {
+            sCache.putIfAbsent(key, tag);
+        }
+    }
+
+
+    private static String normalize(String tag)
+    {
+        String normalized = Locale.forLanguageTag(tag.trim()).toLanguageTag();
+
+        // "und" (undetermined) is returned for tags that are not well-formed.
+        return "und".equals(normalized) ? null : normalized;
+    }
+
+
+    /**
+     * Remove the last subtag, and a single-character subtag before it.
+     */
+    private static String truncate(String tag)
+    {
+        int hyphen = tag.lastIndexOf('-');
+
+        if (hyphen < 0)
+        {
+            return null;
+        }
+
+        if (2 <= hyphen && tag.charAt(hyphen - 2) == '-')
+        {
+            // e.g. "de-DE-x-goethe" -> "de-DE"
+            hyphen -= 2;
+        }
+
+        return tag.substring(0, hyphen);
+    }
+
+
+    /**
+     * Get the tags to try in order: this tag followed by less specific
+     * tags. Not to be modified.
+     */
+    LanguageTag[] getFallbacks()
+    {
+        return mFallbacks;
+    }
+
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return this == other ||
+               (other instanceof LanguageTag && mTag.equals(((LanguageTag)other).mTag));
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return mTag.hashCode();
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return mTag;
+    }
+}
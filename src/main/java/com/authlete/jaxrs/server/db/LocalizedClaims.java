@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Values of claims of a user in languages other than the default, e.g.
+ * {@code name#ja}.
+ *
+ * <p>
+ * The variants are held in three parallel arrays sorted by claim, and a
+ * bit mask tells which claims have variants, so a lookup of a claim
+ * without variants costs one bit test. Otherwise, the fallback chain of
+ * the requested tag (see {@link LanguageTag}) is tried against the few
+ * variants of the claim. For example, a variant tagged {@code ja} is used
+ * for {@code name#ja-JP}. The untagged value is not used as a fallback,
+ * because it is not known to be in the requested language.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and built by {@link Builder}.
+ * </p>
+ */
+public final class LocalizedClaims
+{
+    /**
+     * Builds {@link LocalizedClaims}.
+     */
+    public static final class Builder
+    {
+        private final List<Claim> mClaims = new ArrayList<>();
+        private final List<LanguageTag> mTags = new ArrayList<>();
+        private final List<Object> mValues = new ArrayList<>();
+
+
+        private Builder()
+        {
+        }
+
+
+        /**
+         * Add a variant of a claim.
+         *
+         * @param claim
+         *         A claim.
+         *
+         * @param languageTag
+         *         The BCP 47 language tag of the value. Variants with a tag
+         *         that is not well-formed are ignored.
+         *
+         * @param value
+         *         The value of the claim in the language. {@code null} is
+         *         ignored.
+         *
+         * @return
+         *         {@code this} object.
+         */
+        public Builder add(Claim claim, String languageTag, Object value)
+        {
+            LanguageTag tag = LanguageTag.of(languageTag);
+
+            if (claim == null || tag == null || value == null)
+            {
+                return this;
+            }
+
+            for (int i = 0; i < mClaims.size(); i++)
+            {
+                if (mClaims.get(i) == claim && mTags.get(i).equals(tag))
+                {
+                    // Replace the previous value.
+                    mValues.set(i, value);
+                    return this;
+                }
+            }
+
+            mClaims.add(claim);
+            mTags.add(tag);
+            mValues.add(value);
+
+            return this;
+        }
+
+
+        /**
+         * Build {@link LocalizedClaims}.
+         *
+         * @return
+         *         The localized claims, or {@code null} if no variant has
+         *         been added.
+         */
+        public LocalizedClaims build()
+        {
+            int count = mClaims.size();
+
+            if (count == 0)
+            {
+                return null;
+            }
+
+            byte[] claims        = new byte[count];
+            LanguageTag[] tags   = new LanguageTag[count];
+            Object[] values      = new Object[count];
+            long mask            = 0;
+            int index            = 0;
+
+            // Group the variants by claim.
+            for (Claim claim : Claim.VALUES)
+            {
+                for (int i = 0; i < count; i++)
+                {
+                    if (mClaims.get(i) == claim)
+                    {
+                        claims[index] = (byte)claim.ordinal();
+                        tags[index]   = mTags.get(i);
+                        values[index] = mValues.get(i);
+                        mask |= 1L << claim.ordinal();
+                        index++;
+                    }
+                }
+            }
+
+            return new LocalizedClaims(mask, claims, tags, values);
+        }
+    }
+
+
+    private final long mMask;
+    private final byte[] mClaims;
+    private final LanguageTag[] mTags;
+    private final Object[] mValues;
+
+
+    private LocalizedClaims(long mask, byte[] claims, LanguageTag[] tags, Object[] values)
+    {
+        mMask   = mask;
+        mClaims = claims;
+        mTags   = tags;
+        mValues = values;
+    }
+
+
+    /**
+     * Create a builder.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+
+    /**
+     * Get the value of a claim of a user, in the language if a language
+     * tag is given. Used by implementations of {@link UserRecord}.
+     */
+    static Object getClaim(UserRecord record, String claimName, String languageTag)
+    {
+        Claim claim = Claim.of(claimName);
+
+        if (claim == null)
+        {
+            return null;
+        }
+
+        if (languageTag == null)
+        {
+            return record.getClaim(claim);
+        }
+
+        LanguageTag tag = LanguageTag.of(languageTag);
+        LocalizedClaims localizedClaims = record.getLocalizedClaims();
+
+        return (tag != null && localizedClaims != null) ? localizedClaims.get(claim, tag) : null;
+    }
+
+
+    /**
+     * Check if a claim has variants.
+     */
+    public boolean contains(Claim claim)
+    {
+        return (mMask & (1L << claim.ordinal())) != 0;
+    }
+
+
+    /**
+     * Get the value of a claim in a language.
+     *
+     * @param claim
+     *         A claim.
+     *
+     * @param languageTag
+     *         A language tag.
+     *
+     * @return
+     *         The value of the most specific variant in the fallback chain
+     *         of the language tag, or {@code null} if there is none.
+     */
+    public Object get(Claim claim, LanguageTag languageTag)
+    {
+        if (!contains(claim))
+        {
+            return null;
+        }
+
+        // The variants of the claim are contiguous.
+        int from = 0;
+
+        while (mClaims[from] != claim.ordinal())
+        {
+            from++;
+        }
+
+        int to = from + 1;
+
+        while (to < mClaims.length && mClaims[to] == claim.ordinal())
+        {
+            to++;
+        }
+
+        for (LanguageTag candidate : languageTag.getFallbacks())
+        {
+            for (int i = from; i < to; i++)
+            {
+                if (mTags[i].equals(candidate))
+                {
+                    return mValues[i];
+                }
+            }
+        }
+
+        return null;
+    }
+}
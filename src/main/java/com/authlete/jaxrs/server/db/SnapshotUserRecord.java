@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * A view of a user record in a {@link SnapshotUserRepository}.
+ *
+ * <p>
+ * This holds only the position of the record, and decodes values from the
+ * mapped file each time they are asked for. Snapshots do not hold values
+ * in other languages, so claims requested with a language tag are not
+ * available.
+ * </p>
+ */
+final class SnapshotUserRecord implements UserRecord
+{
+    private final SnapshotUserRepository mRepository;
+    private final int mPosition;
+
+
+    SnapshotUserRecord(SnapshotUserRepository repository, int position)
+    {
+        mRepository = repository;
+        mPosition   = position;
+    }
+
+
+    @Override
+    public String getSubject()
+    {
+        return mRepository.readString(mPosition);
+    }
+
+
+    @Override
+    public String getLoginId()
+    {
+        return mRepository.readString(mRepository.skipStrings(mPosition, 1));
+    }
+
+
+    @Override
+    public String getPassword()
+    {
+        return mRepository.readString(mRepository.skipStrings(mPosition, 2));
+    }
+
+
+    @Override
+    public Object getClaim(Claim claim)
+    {
+        return mRepository.getClaim(mPosition, claim);
+    }
+
+
+    @Override
+    public Object getClaim(String claimName, String languageTag)
+    {
+        return LocalizedClaims.getClaim(this, claimName, languageTag);
+    }
+
+
+    @Override
+    public Object getAttribute(String attributeName)
+    {
+        return null;
+    }
+}
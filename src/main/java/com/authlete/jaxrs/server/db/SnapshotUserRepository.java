@@ -0,0 +1,688 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * A read-only {@link UserRepository} backed by a memory-mapped user
+ * snapshot (see {@link UserSnapshotFormat} and {@link UserSnapshotBuilder}).
+ *
+ * <p>
+ * The users stay in the mapped file and are paged in by the OS, so the
+ * heap holds only the dictionary of repeated values. Lookups binary-search
+ * the sorted indexes by comparing bytes in the file, and return views of
+ * the records (see {@link SnapshotUserRecord}) that decode a claim only
+ * when it is asked for. {@link #findClaims(String, ClaimSet)} decodes only
+ * the requested claims and skips the others.
+ * </p>
+ *
+ * <p>
+ * Snapshots hold no values in other languages (see {@link LocalizedClaims});
+ * {@link UserSnapshotBuilder} refuses users that have them. Claims requested
+ * with a language tag, e.g. {@code name#ja}, are therefore never returned.
+ * </p>
+ *
+ * <p>
+ * The buffer is read only by absolute operations, so instances are safe
+ * for concurrent use.
+ * </p>
+ *
+ * <p>
+ * The whole snapshot is verified once when it is opened: the sections and
+ * every string, dictionary reference and index entry must stay within their
+ * bounds, and index entries must point at the start of a record. A broken
+ * or tampered file is therefore rejected by {@link #open(Path)} instead of
+ * failing lookups later. The verification reads the file sequentially and
+ * holds one {@code int} per user while it runs.
+ * </p>
+ */
+public class SnapshotUserRepository implements UserRepository
+{
+    private final ByteBuffer mBuffer;
+    private final int mSize;
+    private final long mCreatedAt;
+    private final String[] mDictionary;
+    private final int[] mIndexes = new int[UserSnapshotFormat.INDEX_COUNT];
+
+
+    SnapshotUserRepository(ByteBuffer buffer) throws IOException
+    {
+        mBuffer = buffer;
+
+        try
+        {
+            byte[] magic = new byte[UserSnapshotFormat.MAGIC.length];
+            buffer.duplicate().get(magic);
+
+            if (!Arrays.equals(magic, UserSnapshotFormat.MAGIC) ||
+                    buffer.getInt(UserSnapshotFormat.LENGTH) != buffer.capacity())
+            {
+                throw new IOException("Not a user snapshot or truncated.");
+            }
+
+            mSize       = buffer.getInt(UserSnapshotFormat.USERS);
+            mCreatedAt  = buffer.getLong(UserSnapshotFormat.CREATED_AT);
+
+            for (int i = 0; i < UserSnapshotFormat.INDEX_COUNT; i++)
+            {
+                mIndexes[i] = buffer.getInt(UserSnapshotFormat.INDEXES + i * 4);
+            }
+
+            int recordsAt = buffer.getInt(UserSnapshotFormat.RECORDS);
+            mDictionary   = readDictionary(buffer, buffer.getInt(UserSnapshotFormat.DICTIONARY), recordsAt);
+
+            verify(recordsAt, buffer.getInt(UserSnapshotFormat.KEYS));
+        }
+        catch (IndexOutOfBoundsException | BufferUnderflowException cause)
+        {
+            throw new IOException("The user snapshot is broken.", cause);
+        }
+    }
+
+
+    /**
+     * Map a user snapshot file into memory.
+     *
+     * @param file
+     *         A file written by {@link UserSnapshotBuilder}.
+     *
+     * @return
+     *         A repository that reads the file.
+     *
+     * @throws IOException
+     *         The file cannot be read or is not a valid snapshot.
+     */
+    public static SnapshotUserRepository open(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            // The mapping remains valid after the channel is closed.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            return new SnapshotUserRepository(mapped);
+        }
+    }
+
+
+    private static String[] readDictionary(ByteBuffer buffer, int position, int end) throws IOException
+    {
+        if (position < UserSnapshotFormat.HEADER_SIZE || end <= position)
+        {
+            throw broken("The dictionary is out of bounds.");
+        }
+
+        int count = readVarint(buffer, position);
+        position += UserSnapshotFormat.varintLength(count);
+
+        // Every entry takes at least one byte.
+        if (count < 0 || end - position < count)
+        {
+            throw broken("The dictionary is out of bounds.");
+        }
+
+        String[] dictionary = new String[count];
+
+        for (int i = 0; i < count; i++)
+        {
+            int length = readVarint(buffer, position);
+            position += UserSnapshotFormat.varintLength(length);
+
+            if (length < 0 || end - position < length)
+            {
+                throw broken("The dictionary is out of bounds.");
+            }
+
+            dictionary[i] = readUtf8(buffer, position, length);
+            position += length;
+        }
+
+        if (position != end)
+        {
+            throw broken("The dictionary does not end where the records start.");
+        }
+
+        return dictionary;
+    }
+
+
+    /**
+     * Verify the records and the indexes, so that lookups never read out
+     * of bounds.
+     */
+    private void verify(int recordsAt, int keysAt) throws IOException
+    {
+        int indexesAt = Integer.MAX_VALUE;
+
+        for (int position : mIndexes)
+        {
+            indexesAt = Math.min(indexesAt, position);
+        }
+
+        // Every record takes at least seven bytes.
+        if (recordsAt < UserSnapshotFormat.HEADER_SIZE || keysAt < recordsAt || indexesAt < keysAt ||
+                mSize < 0 || (keysAt - recordsAt) / 7 < mSize)
+        {
+            throw broken("The sections are out of bounds.");
+        }
+
+        // The positions of the records in ascending order.
+        int[] records  = new int[mSize];
+        int   position = recordsAt;
+
+        for (int i = 0; i < mSize; i++)
+        {
+            records[i] = position;
+            position   = verifyRecord(position, keysAt);
+        }
+
+        if (position != keysAt)
+        {
+            throw broken("The number of users does not match the records.");
+        }
+
+        for (int index : mIndexes)
+        {
+            verifyIndex(index, records, keysAt, indexesAt);
+        }
+    }
+
+
+    /**
+     * Verify a record.
+     *
+     * @return
+     *         The position after the record.
+     */
+    private int verifyRecord(int position, int end) throws IOException
+    {
+        position = verifyStrings(position, 3, end);
+
+        if (end - position < 4)
+        {
+            throw broken("A record is out of bounds.");
+        }
+
+        int mask = mBuffer.getInt(position);
+        position += 4;
+
+        if ((mask & ~((1 << Claim.VALUES.length) - 1)) != 0)
+        {
+            throw broken("A record has unknown claims.");
+        }
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if ((mask & (1 << claim.ordinal())) == 0)
+            {
+                continue;
+            }
+
+            switch (claim)
+            {
+                case EMAIL_VERIFIED:
+                case PHONE_NUMBER_VERIFIED:
+                case UPDATED_AT:
+                    position = skipClaim(position, claim);
+
+                    if (end < position)
+                    {
+                        throw broken("A record is out of bounds.");
+                    }
+                    break;
+
+                case ADDRESS:
+                    position = verifyStrings(position, UserSnapshotFormat.ADDRESS_FIELDS, end);
+                    break;
+
+                default:
+                    position = verifyStrings(position, 1, end);
+                    break;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Verify strings of a record. See {@link #readString(int)}.
+     *
+     * @return
+     *         The position after the strings.
+     */
+    private int verifyStrings(int position, int count, int end) throws IOException
+    {
+        for (int i = 0; i < count; i++)
+        {
+            if (end <= position)
+            {
+                throw broken("A record is out of bounds.");
+            }
+
+            int tag = readVarint(mBuffer, position);
+            position += UserSnapshotFormat.varintLength(tag);
+
+            if (tag < 0 || end < position)
+            {
+                throw broken("A record is out of bounds.");
+            }
+
+            if ((tag & 1) != 0)
+            {
+                if (mDictionary.length <= (tag >>> 1))
+                {
+                    throw broken("A record refers to a value not in the dictionary.");
+                }
+            }
+            else if (tag != 0)
+            {
+                int length = (tag >>> 1) - 1;
+
+                if (end - position < length)
+                {
+                    throw broken("A record is out of bounds.");
+                }
+
+                position += length;
+            }
+        }
+
+        return position;
+    }
+
+
+    private void verifyIndex(int index, int[] records, int keysAt, int indexesAt) throws IOException
+    {
+        int count = mBuffer.getInt(index);
+
+        if (count < 0 || (mBuffer.capacity() - index - 4) / 8 < count)
+        {
+            throw broken("An index is out of bounds.");
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            int entry  = index + 4 + i * 8;
+            int key    = mBuffer.getInt(entry);
+            int record = mBuffer.getInt(entry + 4);
+
+            if (key < keysAt || indexesAt <= key)
+            {
+                throw broken("An index key is out of bounds.");
+            }
+
+            int length = readVarint(mBuffer, key);
+            int start  = key + UserSnapshotFormat.varintLength(length);
+
+            if (length < 0 || indexesAt < start || indexesAt - start < length)
+            {
+                throw broken("An index key is out of bounds.");
+            }
+
+            if (Arrays.binarySearch(records, record) < 0)
+            {
+                throw broken("An index entry does not point at a record.");
+            }
+        }
+    }
+
+
+    private static IOException broken(String message)
+    {
+        return new IOException("The user snapshot is broken: " + message);
+    }
+
+
+    /**
+     * Get the time when the snapshot was built, in milliseconds since the
+     * Unix epoch.
+     */
+    public long getCreatedAt()
+    {
+        return mCreatedAt;
+    }
+
+
+    @Override
+    public UserRecord findBySubject(String subject)
+    {
+        return record(find(UserSnapshotFormat.SUBJECT_INDEX, subject));
+    }
+
+
+    @Override
+    public UserRecord findByLoginId(String loginId)
+    {
+        return record(find(UserSnapshotFormat.LOGIN_ID_INDEX, loginId));
+    }
+
+
+    @Override
+    public UserRecord findByEmail(String email)
+    {
+        String key = UserIdentifiers.normalizeEmail(email);
+
+        return record(find(UserSnapshotFormat.EMAIL_INDEX, key));
+    }
+
+
+    @Override
+    public UserRecord findByPhoneNumber(String phoneNumber)
+    {
+        String key = UserIdentifiers.normalizePhoneNumber(phoneNumber);
+
+        return record(find(UserSnapshotFormat.PHONE_NUMBER_INDEX, key));
+    }
+
+
+    private UserRecord record(int position)
+    {
+        return (position < 0) ? null : new SnapshotUserRecord(this, position);
+    }
+
+
+    @Override
+    public UserClaims findClaims(String subject, ClaimSet claims)
+    {
+        int position = find(UserSnapshotFormat.SUBJECT_INDEX, subject);
+
+        if (position < 0)
+        {
+            return null;
+        }
+
+        String userSubject = readString(position);
+        position = skipStrings(position, 3);
+
+        int mask = mBuffer.getInt(position);
+        position += 4;
+
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if ((mask & (1 << claim.ordinal())) == 0)
+            {
+                continue;
+            }
+
+            if (claims.contains(claim))
+            {
+                values[claim.ordinal()] = readClaim(position, claim);
+            }
+
+            position = skipClaim(position, claim);
+        }
+
+        return new UserClaims(userSubject, claims, values);
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mSize;
+    }
+
+
+    /**
+     * Find the position of the record that has a key in an index.
+     *
+     * @return
+     *         The position of the record, or -1 if not found.
+     */
+    private int find(int index, String key)
+    {
+        if (key == null)
+        {
+            return -1;
+        }
+
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int position = mIndexes[index];
+        int low  = 0;
+        int high = mBuffer.getInt(position) - 1;
+
+        while (low <= high)
+        {
+            int mid   = (low + high) >>> 1;
+            int entry = position + 4 + mid * 8;
+            int cmp   = compareKey(mBuffer.getInt(entry), target);
+
+            if (cmp < 0)
+            {
+                low = mid + 1;
+            }
+            else if (0 < cmp)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mBuffer.getInt(entry + 4);
+            }
+        }
+
+        return -1;
+    }
+
+
+    private int compareKey(int position, byte[] target)
+    {
+        int length = readVarint(mBuffer, position);
+        position += UserSnapshotFormat.varintLength(length);
+
+        int common = Math.min(length, target.length);
+
+        for (int i = 0; i < common; i++)
+        {
+            int diff = (mBuffer.get(position + i) & 0xFF) - (target[i] & 0xFF);
+
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        return length - target.length;
+    }
+
+
+    /**
+     * Read a string of a record.
+     */
+    String readString(int position)
+    {
+        int tag = readVarint(mBuffer, position);
+
+        if (tag == 0)
+        {
+            return null;
+        }
+
+        if ((tag & 1) != 0)
+        {
+            return mDictionary[tag >>> 1];
+        }
+
+        int length = (tag >>> 1) - 1;
+
+        return readUtf8(mBuffer, position + UserSnapshotFormat.varintLength(tag), length);
+    }
+
+
+    /**
+     * Skip strings of a record.
+     *
+     * @return
+     *         The position after the strings.
+     */
+    int skipStrings(int position, int count)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int tag = readVarint(mBuffer, position);
+            position += UserSnapshotFormat.varintLength(tag);
+
+            if (tag != 0 && (tag & 1) == 0)
+            {
+                position += (tag >>> 1) - 1;
+            }
+        }
+
+        return position;
+    }
+
+
+    /**
+     * Read the value of a claim of a record.
+     *
+     * @param position
+     *         The position of the record.
+     *
+     * @return
+     *         The value, or {@code null} if the user does not have the claim.
+     */
+    Object getClaim(int position, Claim claim)
+    {
+        position = skipStrings(position, 3);
+
+        int mask = mBuffer.getInt(position);
+        position += 4;
+
+        if ((mask & (1 << claim.ordinal())) == 0)
+        {
+            return null;
+        }
+
+        // Skip the claims before the requested one.
+        for (int i = 0; i < claim.ordinal(); i++)
+        {
+            if ((mask & (1 << i)) != 0)
+            {
+                position = skipClaim(position, Claim.VALUES[i]);
+            }
+        }
+
+        return readClaim(position, claim);
+    }
+
+
+    private Object readClaim(int position, Claim claim)
+    {
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
+                return mBuffer.get(position) != 0;
+
+            case UPDATED_AT:
+                return mBuffer.getLong(position);
+
+            case ADDRESS:
+                return readAddress(position);
+
+            default:
+                return readString(position);
+        }
+    }
+
+
+    private int skipClaim(int position, Claim claim)
+    {
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
+                return position + 1;
+
+            case UPDATED_AT:
+                return position + 8;
+
+            case ADDRESS:
+                return skipStrings(position, UserSnapshotFormat.ADDRESS_FIELDS);
+
+            default:
+                return skipStrings(position, 1);
+        }
+    }
+
+
+    private Address readAddress(int position)
+    {
+        String[] fields = new String[UserSnapshotFormat.ADDRESS_FIELDS];
+
+        for (int i = 0; i < UserSnapshotFormat.ADDRESS_FIELDS; i++)
+        {
+            fields[i] = readString(position);
+            position  = skipStrings(position, 1);
+        }
+
+        return new Address()
+                .setFormatted(fields[0])
+                .setStreetAddress(fields[1])
+                .setLocality(fields[2])
+                .setRegion(fields[UserSnapshotFormat.ADDRESS_REGION])
+                .setPostalCode(fields[4])
+                .setCountry(fields[UserSnapshotFormat.ADDRESS_COUNTRY]);
+    }
+
+
+    private static int readVarint(ByteBuffer buffer, int position)
+    {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7)
+        {
+            byte b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+
+            if (b >= 0)
+            {
+                return value;
+            }
+        }
+    }
+
+
+    /**
+     * Read a string of the given length at a position.
+     */
+    private static String readUtf8(ByteBuffer buffer, int position, int length)
+    {
+        byte[] bytes = new byte[length];
+
+        for (int i = 0; i < length; i++)
+        {
+            bytes[i] = buffer.get(position + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
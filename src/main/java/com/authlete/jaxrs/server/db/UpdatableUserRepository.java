@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A {@link UserRepository} that overlays incremental updates on a base
+ * repository which cannot be updated in place, such as a snapshot.
+ *
+ * <p>
+ * Upserted and deleted users are held in an immutable overlay. A batch of
+ * updates is put into a new layer on top of the current overlay, which is
+ * published as a new version by a single volatile write. Readers never
+ * block and always see a whole version, so a user record is never seen
+ * half-updated. The writer is expected to be a single thread (see {@link
+ * UserUpdateFeed}).
+ * </p>
+ *
+ * <p>
+ * A layer is merged into the one below it while that one is less than
+ * about twice as large, so a batch costs time proportional to its own size
+ * (amortized, times the logarithm of the overlay size) rather than to the
+ * size of the whole overlay, and a lookup checks a logarithmic number of
+ * layers.
+ * </p>
+ *
+ * <p>
+ * The overlay grows with the number of users updated since the base was
+ * built, so the base should be rebuilt periodically.
+ * </p>
+ */
+public class UpdatableUserRepository implements UserRepository
+{
+    /**
+     * An update of a user.
+     */
+    public static final class Update
+    {
+        final String subject;
+        final UserRecord record;
+
+
+        private Update(String subject, UserRecord record)
+        {
+            this.subject = subject;
+            this.record  = record;
+        }
+
+
+        /**
+         * Create an update that adds or replaces a user.
+         */
+        public static Update upsert(UserRecord record)
+        {
+            return new Update(record.getSubject(), record);
+        }
+
+
+        /**
+         * Create an update that deletes a user.
+         */
+        public static Update delete(String subject)
+        {
+            return new Update(subject, null);
+        }
+
+
+        public String getSubject()
+        {
+            return subject;
+        }
+    }
+
+
+    /**
+     * Changes made by one or more batches on top of the changes in the
+     * parent layer. Immutable once published.
+     */
+    private static final class Layer
+    {
+        // Subjects mapped to upserted users, or to null for deleted users.
+        final Map<String, UserRecord> bySubject;
+
+        // Keys mapped to users, or to null for keys removed from the users
+        // in the parent layers.
+        final Map<String, UserRecord> byLoginId;
+        final Map<String, UserRecord> byEmail;
+        final Map<String, UserRecord> byPhoneNumber;
+
+        final Layer parent;
+
+
+        Layer(Layer parent)
+        {
+            this(new HashMap<>(), new HashMap<>(), new HashMap<>(), new HashMap<>(), parent);
+        }
+
+
+        Layer(Map<String, UserRecord> bySubject, Map<String, UserRecord> byLoginId,
+              Map<String, UserRecord> byEmail, Map<String, UserRecord> byPhoneNumber, Layer parent)
+        {
+            this.bySubject     = bySubject;
+            this.byLoginId     = byLoginId;
+            this.byEmail       = byEmail;
+            this.byPhoneNumber = byPhoneNumber;
+            this.parent        = parent;
+        }
+
+
+        Map<String, UserRecord> index(int index)
+        {
+            switch (index)
+            {
+                case SUBJECT:  return bySubject;
+                case LOGIN_ID: return byLoginId;
+                case EMAIL:    return byEmail;
+                default:       return byPhoneNumber;
+            }
+        }
+
+
+        int size()
+        {
+            return bySubject.size() + byLoginId.size() + byEmail.size() + byPhoneNumber.size();
+        }
+
+
+        /**
+         * Merge this layer into its parent while the parent is not much
+         * larger, so that the number of layers stays logarithmic in the
+         * size of the overlay and every change is copied a logarithmic
+         * number of times.
+         */
+        Layer compact()
+        {
+            Layer layer = this;
+
+            while (layer.parent != null && layer.parent.size() <= layer.size() * 2)
+            {
+                layer = layer.parent.merge(layer);
+            }
+
+            return layer;
+        }
+
+
+        private Layer merge(Layer child)
+        {
+            return new Layer(
+                    merge(bySubject, child.bySubject, false),
+                    merge(byLoginId, child.byLoginId, parent == null),
+                    merge(byEmail, child.byEmail, parent == null),
+                    merge(byPhoneNumber, child.byPhoneNumber, parent == null),
+                    parent);
+        }
+
+
+        private static Map<String, UserRecord> merge(
+                Map<String, UserRecord> older, Map<String, UserRecord> newer, boolean bottom)
+        {
+            Map<String, UserRecord> merged = new HashMap<>(older);
+            merged.putAll(newer);
+
+            if (bottom)
+            {
+                // Removed keys have nothing to hide in the bottom layer.
+                merged.values().removeIf(record -> record == null);
+            }
+
+            return merged;
+        }
+    }
+
+
+    /**
+     * An immutable version of the overlay.
+     */
+    private static final class Version
+    {
+        final long number;
+
+        // The newest layer, or null if nothing has been updated.
+        final Layer top;
+
+        // The change in the number of users from the base.
+        final int delta;
+
+
+        Version(long number, Layer top, int delta)
+        {
+            this.number = number;
+            this.top    = top;
+            this.delta  = delta;
+        }
+    }
+
+
+    // Indexes of a layer.
+    private static final int SUBJECT  = 0;
+    private static final int LOGIN_ID = 1;
+    private static final int EMAIL    = 2;
+    private static final int PHONE    = 3;
+
+
+    private final UserRepository mBase;
+    private volatile Version mVersion = new Version(0, null, 0);
+
+
+    public UpdatableUserRepository(UserRepository base)
+    {
+        mBase = base;
+    }
+
+
+    /**
+     * Apply a batch of updates and publish them as a new version. Must not
+     * be called concurrently.
+     *
+     * @param updates
+     *         Updates in the order they were made.
+     *
+     * @return
+     *         The number of the new version.
+     */
+    public long apply(List<Update> updates)
+    {
+        Version current = mVersion;
+        Layer top = new Layer(current.top);
+        int delta = current.delta;
+
+        for (Update update : updates)
+        {
+            if (update.subject == null)
+            {
+                continue;
+            }
+
+            boolean existed;
+            Map<String, UserRecord> found = lookup(top, SUBJECT, update.subject);
+
+            if (found != null)
+            {
+                UserRecord previous = found.get(update.subject);
+                existed = (previous != null);
+
+                if (previous != null)
+                {
+                    // Remove the keys of the previous version of the user.
+                    removeKey(top, LOGIN_ID, previous.getLoginId(), previous);
+                    removeKey(top, EMAIL, emailKey(previous), previous);
+                    removeKey(top, PHONE, phoneNumberKey(previous), previous);
+                }
+            }
+            else
+            {
+                existed = (mBase.findBySubject(update.subject) != null);
+            }
+
+            UserRecord record = (update.record != null) ? CompactUserRecord.of(update.record) : null;
+            top.bySubject.put(update.subject, record);
+
+            if (record != null)
+            {
+                putKey(top.byLoginId, record.getLoginId(), record);
+                putKey(top.byEmail, emailKey(record), record);
+                putKey(top.byPhoneNumber, phoneNumberKey(record), record);
+            }
+
+            delta += (existed ? 0 : 1) - (record != null ? 0 : 1);
+        }
+
+        // An empty layer would never be merged.
+        Version next = new Version(current.number + 1,
+                (top.size() == 0) ? current.top : top.compact(), delta);
+
+        // Publish the new version.
+        mVersion = next;
+
+        return next.number;
+    }
+
+
+    /**
+     * Find the newest layer that has a key in an index.
+     *
+     * @return
+     *         The index of the layer, or {@code null} if no layer has the key.
+     */
+    private static Map<String, UserRecord> lookup(Layer layer, int index, String key)
+    {
+        for (; layer != null; layer = layer.parent)
+        {
+            Map<String, UserRecord> map = layer.index(index);
+
+            if (map.containsKey(key))
+            {
+                return map;
+            }
+        }
+
+        return null;
+    }
+
+
+    private static UserRecord get(Layer layer, int index, String key)
+    {
+        Map<String, UserRecord> map = (key != null) ? lookup(layer, index, key) : null;
+
+        return (map != null) ? map.get(key) : null;
+    }
+
+
+    private static String emailKey(UserRecord record)
+    {
+        return UserIdentifiers.normalizeEmail((String)record.getClaim(Claim.EMAIL));
+    }
+
+
+    private static String phoneNumberKey(UserRecord record)
+    {
+        return UserIdentifiers.normalizePhoneNumber((String)record.getClaim(Claim.PHONE_NUMBER));
+    }
+
+
+    private static void putKey(Map<String, UserRecord> index, String key, UserRecord record)
+    {
+        if (key != null)
+        {
+            index.put(key, record);
+        }
+    }
+
+
+    private static void removeKey(Layer top, int index, String key, UserRecord record)
+    {
+        if (key != null && get(top, index, key) == record)
+        {
+            // Hide the key in the parent layers, too.
+            top.index(index).put(key, null);
+        }
+    }
+
+
+    /**
+     * Get the number of the current version, which is incremented every
+     * time a batch of updates is applied.
+     */
+    public long getVersion()
+    {
+        return mVersion.number;
+    }
+
+
+    @Override
+    public UserRecord findBySubject(String subject)
+    {
+        Map<String, UserRecord> found = (subject != null) ? lookup(mVersion.top, SUBJECT, subject) : null;
+
+        return (found != null) ? found.get(subject) : mBase.findBySubject(subject);
+    }
+
+
+    @Override
+    public UserRecord findByLoginId(String loginId)
+    {
+        Layer top = mVersion.top;
+        UserRecord record = get(top, LOGIN_ID, loginId);
+
+        return (record != null) ? record : fromBase(top, mBase.findByLoginId(loginId));
+    }
+
+
+    @Override
+    public UserRecord findByEmail(String email)
+    {
+        Layer top = mVersion.top;
+        UserRecord record = get(top, EMAIL, UserIdentifiers.normalizeEmail(email));
+
+        return (record != null) ? record : fromBase(top, mBase.findByEmail(email));
+    }
+
+
+    @Override
+    public UserRecord findByPhoneNumber(String phoneNumber)
+    {
+        Layer top = mVersion.top;
+        UserRecord record = get(top, PHONE, UserIdentifiers.normalizePhoneNumber(phoneNumber));
+
+        return (record != null) ? record : fromBase(top, mBase.findByPhoneNumber(phoneNumber));
+    }
+
+
+    private static UserRecord fromBase(Layer top, UserRecord record)
+    {
+        if (record != null && lookup(top, SUBJECT, record.getSubject()) != null)
+        {
+            // The user in the base has been updated without the key, or
+            // deleted.
+            return null;
+        }
+
+        return record;
+    }
+
+
+    @Override
+    public UserClaims findClaims(String subject, ClaimSet claims)
+    {
+        Map<String, UserRecord> found = (subject != null) ? lookup(mVersion.top, SUBJECT, subject) : null;
+
+        if (found != null)
+        {
+            UserRecord record = found.get(subject);
+
+            return (record != null) ? UserClaims.project(record, claims) : null;
+        }
+
+        return mBase.findClaims(subject, claims);
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mBase.size() + mVersion.delta;
+    }
+}
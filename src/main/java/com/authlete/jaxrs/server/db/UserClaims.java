@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import com.authlete.common.types.User;
+
+
+/**
+ * A projection of a user record that holds only the requested claims.
+ *
+ * <p>
+ * Values are held in an array indexed by the ordinals of {@link Claim}, so
+ * looking up a claim does not compare strings. Claims that have not been
+ * requested are {@code null}, as are attributes of the user. Values in
+ * other languages are looked up in the {@link LocalizedClaims} of the
+ * user record, which is shared.
+ * </p>
+ *
+ * @see UserDao#getBySubject(String, ClaimSet)
+ */
+public final class UserClaims implements User
+{
+    private final String mSubject;
+    private final ClaimSet mClaims;
+    private final Object[] mValues;
+    private final LocalizedClaims mLocalizedClaims;
+
+
+    UserClaims(String subject, ClaimSet claims, Object[] values)
+    {
+        this(subject, claims, values, null);
+    }
+
+
+    UserClaims(String subject, ClaimSet claims, Object[] values, LocalizedClaims localizedClaims)
+    {
+        mSubject         = subject;
+        mClaims          = claims;
+        mValues          = values;
+        mLocalizedClaims = localizedClaims;
+    }
+
+
+    /**
+     * Project a user record onto a set of claims.
+     */
+    static UserClaims project(UserRecord record, ClaimSet claims)
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if (claims.contains(claim))
+            {
+                values[claim.ordinal()] = record.getClaim(claim);
+            }
+        }
+
+        return new UserClaims(record.getSubject(), claims, values, record.getLocalizedClaims());
+    }
+
+
+    /**
+     * Narrow this projection down to a subset of its claims.
+     */
+    UserClaims select(ClaimSet claims)
+    {
+        if (claims.equals(mClaims))
+        {
+            return this;
+        }
+
+        Object[] values = new Object[mValues.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if (claims.contains(claim))
+            {
+                values[claim.ordinal()] = mValues[claim.ordinal()];
+            }
+        }
+
+        return new UserClaims(mSubject, claims, values, mLocalizedClaims);
+    }
+
+
+    @Override
+    public String getSubject()
+    {
+        return mSubject;
+    }
+
+
+    /**
+     * Get the set of claims held by this projection.
+     */
+    public ClaimSet getClaims()
+    {
+        return mClaims;
+    }
+
+
+    /**
+     * Get the value of a claim.
+     *
+     * @return
+     *         The value, or {@code null} if the user does not have the claim
+     *         or it has not been requested.
+     */
+    public Object get(Claim claim)
+    {
+        return mValues[claim.ordinal()];
+    }
+
+
+    /**
+     * Get the value of a claim in a language.
+     *
+     * @param claim
+     *         A claim.
+     *
+     * @param languageTag
+     *         A language tag, or {@code null} for the default value.
+     *
+     * @return
+     *         The value, or {@code null} if the user does not have the claim
+     *         in the language (see {@link LocalizedClaims#get(Claim,
+     *         LanguageTag)}) or it has not been requested.
+     */
+    public Object get(Claim claim, LanguageTag languageTag)
+    {
+        if (languageTag == null)
+        {
+            return get(claim);
+        }
+
+        if (mLocalizedClaims == null || !mClaims.contains(claim))
+        {
+            return null;
+        }
+
+        return mLocalizedClaims.get(claim, languageTag);
+    }
+
+
+    @Override
+    public Object getClaim(String claimName, String languageTag)
+    {
+        Claim claim = Claim.of(claimName);
+
+        if (claim == null)
+        {
+            return null;
+        }
+
+        if (languageTag == null)
+        {
+            return get(claim);
+        }
+
+        LanguageTag tag = LanguageTag.of(languageTag);
+
+        // A tag that is not well-formed matches no variant.
+        return (tag != null) ? get(claim, tag) : null;
+    }
+
+
+    @Override
+    public Object getAttribute(String attributeName)
+    {
+        return null;
+    }
+}
@@ -20,9 +20,15 @@ package com.authlete.jaxrs.server.db;
 import com.authlete.common.dto.Address;
 import com.authlete.common.types.User;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 
 /**
@@ -41,7 +47,12 @@ public class UserDao
                     "John", "Smith", "Doe", "Johnny",
                     "https://example.com/john/profile", "https://example.com/john/me.jpg",
                     "https://example.com/john/", "male", "Europe/London",
-                    "en-US", "john", "0000-03-22", Date.from(LocalDate.parse("2020-01-01").atStartOfDay().toInstant(ZoneOffset.UTC))),
+                    "en-US", "john", "0000-03-22", Date.from(LocalDate.parse("2020-01-01").atStartOfDay().toInstant(ZoneOffset.UTC)))
+                    .setLocalizedClaims(LocalizedClaims.builder()
+                            .add(Claim.NAME, "ja", "\u30b8\u30e7\u30f3\u30fb\u30b9\u30df\u30b9")
+                            .add(Claim.GIVEN_NAME, "ja", "\u30b8\u30e7\u30f3")
+                            .add(Claim.FAMILY_NAME, "ja", "\u30b9\u30df\u30b9")
+                            .build()),
             new UserEntity("1002", "jane", "jane", "Jane Smith", "jane@example.com",
                     new Address().setCountry("Chile"), "+56 (2) 687 2400", "264209"),
             new UserEntity("1003", "max", "max", "Max Meier", "max@example.com",
@@ -50,38 +61,35 @@ public class UserDao
 
 
     /**
-     * Condition for user search.
+     * Listeners notified when the data of a user is updated.
      */
-    private static interface SearchCondition
+    private static final List<Consumer<String>> sUpdateListeners = new CopyOnWriteArrayList<>();
+
+
+    /**
+     * The repository of users, which holds the dummy user database by
+     * default.
+     */
+    private static volatile UserRepository sRepository =
+            new InMemoryUserRepository(Arrays.asList(sUserDB));
+
+
+    /**
+     * Get the repository of users.
+     */
+    public static UserRepository getRepository()
     {
-        boolean check(UserEntity ue);
+        return sRepository;
     }
 
 
     /**
-     * Get a user who meets the condition.
-     *
-     * @param condition
-     *         The condition for searching a user.
-     *
-     * @return
-     *         A user who meets the condition.
+     * Replace the repository of users, e.g. with one backed by a real
+     * user database.
      */
-    private static User get(SearchCondition condition)
+    public static void setRepository(UserRepository repository)
     {
-        // For each user.
-        for (UserEntity ue : sUserDB)
-        {
-            // If the condition is satisfied.
-            if (condition.check(ue))
-            {
-                // Found the user who meets the condition.
-                return ue;
-            }
-        }
-
-        // Not found any user who meets the condition.
-        return null;
+        sRepository = repository;
     }
 
 
@@ -99,16 +107,21 @@ public class UserDao
      *         {@code null} is returned if there is no user who has
      *         the login credentials.
      */
-    public static User getByCredentials(final String loginId, final String password)
+    public static User getByCredentials(String loginId, String password)
     {
-        return get(new SearchCondition() {
-            @Override
-            public boolean check(UserEntity ue)
-            {
-                // Check if the user's credentials are the target ones.
-                return ue.getLoginId().equals(loginId) && ue.getPassword().equals(password);
-            }
-        });
+        UserRecord user = sRepository.findByLoginId(loginId);
+
+        if (user == null || password == null || user.getPassword() == null)
+        {
+            return null;
+        }
+
+        // Compare the passwords in constant time.
+        boolean matched = MessageDigest.isEqual(
+                user.getPassword().getBytes(StandardCharsets.UTF_8),
+                password.getBytes(StandardCharsets.UTF_8));
+
+        return matched ? user : null;
     }
 
 
@@ -123,21 +136,39 @@ public class UserDao
      *         {@code null} is returned if there is no user who has
      *         the subject.
      */
-    public static User getBySubject(final String subject)
+    public static User getBySubject(String subject)
+    {
+        return sRepository.findBySubject(subject);
+    }
+
+
+    /**
+     * Get the requested claims of a user by a subject.
+     *
+     * <p>
+     * Only the claims in the set are fetched, so a user store backed by
+     * a database can select only the columns the access token permits.
+     * </p>
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param claims
+     *         The claims to fetch.
+     *
+     * @return
+     *         A projection of the user that has the subject.
+     *         {@code null} is returned if there is no user who has
+     *         the subject.
+     */
+    public static UserClaims getBySubject(String subject, ClaimSet claims)
     {
-        return get(new SearchCondition() {
-            @Override
-            public boolean check(UserEntity ue)
-            {
-                // Check if the user's subject is the target one.
-                return ue.getSubject().equals(subject);
-            }
-        });
+        return sRepository.findClaims(subject, claims);
     }
 
 
     /**
-     * Get a user by an email address.
+     * Get a user by an email address. Case is ignored.
      *
      * @param email
      *         An email address.
@@ -147,24 +178,15 @@ public class UserDao
      *         {@code null} is returned if there is no user who has
      *         the email address.
      */
-    public static User getByEmail(final String email)
+    public static User getByEmail(String email)
     {
-        return get(new SearchCondition() {
-            @Override
-            public boolean check(UserEntity ue)
-            {
-                // Get the user's "email" claim.
-                String e = (String)ue.getClaim("email", null);
-
-                // Check if the user's email is the target one.
-                return e != null && e.equals(email);
-            }
-        });
+        return sRepository.findByEmail(email);
     }
 
 
     /**
-     * Get a user by a phone number.
+     * Get a user by a phone number. Formatting such as spaces, hyphens and
+     * parentheses is ignored.
      *
      * @param phoneNumber
      *         A phone number.
@@ -174,18 +196,50 @@ public class UserDao
      *         {@code null} is returned if there is no user who has
      *         the phone number.
      */
-    public static User getByPhoneNumber(final String phoneNumber)
+    public static User getByPhoneNumber(String phoneNumber)
     {
-        return get(new SearchCondition() {
-            @Override
-            public boolean check(UserEntity ue)
-            {
-                // Get the user's "phone_number" claim.
-                String ph = (String)ue.getClaim("phone_number", null);
-
-                // Check if the user's phone number is the target one.
-                return ph != null && ph.equals(phoneNumber);
-            }
-        });
+        return sRepository.findByPhoneNumber(phoneNumber);
+    }
+
+
+    /**
+     * Register a listener that is notified when the data of a user is
+     * updated. Components that cache user data (e.g. claims in userinfo
+     * responses) use this to discard the cached data.
+     *
+     * @param listener
+     *         A listener that receives the subject of the updated user.
+     */
+    public static void addUpdateListener(Consumer<String> listener)
+    {
+        sUpdateListeners.add(listener);
+    }
+
+
+    /**
+     * Remove a listener registered by {@link #addUpdateListener(Consumer)}.
+     *
+     * @param listener
+     *         The listener to remove.
+     */
+    public static void removeUpdateListener(Consumer<String> listener)
+    {
+        sUpdateListeners.remove(listener);
+    }
+
+
+    /**
+     * Notify the listeners that the data of a user has been updated, on
+     * this node or on another node of the cluster.
+     *
+     * @param subject
+     *         The subject of the updated user.
+     */
+    public static void invalidate(String subject)
+    {
+        for (Consumer<String> listener : sUpdateListeners)
+        {
+            listener.accept(subject);
+        }
     }
 }
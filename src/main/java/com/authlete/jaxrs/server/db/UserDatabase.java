@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.logging.Logger;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * Connects {@link UserDao} and {@link VerifiedClaimsDao} to the user
+ * database configured in {@code authlete.properties}.
+ *
+ * <p>
+ * If {@code resource.user_db.url} is not set, the dummy databases are used.
+ * Otherwise, users are read by {@link JdbcUserRepository} through {@link
+ * CachingUserRepository} and verified claims by {@link
+ * JdbcVerifiedClaimsRepository}, sharing one {@link JdbcDatabase}.
+ * </p>
+ *
+ * <p>
+ * If {@code resource.user_db.snapshot} is set, users are read from the
+ * memory-mapped user snapshot instead (see {@link SnapshotUserRepository}
+ * and {@link UserSnapshotBuilder}). Verified claims are still read from the
+ * database, if configured.
+ * </p>
+ *
+ * <p>
+ * If {@link UserUpdateFeed} is enabled, incremental updates are overlaid
+ * on the users by {@link UpdatableUserRepository}.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.user_db.url}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_db.driver}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_db.user}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_db.password}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_db.pool.max_connections}</td><td>{@code 16}</td></tr>
+ *   <tr><td>{@code resource.user_db.pool.acquire_timeout}</td><td>{@code 5} (seconds)</td></tr>
+ *   <tr><td>{@code resource.user_db.max_statements}</td><td>{@code 64} (per connection)</td></tr>
+ *   <tr><td>{@code resource.user_db.query_timeout}</td><td>{@code 5} (seconds)</td></tr>
+ *   <tr><td>{@code resource.user_db.slow_query_threshold}</td><td>{@code 100} (milliseconds)</td></tr>
+ *   <tr><td>{@code resource.user_db.cache.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.user_db.cache.max_size}</td><td>{@code 100000}</td></tr>
+ *   <tr><td>{@code resource.user_db.cache.ttl}</td><td>{@code 60} (seconds)</td></tr>
+ *   <tr><td>{@code resource.user_db.snapshot}</td><td>(none)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public final class UserDatabase
+{
+    private static final Logger sLogger = Logger.getLogger(UserDatabase.class.getName());
+
+
+    private static JdbcDatabase sDatabase;
+
+
+    private UserDatabase()
+    {
+    }
+
+
+    /**
+     * Connect the DAOs to the configured database and user snapshot, if
+     * any. Called once on startup.
+     */
+    public static void open()
+    {
+        String url = ServerConfig.getString("resource.user_db.url", null);
+
+        if (url != null)
+        {
+            openDatabase(url);
+        }
+
+        String snapshot = ServerConfig.getString("resource.user_db.snapshot", null);
+
+        if (snapshot != null)
+        {
+            openSnapshot(Paths.get(snapshot));
+        }
+
+        UserUpdateFeed feed = UserUpdateFeed.getInstance();
+
+        if (feed.isEnabled())
+        {
+            // Overlay incremental updates on the users loaded above.
+            UpdatableUserRepository repository = new UpdatableUserRepository(UserDao.getRepository());
+            UserDao.setRepository(repository);
+            feed.start(repository);
+        }
+    }
+
+
+    private static void openDatabase(String url)
+    {
+        loadDriver(ServerConfig.getString("resource.user_db.driver", null));
+
+        Properties info = new Properties();
+        setProperty(info, "user", ServerConfig.getString("resource.user_db.user", null));
+        setProperty(info, "password", ServerConfig.getString("resource.user_db.password", null));
+
+        JdbcDatabase database = new JdbcDatabase(url, info,
+                ServerConfig.getInt("resource.user_db.pool.max_connections", 16),
+                ServerConfig.getInt("resource.user_db.max_statements", 64),
+                ServerConfig.getLong("resource.user_db.pool.acquire_timeout", 5) * 1000L,
+                ServerConfig.getInt("resource.user_db.query_timeout", 5),
+                ServerConfig.getLong("resource.user_db.slow_query_threshold", 100));
+
+        MBeans.register("UserDatabase", database);
+
+        UserRepository repository = new JdbcUserRepository(database);
+
+        if (ServerConfig.getBoolean("resource.user_db.cache.enabled", true))
+        {
+            CachingUserRepository cache = new CachingUserRepository(repository,
+                    ServerConfig.getInt("resource.user_db.cache.max_size", 100000),
+                    ServerConfig.getLong("resource.user_db.cache.ttl", 60) * 1000L);
+
+            MBeans.register("UserCache", cache);
+            UserDao.addUpdateListener(cache::invalidate);
+
+            repository = cache;
+        }
+
+        UserDao.setRepository(repository);
+        VerifiedClaimsDao.setRepository(new JdbcVerifiedClaimsRepository(database));
+
+        sDatabase = database;
+
+        sLogger.info(String.format("Reading users from %s", url));
+    }
+
+
+    private static void openSnapshot(Path file)
+    {
+        try
+        {
+            SnapshotUserRepository repository = SnapshotUserRepository.open(file);
+
+            // Takes precedence over the database for users.
+            UserDao.setRepository(repository);
+
+            sLogger.info(String.format("Reading %d users from the snapshot %s", repository.size(), file));
+        }
+        catch (IOException cause)
+        {
+            System.err.format("Failed to open the user snapshot '%s': %s%n", file, cause.getMessage());
+        }
+    }
+
+
+    /**
+     * Stop the update feed and close the connections to the database, if
+     * any. Called on shutdown.
+     */
+    public static void close()
+    {
+        UserUpdateFeed.getInstance().stop();
+
+        if (sDatabase != null)
+        {
+            sDatabase.close();
+            sDatabase = null;
+        }
+    }
+
+
+    private static void loadDriver(String driver)
+    {
+        if (driver == null)
+        {
+            // JDBC 4 drivers are found by the service loader.
+            return;
+        }
+
+        try
+        {
+            Class.forName(driver);
+        }
+        catch (ClassNotFoundException cause)
+        {
+            System.err.format("Failed to load the JDBC driver '%s': %s%n", driver, cause.getMessage());
+        }
+    }
+
+
+    private static void setProperty(Properties info, String key, String value)
+    {
+        if (value != null)
+        {
+            info.setProperty(key, value);
+        }
+    }
+}
@@ -18,8 +18,6 @@ package com.authlete.jaxrs.server.db;
 
 
 import com.authlete.common.dto.Address;
-import com.authlete.common.types.StandardClaims;
-import com.authlete.common.types.User;
 
 import java.util.Date;
 
@@ -29,7 +27,7 @@ import java.util.Date;
  *
  * @author Takahiko Kawasaki
  */
-public class UserEntity implements User
+public class UserEntity implements UserRecord
 {
     /**
      * The subject (unique identifier) of the user.
@@ -94,6 +92,7 @@ public class UserEntity implements User
     private String preferredUsername;
     private String birthdate;
     private Date updatedAt;
+    private LocalizedClaims localizedClaims;
 
     /**
      * Constructor with initial values.
@@ -150,6 +149,7 @@ public class UserEntity implements User
      * @return
      *         The login ID.
      */
+    @Override
     public String getLoginId()
     {
         return loginId;
@@ -162,6 +162,7 @@ public class UserEntity implements User
      * @return
      *         The login password.
      */
+    @Override
     public String getPassword()
     {
         return password;
@@ -175,80 +176,111 @@ public class UserEntity implements User
     }
 
 
+    /**
+     * Set the values of claims in other languages.
+     */
+    public UserEntity setLocalizedClaims(LocalizedClaims localizedClaims)
+    {
+        this.localizedClaims = localizedClaims;
+
+        return this;
+    }
+
+
+    @Override
+    public LocalizedClaims getLocalizedClaims()
+    {
+        return localizedClaims;
+    }
+
+
     @Override
     public Object getClaim(String claimName, String languageTag)
     {
-        if (claimName == null)
-        {
-            return null;
-        }
+        // Resolve the claim name once and look up the value by the claim.
+        return LocalizedClaims.getClaim(this, claimName, languageTag);
+    }
+
 
+    /**
+     * Get the value of a claim.
+     *
+     * @param claim
+     *         A claim.
+     *
+     * @return
+     *         The value of the claim, or {@code null} if the user does not
+     *         have the claim.
+     */
+    @Override
+    public Object getClaim(Claim claim)
+    {
         // See "OpenID Connect Core 1.0, 5. Claims".
-        switch (claimName)
+        switch (claim)
         {
-            case StandardClaims.NAME:
+            case NAME:
                 // "name" claim. This claim can be requested by including "profile"
                 // in "scope" parameter of an authorization request.
                 return name;
 
-            case StandardClaims.EMAIL:
+            case EMAIL:
                 // "email" claim. This claim can be requested by including "email"
                 // in "scope" parameter of an authorization request.
                 return email;
 
-            case StandardClaims.ADDRESS:
+            case ADDRESS:
                 // "address" claim. This claim can be requested by including "address"
                 // in "scope" parameter of an authorization request.
                 return address;
 
-            case StandardClaims.PHONE_NUMBER:
+            case PHONE_NUMBER:
                 // "phone_number" claim. This claim can be requested by including "phone"
                 // in "scope" parameter of an authorization request.
                 return phoneNumber;
 
-            case StandardClaims.PHONE_NUMBER_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
                 return phoneNumberVerified;
 
-            case StandardClaims.EMAIL_VERIFIED:
+            case EMAIL_VERIFIED:
                 return emailVerified;
 
-            case StandardClaims.BIRTHDATE:
+            case BIRTHDATE:
                 return birthdate;
 
-            case StandardClaims.GIVEN_NAME:
+            case GIVEN_NAME:
                 return givenName;
 
-            case StandardClaims.FAMILY_NAME:
+            case FAMILY_NAME:
                 return familyName;
 
-            case StandardClaims.MIDDLE_NAME:
+            case MIDDLE_NAME:
                 return middleName;
 
-            case StandardClaims.NICKNAME:
+            case NICKNAME:
                 return nickName;
 
-            case StandardClaims.PROFILE:
+            case PROFILE:
                 return profile;
 
-            case StandardClaims.PICTURE:
+            case PICTURE:
                 return picture;
 
-            case StandardClaims.WEBSITE:
+            case WEBSITE:
                 return website;
 
-            case StandardClaims.GENDER:
+            case GENDER:
                 return gender;
 
-            case StandardClaims.ZONEINFO:
+            case ZONEINFO:
                 return zoneinfo;
 
-            case StandardClaims.LOCALE:
+            case LOCALE:
                 return locale;
 
-            case StandardClaims.UPDATED_AT:
-                return updatedAt.getTime() / 1000l;
+            case UPDATED_AT:
+                return (updatedAt != null) ? updatedAt.getTime() / 1000l : null;
 
-            case StandardClaims.PREFERRED_USERNAME:
+            case PREFERRED_USERNAME:
                 return preferredUsername;
 
             default:
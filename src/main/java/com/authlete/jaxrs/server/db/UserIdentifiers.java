@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Locale;
+
+
+/**
+ * Normalization of user identifiers used as lookup keys.
+ */
+public final class UserIdentifiers
+{
+    private UserIdentifiers()
+    {
+    }
+
+
+    /**
+     * Normalize an email address for case-insensitive lookups.
+     *
+     * @return
+     *         The trimmed and case-folded email address, or {@code null}
+     *         if {@code email} is {@code null} or blank.
+     */
+    public static String normalizeEmail(String email)
+    {
+        if (email == null)
+        {
+            return null;
+        }
+
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+
+    /**
+     * Normalize a phone number to the E&#x2E;164 format by removing
+     * everything but the leading {@code +} and digits, e.g. {@code
+     * "+1 (425) 555-1212"} to {@code "+14255551212"}.
+     *
+     * <p>
+     * A phone number without the leading {@code +} cannot be converted
+     * without knowing the country, so only its digits are kept.
+     * </p>
+     *
+     * @return
+     *         The normalized phone number, or {@code null} if {@code
+     *         phoneNumber} is {@code null} or has no digits.
+     */
+    public static String normalizePhoneNumber(String phoneNumber)
+    {
+        if (phoneNumber == null)
+        {
+            return null;
+        }
+
+        String trimmed = phoneNumber.trim();
+        StringBuilder sb = new StringBuilder(trimmed.length());
+
+        if (trimmed.startsWith("+"))
+        {
+            sb.append('+');
+        }
+
+        for (int i = 0; i < trimmed.length(); i++)
+        {
+            char c = trimmed.charAt(i);
+
+            if ('0' <= c && c <= '9')
+            {
+                sb.append(c);
+            }
+        }
+
+        // Digits are required.
+        return (sb.length() == 0 || "+".contentEquals(sb)) ? null : sb.toString();
+    }
+}
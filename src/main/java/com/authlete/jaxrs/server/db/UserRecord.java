@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import com.authlete.common.types.User;
+
+
+/**
+ * A user record held by a {@link UserRepository}.
+ */
+public interface UserRecord extends User
+{
+    /**
+     * Get the login ID.
+     */
+    String getLoginId();
+
+
+    /**
+     * Get the login password.
+     */
+    String getPassword();
+
+
+    /**
+     * Get the value of a claim.
+     *
+     * @param claim
+     *         A claim.
+     *
+     * @return
+     *         The value of the claim, or {@code null} if the user does not
+     *         have the claim.
+     */
+    Object getClaim(Claim claim);
+
+
+    /**
+     * Get the values of claims in other languages.
+     *
+     * @return
+     *         The localized claims, or {@code null} if the user does not
+     *         have any.
+     */
+    default LocalizedClaims getLocalizedClaims()
+    {
+        return null;
+    }
+}
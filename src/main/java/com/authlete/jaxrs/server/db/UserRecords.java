@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.Map;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * Utilities to create user records from exported or received data.
+ */
+final class UserRecords
+{
+    private UserRecords()
+    {
+    }
+
+
+    /**
+     * Create a compact user record.
+     *
+     * @param values
+     *         The values of the claims, indexed by the ordinals of {@link Claim}.
+     *
+     * @param localizedClaims
+     *         The values of claims in other languages, or {@code null}.
+     */
+    static UserRecord of(
+            String subject, String loginId, String password,
+            Object[] values, LocalizedClaims localizedClaims)
+    {
+        return CompactUserRecord.of(subject, loginId, password, values, localizedClaims);
+    }
+
+
+    /**
+     * Create a user record from a JSON object parsed by Gson, which has
+     * {@code subject}, {@code login_id}, {@code password} and the standard
+     * claims. {@code updated_at} is in seconds since the Unix epoch.
+     * Members such as {@code name#ja} give values in other languages.
+     */
+    static UserRecord fromJson(Map<?, ?> object)
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            values[claim.ordinal()] = fromJson(claim, object.get(claim.getName()));
+        }
+
+        return of(string(object.get("subject")), string(object.get("login_id")),
+                string(object.get("password")), values, localizedFromJson(object));
+    }
+
+
+    private static LocalizedClaims localizedFromJson(Map<?, ?> object)
+    {
+        LocalizedClaims.Builder builder = null;
+
+        for (Map.Entry<?, ?> entry : object.entrySet())
+        {
+            String name = string(entry.getKey());
+            int sharp   = name.indexOf('#');
+
+            if (sharp < 0)
+            {
+                continue;
+            }
+
+            Claim claim = Claim.of(name.substring(0, sharp));
+
+            if (claim == null)
+            {
+                continue;
+            }
+
+            if (builder == null)
+            {
+                builder = LocalizedClaims.builder();
+            }
+
+            builder.add(claim, name.substring(sharp + 1), fromJson(claim, entry.getValue()));
+        }
+
+        return (builder != null) ? builder.build() : null;
+    }
+
+
+    private static Object fromJson(Claim claim, Object value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
+                return Boolean.TRUE.equals(value);
+
+            case UPDATED_AT:
+                return (value instanceof Number) ? ((Number)value).longValue() : null;
+
+            case ADDRESS:
+                if (!(value instanceof Map))
+                {
+                    return null;
+                }
+
+                Map<?, ?> address = (Map<?, ?>)value;
+
+                return toAddress(
+                        string(address.get("formatted")),
+                        string(address.get("street_address")),
+                        string(address.get("locality")),
+                        string(address.get("region")),
+                        string(address.get("postal_code")),
+                        string(address.get("country")));
+
+            default:
+                return string(value);
+        }
+    }
+
+
+    /**
+     * Create an address, or return {@code null} if all the fields are
+     * {@code null}.
+     */
+    static Address toAddress(
+            String formatted, String streetAddress, String locality,
+            String region, String postalCode, String country)
+    {
+        if (formatted == null && streetAddress == null && locality == null &&
+                region == null && postalCode == null && country == null)
+        {
+            return null;
+        }
+
+        return new Address()
+                .setFormatted(formatted)
+                .setStreetAddress(streetAddress)
+                .setLocality(locality)
+                .setRegion(region)
+                .setPostalCode(postalCode)
+                .setCountry(country);
+    }
+
+
+    static String string(Object value)
+    {
+        return (value != null) ? value.toString() : null;
+    }
+}
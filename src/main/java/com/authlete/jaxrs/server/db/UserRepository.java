@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * A store of user records, looked up by {@link UserDao}.
+ *
+ * <p>
+ * Implementations must be thread-safe. Email addresses and phone numbers
+ * given to the lookup methods are not normalized by callers; see {@link
+ * UserIdentifiers}.
+ * </p>
+ */
+public interface UserRepository
+{
+    /**
+     * Find a user by a subject.
+     *
+     * @return
+     *         The user, or {@code null} if not found.
+     */
+    UserRecord findBySubject(String subject);
+
+
+    /**
+     * Find a user by a login ID.
+     *
+     * @return
+     *         The user, or {@code null} if not found.
+     */
+    UserRecord findByLoginId(String loginId);
+
+
+    /**
+     * Find a user by an email address, ignoring case.
+     *
+     * @return
+     *         The user, or {@code null} if not found.
+     */
+    UserRecord findByEmail(String email);
+
+
+    /**
+     * Find a user by a phone number, ignoring formatting.
+     *
+     * @return
+     *         The user, or {@code null} if not found.
+     */
+    UserRecord findByPhoneNumber(String phoneNumber);
+
+
+    /**
+     * Find the requested claims of a user by a subject. Repositories that
+     * can fetch only some claims (e.g. columns) should override this method.
+     *
+     * @return
+     *         A projection of the user, or {@code null} if not found.
+     */
+    default UserClaims findClaims(String subject, ClaimSet claims)
+    {
+        UserRecord record = findBySubject(subject);
+
+        return (record != null) ? UserClaims.project(record, claims) : null;
+    }
+
+
+    /**
+     * The number of users.
+     */
+    int size();
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * A user record read from the user database, which holds all the claims
+ * of the user in addition to the login credentials.
+ */
+final class UserRow implements UserRecord
+{
+    private final String mLoginId;
+    private final String mPassword;
+    private final UserClaims mClaims;
+
+
+    UserRow(String loginId, String password, UserClaims claims)
+    {
+        mLoginId  = loginId;
+        mPassword = password;
+        mClaims   = claims;
+    }
+
+
+    @Override
+    public String getSubject()
+    {
+        return mClaims.getSubject();
+    }
+
+
+    @Override
+    public String getLoginId()
+    {
+        return mLoginId;
+    }
+
+
+    @Override
+    public String getPassword()
+    {
+        return mPassword;
+    }
+
+
+    @Override
+    public Object getClaim(Claim claim)
+    {
+        return mClaims.get(claim);
+    }
+
+
+    @Override
+    public Object getClaim(String claimName, String languageTag)
+    {
+        return mClaims.getClaim(claimName, languageTag);
+    }
+
+
+    @Override
+    public Object getAttribute(String attributeName)
+    {
+        return null;
+    }
+}
@@ -0,0 +1,631 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.authlete.common.dto.Address;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * An offline tool that builds a user snapshot (see {@link
+ * UserSnapshotFormat}) from an export of the user database.
+ *
+ * <pre>
+ * java -cp ... com.authlete.jaxrs.server.db.UserSnapshotBuilder users.json users.snapshot
+ * java -cp ... com.authlete.jaxrs.server.db.UserSnapshotBuilder users.csv users.snapshot
+ * </pre>
+ *
+ * <p>
+ * A JSON export is an array of objects that have {@code subject}, {@code
+ * login_id}, {@code password} and the standard claims, where {@code
+ * address} is an object and {@code updated_at} is in seconds since the
+ * Unix epoch. A CSV export has a header line and the columns of the
+ * {@code users} table of {@link JdbcUserRepository}, where {@code
+ * updated_at} is in seconds or ISO 8601. Empty values are {@code null}.
+ * </p>
+ *
+ * <p>
+ * If more than one user has the same subject, login ID, email address or
+ * phone number, the first one is found by the key. Snapshots cannot hold
+ * values in other languages, e.g. {@code name#ja}; users that have them
+ * are rejected rather than silently losing the values.
+ * </p>
+ */
+public final class UserSnapshotBuilder
+{
+    private static final Gson GSON = new Gson();
+
+
+    /**
+     * A key of an index and the record it refers to.
+     */
+    private static final class IndexEntry
+    {
+        final byte[] key;
+        final int record;
+
+
+        IndexEntry(byte[] key, int record)
+        {
+            this.key    = key;
+            this.record = record;
+        }
+    }
+
+
+    private final Map<String, Integer> mDictionary = new LinkedHashMap<>();
+    private final ByteArrayOutputStream mRecords = new ByteArrayOutputStream();
+    private final List<List<IndexEntry>> mIndexes = new ArrayList<>();
+    private int mUsers;
+
+
+    private UserSnapshotBuilder()
+    {
+        for (int i = 0; i < UserSnapshotFormat.INDEX_COUNT; i++)
+        {
+            mIndexes.add(new ArrayList<>());
+        }
+    }
+
+
+    public static void main(String[] args) throws IOException
+    {
+        if (args.length != 2)
+        {
+            System.err.println("Usage: UserSnapshotBuilder {users.json|users.csv} {output}");
+            System.exit(1);
+        }
+
+        Path input = Paths.get(args[0]);
+
+        List<UserRecord> users = input.toString().toLowerCase().endsWith(".csv")
+                ? readCsv(input) : readJson(input);
+
+        int count = build(users, Paths.get(args[1]));
+
+        System.out.format("Wrote %d users to %s%n", count, args[1]);
+    }
+
+
+    /**
+     * Build a user snapshot.
+     *
+     * @param users
+     *         The users. Users without a subject are skipped.
+     *
+     * @param file
+     *         The snapshot file, which is replaced atomically.
+     *
+     * @return
+     *         The number of users written.
+     */
+    public static int build(Collection<? extends UserRecord> users, Path file) throws IOException
+    {
+        UserSnapshotBuilder builder = new UserSnapshotBuilder();
+
+        for (UserRecord user : users)
+        {
+            if (user.getSubject() != null)
+            {
+                builder.add(user);
+            }
+        }
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "users", ".tmp");
+
+        try
+        {
+            try (OutputStream out = Files.newOutputStream(temp))
+            {
+                builder.write(out);
+            }
+
+            // Never leave a partially written snapshot.
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally
+        {
+            Files.deleteIfExists(temp);
+        }
+
+        return builder.mUsers;
+    }
+
+
+    private void add(UserRecord user) throws IOException
+    {
+        if (user.getLocalizedClaims() != null)
+        {
+            throw new IOException(String.format(
+                    "The user '%s' has claims in other languages, which a snapshot cannot hold.",
+                    user.getSubject()));
+        }
+
+        int record = mRecords.size();
+        mUsers++;
+
+        addKey(UserSnapshotFormat.SUBJECT_INDEX, user.getSubject(), record);
+        addKey(UserSnapshotFormat.LOGIN_ID_INDEX, user.getLoginId(), record);
+        addKey(UserSnapshotFormat.EMAIL_INDEX, UserIdentifiers.normalizeEmail(
+                (String)user.getClaim(Claim.EMAIL)), record);
+        addKey(UserSnapshotFormat.PHONE_NUMBER_INDEX, UserIdentifiers.normalizePhoneNumber(
+                (String)user.getClaim(Claim.PHONE_NUMBER)), record);
+
+        writeString(user.getSubject(), false);
+        writeString(user.getLoginId(), false);
+        writeString(user.getPassword(), false);
+
+        Object[] values = new Object[Claim.VALUES.length];
+        int mask = 0;
+
+        for (Claim claim : Claim.VALUES)
+        {
+            Object value = user.getClaim(claim);
+
+            if (value != null)
+            {
+                values[claim.ordinal()] = value;
+                mask |= 1 << claim.ordinal();
+            }
+        }
+
+        writeInt(mRecords, mask);
+
+        for (Claim claim : Claim.VALUES)
+        {
+            if (values[claim.ordinal()] != null)
+            {
+                writeClaim(claim, values[claim.ordinal()]);
+            }
+        }
+    }
+
+
+    private void addKey(int index, String key, int record)
+    {
+        if (key != null)
+        {
+            mIndexes.get(index).add(new IndexEntry(key.getBytes(StandardCharsets.UTF_8), record));
+        }
+    }
+
+
+    private void writeClaim(Claim claim, Object value)
+    {
+        switch (claim)
+        {
+            case EMAIL_VERIFIED:
+            case PHONE_NUMBER_VERIFIED:
+                mRecords.write(Boolean.TRUE.equals(value) ? 1 : 0);
+                break;
+
+            case UPDATED_AT:
+                writeLong(mRecords, ((Number)value).longValue());
+                break;
+
+            case ADDRESS:
+                Address address = (Address)value;
+                writeString(address.getFormatted(), false);
+                writeString(address.getStreetAddress(), false);
+                writeString(address.getLocality(), false);
+                writeString(address.getRegion(), true);
+                writeString(address.getPostalCode(), false);
+                writeString(address.getCountry(), true);
+                break;
+
+            default:
+                writeString(value.toString(), UserSnapshotFormat.isDictionaryEncoded(claim));
+                break;
+        }
+    }
+
+
+    private void writeString(String value, boolean dictionary)
+    {
+        if (value == null)
+        {
+            UserSnapshotFormat.writeVarint(mRecords, 0);
+            return;
+        }
+
+        if (dictionary)
+        {
+            Integer ref = mDictionary.computeIfAbsent(value, key -> mDictionary.size());
+            UserSnapshotFormat.writeVarint(mRecords, (ref << 1) | 1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        UserSnapshotFormat.writeVarint(mRecords, (bytes.length + 1) << 1);
+        mRecords.write(bytes, 0, bytes.length);
+    }
+
+
+    private void write(OutputStream output) throws IOException
+    {
+        ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        UserSnapshotFormat.writeVarint(dictionary, mDictionary.size());
+
+        for (String value : mDictionary.keySet())
+        {
+            writeUtf8(dictionary, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int dictionaryAt = UserSnapshotFormat.HEADER_SIZE;
+        int recordsAt    = dictionaryAt + dictionary.size();
+        int keysAt       = recordsAt + mRecords.size();
+
+        // Sort the indexes and lay out their keys.
+        ByteArrayOutputStream keys    = new ByteArrayOutputStream();
+        ByteArrayOutputStream indexes = new ByteArrayOutputStream();
+        int[] indexAt = new int[UserSnapshotFormat.INDEX_COUNT];
+
+        List<List<IndexEntry>> sorted = new ArrayList<>();
+
+        for (List<IndexEntry> entries : mIndexes)
+        {
+            sorted.add(sortAndDeduplicate(entries));
+        }
+
+        long indexesAt = (long)keysAt;
+
+        for (List<IndexEntry> entries : sorted)
+        {
+            for (IndexEntry entry : entries)
+            {
+                indexesAt += UserSnapshotFormat.varintLength(entry.key.length) + entry.key.length;
+            }
+        }
+
+        for (int i = 0; i < UserSnapshotFormat.INDEX_COUNT; i++)
+        {
+            List<IndexEntry> entries = sorted.get(i);
+            indexAt[i] = (int)(indexesAt + indexes.size());
+
+            writeInt(indexes, entries.size());
+
+            for (IndexEntry entry : entries)
+            {
+                writeInt(indexes, keysAt + keys.size());
+                writeInt(indexes, recordsAt + entry.record);
+                writeUtf8(keys, entry.key);
+            }
+        }
+
+        long length = indexesAt + indexes.size();
+
+        if (Integer.MAX_VALUE < length)
+        {
+            throw new IOException("Too many users for a snapshot.");
+        }
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.write(UserSnapshotFormat.MAGIC);
+        out.writeInt(mUsers);
+        out.writeLong(System.currentTimeMillis());
+        out.writeInt(dictionaryAt);
+        out.writeInt(recordsAt);
+        out.writeInt(keysAt);
+
+        for (int position : indexAt)
+        {
+            out.writeInt(position);
+        }
+
+        out.writeInt((int)length);
+
+        dictionary.writeTo(out);
+        mRecords.writeTo(out);
+        keys.writeTo(out);
+        indexes.writeTo(out);
+        out.flush();
+    }
+
+
+    private static List<IndexEntry> sortAndDeduplicate(List<IndexEntry> entries)
+    {
+        // The sort is stable, so the first of equal keys is the first user.
+        entries.sort((a, b) -> UserSnapshotFormat.compare(a.key, b.key));
+
+        List<IndexEntry> unique = new ArrayList<>(entries.size());
+
+        for (IndexEntry entry : entries)
+        {
+            if (unique.isEmpty() ||
+                    UserSnapshotFormat.compare(unique.get(unique.size() - 1).key, entry.key) != 0)
+            {
+                unique.add(entry);
+            }
+        }
+
+        return unique;
+    }
+
+
+    private static void writeUtf8(ByteArrayOutputStream out, byte[] bytes)
+    {
+        UserSnapshotFormat.writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+
+    private static void writeInt(ByteArrayOutputStream out, int value)
+    {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+
+    private static void writeLong(ByteArrayOutputStream out, long value)
+    {
+        writeInt(out, (int)(value >>> 32));
+        writeInt(out, (int)value);
+    }
+
+
+    /**
+     * Read users from a JSON export.
+     */
+    public static List<UserRecord> readJson(Path file) throws IOException
+    {
+        Map<?, ?>[] objects;
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            objects = GSON.fromJson(reader, Map[].class);
+        }
+        catch (JsonParseException cause)
+        {
+            throw new IOException("Not a JSON array of users: " + cause.getMessage(), cause);
+        }
+
+        List<UserRecord> users = new ArrayList<>();
+
+        if (objects == null)
+        {
+            return users;
+        }
+
+        for (Map<?, ?> object : objects)
+        {
+            users.add(UserRecords.fromJson(object));
+        }
+
+        return users;
+    }
+
+
+    /**
+     * Read users from a CSV export.
+     */
+    public static List<UserRecord> readCsv(Path file) throws IOException
+    {
+        List<UserRecord> users = new ArrayList<>();
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = csv.next();
+
+            if (header == null)
+            {
+                return users;
+            }
+
+            Map<String, Integer> columns = new HashMap<>();
+
+            for (int i = 0; i < header.size(); i++)
+            {
+                columns.put(header.get(i).trim(), i);
+            }
+
+            List<String> row;
+
+            while ((row = csv.next()) != null)
+            {
+                users.add(fromCsv(columns, row));
+            }
+        }
+
+        return users;
+    }
+
+
+    private static UserRecord fromCsv(Map<String, Integer> columns, List<String> row)
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+
+        for (Claim claim : Claim.VALUES)
+        {
+            Object value;
+
+            switch (claim)
+            {
+                case EMAIL_VERIFIED:
+                case PHONE_NUMBER_VERIFIED:
+                    String verified = column(columns, row, claim.getName());
+                    value = (verified != null) ? Boolean.valueOf(verified) : null;
+                    break;
+
+                case UPDATED_AT:
+                    value = toEpochSecond(column(columns, row, claim.getName()));
+                    break;
+
+                case ADDRESS:
+                    value = UserRecords.toAddress(
+                            column(columns, row, "address_formatted"),
+                            column(columns, row, "address_street_address"),
+                            column(columns, row, "address_locality"),
+                            column(columns, row, "address_region"),
+                            column(columns, row, "address_postal_code"),
+                            column(columns, row, "address_country"));
+                    break;
+
+                default:
+                    value = column(columns, row, claim.getName());
+                    break;
+            }
+
+            values[claim.ordinal()] = value;
+        }
+
+        return UserRecords.of(column(columns, row, "subject"), column(columns, row, "login_id"),
+                column(columns, row, "password"), values, null);
+    }
+
+
+    private static String column(Map<String, Integer> columns, List<String> row, String name)
+    {
+        Integer index = columns.get(name);
+
+        if (index == null || row.size() <= index)
+        {
+            return null;
+        }
+
+        String value = row.get(index);
+
+        return value.isEmpty() ? null : value;
+    }
+
+
+    private static Long toEpochSecond(String value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        if (value.chars().allMatch(Character::isDigit))
+        {
+            return Long.parseLong(value);
+        }
+
+        return Instant.parse(value).getEpochSecond();
+    }
+
+
+    /**
+     * A reader of RFC 4180 CSV, where fields may be quoted and quoted
+     * fields may contain commas, line breaks and doubled quotes.
+     */
+    private static final class CsvReader
+    {
+        private final Reader mReader;
+        private int mNext;
+
+
+        CsvReader(Reader reader) throws IOException
+        {
+            mReader = reader;
+            mNext   = reader.read();
+        }
+
+
+        /**
+         * Read the fields of the next line, or {@code null} at the end.
+         */
+        List<String> next() throws IOException
+        {
+            if (mNext == -1)
+            {
+                return null;
+            }
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+
+            while (true)
+            {
+                int c = mNext;
+                mNext = mReader.read();
+
+                if (quoted)
+                {
+                    if (c == -1)
+                    {
+                        throw new IOException("Unterminated quoted field in the CSV.");
+                    }
+
+                    if (c != '"')
+                    {
+                        field.append((char)c);
+                    }
+                    else if (mNext == '"')
+                    {
+                        // An escaped quote.
+                        field.append('"');
+                        mNext = mReader.read();
+                    }
+                    else
+                    {
+                        quoted = false;
+                    }
+
+                    continue;
+                }
+
+                if (c == '"')
+                {
+                    quoted = true;
+                }
+                else if (c == ',')
+                {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                }
+                else if (c == '\r' || c == '\n' || c == -1)
+                {
+                    if (c == '\r' && mNext == '\n')
+                    {
+                        mNext = mReader.read();
+                    }
+
+                    fields.add(field.toString());
+
+                    return fields;
+                }
+                else
+                {
+                    field.append((char)c);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.ByteArrayOutputStream;
+
+
+/**
+ * The binary format of user snapshots, which are written by {@link
+ * UserSnapshotBuilder} and read by {@link SnapshotUserRepository}.
+ *
+ * <p>
+ * All integers are big-endian. Positions are absolute offsets in the file,
+ * so a snapshot is limited to 2 GB.
+ * </p>
+ *
+ * <pre>
+ * header       magic "AUS1", int users, long createdAt, int dictionary,
+ *              int records, int keys, int[4] indexes (subject, login ID,
+ *              email key, phone number key), int length
+ * dictionary   varint count, then count strings as (varint length, UTF-8)
+ * records      per user: string subject, string loginId, string password,
+ *              int mask of present claims (bits by {@link Claim} ordinal),
+ *              then the present claims in ordinal order
+ * keys         index keys as (varint length, UTF-8)
+ * index        int count, then count pairs of (int key, int record),
+ *              sorted by the UTF-8 bytes of the keys
+ * </pre>
+ *
+ * <p>
+ * A string in a record is a varint tag followed by its data: {@code 0} is
+ * {@code null}, an odd tag {@code (n << 1) | 1} refers to the n-th entry of
+ * the dictionary, and an even tag {@code (length + 1) << 1} is followed by
+ * the UTF-8 bytes. Boolean claims are one byte, {@code updated_at} is a
+ * long (seconds), and {@code address} is six strings (formatted, street
+ * address, locality, region, postal code and country). Values of claims
+ * that repeat across users (see {@link #isDictionaryEncoded(Claim)}) and
+ * address regions and countries are stored in the dictionary.
+ * </p>
+ */
+final class UserSnapshotFormat
+{
+    static final byte[] MAGIC = { 'A', 'U', 'S', '1' };
+
+
+    // Positions of the header fields.
+    static final int USERS       = 4;
+    static final int CREATED_AT  = 8;
+    static final int DICTIONARY  = 16;
+    static final int RECORDS     = 20;
+    static final int KEYS        = 24;
+    static final int INDEXES     = 28;
+    static final int LENGTH      = 44;
+    static final int HEADER_SIZE = 48;
+
+
+    // Indexes in the order of the header fields.
+    static final int SUBJECT_INDEX      = 0;
+    static final int LOGIN_ID_INDEX     = 1;
+    static final int EMAIL_INDEX        = 2;
+    static final int PHONE_NUMBER_INDEX = 3;
+    static final int INDEX_COUNT        = 4;
+
+
+    // Address fields whose values go to the dictionary.
+    static final int ADDRESS_FIELDS  = 6;
+    static final int ADDRESS_REGION  = 3;
+    static final int ADDRESS_COUNTRY = 5;
+
+
+    private UserSnapshotFormat()
+    {
+    }
+
+
+    /**
+     * Check if the values of a claim are stored in the dictionary.
+     */
+    static boolean isDictionaryEncoded(Claim claim)
+    {
+        return claim.isLowCardinality();
+    }
+
+
+    /**
+     * Check if the n-th field of an address is stored in the dictionary.
+     */
+    static boolean isDictionaryEncoded(int addressField)
+    {
+        return addressField == ADDRESS_REGION || addressField == ADDRESS_COUNTRY;
+    }
+
+
+    static int varintLength(int value)
+    {
+        int length = 1;
+
+        while ((value >>>= 7) != 0)
+        {
+            length++;
+        }
+
+        return length;
+    }
+
+
+    static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+    }
+
+
+    /**
+     * Compare two byte sequences as unsigned bytes, which is the order of
+     * the index keys.
+     */
+    static int compare(byte[] a, byte[] b)
+    {
+        int length = Math.min(a.length, b.length);
+
+        for (int i = 0; i < length; i++)
+        {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+
+            if (diff != 0)
+            {
+                return diff;
+            }
+        }
+
+        return a.length - b.length;
+    }
+}
@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.db.UpdatableUserRepository.Update;
+import com.authlete.jaxrs.server.util.MBeans;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * A feed of incremental updates of users, which are applied to an {@link
+ * UpdatableUserRepository} in batches.
+ *
+ * <p>
+ * Updates are JSON objects. An upsert has {@code "op":"upsert"} and the
+ * properties of the user in the format of {@link UserSnapshotBuilder}'s
+ * JSON exports. A delete has {@code "op":"delete"} and {@code subject}.
+ * Updates are received from the following sources.
+ * </p>
+ *
+ * <ul>
+ *   <li>A file to which updates are appended one per line, tailed every
+ *       {@code resource.user_feed.batch_interval} milliseconds. The whole
+ *       file is applied on startup; if the file shrinks, it is read again
+ *       from the beginning.
+ *   <li>The {@code UserUpdateEndpoint}, which calls {@link #submit(Map)}.
+ *       Updates received this way are local to the node.
+ * </ul>
+ *
+ * <p>
+ * A single background thread applies the pending updates in batches of at
+ * most {@code resource.user_feed.max_batch_size}, publishing a new version
+ * of the repository per batch, and then notifies {@link
+ * UserDao#invalidate(String)} of the updated subjects so that caches of
+ * user data are refreshed. The time taken to apply a batch, the delay from
+ * receiving an update to publishing it, and the age of the oldest pending
+ * update are exposed via JMX.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.user_feed.enabled}</td><td>{@code false}</td></tr>
+ *   <tr><td>{@code resource.user_feed.file}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_feed.secret}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.user_feed.batch_interval}</td><td>{@code 200} (milliseconds)</td></tr>
+ *   <tr><td>{@code resource.user_feed.max_batch_size}</td><td>{@code 10000}</td></tr>
+ *   <tr><td>{@code resource.user_feed.max_pending}</td><td>{@code 100000}</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class UserUpdateFeed implements UserUpdateFeedMXBean
+{
+    private static final Logger sLogger = Logger.getLogger(UserUpdateFeed.class.getName());
+
+
+    // JSON processor
+    private static final Gson GSON = new Gson();
+
+
+    /**
+     * The maximum number of bytes read from the file at a time.
+     */
+    private static final int MAX_READ_SIZE = 4 * 1024 * 1024;
+
+
+    private static final UserUpdateFeed sInstance = new UserUpdateFeed(
+            ServerConfig.getBoolean("resource.user_feed.enabled", false),
+            toPath(ServerConfig.getString("resource.user_feed.file", null)),
+            ServerConfig.getLong("resource.user_feed.batch_interval", 200),
+            ServerConfig.getInt("resource.user_feed.max_batch_size", 10000),
+            ServerConfig.getInt("resource.user_feed.max_pending", 100000));
+
+
+    static
+    {
+        MBeans.register("UserUpdateFeed", sInstance);
+    }
+
+
+    /**
+     * An update waiting to be applied.
+     */
+    private static final class Pending
+    {
+        final Update update;
+        final long receivedAt;
+
+
+        Pending(Update update, long receivedAt)
+        {
+            this.update     = update;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+
+    private final boolean mEnabled;
+    private final Path mFile;
+    private final long mBatchInterval;
+    private final int mMaxBatchSize;
+    private final int mMaxPending;
+    private final ConcurrentLinkedQueue<Pending> mQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mPending = new AtomicInteger();
+    private volatile UpdatableUserRepository mRepository;
+    private ScheduledExecutorService mApplier;
+    private long mOffset;
+    private final LongAdder mReceived = new LongAdder();
+    private final LongAdder mApplied = new LongAdder();
+    private final LongAdder mRejected = new LongAdder();
+    private final LongAdder mBatches = new LongAdder();
+    private final LongAdder mApplyNanos = new LongAdder();
+    private final AtomicLong mMaxApplyNanos = new AtomicLong();
+    private final LongAdder mPublishDelayNanos = new LongAdder();
+
+
+    UserUpdateFeed(boolean enabled, Path file, long batchInterval, int maxBatchSize, int maxPending)
+    {
+        mEnabled       = enabled;
+        mFile          = file;
+        mBatchInterval = batchInterval;
+        mMaxBatchSize  = maxBatchSize;
+        mMaxPending    = maxPending;
+    }
+
+
+    private static Path toPath(String file)
+    {
+        return (file != null) ? Paths.get(file) : null;
+    }
+
+
+    /**
+     * Get the feed of this server.
+     */
+    public static UserUpdateFeed getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if this feed is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+
+    /**
+     * Start applying updates to a repository.
+     */
+    public void start(UpdatableUserRepository repository)
+    {
+        if (!mEnabled || mApplier != null)
+        {
+            return;
+        }
+
+        mRepository = repository;
+
+        ScheduledExecutorService applier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-update-applier");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Apply the whole file before the first request, if possible.
+        applier.execute(this::poll);
+        applier.scheduleWithFixedDelay(this::poll, mBatchInterval, mBatchInterval, TimeUnit.MILLISECONDS);
+
+        mApplier = applier;
+    }
+
+
+    /**
+     * Stop applying updates. Pending updates are discarded.
+     */
+    public void stop()
+    {
+        if (mApplier != null)
+        {
+            mApplier.shutdownNow();
+            mApplier = null;
+        }
+    }
+
+
+    /**
+     * Submit an update.
+     *
+     * @param object
+     *         An update parsed by Gson.
+     *
+     * @return
+     *         {@code false} if the update is invalid, the feed is not running
+     *         or too many updates are pending.
+     */
+    public boolean submit(Map<?, ?> object)
+    {
+        if (mRepository == null)
+        {
+            return false;
+        }
+
+        Update update = toUpdate(object);
+
+        if (update == null)
+        {
+            return false;
+        }
+
+        if (mMaxPending <= mPending.get())
+        {
+            mRejected.increment();
+            return false;
+        }
+
+        mPending.incrementAndGet();
+        mQueue.add(new Pending(update, System.nanoTime()));
+        mReceived.increment();
+
+        return true;
+    }
+
+
+    private static Update toUpdate(Map<?, ?> object)
+    {
+        if (object == null)
+        {
+            return null;
+        }
+
+        Object op = object.get("op");
+
+        if ("upsert".equals(op))
+        {
+            UserRecord record = UserRecords.fromJson(object);
+
+            return (record.getSubject() != null) ? Update.upsert(record) : null;
+        }
+
+        if ("delete".equals(op))
+        {
+            String subject = UserRecords.string(object.get("subject"));
+
+            return (subject != null) ? Update.delete(subject) : null;
+        }
+
+        return null;
+    }
+
+
+    private void poll()
+    {
+        try
+        {
+            if (mFile != null)
+            {
+                tail();
+            }
+
+            while (!mQueue.isEmpty())
+            {
+                applyBatch();
+            }
+        }
+        catch (RuntimeException cause)
+        {
+            // Keep the applier running.
+            System.err.format("Failed to apply user updates: %s%n", cause.getMessage());
+        }
+    }
+
+
+    private void tail()
+    {
+        try (FileChannel channel = FileChannel.open(mFile, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+
+            if (size < mOffset)
+            {
+                sLogger.info(String.format("%s has shrunk. Reading it from the beginning.", mFile));
+                mOffset = 0;
+            }
+
+            if (size == mOffset)
+            {
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int)Math.min(size - mOffset, MAX_READ_SIZE));
+
+            while (buffer.hasRemaining() && channel.read(buffer, mOffset + buffer.position()) > 0)
+            {
+                // Read until the buffer is full.
+            }
+
+            byte[] bytes = buffer.array();
+            int length = buffer.position();
+            int start  = 0;
+
+            for (int i = 0; i < length; i++)
+            {
+                if (bytes[i] == '\n')
+                {
+                    line(new String(bytes, start, i - start, StandardCharsets.UTF_8));
+                    start = i + 1;
+                }
+            }
+
+            if (start == 0 && length == MAX_READ_SIZE)
+            {
+                sLogger.warning(String.format("Skipped a user update longer than %d bytes in %s", length, mFile));
+                start = length;
+            }
+
+            // An incomplete last line is read next time.
+            mOffset += start;
+        }
+        catch (NoSuchFileException cause)
+        {
+            // Not created yet.
+        }
+        catch (IOException cause)
+        {
+            System.err.format("Failed to read user updates from %s: %s%n", mFile, cause.getMessage());
+        }
+    }
+
+
+    private void line(String line)
+    {
+        String json = line.trim();
+
+        if (json.isEmpty())
+        {
+            return;
+        }
+
+        Map<?, ?> object;
+
+        try
+        {
+            object = GSON.fromJson(json, Map.class);
+        }
+        catch (JsonParseException cause)
+        {
+            object = null;
+        }
+
+        Update update = toUpdate(object);
+
+        if (update == null)
+        {
+            sLogger.warning(String.format("Ignored an invalid user update in %s: %s", mFile, json));
+            return;
+        }
+
+        // Updates from the file are never rejected, since they are not
+        // read again.
+        mPending.incrementAndGet();
+        mQueue.add(new Pending(update, System.nanoTime()));
+        mReceived.increment();
+    }
+
+
+    private void applyBatch()
+    {
+        List<Update> updates = new ArrayList<>();
+        long delay = 0;
+        long started = System.nanoTime();
+        Pending pending;
+
+        while (updates.size() < mMaxBatchSize && (pending = mQueue.poll()) != null)
+        {
+            updates.add(pending.update);
+            delay += started - pending.receivedAt;
+        }
+
+        mRepository.apply(updates);
+
+        long finished = System.nanoTime();
+        long elapsed  = finished - started;
+
+        mPending.addAndGet(-updates.size());
+        mApplied.add(updates.size());
+        mBatches.increment();
+        mApplyNanos.add(elapsed);
+        mMaxApplyNanos.accumulateAndGet(elapsed, Math::max);
+        mPublishDelayNanos.add(delay + elapsed * updates.size());
+
+        // Let the caches of user data drop the updated users.
+        Set<String> subjects = new LinkedHashSet<>();
+
+        for (Update update : updates)
+        {
+            subjects.add(update.getSubject());
+        }
+
+        subjects.forEach(UserDao::invalidate);
+    }
+
+
+    @Override
+    public long getVersion()
+    {
+        UpdatableUserRepository repository = mRepository;
+
+        return (repository != null) ? repository.getVersion() : 0;
+    }
+
+
+    @Override
+    public long getReceived()
+    {
+        return mReceived.sum();
+    }
+
+
+    @Override
+    public long getApplied()
+    {
+        return mApplied.sum();
+    }
+
+
+    @Override
+    public long getRejected()
+    {
+        return mRejected.sum();
+    }
+
+
+    @Override
+    public int getPending()
+    {
+        return mPending.get();
+    }
+
+
+    @Override
+    public double getLagMillis()
+    {
+        Pending oldest = mQueue.peek();
+
+        return (oldest != null) ? (System.nanoTime() - oldest.receivedAt) / 1e6 : 0;
+    }
+
+
+    @Override
+    public double getAveragePublishDelayMillis()
+    {
+        long count = mApplied.sum();
+
+        return (count == 0) ? 0 : mPublishDelayNanos.sum() / 1e6 / count;
+    }
+
+
+    @Override
+    public double getAverageApplyMillis()
+    {
+        long count = mBatches.sum();
+
+        return (count == 0) ? 0 : mApplyNanos.sum() / 1e6 / count;
+    }
+
+
+    @Override
+    public double getMaxApplyMillis()
+    {
+        return mMaxApplyNanos.get() / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * JMX view of {@link UserUpdateFeed}.
+ */
+public interface UserUpdateFeedMXBean
+{
+    /**
+     * The number of the user data version currently published.
+     */
+    long getVersion();
+
+
+    /**
+     * The number of updates received.
+     */
+    long getReceived();
+
+
+    /**
+     * The number of updates published.
+     */
+    long getApplied();
+
+
+    /**
+     * The number of updates rejected because too many were pending.
+     */
+    long getRejected();
+
+
+    /**
+     * The number of updates received but not published yet.
+     */
+    int getPending();
+
+
+    /**
+     * The age in milliseconds of the oldest update not published yet, or 0.
+     */
+    double getLagMillis();
+
+
+    /**
+     * The average time in milliseconds from receiving an update to
+     * publishing it.
+     */
+    double getAveragePublishDelayMillis();
+
+
+    /**
+     * The average time in milliseconds taken to apply a batch of updates
+     * and publish a new version.
+     */
+    double getAverageApplyMillis();
+
+
+    /**
+     * The longest time in milliseconds taken to apply a batch.
+     */
+    double getMaxApplyMillis();
+}
@@ -17,7 +17,7 @@
 package com.authlete.jaxrs.server.db;
 
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +27,17 @@ import com.authlete.common.assurance.IDDocument;
 import com.authlete.common.assurance.Issuer;
 import com.authlete.common.assurance.Verification;
 import com.authlete.common.assurance.VerifiedClaims;
-import com.authlete.common.assurance.constraint.VerifiedClaimsConstraint;
+import com.authlete.jaxrs.server.ServerConfig;
 
 
 /**
  * Operations to access the database of verified claims.
+ *
+ * <p>
+ * If {@code resource.verified_claims.storage} is {@code fragments}, the
+ * dummy database is kept by {@link FragmentVerifiedClaimsRepository}
+ * instead of as objects.
+ * </p>
  */
 public class VerifiedClaimsDao
 {
@@ -40,6 +46,13 @@ public class VerifiedClaimsDao
             buildVerifiedClaimsDB();
 
 
+    /**
+     * The repository of verified claims, which holds the dummy database
+     * by default.
+     */
+    private static volatile VerifiedClaimsRepository sRepository = buildRepository();
+
+
     private static Map<String, VerifiedClaims> buildVerifiedClaimsDB()
     {
         Map<String, VerifiedClaims> db = new HashMap<String, VerifiedClaims>();
@@ -50,6 +63,24 @@ public class VerifiedClaimsDao
     }
 
 
+    private static VerifiedClaimsRepository buildRepository()
+    {
+        // "objects" or "fragments".
+        String storage = ServerConfig.getString("resource.verified_claims.storage", "objects");
+
+        if (!"fragments".equals(storage))
+        {
+            return sVerifiedClaimsDB::get;
+        }
+
+        // Keep the dummy database as pre-serialized fragments.
+        FragmentVerifiedClaimsRepository repository = new FragmentVerifiedClaimsRepository();
+        sVerifiedClaimsDB.forEach(repository::put);
+
+        return repository;
+    }
+
+
     private static void setupVerifiedClaimsDB(Map<String, VerifiedClaims> db)
     {
         db.put("1003", new VerifiedClaims()
@@ -80,13 +111,35 @@ public class VerifiedClaimsDao
     }
 
 
-    public static List<VerifiedClaims> get(String subject, VerifiedClaimsConstraint constraint)
+    /**
+     * Replace the repository of verified claims, e.g. with one backed by
+     * a real database.
+     */
+    public static void setRepository(VerifiedClaimsRepository repository)
+    {
+        sRepository = repository;
+    }
+
+
+    /**
+     * Get the requested parts of the verified claims of a user.
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param matcher
+     *         The compiled {@code verified_claims} request. See {@link
+     *         VerifiedClaimsMatchers}.
+     *
+     * @return
+     *         A list that holds the selected verified claims, or an empty
+     *         list if the user does not have verified claims that satisfy
+     *         the request.
+     */
+    public static List<VerifiedClaims> get(String subject, VerifiedClaimsMatcher matcher)
     {
-        // NOTE:
-        // Commercial implementations should have complex logic to construct
-        // verified claims based on the constraint.
-        VerifiedClaims vc = sVerifiedClaimsDB.get(subject);
+        VerifiedClaims vc = sRepository.findSelected(subject, matcher);
 
-        return Arrays.asList(vc);
+        return (vc != null) ? Collections.singletonList(vc) : Collections.emptyList();
     }
 }
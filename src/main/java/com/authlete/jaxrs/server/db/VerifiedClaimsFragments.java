@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.Evidence;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Issuer;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+import com.authlete.common.assurance.Verifier;
+import com.google.gson.Gson;
+
+
+/**
+ * The verified claims of a user held as UTF-8 fragments in one byte array.
+ *
+ * <p>
+ * The fields are concatenated in the order below, and an index holds the
+ * end offset of each field. An empty field means {@code null}. A non-empty
+ * field starts with a tag byte that tells whether the rest is a string or
+ * the value is an object. Claim values other than strings, e.g. {@code
+ * address}, are decoded once as Gson would parse them and kept in a
+ * separate array, which is shared by all the requests.
+ * </p>
+ *
+ * <ol>
+ *   <li>{@code time} and {@code verification_process} of the verification
+ *   <li>The value of each claim
+ *   <li>8 fields of each {@code id_document} evidence: {@code method},
+ *       {@code time}, and the type, number, issuer name, issuer country,
+ *       date of issuance and date of expiry of the document
+ * </ol>
+ *
+ * <p>
+ * The trust framework and the claim names, which repeat across users, are
+ * interned by {@link ClaimDictionary}. {@link #select(VerifiedClaimsMatcher)}
+ * builds the selected parts directly, decoding only the fields that the
+ * matcher reads. The verifier of evidence and evidence other than {@code
+ * id_document} are not stored.
+ * </p>
+ */
+final class VerifiedClaimsFragments implements VerifiedClaimsMatcher.Source
+{
+    private static final int VERIFICATION_TIME    = 0;
+    private static final int VERIFICATION_PROCESS = 1;
+    private static final int CLAIMS               = 2;
+
+
+    // The number of fields of an evidence, which are numbered as in Source.
+    private static final int EVIDENCE_FIELDS = 8;
+
+
+    // Tags of fields.
+    private static final byte STRING = 1;
+    private static final byte OBJECT = 2;
+
+
+    // JSON processor
+    private static final Gson GSON = new Gson();
+
+
+    /**
+     * Concatenates fields.
+     */
+    private static final class Encoder
+    {
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        final int[] ends;
+        Object[] objects;
+        int count;
+
+
+        Encoder(int fields)
+        {
+            ends = new int[fields];
+        }
+
+
+        void value(Object value)
+        {
+            if (value instanceof String)
+            {
+                write(STRING, (String)value);
+            }
+            else if (value != null)
+            {
+                if (objects == null)
+                {
+                    objects = new Object[ends.length];
+                }
+
+                objects[count] = GSON.fromJson(GSON.toJson(value), Object.class);
+                data.write(OBJECT);
+                ends[count++] = data.size();
+            }
+            else
+            {
+                ends[count++] = data.size();
+            }
+        }
+
+
+        private void write(byte tag, String value)
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            data.write(tag);
+            data.write(bytes, 0, bytes.length);
+            ends[count++] = data.size();
+        }
+    }
+
+
+    private final String mTrustFramework;
+    private final String[] mClaimNames;
+    private final int mEvidenceCount;
+    private final byte[] mData;
+    private final int[] mEnds;
+    private final Object[] mObjects;
+
+
+    private VerifiedClaimsFragments(
+            String trustFramework, String[] claimNames, int evidenceCount, Encoder encoder)
+    {
+        mTrustFramework = trustFramework;
+        mClaimNames     = claimNames;
+        mEvidenceCount  = evidenceCount;
+        mData           = encoder.data.toByteArray();
+        mEnds           = encoder.ends;
+        mObjects        = encoder.objects;
+    }
+
+
+    /**
+     * Encode verified claims.
+     */
+    static VerifiedClaimsFragments of(VerifiedClaims verifiedClaims)
+    {
+        Verification verification = verifiedClaims.getVerification();
+        Claims claims             = verifiedClaims.getClaims();
+        List<IDDocument> documents = new ArrayList<>();
+
+        if (verification != null && verification.getEvidence() != null)
+        {
+            for (Evidence evidence : verification.getEvidence())
+            {
+                if (evidence instanceof IDDocument)
+                {
+                    documents.add((IDDocument)evidence);
+                }
+            }
+        }
+
+        String[] claimNames = new String[(claims != null) ? claims.size() : 0];
+        Encoder encoder = new Encoder(CLAIMS + claimNames.length + documents.size() * EVIDENCE_FIELDS);
+
+        encoder.value((verification != null) ? verification.getTime() : null);
+        encoder.value((verification != null) ? verification.getVerificationProcess() : null);
+
+        if (claims != null)
+        {
+            int i = 0;
+
+            for (String claimName : claims.keySet())
+            {
+                claimNames[i++] = ClaimDictionary.intern(claimName);
+                encoder.value(claims.get(claimName));
+            }
+        }
+
+        for (IDDocument document : documents)
+        {
+            Document doc  = document.getDocument();
+            Issuer issuer = (doc != null) ? doc.getIssuer() : null;
+
+            encoder.value(document.getMethod());
+            encoder.value(document.getTime());
+            encoder.value((doc != null) ? doc.getType() : null);
+            encoder.value((doc != null) ? doc.getNumber() : null);
+            encoder.value((issuer != null) ? issuer.getName() : null);
+            encoder.value((issuer != null) ? issuer.getCountry() : null);
+            encoder.value((doc != null) ? doc.getDateOfIssuance() : null);
+            encoder.value((doc != null) ? doc.getDateOfExpiry() : null);
+        }
+
+        return new VerifiedClaimsFragments(
+                ClaimDictionary.intern((verification != null) ? verification.getTrustFramework() : null),
+                claimNames, documents.size(), encoder);
+    }
+
+
+    /**
+     * Build the parts of the verified claims that a matcher selects.
+     *
+     * @param matcher
+     *         The matcher of the request.
+     *
+     * @return
+     *         New verified claims that hold only the selected parts, or
+     *         {@code null} if the verified claims do not satisfy the
+     *         request.
+     */
+    VerifiedClaims select(VerifiedClaimsMatcher matcher)
+    {
+        return matcher.apply(this);
+    }
+
+
+    @Override
+    public VerifiedClaims toVerifiedClaims()
+    {
+        Verification verification = new Verification()
+                .setTrustFramework(mTrustFramework)
+                .setTime(getTime())
+                .setVerificationProcess(getVerificationProcess());
+
+        for (int i = 0; i < mEvidenceCount; i++)
+        {
+            verification.addEvidence(evidence(i));
+        }
+
+        Claims claims = new Claims();
+
+        for (int i = 0; i < mClaimNames.length; i++)
+        {
+            Object value = value(CLAIMS + i);
+
+            if (value != null)
+            {
+                claims.putClaim(mClaimNames[i], value);
+            }
+        }
+
+        return new VerifiedClaims()
+                .setVerification(verification)
+                .setClaims(claims);
+    }
+
+
+    private IDDocument evidence(int index)
+    {
+        IDDocument evidence = new IDDocument()
+                .setMethod(getEvidence(index, METHOD))
+                .setTime(getEvidence(index, TIME));
+
+        if (!hasDocument(index))
+        {
+            return evidence;
+        }
+
+        Document document = new Document()
+                .setType(getEvidence(index, DOCUMENT_TYPE))
+                .setNumber(getEvidence(index, NUMBER))
+                .setDateOfIssuance(getEvidence(index, DATE_OF_ISSUANCE))
+                .setDateOfExpiry(getEvidence(index, DATE_OF_EXPIRY));
+
+        if (hasIssuer(index))
+        {
+            document.setIssuer(new Issuer()
+                    .setName(getEvidence(index, ISSUER_NAME))
+                    .setCountry(getEvidence(index, ISSUER_COUNTRY)));
+        }
+
+        return evidence.setDocument(document);
+    }
+
+
+    @Override
+    public String getTrustFramework()
+    {
+        return mTrustFramework;
+    }
+
+
+    @Override
+    public String getTime()
+    {
+        return (String)value(VERIFICATION_TIME);
+    }
+
+
+    @Override
+    public String getVerificationProcess()
+    {
+        return (String)value(VERIFICATION_PROCESS);
+    }
+
+
+    @Override
+    public Object getClaim(String claimName)
+    {
+        for (int i = 0; i < mClaimNames.length; i++)
+        {
+            if (mClaimNames[i].equals(claimName))
+            {
+                return value(CLAIMS + i);
+            }
+        }
+
+        return null;
+    }
+
+
+    @Override
+    public int getEvidenceCount()
+    {
+        return mEvidenceCount;
+    }
+
+
+    @Override
+    public boolean isIDDocument(int index)
+    {
+        // Only id_document evidence is stored.
+        return true;
+    }
+
+
+    @Override
+    public String getEvidence(int index, int field)
+    {
+        return (String)value(evidenceBase(index) + field);
+    }
+
+
+    @Override
+    public Verifier getVerifier(int index)
+    {
+        // Verifiers are not stored.
+        return null;
+    }
+
+
+    @Override
+    public boolean hasDocument(int index)
+    {
+        int base = evidenceBase(index);
+
+        return !isNull(base + DOCUMENT_TYPE, base + EVIDENCE_FIELDS);
+    }
+
+
+    @Override
+    public boolean hasIssuer(int index)
+    {
+        int base = evidenceBase(index);
+
+        return !isNull(base + ISSUER_NAME, base + ISSUER_COUNTRY + 1);
+    }
+
+
+    private int evidenceBase(int index)
+    {
+        return CLAIMS + mClaimNames.length + index * EVIDENCE_FIELDS;
+    }
+
+
+    /**
+     * Check if all the fields in the range are {@code null}.
+     */
+    private boolean isNull(int from, int to)
+    {
+        return start(from) == mEnds[to - 1];
+    }
+
+
+    private int start(int field)
+    {
+        return (field == 0) ? 0 : mEnds[field - 1];
+    }
+
+
+    private Object value(int field)
+    {
+        int start = start(field);
+        int end   = mEnds[field];
+
+        if (start == end)
+        {
+            return null;
+        }
+
+        if (mData[start] == OBJECT)
+        {
+            return mObjects[field];
+        }
+
+        return new String(mData, start + 1, end - start - 1, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,858 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.Evidence;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Issuer;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+import com.authlete.common.assurance.Verifier;
+
+
+/**
+ * A compiled {@code verified_claims} request, which selects the parts of
+ * the verified claims of a user that are returned to a client.
+ *
+ * <p>
+ * A request is a JSON object, or a JSON array of JSON objects, in the
+ * syntax of OpenID Connect for Identity Assurance, e.g.
+ * </p>
+ *
+ * <pre>
+ * {
+ *   "verification": {
+ *     "trust_framework": { "value": "de_aml" },
+ *     "time": { "max_age": 63113852 },
+ *     "evidence": [
+ *       {
+ *         "type": { "value": "id_document" },
+ *         "method": null,
+ *         "document": { "type": null, "issuer": { "country": null } }
+ *       }
+ *     ]
+ *   },
+ *   "claims": { "given_name": null, "family_name": null }
+ * }
+ * </pre>
+ *
+ * <p>
+ * The request is parsed once by {@link VerifiedClaimsMatchers} and reduced
+ * to sets of acceptable values and flags of requested elements, so that
+ * {@link #apply(VerifiedClaims)} only compares strings and copies the
+ * selected elements. Stores that keep verified claims in another form
+ * implement {@link Source}, from which the selected elements are built
+ * directly. The verified claims are not returned if they lack the trust
+ * framework, if the trust framework or the verification process does not
+ * match, if the verification is older than {@code max_age}, or if none of
+ * the requested claims is available. Evidence that does not match is omitted. Only
+ * {@code id_document} evidence is supported. The trust framework is always
+ * returned; the other elements only when they are requested.
+ * </p>
+ */
+public final class VerifiedClaimsMatcher
+{
+    /**
+     * A matcher that returns verified claims as they are. Used when the
+     * request is not available.
+     */
+    public static final VerifiedClaimsMatcher ALL = new VerifiedClaimsMatcher(null);
+
+
+    /**
+     * Verified claims read by a matcher. Stores that do not keep {@link
+     * VerifiedClaims} objects, such as {@link VerifiedClaimsFragments},
+     * implement this so that the selected parts are built directly from
+     * them. A matcher reads only the fields that the request needs.
+     */
+    interface Source
+    {
+        // Fields of id_document evidence.
+        int METHOD           = 0;
+        int TIME             = 1;
+        int DOCUMENT_TYPE    = 2;
+        int NUMBER           = 3;
+        int ISSUER_NAME      = 4;
+        int ISSUER_COUNTRY   = 5;
+        int DATE_OF_ISSUANCE = 6;
+        int DATE_OF_EXPIRY   = 7;
+
+
+        /**
+         * Build all the verified claims, for {@link VerifiedClaimsMatcher#ALL}.
+         */
+        VerifiedClaims toVerifiedClaims();
+
+
+        /**
+         * Get the trust framework, or {@code null} if there is no
+         * verification.
+         */
+        String getTrustFramework();
+
+
+        String getTime();
+
+
+        String getVerificationProcess();
+
+
+        /**
+         * Get the value of a claim, or {@code null} if not available.
+         */
+        Object getClaim(String claimName);
+
+
+        int getEvidenceCount();
+
+
+        boolean isIDDocument(int index);
+
+
+        /**
+         * Get a field of {@code id_document} evidence.
+         *
+         * @param index
+         *         The index of the evidence.
+         *
+         * @param field
+         *         One of {@link #METHOD}, {@link #TIME}, {@link
+         *         #DOCUMENT_TYPE}, {@link #NUMBER}, {@link #ISSUER_NAME},
+         *         {@link #ISSUER_COUNTRY}, {@link #DATE_OF_ISSUANCE} and
+         *         {@link #DATE_OF_EXPIRY}.
+         */
+        String getEvidence(int index, int field);
+
+
+        Verifier getVerifier(int index);
+
+
+        boolean hasDocument(int index);
+
+
+        boolean hasIssuer(int index);
+    }
+
+
+    /**
+     * A {@link Source} that reads {@link VerifiedClaims} objects.
+     */
+    private static final class ObjectSource implements Source
+    {
+        private final VerifiedClaims mVerifiedClaims;
+        private final Verification mVerification;
+        private final List<Evidence> mEvidence;
+
+
+        ObjectSource(VerifiedClaims verifiedClaims)
+        {
+            mVerifiedClaims = verifiedClaims;
+            mVerification   = verifiedClaims.getVerification();
+            mEvidence       = (mVerification != null) ? mVerification.getEvidence() : null;
+        }
+
+
+        @Override
+        public VerifiedClaims toVerifiedClaims()
+        {
+            return mVerifiedClaims;
+        }
+
+
+        @Override
+        public String getTrustFramework()
+        {
+            return (mVerification != null) ? mVerification.getTrustFramework() : null;
+        }
+
+
+        @Override
+        public String getTime()
+        {
+            return mVerification.getTime();
+        }
+
+
+        @Override
+        public String getVerificationProcess()
+        {
+            return mVerification.getVerificationProcess();
+        }
+
+
+        @Override
+        public Object getClaim(String claimName)
+        {
+            Claims claims = mVerifiedClaims.getClaims();
+
+            return (claims != null) ? claims.get(claimName) : null;
+        }
+
+
+        @Override
+        public int getEvidenceCount()
+        {
+            return (mEvidence != null) ? mEvidence.size() : 0;
+        }
+
+
+        @Override
+        public boolean isIDDocument(int index)
+        {
+            return mEvidence.get(index) instanceof IDDocument;
+        }
+
+
+        @Override
+        public String getEvidence(int index, int field)
+        {
+            IDDocument evidence = (IDDocument)mEvidence.get(index);
+            Document document   = evidence.getDocument();
+            Issuer issuer       = (document != null) ? document.getIssuer() : null;
+
+            switch (field)
+            {
+                case METHOD:           return evidence.getMethod();
+                case TIME:             return evidence.getTime();
+                case DOCUMENT_TYPE:    return (document != null) ? document.getType() : null;
+                case NUMBER:           return (document != null) ? document.getNumber() : null;
+                case ISSUER_NAME:      return (issuer != null) ? issuer.getName() : null;
+                case ISSUER_COUNTRY:   return (issuer != null) ? issuer.getCountry() : null;
+                case DATE_OF_ISSUANCE: return (document != null) ? document.getDateOfIssuance() : null;
+                case DATE_OF_EXPIRY:   return (document != null) ? document.getDateOfExpiry() : null;
+                default:               throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+
+
+        @Override
+        public Verifier getVerifier(int index)
+        {
+            return ((IDDocument)mEvidence.get(index)).getVerifier();
+        }
+
+
+        @Override
+        public boolean hasDocument(int index)
+        {
+            return ((IDDocument)mEvidence.get(index)).getDocument() != null;
+        }
+
+
+        @Override
+        public boolean hasIssuer(int index)
+        {
+            return ((IDDocument)mEvidence.get(index)).getDocument().getIssuer() != null;
+        }
+    }
+
+
+    /**
+     * A compiled element of a request.
+     */
+    private static final class Element
+    {
+        Set<String> trustFrameworks;
+        boolean time;
+        long maxAge = -1;
+        boolean verificationProcess;
+        Set<String> verificationProcesses;
+        EvidenceMatcher[] evidence;
+        final Map<String, Set<String>> claims = new LinkedHashMap<>();
+
+
+        VerifiedClaims apply(Source source, long now)
+        {
+            String trustFramework = source.getTrustFramework();
+
+            if (trustFramework == null || !matches(trustFrameworks, trustFramework))
+            {
+                return null;
+            }
+
+            String verifiedAt = (time || 0 <= maxAge) ? source.getTime() : null;
+
+            if ((verificationProcesses != null &&
+                    !verificationProcesses.contains(source.getVerificationProcess())) ||
+                    !isWithin(verifiedAt, maxAge, now))
+            {
+                return null;
+            }
+
+            Claims selectedClaims = selectClaims(source);
+
+            if (selectedClaims == null)
+            {
+                // None of the requested claims is available.
+                return null;
+            }
+
+            Verification selected = new Verification().setTrustFramework(trustFramework);
+
+            if (time)
+            {
+                selected.setTime(verifiedAt);
+            }
+
+            if (verificationProcess)
+            {
+                selected.setVerificationProcess(source.getVerificationProcess());
+            }
+
+            if (evidence != null)
+            {
+                List<Evidence> selectedEvidence = selectEvidence(source);
+
+                if (!selectedEvidence.isEmpty())
+                {
+                    selected.setEvidence(selectedEvidence);
+                }
+            }
+
+            return new VerifiedClaims()
+                    .setVerification(selected)
+                    .setClaims(selectedClaims);
+        }
+
+
+        private Claims selectClaims(Source source)
+        {
+            Claims selected = null;
+
+            for (Map.Entry<String, Set<String>> entry : claims.entrySet())
+            {
+                Object value = source.getClaim(entry.getKey());
+
+                if (value == null || !matches(entry.getValue(), value))
+                {
+                    continue;
+                }
+
+                if (selected == null)
+                {
+                    selected = new Claims();
+                }
+
+                selected.putClaim(entry.getKey(), value);
+            }
+
+            return selected;
+        }
+
+
+        private List<Evidence> selectEvidence(Source source)
+        {
+            int count = source.getEvidenceCount();
+            List<Evidence> selected = new ArrayList<>(count);
+
+            for (int i = 0; i < count; i++)
+            {
+                for (EvidenceMatcher matcher : evidence)
+                {
+                    IDDocument document = matcher.apply(source, i);
+
+                    if (document != null)
+                    {
+                        selected.add(document);
+                        break;
+                    }
+                }
+            }
+
+            return selected;
+        }
+    }
+
+
+    /**
+     * A compiled element of the {@code evidence} array.
+     */
+    private static final class EvidenceMatcher
+    {
+        Set<String> types;
+        boolean method;
+        Set<String> methods;
+        boolean time;
+        boolean verifier;
+        DocumentMatcher document;
+
+
+        IDDocument apply(Source source, int index)
+        {
+            if (!source.isIDDocument(index) || !matches(types, "id_document"))
+            {
+                return null;
+            }
+
+            if (methods != null && !methods.contains(source.getEvidence(index, Source.METHOD)))
+            {
+                return null;
+            }
+
+            boolean hasDocument = source.hasDocument(index);
+
+            if (document != null && document.types != null && hasDocument &&
+                    !document.types.contains(source.getEvidence(index, Source.DOCUMENT_TYPE)))
+            {
+                return null;
+            }
+
+            IDDocument selected = new IDDocument();
+
+            if (method)
+            {
+                selected.setMethod(source.getEvidence(index, Source.METHOD));
+            }
+
+            if (time)
+            {
+                selected.setTime(source.getEvidence(index, Source.TIME));
+            }
+
+            if (verifier)
+            {
+                selected.setVerifier(source.getVerifier(index));
+            }
+
+            if (document != null && hasDocument)
+            {
+                selected.setDocument(document.apply(source, index));
+            }
+
+            return selected;
+        }
+    }
+
+
+    /**
+     * A compiled {@code document} element of {@code id_document} evidence.
+     */
+    private static final class DocumentMatcher
+    {
+        boolean type;
+        Set<String> types;
+        boolean number;
+        boolean dateOfIssuance;
+        boolean dateOfExpiry;
+        boolean issuerName;
+        boolean issuerCountry;
+
+
+        Document apply(Source source, int index)
+        {
+            Document selected = new Document();
+
+            if (type)
+            {
+                selected.setType(source.getEvidence(index, Source.DOCUMENT_TYPE));
+            }
+
+            if (number)
+            {
+                selected.setNumber(source.getEvidence(index, Source.NUMBER));
+            }
+
+            if (dateOfIssuance)
+            {
+                selected.setDateOfIssuance(source.getEvidence(index, Source.DATE_OF_ISSUANCE));
+            }
+
+            if (dateOfExpiry)
+            {
+                selected.setDateOfExpiry(source.getEvidence(index, Source.DATE_OF_EXPIRY));
+            }
+
+            if ((issuerName || issuerCountry) && source.hasIssuer(index))
+            {
+                selected.setIssuer(new Issuer()
+                        .setName(issuerName ? source.getEvidence(index, Source.ISSUER_NAME) : null)
+                        .setCountry(issuerCountry ? source.getEvidence(index, Source.ISSUER_COUNTRY) : null));
+            }
+
+            return selected;
+        }
+    }
+
+
+    /**
+     * The compiled elements, or {@code null} to return verified claims as
+     * they are.
+     */
+    private final Element[] mElements;
+
+
+    private VerifiedClaimsMatcher(Element[] elements)
+    {
+        mElements = elements;
+    }
+
+
+    /**
+     * Compile a {@code verified_claims} request.
+     *
+     * @param request
+     *         A JSON object or a JSON array of JSON objects parsed by Gson.
+     *
+     * @return
+     *         A matcher, or {@link #ALL} if the request is malformed.
+     */
+    static VerifiedClaimsMatcher compile(Object request)
+    {
+        List<?> objects = (request instanceof List)
+                ? (List<?>)request : Collections.singletonList(request);
+
+        if (objects.isEmpty())
+        {
+            return ALL;
+        }
+
+        Element[] elements = new Element[objects.size()];
+
+        for (int i = 0; i < elements.length; i++)
+        {
+            if (!(objects.get(i) instanceof Map))
+            {
+                return ALL;
+            }
+
+            elements[i] = compileElement((Map<?, ?>)objects.get(i));
+        }
+
+        return new VerifiedClaimsMatcher(elements);
+    }
+
+
+    private static Element compileElement(Map<?, ?> object)
+    {
+        Element element = new Element();
+        Map<?, ?> verification = map(object.get("verification"));
+
+        if (verification != null)
+        {
+            element.trustFrameworks       = values(verification.get("trust_framework"));
+            element.time                  = verification.containsKey("time");
+            element.maxAge                = maxAge(verification.get("time"));
+            element.verificationProcess   = verification.containsKey("verification_process");
+            element.verificationProcesses = values(verification.get("verification_process"));
+            element.evidence              = compileEvidenceArray(verification);
+        }
+
+        Map<?, ?> claims = map(object.get("claims"));
+
+        if (claims != null)
+        {
+            for (Map.Entry<?, ?> entry : claims.entrySet())
+            {
+                element.claims.put(String.valueOf(entry.getKey()), values(entry.getValue()));
+            }
+        }
+
+        return element;
+    }
+
+
+    private static EvidenceMatcher[] compileEvidenceArray(Map<?, ?> verification)
+    {
+        if (!verification.containsKey("evidence"))
+        {
+            return null;
+        }
+
+        Object evidence = verification.get("evidence");
+
+        if (!(evidence instanceof List))
+        {
+            // Any evidence with all the elements.
+            return new EvidenceMatcher[] { compileEvidence(null) };
+        }
+
+        List<?> objects = (List<?>)evidence;
+        EvidenceMatcher[] matchers = new EvidenceMatcher[objects.size()];
+
+        for (int i = 0; i < matchers.length; i++)
+        {
+            matchers[i] = compileEvidence(map(objects.get(i)));
+        }
+
+        return matchers;
+    }
+
+
+    private static EvidenceMatcher compileEvidence(Map<?, ?> object)
+    {
+        EvidenceMatcher matcher = new EvidenceMatcher();
+        boolean all = !hasAny(object, "method", "time", "verifier", "document");
+
+        matcher.types    = (object != null) ? values(object.get("type")) : null;
+        matcher.method   = all || object.containsKey("method");
+        matcher.methods  = all ? null : values(object.get("method"));
+        matcher.time     = all || object.containsKey("time");
+        matcher.verifier = all || object.containsKey("verifier");
+
+        if (all || object.containsKey("document"))
+        {
+            matcher.document = compileDocument(all ? null : map(object.get("document")));
+        }
+
+        return matcher;
+    }
+
+
+    private static DocumentMatcher compileDocument(Map<?, ?> object)
+    {
+        DocumentMatcher matcher = new DocumentMatcher();
+        boolean all = !hasAny(object, "type", "number", "issuer", "date_of_issuance", "date_of_expiry");
+
+        matcher.type           = all || object.containsKey("type");
+        matcher.types          = all ? null : values(object.get("type"));
+        matcher.number         = all || object.containsKey("number");
+        matcher.dateOfIssuance = all || object.containsKey("date_of_issuance");
+        matcher.dateOfExpiry   = all || object.containsKey("date_of_expiry");
+
+        if (all || object.containsKey("issuer"))
+        {
+            Map<?, ?> issuer = all ? null : map(object.get("issuer"));
+            boolean allIssuer = !hasAny(issuer, "name", "country");
+
+            matcher.issuerName    = allIssuer || issuer.containsKey("name");
+            matcher.issuerCountry = allIssuer || issuer.containsKey("country");
+        }
+
+        return matcher;
+    }
+
+
+    private static Map<?, ?> map(Object value)
+    {
+        return (value instanceof Map) ? (Map<?, ?>)value : null;
+    }
+
+
+    private static boolean hasAny(Map<?, ?> object, String... keys)
+    {
+        if (object == null)
+        {
+            return false;
+        }
+
+        for (String key : keys)
+        {
+            if (object.containsKey(key))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Get the acceptable values of an element given by {@code value} or
+     * {@code values}, or {@code null} if any value is acceptable.
+     */
+    private static Set<String> values(Object constraint)
+    {
+        Map<?, ?> object = map(constraint);
+
+        if (object == null)
+        {
+            return null;
+        }
+
+        Object value = object.get("value");
+
+        if (value instanceof String)
+        {
+            return Collections.singleton((String)value);
+        }
+
+        Object values = object.get("values");
+
+        if (!(values instanceof List))
+        {
+            return null;
+        }
+
+        Set<String> set = new HashSet<>();
+
+        for (Object element : (List<?>)values)
+        {
+            if (element instanceof String)
+            {
+                set.add((String)element);
+            }
+        }
+
+        return set;
+    }
+
+
+    private static long maxAge(Object constraint)
+    {
+        Map<?, ?> object = map(constraint);
+        Object maxAge    = (object != null) ? object.get("max_age") : null;
+
+        // Gson parses JSON numbers into Double.
+        return (maxAge instanceof Number) ? ((Number)maxAge).longValue() : -1;
+    }
+
+
+    private static boolean matches(Set<String> values, Object value)
+    {
+        return values == null || values.contains(value);
+    }
+
+
+    private static boolean isWithin(String time, long maxAge, long now)
+    {
+        if (maxAge < 0)
+        {
+            return true;
+        }
+
+        long verifiedAt = parseTime(time);
+
+        // A verification of unknown age does not satisfy max_age.
+        return 0 <= verifiedAt && now - verifiedAt <= maxAge * 1000L;
+    }
+
+
+    /**
+     * Parse a date-time such as {@code 2012-04-23T18:25:43+01}, whose
+     * offset may lack minutes.
+     *
+     * @return
+     *         Milliseconds since the Unix epoch, or -1 if not parsable.
+     */
+    static long parseTime(String time)
+    {
+        if (time == null)
+        {
+            return -1;
+        }
+
+        int length = time.length();
+
+        if (3 <= length && (time.charAt(length - 3) == '+' || time.charAt(length - 3) == '-'))
+        {
+            time = time + ":00";
+        }
+
+        try
+        {
+            return OffsetDateTime.parse(time).toInstant().toEpochMilli();
+        }
+        catch (DateTimeParseException e)
+        {
+            return -1;
+        }
+    }
+
+
+    /**
+     * Check if evidence is requested, so that repositories can skip
+     * reading it otherwise.
+     */
+    public boolean requiresEvidence()
+    {
+        if (mElements == null)
+        {
+            return true;
+        }
+
+        for (Element element : mElements)
+        {
+            if (element.evidence != null)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Select the requested parts of verified claims.
+     *
+     * @param verifiedClaims
+     *         The verified claims of a user.
+     *
+     * @return
+     *         A new {@link VerifiedClaims} instance that holds only the
+     *         requested parts, or {@code null} if the verified claims do
+     *         not satisfy the request. When the request is an array, the
+     *         first element that the verified claims satisfy is used.
+     */
+    public VerifiedClaims apply(VerifiedClaims verifiedClaims)
+    {
+        if (verifiedClaims == null || mElements == null)
+        {
+            return verifiedClaims;
+        }
+
+        return apply(new ObjectSource(verifiedClaims));
+    }
+
+
+    /**
+     * Build the requested parts of verified claims directly from a source.
+     *
+     * @param source
+     *         The verified claims of a user.
+     *
+     * @return
+     *         A new {@link VerifiedClaims} instance that holds only the
+     *         requested parts, or {@code null} if the verified claims do
+     *         not satisfy the request. All the verified claims if this is
+     *         {@link #ALL}.
+     */
+    VerifiedClaims apply(Source source)
+    {
+        if (mElements == null)
+        {
+            return source.toVerifiedClaims();
+        }
+
+        long now = System.currentTimeMillis();
+
+        for (Element element : mElements)
+        {
+            VerifiedClaims selected = element.apply(source, now);
+
+            if (selected != null)
+            {
+                return selected;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+
+/**
+ * Compiles {@code verified_claims} requests into {@link VerifiedClaimsMatcher}
+ * instances and caches them.
+ *
+ * <p>
+ * Clients of a deployment send a handful of request shapes, so a matcher
+ * is compiled once per shape and shared. Matchers are cached by the exact
+ * JSON of the {@code userinfo} claims request, which is found without
+ * parsing it, and by a fingerprint of the {@code verified_claims} element,
+ * which is the JSON with the members of every object sorted by name, so
+ * that requests differing only in the order of members or in the other
+ * claims share one matcher. Both caches evict arbitrary entries when they
+ * exceed the limit.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.verified_claims.matcher_cache.max_size}</td><td>{@code 1000}</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class VerifiedClaimsMatchers implements VerifiedClaimsMatchersMXBean
+{
+    private static final VerifiedClaimsMatchers sInstance = new VerifiedClaimsMatchers(
+            ServerConfig.getInt("resource.verified_claims.matcher_cache.max_size", 1000));
+
+
+    static
+    {
+        MBeans.register("VerifiedClaimsMatchers", sInstance);
+    }
+
+
+    // JSON processor
+    private static final Gson GSON = new Gson();
+
+
+    private final int mMaxSize;
+    private final ConcurrentHashMap<String, VerifiedClaimsMatcher> mByRequest = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VerifiedClaimsMatcher> mByFingerprint = new ConcurrentHashMap<>();
+    private final LongAdder mHits = new LongAdder();
+    private final LongAdder mSharedShapes = new LongAdder();
+    private final LongAdder mCompilations = new LongAdder();
+    private final LongAdder mMalformed = new LongAdder();
+
+
+    VerifiedClaimsMatchers(int maxSize)
+    {
+        mMaxSize = maxSize;
+    }
+
+
+    /**
+     * Get the matchers shared by the userinfo endpoint.
+     */
+    public static VerifiedClaimsMatchers getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Get the matcher of the {@code verified_claims} request in a
+     * {@code userinfo} claims request.
+     *
+     * @param userInfoClaims
+     *         The JSON of the {@code userinfo} property of the {@code
+     *         claims} request parameter, which is reported by Authlete's
+     *         {@code /auth/userinfo} API. May be {@code null}.
+     *
+     * @return
+     *         The matcher. {@link VerifiedClaimsMatcher#ALL} if the request
+     *         is not available or malformed.
+     */
+    public VerifiedClaimsMatcher get(String userInfoClaims)
+    {
+        if (userInfoClaims == null)
+        {
+            return VerifiedClaimsMatcher.ALL;
+        }
+
+        VerifiedClaimsMatcher matcher = mByRequest.get(userInfoClaims);
+
+        if (matcher != null)
+        {
+            mHits.increment();
+            return matcher;
+        }
+
+        matcher = compile(userInfoClaims);
+        put(mByRequest, userInfoClaims, matcher);
+
+        return matcher;
+    }
+
+
+    private VerifiedClaimsMatcher compile(String userInfoClaims)
+    {
+        Object request;
+
+        try
+        {
+            Map<?, ?> claims = GSON.fromJson(userInfoClaims, Map.class);
+            request = (claims != null) ? claims.get("verified_claims") : null;
+        }
+        catch (JsonParseException e)
+        {
+            mMalformed.increment();
+            return VerifiedClaimsMatcher.ALL;
+        }
+
+        if (request == null)
+        {
+            // Verified claims are not requested explicitly.
+            return VerifiedClaimsMatcher.ALL;
+        }
+
+        String fingerprint = GSON.toJson(canonicalize(request));
+        VerifiedClaimsMatcher matcher = mByFingerprint.get(fingerprint);
+
+        if (matcher != null)
+        {
+            mSharedShapes.increment();
+            return matcher;
+        }
+
+        mCompilations.increment();
+        matcher = VerifiedClaimsMatcher.compile(request);
+        put(mByFingerprint, fingerprint, matcher);
+
+        if (matcher == VerifiedClaimsMatcher.ALL)
+        {
+            mMalformed.increment();
+        }
+
+        return matcher;
+    }
+
+
+    /**
+     * Sort the members of all the JSON objects by name.
+     */
+    private static Object canonicalize(Object value)
+    {
+        if (value instanceof Map)
+        {
+            Map<String, Object> sorted = new TreeMap<>();
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)value).entrySet())
+            {
+                sorted.put(String.valueOf(entry.getKey()), canonicalize(entry.getValue()));
+            }
+
+            return sorted;
+        }
+
+        if (value instanceof List)
+        {
+            List<Object> list = new ArrayList<>();
+
+            for (Object element : (List<?>)value)
+            {
+                list.add(canonicalize(element));
+            }
+
+            return list;
+        }
+
+        return value;
+    }
+
+
+    private void put(
+            ConcurrentHashMap<String, VerifiedClaimsMatcher> cache,
+            String key, VerifiedClaimsMatcher matcher)
+    {
+        cache.put(key, matcher);
+
+        Iterator<String> it = cache.keySet().iterator();
+
+        while (mMaxSize < cache.size() && it.hasNext())
+        {
+            it.next();
+            it.remove();
+        }
+    }
+
+
+    @Override
+    public long getHits()
+    {
+        return mHits.sum();
+    }
+
+
+    @Override
+    public long getSharedShapes()
+    {
+        return mSharedShapes.sum();
+    }
+
+
+    @Override
+    public long getCompilations()
+    {
+        return mCompilations.sum();
+    }
+
+
+    @Override
+    public long getMalformed()
+    {
+        return mMalformed.sum();
+    }
+
+
+    @Override
+    public int getSize()
+    {
+        return mByFingerprint.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        mByRequest.clear();
+        mByFingerprint.clear();
+    }
+}
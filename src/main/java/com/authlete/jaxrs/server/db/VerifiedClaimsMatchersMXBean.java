@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+/**
+ * JMX view of {@link VerifiedClaimsMatchers}.
+ */
+public interface VerifiedClaimsMatchersMXBean
+{
+    /**
+     * The number of lookups served by the cache of exact requests.
+     */
+    long getHits();
+
+
+    /**
+     * The number of new requests whose shape had been compiled already.
+     */
+    long getSharedShapes();
+
+
+    /**
+     * The number of compiled shapes.
+     */
+    long getCompilations();
+
+
+    /**
+     * The number of compiled requests that are not valid JSON or whose
+     * {@code verified_claims} element is malformed, for which verified
+     * claims are returned as they are. Requests without {@code
+     * verified_claims} are not counted.
+     */
+    long getMalformed();
+
+
+    /**
+     * The current number of cached shapes.
+     */
+    int getSize();
+
+
+    /**
+     * Discard all the compiled matchers.
+     */
+    void clear();
+}
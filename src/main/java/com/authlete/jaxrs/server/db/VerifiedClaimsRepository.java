@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * A store of verified claims used by {@link VerifiedClaimsDao}.
+ */
+@FunctionalInterface
+public interface VerifiedClaimsRepository
+{
+    /**
+     * Find the verified claims of a user.
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @return
+     *         The verified claims, or {@code null} if the user does not
+     *         have any.
+     */
+    VerifiedClaims findBySubject(String subject);
+
+
+    /**
+     * Find the verified claims of a user for a request.
+     *
+     * <p>
+     * The default implementation calls {@link #findBySubject(String)}.
+     * Repositories may skip reading the parts that the matcher does not
+     * select, e.g. the evidence.
+     * </p>
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param matcher
+     *         The matcher that will be applied to the verified claims.
+     *
+     * @return
+     *         The verified claims, or {@code null} if the user does not
+     *         have any.
+     */
+    default VerifiedClaims findBySubject(String subject, VerifiedClaimsMatcher matcher)
+    {
+        return findBySubject(subject);
+    }
+
+
+    /**
+     * Find the parts of the verified claims of a user that a request
+     * selects.
+     *
+     * <p>
+     * The default implementation applies the matcher to the result of
+     * {@link #findBySubject(String, VerifiedClaimsMatcher)}. Repositories
+     * that do not keep {@link VerifiedClaims} objects may build the
+     * selected parts directly instead.
+     * </p>
+     *
+     * @param subject
+     *         The subject of a user.
+     *
+     * @param matcher
+     *         The compiled {@code verified_claims} request.
+     *
+     * @return
+     *         The selected verified claims, or {@code null} if the user
+     *         does not have verified claims that satisfy the request.
+     */
+    default VerifiedClaims findSelected(String subject, VerifiedClaimsMatcher matcher)
+    {
+        return matcher.apply(findBySubject(subject, matcher));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * A lock-free Bloom filter of SHA-256 hashes.
+ *
+ * <p>
+ * Because the elements are already uniformly distributed hashes, the bit
+ * positions are derived from them directly by double hashing instead of
+ * hashing them again.
+ * </p>
+ */
+class BloomFilter
+{
+    private final AtomicLongArray mWords;
+    private final long mBits;
+    private final int mHashes;
+
+
+    BloomFilter(long bits, int hashes)
+    {
+        // Round up to a multiple of 64.
+        int words = (int)Math.max(1, (bits + 63) / 64);
+
+        mWords  = new AtomicLongArray(words);
+        mBits   = words * 64L;
+        mHashes = hashes;
+    }
+
+
+    /**
+     * Add a SHA-256 hash.
+     */
+    void add(byte[] hash)
+    {
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+
+        for (int i = 0; i < mHashes; i++)
+        {
+            long bit  = Math.floorMod(h1 + i * h2, mBits);
+            int  word = (int)(bit >>> 6);
+            long mask = 1L << (bit & 63);
+
+            // Set the bit unless it has already been set.
+            long current = mWords.get(word);
+
+            while ((current & mask) == 0 && !mWords.compareAndSet(word, current, current | mask))
+            {
+                current = mWords.get(word);
+            }
+        }
+    }
+
+
+    /**
+     * Check if a SHA-256 hash may have been added. {@code false} means that
+     * the hash has definitely not been added.
+     */
+    boolean mightContain(byte[] hash)
+    {
+        long h1 = toLong(hash, 0);
+        long h2 = toLong(hash, 8);
+
+        for (int i = 0; i < mHashes; i++)
+        {
+            long bit = Math.floorMod(h1 + i * h2, mBits);
+
+            if ((mWords.get((int)(bit >>> 6)) & (1L << (bit & 63))) == 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private static long toLong(byte[] bytes, int offset)
+    {
+        long value = 0;
+
+        for (int i = 0; i < 8; i++)
+        {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,494 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.logging.Logger;
+import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * Snapshot of the token caches, written on graceful shutdown and restored
+ * on startup so that a restarted node does not begin with empty caches and
+ * send a burst of introspection requests to Authlete.
+ *
+ * <p>
+ * A snapshot holds the unexpired entries of {@link IntrospectionCache} as
+ * records ready to be served (see {@link IntrospectionRecord}), together
+ * with the revoked tokens of {@link RevokedTokenFilter} and the known-invalid
+ * tokens of {@link InvalidTokenFilter}, so that restored entries never
+ * outlive a revocation known before the shutdown. Tokens are identified by
+ * their SHA-256 hashes only, but the records include subjects and client
+ * IDs, so the snapshot is encrypted with AES-GCM by the key configured by
+ * {@code resource.snapshot.key} (base64-encoded 16, 24 or 32 bytes).
+ * Snapshots are not written without a key.
+ * </p>
+ *
+ * <p>
+ * On startup, the snapshot file is memory-mapped and decrypted in one pass,
+ * entries that have expired meanwhile are discarded, and the file is
+ * deleted so that it is never restored twice. A snapshot older than {@code
+ * resource.snapshot.max_age} seconds is discarded as a whole, because
+ * revocations made while the node was down are not in it.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.snapshot.enabled}</td><td>{@code false}</td></tr>
+ *   <tr><td>{@code resource.snapshot.file}</td><td>{@code java-resource-server.snapshot}
+ *       in {@code java.io.tmpdir}</td></tr>
+ *   <tr><td>{@code resource.snapshot.key}</td><td>(none)</td></tr>
+ *   <tr><td>{@code resource.snapshot.max_age}</td><td>{@code 600} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public final class CacheSnapshot
+{
+    private static final Logger sLogger = Logger.getLogger(CacheSnapshot.class.getName());
+
+
+    /**
+     * The header of a snapshot file, authenticated as additional data.
+     */
+    private static final byte[] MAGIC = "ARS1".getBytes(StandardCharsets.US_ASCII);
+
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final int HASH_LENGTH = 32;
+
+
+    /**
+     * Sections of a snapshot.
+     */
+    private static final byte SECTION_END           = 0;
+    private static final byte SECTION_REVOKED       = 1;
+    private static final byte SECTION_INVALID       = 2;
+    private static final byte SECTION_INTROSPECTION = 3;
+
+
+    private CacheSnapshot()
+    {
+    }
+
+
+    /**
+     * Write a snapshot of the caches if snapshots are enabled. Called on
+     * graceful shutdown.
+     */
+    public static void save()
+    {
+        SecretKeySpec key = getKey();
+
+        if (key == null)
+        {
+            return;
+        }
+
+        Path file = getFile();
+
+        try
+        {
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "snapshot", ".tmp");
+            int[] counts;
+
+            try
+            {
+                counts = write(temp, key);
+
+                // Never leave a partially written snapshot.
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+
+            sLogger.info(String.format(
+                    "Saved %d introspection results, %d revoked tokens and %d invalid tokens to %s",
+                    counts[2], counts[0], counts[1], file));
+        }
+        catch (IOException | GeneralSecurityException cause)
+        {
+            System.err.format("Failed to save the cache snapshot to %s: %s%n", file, cause.getMessage());
+        }
+    }
+
+
+    /**
+     * Restore the caches from the snapshot if snapshots are enabled and the
+     * snapshot file exists. The file is deleted. Called on startup before
+     * requests are accepted.
+     */
+    public static void restore()
+    {
+        SecretKeySpec key = getKey();
+
+        if (key == null)
+        {
+            return;
+        }
+
+        Path file = getFile();
+
+        if (!Files.exists(file))
+        {
+            return;
+        }
+
+        try
+        {
+            ByteBuffer plaintext = read(file, key);
+            int[] counts = load(plaintext,
+                    ServerConfig.getLong("resource.snapshot.max_age", 600) * 1000L);
+
+            if (counts != null)
+            {
+                sLogger.info(String.format(
+                        "Restored %d introspection results, %d revoked tokens and %d invalid tokens from %s",
+                        counts[2], counts[0], counts[1], file));
+            }
+            else
+            {
+                sLogger.info(String.format("Discarded the outdated cache snapshot %s", file));
+            }
+        }
+        catch (IOException | GeneralSecurityException | RuntimeException cause)
+        {
+            // A wrong key, a corrupted file or a file of an older format.
+            System.err.format("Failed to restore the cache snapshot from %s: %s%n", file, cause.getMessage());
+        }
+        finally
+        {
+            delete(file);
+        }
+    }
+
+
+    private static SecretKeySpec getKey()
+    {
+        if (!ServerConfig.getBoolean("resource.snapshot.enabled", false))
+        {
+            return null;
+        }
+
+        String value = ServerConfig.getString("resource.snapshot.key", null);
+        byte[] bytes = null;
+
+        try
+        {
+            bytes = (value != null) ? Base64.getDecoder().decode(value.trim()) : null;
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Not base64.
+        }
+
+        if (bytes == null || (bytes.length != 16 && bytes.length != 24 && bytes.length != 32))
+        {
+            System.err.println("Cache snapshots are disabled: resource.snapshot.key is not a valid AES key.");
+            return null;
+        }
+
+        return new SecretKeySpec(bytes, "AES");
+    }
+
+
+    private static Path getFile()
+    {
+        String file = ServerConfig.getString("resource.snapshot.file", null);
+
+        if (file != null)
+        {
+            return Paths.get(file);
+        }
+
+        return Paths.get(System.getProperty("java.io.tmpdir"), "java-resource-server.snapshot");
+    }
+
+
+    private static int[] write(Path temp, SecretKeySpec key) throws IOException, GeneralSecurityException
+    {
+        byte[] iv = new byte[IV_LENGTH];
+        new SecureRandom().nextBytes(iv);
+
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+        cipher.updateAAD(MAGIC);
+
+        // The numbers of revoked tokens, invalid tokens and introspection
+        // results written.
+        int[] counts = new int[3];
+
+        try (OutputStream file = Files.newOutputStream(temp, StandardOpenOption.WRITE))
+        {
+            file.write(MAGIC);
+            file.write(iv);
+
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new CipherOutputStream(file, cipher), 65536));
+
+            out.writeLong(System.currentTimeMillis());
+
+            out.writeByte(SECTION_REVOKED);
+            RevokedTokenFilter.getInstance().forEach((tokenHash, forgetAt) -> {
+                counts[0] += writeTime(out, tokenHash, forgetAt);
+            });
+            out.writeBoolean(false);
+
+            out.writeByte(SECTION_INVALID);
+            InvalidTokenFilter.getInstance().forEach((tokenKey, expiresAt) -> {
+                counts[1] += writeTime(out, tokenKey, expiresAt);
+            });
+            out.writeBoolean(false);
+
+            out.writeByte(SECTION_INTROSPECTION);
+            IntrospectionCache.getInstance().forEach((cacheKey, entry) -> {
+                counts[2] += writeEntry(out, cacheKey, entry);
+            });
+            out.writeBoolean(false);
+
+            out.writeByte(SECTION_END);
+
+            // Write the remaining data and the authentication tag.
+            out.close();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+
+        return counts;
+    }
+
+
+    private static int writeTime(DataOutputStream out, String key, long time)
+    {
+        byte[] hash = decodeHash(key);
+
+        if (hash == null)
+        {
+            return 0;
+        }
+
+        try
+        {
+            out.writeBoolean(true);
+            out.write(hash);
+            out.writeLong(time);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        return 1;
+    }
+
+
+    private static int writeEntry(DataOutputStream out, String key, Entry entry)
+    {
+        byte[] hash   = decodeHash(key);
+        byte[] record = IntrospectionRecord.encode(entry.response);
+
+        if (hash == null || record == null || 0xFFFF < record.length)
+        {
+            return 0;
+        }
+
+        try
+        {
+            out.writeBoolean(true);
+            out.write(hash);
+            out.writeLong(entry.expiresAt);
+            out.writeLong(entry.staleUntil);
+            out.writeLong(entry.refreshAt);
+            out.writeShort(record.length);
+            out.write(record);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        return 1;
+    }
+
+
+    private static ByteBuffer read(Path file, SecretKeySpec key) throws IOException, GeneralSecurityException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            // Let the OS page the file in instead of copying it to the heap.
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            byte[] magic = new byte[MAGIC.length];
+            byte[] iv    = new byte[IV_LENGTH];
+            mapped.get(magic);
+            mapped.get(iv);
+
+            if (!Arrays.equals(magic, MAGIC))
+            {
+                throw new IOException("Not a cache snapshot.");
+            }
+
+            Cipher cipher = Cipher.getInstance(CIPHER);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH, iv));
+            cipher.updateAAD(MAGIC);
+
+            // Decrypt and authenticate the rest of the file in one pass.
+            ByteBuffer plaintext = ByteBuffer.allocate(cipher.getOutputSize(mapped.remaining()));
+            cipher.doFinal(mapped, plaintext);
+            plaintext.flip();
+
+            return plaintext;
+        }
+    }
+
+
+    /**
+     * Restore the caches from a decrypted snapshot.
+     *
+     * @return
+     *         The numbers of revoked tokens, invalid tokens and introspection
+     *         results restored, or {@code null} if the snapshot is too old.
+     */
+    private static int[] load(ByteBuffer in, long maxAge) throws IOException
+    {
+        long createdAt = in.getLong();
+
+        if (maxAge < System.currentTimeMillis() - createdAt)
+        {
+            return null;
+        }
+
+        int[] counts = new int[3];
+        byte[] hash  = new byte[HASH_LENGTH];
+
+        try
+        {
+            for (byte section = in.get(); section != SECTION_END; section = in.get())
+            {
+                while (in.get() != 0)
+                {
+                    in.get(hash);
+                    String key = encodeHash(hash);
+
+                    switch (section)
+                    {
+                        case SECTION_REVOKED:
+                            counts[0] += RevokedTokenFilter.getInstance().restore(key, in.getLong()) ? 1 : 0;
+                            break;
+
+                        case SECTION_INVALID:
+                            counts[1] += InvalidTokenFilter.getInstance().restore(key, in.getLong()) ? 1 : 0;
+                            break;
+
+                        case SECTION_INTROSPECTION:
+                            counts[2] += IntrospectionCache.getInstance().restore(key, readEntry(in)) ? 1 : 0;
+                            break;
+
+                        default:
+                            throw new IOException("Unknown section in the cache snapshot.");
+                    }
+                }
+            }
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new IOException("Truncated cache snapshot.");
+        }
+
+        return counts;
+    }
+
+
+    private static Entry readEntry(ByteBuffer in)
+    {
+        long expiresAt  = in.getLong();
+        long staleUntil = in.getLong();
+        long refreshAt  = in.getLong();
+        byte[] record   = new byte[in.getShort() & 0xFFFF];
+        in.get(record);
+
+        return new Entry(IntrospectionRecord.decode(record), expiresAt, staleUntil, refreshAt);
+    }
+
+
+    private static byte[] decodeHash(String key)
+    {
+        try
+        {
+            byte[] hash = Base64.getUrlDecoder().decode(key);
+
+            return (hash.length == HASH_LENGTH) ? hash : null;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+
+    private static String encodeHash(byte[] hash)
+    {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+
+    private static void delete(Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException cause)
+        {
+            System.err.format("Failed to delete the cache snapshot %s: %s%n", file, cause.getMessage());
+        }
+    }
+}
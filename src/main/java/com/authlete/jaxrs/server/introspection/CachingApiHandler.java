@@ -0,0 +1,570 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.common.dto.IntrospectionRequest;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+import com.authlete.common.dto.Pair;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.transport.CircuitOpenException;
+
+
+/**
+ * An {@link InvocationHandler} that puts {@link IntrospectionCache} in front
+ * of {@link AuthleteApi#introspection(IntrospectionRequest)} and delegates
+ * all the other methods to the wrapped {@link AuthleteApi} as they are.
+ *
+ * <p>
+ * Because {@code BaseResourceEndpoint.validateAccessToken()} calls the
+ * introspection API of the given {@link AuthleteApi}, resource endpoints get
+ * cached results just by passing an instance created by {@link
+ * #wrap(AuthleteApi)}. Error responses are still built by the library.
+ * </p>
+ *
+ * <p>
+ * Requests are not served from the cache when they contain HTTP message
+ * signatures, which only Authlete can verify. On a cache hit for a request
+ * with a DPoP proof, the proof is verified locally; if it cannot be verified
+ * locally, the request is forwarded to Authlete.
+ * </p>
+ *
+ * <p>
+ * Concurrent cache misses for the same key are coalesced. The first caller
+ * calls Authlete and the others wait for its result (or its exception) for
+ * {@code resource.introspection_coalescing.timeout} seconds at most, so a
+ * burst of parallel requests with one access token results in a single
+ * call to Authlete.
+ * </p>
+ *
+ * <p>
+ * When {@link JwtAccessTokenValidator} is enabled, JWT access tokens are
+ * validated locally on a cache miss, and Authlete is asked only when the
+ * validator cannot judge the token.
+ * </p>
+ *
+ * <p>
+ * Entries of access tokens in use are refreshed in the background before
+ * they expire (see {@link IntrospectionCache#startRefresh(String)}) by a
+ * bounded pool of {@code resource.introspection_cache.refresh_ahead.threads}
+ * threads, so that callers do not wait for Authlete when entries expire.
+ * </p>
+ *
+ * <p>
+ * Access tokens reported as revoked by the authorization server (see
+ * {@link RevokedTokenFilter}) are rejected before the cache is looked up,
+ * and their cache entries are removed. While the filter overflows (see
+ * {@link RevokedTokenFilter#isOverflowing()}), every access token is
+ * introspected by Authlete without using the cache or local JWT validation.
+ * </p>
+ *
+ * <p>
+ * While the circuit to Authlete is open ({@link CircuitOpenException}),
+ * results that have expired in the cache are served if serving stale
+ * results is enabled and they are within the staleness window.
+ * </p>
+ */
+public class CachingApiHandler implements InvocationHandler
+{
+    private static final long DPOP_IAT_TOLERANCE =
+            ServerConfig.getLong("resource.introspection_cache.dpop_iat_tolerance", 60) * 1000L;
+
+
+    private static final boolean COALESCING_ENABLED =
+            ServerConfig.getBoolean("resource.introspection_coalescing.enabled", true);
+
+
+    private static final long COALESCING_TIMEOUT =
+            ServerConfig.getLong("resource.introspection_coalescing.timeout", 10) * 1000L;
+
+
+    private static final int REFRESH_THREADS =
+            ServerConfig.getInt("resource.introspection_cache.refresh_ahead.threads", 4);
+
+
+    private static final int REFRESH_QUEUE_SIZE =
+            ServerConfig.getInt("resource.introspection_cache.refresh_ahead.queue_size", 100);
+
+
+    /**
+     * The maximum number of DPoP proof IDs remembered for replay detection.
+     */
+    private static final int MAX_DPOP_JTIS = 100000;
+
+
+    private final AuthleteApi mApi;
+    private final IntrospectionCache mCache;
+    private final JwtAccessTokenValidator mJwtValidator;
+    private final RevokedTokenFilter mRevokedTokens;
+    private final ThreadPoolExecutor mRefresher;
+
+
+    /**
+     * Introspections in flight, keyed by cache keys.
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<IntrospectionResponse>> mInFlight =
+            new ConcurrentHashMap<>();
+
+
+    /**
+     * DPoP proof IDs ({@code jti}) seen recently, mapped to the time after
+     * which they can be forgotten.
+     */
+    private final ConcurrentHashMap<String, Long> mDpopJtis = new ConcurrentHashMap<>();
+
+
+    CachingApiHandler(
+            AuthleteApi api, IntrospectionCache cache,
+            JwtAccessTokenValidator jwtValidator, RevokedTokenFilter revokedTokens)
+    {
+        mApi           = api;
+        mCache         = cache;
+        mJwtValidator  = jwtValidator;
+        mRevokedTokens = revokedTokens;
+        mRefresher     = createRefresher();
+    }
+
+
+    private static ThreadPoolExecutor createRefresher()
+    {
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "introspection-refresher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        // The number of refreshes in progress is bounded by the threads and
+        // the queue so that refreshes cannot overwhelm Authlete.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                REFRESH_THREADS, REFRESH_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE), factory);
+
+        // Let idle threads go away.
+        executor.allowCoreThreadTimeOut(true);
+
+        return executor;
+    }
+
+
+    /**
+     * Wrap an {@link AuthleteApi} so that its introspection API is served
+     * from the shared {@link IntrospectionCache}.
+     *
+     * @param api
+     *         An {@link AuthleteApi} instance that communicates with Authlete.
+     *
+     * @return
+     *         An {@link AuthleteApi} instance that uses the cache. If the
+     *         cache, coalescing, local JWT validation and the revoked-token
+     *         filter are all disabled, {@code api} itself is returned.
+     */
+    public static AuthleteApi wrap(AuthleteApi api)
+    {
+        IntrospectionCache cache = IntrospectionCache.getInstance();
+        JwtAccessTokenValidator jwtValidator = JwtAccessTokenValidator.getInstance();
+        RevokedTokenFilter revokedTokens = RevokedTokenFilter.getInstance();
+
+        if (!cache.isEnabled() && !COALESCING_ENABLED && jwtValidator == null &&
+                !revokedTokens.isEnabled())
+        {
+            return api;
+        }
+
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                new CachingApiHandler(api, cache, jwtValidator, revokedTokens));
+    }
+
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        if ("introspection".equals(method.getName()) &&
+                args != null && args.length == 1 && args[0] instanceof IntrospectionRequest)
+        {
+            return introspection((IntrospectionRequest)args[0]);
+        }
+
+        try
+        {
+            return method.invoke(mApi, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            // Rethrow the exception thrown by the delegate as is.
+            throw e.getCause();
+        }
+    }
+
+
+    private IntrospectionResponse introspection(IntrospectionRequest request)
+    {
+        if (request.getToken() == null || containsMessageSignature(request))
+        {
+            return mApi.introspection(request);
+        }
+
+        DpopProof proof = null;
+
+        if (request.getDpop() != null)
+        {
+            proof = DpopProof.parse(request.getDpop());
+
+            if (proof == null)
+            {
+                // Let Authlete judge the DPoP proof.
+                return mApi.introspection(request);
+            }
+        }
+
+        String key = IntrospectionCache.computeKey(
+                request, (proof != null) ? proof.getThumbprint() : null);
+
+        if (mRevokedTokens.isRevoked(request.getToken()))
+        {
+            // The authorization server has reported the revocation.
+            mCache.remove(key);
+
+            return revoked(proof);
+        }
+
+        if (mRevokedTokens.isOverflowing())
+        {
+            // Revoked tokens that the filter could not remember may be in
+            // the cache or pass local JWT validation.
+            return mApi.introspection(request);
+        }
+
+        IntrospectionResponse response = mCache.get(key);
+
+        if (response != null && (proof == null || verifyDpopProof(request, proof)))
+        {
+            // Cache hit. DPoP proofs are one-time, so entries for requests
+            // with a proof cannot be refreshed in the background.
+            if (proof == null && mCache.startRefresh(key))
+            {
+                refreshAhead(request, key);
+            }
+
+            return response;
+        }
+
+        if (!COALESCING_ENABLED)
+        {
+            return callIntrospection(request, key, proof);
+        }
+
+        CompletableFuture<IntrospectionResponse> call     = new CompletableFuture<>();
+        CompletableFuture<IntrospectionResponse> inFlight = mInFlight.putIfAbsent(key, call);
+
+        if (inFlight == null)
+        {
+            // This thread is the first caller for the key. Call Authlete
+            // and share the result with the callers arriving meanwhile.
+            try
+            {
+                response = callIntrospection(request, key, proof);
+                call.complete(response);
+
+                return response;
+            }
+            catch (RuntimeException | Error e)
+            {
+                call.completeExceptionally(e);
+                throw e;
+            }
+            finally
+            {
+                mInFlight.remove(key, call);
+            }
+        }
+
+        // Wait for the result of the introspection in flight.
+        response = await(inFlight);
+        mCache.recordCoalesced();
+
+        if (proof == null)
+        {
+            // The request is identical to the one in flight.
+            return response;
+        }
+
+        // The DPoP proof of the other request has been verified by Authlete,
+        // but the proof of this request has not.
+        if (IntrospectionCache.isCacheable(response) && verifyDpopProof(request, proof))
+        {
+            return response;
+        }
+
+        return callIntrospection(request, key, proof);
+    }
+
+
+    private IntrospectionResponse callIntrospection(
+            IntrospectionRequest request, String key, DpopProof proof)
+    {
+        // Validate the access token locally if it is a JWT.
+        IntrospectionResponse response = validateLocally(request, proof);
+
+        if (response == null)
+        {
+            try
+            {
+                // Ask Authlete.
+                response = mApi.introspection(request);
+            }
+            catch (CircuitOpenException e)
+            {
+                // Authlete is unavailable.
+                return serveStale(request, key, proof, e);
+            }
+
+            if (proof != null)
+            {
+                // Remember the proof so that it cannot be replayed on a cache hit.
+                rememberJti(proof, System.currentTimeMillis());
+            }
+        }
+
+        if (proof == null && response != null && response.getAction() == Action.UNAUTHORIZED)
+        {
+            // Remember the invalid token so that it is rejected without
+            // asking Authlete next time.
+            InvalidTokenFilter.getInstance().recordInvalid(
+                    request.getToken(), request.getClientCertificate());
+        }
+
+        mCache.put(key, response);
+
+        return response;
+    }
+
+
+    private void refreshAhead(IntrospectionRequest request, String key)
+    {
+        try
+        {
+            mRefresher.execute(() -> refresh(request, key));
+        }
+        catch (RejectedExecutionException e)
+        {
+            // Too many refreshes are in progress. A later hit will try again.
+            mCache.cancelRefresh(key);
+            mCache.recordRefreshSkipped();
+        }
+    }
+
+
+    private void refresh(IntrospectionRequest request, String key)
+    {
+        try
+        {
+            // The new result replaces the entry if it is cacheable.
+            IntrospectionResponse response = callIntrospection(request, key, null);
+
+            if (response != null && !IntrospectionCache.isCacheable(response) &&
+                    response.getAction() != Action.INTERNAL_SERVER_ERROR)
+            {
+                // The access token is no longer valid.
+                mCache.remove(key);
+            }
+
+            mCache.recordRefresh();
+        }
+        catch (RuntimeException e)
+        {
+            // Keep serving the cached result until it expires.
+        }
+        finally
+        {
+            mCache.cancelRefresh(key);
+        }
+    }
+
+
+    private static IntrospectionResponse revoked(DpopProof proof)
+    {
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(Action.UNAUTHORIZED);
+
+        // The value of the WWW-Authenticate header.
+        response.setResponseContent(String.format(
+                "%s error=\"invalid_token\",error_description=\"The access token has been revoked.\"",
+                (proof != null) ? "DPoP" : "Bearer"));
+
+        return response;
+    }
+
+
+    private IntrospectionResponse serveStale(
+            IntrospectionRequest request, String key, DpopProof proof, CircuitOpenException e)
+    {
+        IntrospectionResponse response = mCache.getStale(key);
+
+        if (response == null || (proof != null && !verifyDpopProof(request, proof)))
+        {
+            throw e;
+        }
+
+        return response;
+    }
+
+
+    private IntrospectionResponse validateLocally(IntrospectionRequest request, DpopProof proof)
+    {
+        if (mJwtValidator == null)
+        {
+            return null;
+        }
+
+        IntrospectionResponse response = mJwtValidator.validate(request, proof);
+
+        if (response != null && response.getAction() == Action.OK &&
+                proof != null && !verifyDpopProof(request, proof))
+        {
+            // Let Authlete judge the DPoP proof.
+            return null;
+        }
+
+        return response;
+    }
+
+
+    private static IntrospectionResponse await(CompletableFuture<IntrospectionResponse> inFlight)
+    {
+        try
+        {
+            return inFlight.get(COALESCING_TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+        catch (ExecutionException e)
+        {
+            // Propagate the exception thrown in the thread calling Authlete.
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException)cause;
+            }
+
+            if (cause instanceof Error)
+            {
+                throw (Error)cause;
+            }
+
+            throw new AuthleteApiException(cause.getMessage(), cause);
+        }
+        catch (TimeoutException e)
+        {
+            throw new AuthleteApiException(
+                    "Timed out waiting for the introspection in flight.", e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+
+            throw new AuthleteApiException(
+                    "Interrupted while waiting for the introspection in flight.", e);
+        }
+    }
+
+
+    private static boolean containsMessageSignature(IntrospectionRequest request)
+    {
+        Pair[] headers = request.getHeaders();
+
+        if (headers == null)
+        {
+            return false;
+        }
+
+        for (Pair header : headers)
+        {
+            String name = header.getKey();
+
+            if ("Signature".equalsIgnoreCase(name) || "Signature-Input".equalsIgnoreCase(name))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    private boolean verifyDpopProof(IntrospectionRequest request, DpopProof proof)
+    {
+        long now = System.currentTimeMillis();
+
+        if (!proof.verify(request.getToken(), request.getHtm(), request.getHtu(), now, DPOP_IAT_TOLERANCE))
+        {
+            return false;
+        }
+
+        // Reject the proof if it has been used before.
+        return rememberJti(proof, now);
+    }
+
+
+    private boolean rememberJti(DpopProof proof, long now)
+    {
+        String jti = proof.getJti();
+
+        if (jti == null)
+        {
+            return false;
+        }
+
+        if (MAX_DPOP_JTIS <= mDpopJtis.size())
+        {
+            // Forget proofs whose "iat" can no longer be accepted.
+            mDpopJtis.values().removeIf(expiresAt -> expiresAt <= now);
+
+            if (MAX_DPOP_JTIS <= mDpopJtis.size())
+            {
+                // Replay cannot be detected reliably. Let Authlete judge.
+                return false;
+            }
+        }
+
+        // A proof is acceptable only within the tolerance around its "iat",
+        // so it can be forgotten after twice the tolerance.
+        Long previous = mDpopJtis.putIfAbsent(
+                proof.getThumbprint() + ':' + jti, now + 2 * DPOP_IAT_TOLERANCE);
+
+        return previous == null;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Base64;
+import java.util.Date;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+
+/**
+ * A DPoP proof JWT.
+ *
+ * <p>
+ * When an introspection result is served from the cache, Authlete does not
+ * see the DPoP proof of the request, so the proof is verified locally by
+ * {@link #verify(String, String, String, long, long)}. The binding between
+ * the access token and the public key of the proof is guaranteed by the
+ * cache key, which includes the {@link #getThumbprint() thumbprint} of the
+ * public key.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc9449.html"
+ *      >RFC 9449 OAuth 2.0 Demonstrating Proof of Possession (DPoP)</a>
+ */
+final class DpopProof
+{
+    private static final JOSEObjectType DPOP_JWT = new JOSEObjectType("dpop+jwt");
+
+
+    private final SignedJWT mJwt;
+    private final JWK mKey;
+    private final String mThumbprint;
+
+
+    private DpopProof(SignedJWT jwt, JWK key, String thumbprint)
+    {
+        mJwt        = jwt;
+        mKey        = key;
+        mThumbprint = thumbprint;
+    }
+
+
+    /**
+     * Parse a DPoP proof JWT.
+     *
+     * @param dpop
+     *         The value of the {@code DPoP} HTTP header.
+     *
+     * @return
+     *         A parsed DPoP proof, or {@code null} if the value is not a
+     *         DPoP proof JWT which can be verified locally.
+     */
+    static DpopProof parse(String dpop)
+    {
+        try
+        {
+            SignedJWT jwt    = SignedJWT.parse(dpop);
+            JWSHeader header = jwt.getHeader();
+            JWK key          = header.getJWK();
+
+            // "typ" must be "dpop+jwt" and "jwk" must be a public key.
+            if (!DPOP_JWT.equals(header.getType()) || key == null || key.isPrivate())
+            {
+                return null;
+            }
+
+            return new DpopProof(jwt, key, key.computeThumbprint().toString());
+        }
+        catch (ParseException | JOSEException e)
+        {
+            return null;
+        }
+    }
+
+
+    /**
+     * Get the JWK thumbprint of the public key in the DPoP proof.
+     */
+    String getThumbprint()
+    {
+        return mThumbprint;
+    }
+
+
+    /**
+     * Get the value of the {@code jti} claim.
+     */
+    String getJti()
+    {
+        try
+        {
+            return mJwt.getJWTClaimsSet().getJWTID();
+        }
+        catch (ParseException e)
+        {
+            return null;
+        }
+    }
+
+
+    /**
+     * Verify the signature and the claims of the DPoP proof.
+     *
+     * @param accessToken
+     *         The access token presented together with the proof.
+     *
+     * @param htm
+     *         The HTTP method of the request.
+     *
+     * @param htu
+     *         The URL of the request.
+     *
+     * @param now
+     *         The current time in milliseconds.
+     *
+     * @param tolerance
+     *         The acceptable difference between {@code iat} and the current
+     *         time in milliseconds.
+     *
+     * @return
+     *         {@code true} if the proof is valid for the request.
+     */
+    boolean verify(String accessToken, String htm, String htu, long now, long tolerance)
+    {
+        if (htm == null || htu == null)
+        {
+            // The request cannot be verified locally.
+            return false;
+        }
+
+        try
+        {
+            JWSVerifier verifier = createVerifier();
+
+            if (verifier == null || !mJwt.verify(verifier))
+            {
+                return false;
+            }
+
+            JWTClaimsSet claims = mJwt.getJWTClaimsSet();
+            Date iat = claims.getIssueTime();
+
+            return claims.getJWTID() != null
+                && iat != null
+                && Math.abs(now - iat.getTime()) <= tolerance
+                && htm.equals(claims.getStringClaim("htm"))
+                && stripQuery(htu).equals(stripQuery(claims.getStringClaim("htu")))
+                && computeAth(accessToken).equals(claims.getStringClaim("ath"));
+        }
+        catch (ParseException | JOSEException e)
+        {
+            return false;
+        }
+    }
+
+
+    private JWSVerifier createVerifier() throws JOSEException
+    {
+        if (mKey instanceof RSAKey)
+        {
+            return new RSASSAVerifier((RSAKey)mKey);
+        }
+
+        if (mKey instanceof ECKey)
+        {
+            return new ECDSAVerifier((ECKey)mKey);
+        }
+
+        // Other key types are left to Authlete.
+        return null;
+    }
+
+
+    private static String stripQuery(String url)
+    {
+        if (url == null)
+        {
+            return "";
+        }
+
+        // RFC 9449, 4.3. Checking DPoP Proofs
+        //
+        //   The htu claim matches the HTTP URI value for the HTTP request
+        //   in which the JWT was received, ignoring any query and fragment
+        //   parts.
+        int index = indexOfAny(url, '?', '#');
+
+        return (index < 0) ? url : url.substring(0, index);
+    }
+
+
+    private static int indexOfAny(String str, char c1, char c2)
+    {
+        for (int i = 0; i < str.length(); i++)
+        {
+            char c = str.charAt(i);
+
+            if (c == c1 || c == c2)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+
+    private static String computeAth(String accessToken)
+    {
+        // The base64url encoding of the SHA-256 hash of the ASCII encoding
+        // of the associated access token's value.
+        byte[] digest = IntrospectionCache.sha256(accessToken.getBytes(StandardCharsets.US_ASCII));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
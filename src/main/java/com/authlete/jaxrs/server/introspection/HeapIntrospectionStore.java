@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * An {@link IntrospectionStore} that holds entries on the heap in a
+ * {@link ConcurrentHashMap}.
+ *
+ * <p>
+ * When the number of entries exceeds the limit, expired entries are purged
+ * first and then arbitrary entries are evicted until the store shrinks to
+ * 90% of the limit.
+ * </p>
+ */
+class HeapIntrospectionStore implements IntrospectionStore
+{
+    private final int mMaxSize;
+    private final ConcurrentHashMap<String, Entry> mEntries = new ConcurrentHashMap<>();
+    private final AtomicBoolean mEvicting = new AtomicBoolean();
+
+
+    HeapIntrospectionStore(int maxSize)
+    {
+        mMaxSize = maxSize;
+    }
+
+
+    @Override
+    public String getName()
+    {
+        return "heap";
+    }
+
+
+    @Override
+    public Entry get(String key)
+    {
+        return mEntries.get(key);
+    }
+
+
+    @Override
+    public int put(String key, Entry entry, long now)
+    {
+        mEntries.put(key, entry);
+
+        if (mMaxSize < mEntries.size())
+        {
+            return evict(now);
+        }
+
+        return 0;
+    }
+
+
+    @Override
+    public void remove(String key)
+    {
+        mEntries.remove(key);
+    }
+
+
+    @Override
+    public void removeExpired(String key, long now)
+    {
+        mEntries.computeIfPresent(key, (k, entry) -> (entry.staleUntil <= now) ? null : entry);
+    }
+
+
+    @Override
+    public boolean startRefresh(String key, long now)
+    {
+        Entry entry = mEntries.get(key);
+
+        if (entry == null || now < entry.refreshAt || entry.expiresAt <= now)
+        {
+            return false;
+        }
+
+        return entry.refreshing.compareAndSet(false, true);
+    }
+
+
+    @Override
+    public void cancelRefresh(String key)
+    {
+        Entry entry = mEntries.get(key);
+
+        if (entry != null)
+        {
+            entry.refreshing.set(false);
+        }
+    }
+
+
+    @Override
+    public void forEach(BiConsumer<String, Entry> action)
+    {
+        mEntries.forEach(action);
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mEntries.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        mEntries.clear();
+    }
+
+
+    private int evict(long now)
+    {
+        // Let only one thread evict entries at a time.
+        if (!mEvicting.compareAndSet(false, true))
+        {
+            return 0;
+        }
+
+        try
+        {
+            // Shrink the store to 90% of the limit so that eviction does
+            // not run on every subsequent insertion.
+            int target  = mMaxSize - mMaxSize / 10;
+            int evicted = 0;
+
+            // Purge expired entries first.
+            mEntries.values().removeIf(entry -> entry.staleUntil <= now);
+
+            // Then evict arbitrary entries.
+            Iterator<Map.Entry<String, Entry>> it = mEntries.entrySet().iterator();
+
+            while (target < mEntries.size() && it.hasNext())
+            {
+                it.next();
+                it.remove();
+                evicted++;
+            }
+
+            return evicted;
+        }
+        finally
+        {
+            mEvicting.set(false);
+        }
+    }
+}
@@ -0,0 +1,623 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import com.authlete.common.dto.IntrospectionRequest;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * A cache of successful introspection results shared by all the resource
+ * endpoints.
+ *
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the access token and its binding
+ * material (the thumbprint of the client certificate and the thumbprint of
+ * the DPoP public key) together with the required scopes and subject of the
+ * introspection request. Raw access tokens are never held as keys.
+ * </p>
+ *
+ * <p>
+ * The lifetime of an entry is the configured TTL, capped by the expiration
+ * time of the access token itself. When the number of entries reaches the
+ * configured maximum, entries are evicted, expired ones first.
+ * </p>
+ *
+ * <p>
+ * When serving stale results is enabled, entries are kept for {@code
+ * resource.circuit_breaker.serve_stale.window} seconds after they expire
+ * (but never after the access token expires), so that they can be served
+ * by {@link #getStale(String)} while Authlete is unavailable.
+ * </p>
+ *
+ * <p>
+ * When an entry is hit after {@code
+ * resource.introspection_cache.refresh_ahead.fraction} of its lifetime has
+ * passed, {@link #startRefresh(String)} lets exactly one caller refresh it
+ * in the background while the cached result keeps being served.
+ * </p>
+ *
+ * <p>
+ * Entries are held by an {@link IntrospectionStore}. With {@code
+ * resource.introspection_cache.storage=offheap}, they are held as compact
+ * binary records in direct buffers ({@link OffHeapIntrospectionStore})
+ * instead of as objects on the heap, so that millions of entries do not
+ * lengthen GC pauses.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.introspection_cache.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.max_size}</td><td>{@code 100000}</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.ttl}</td><td>{@code 60} (seconds)</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.storage}</td><td>{@code heap}</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.offheap.slot_size}</td><td>{@code 512} (bytes)</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.refresh_ahead.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.introspection_cache.refresh_ahead.fraction}</td><td>{@code 0.8}</td></tr>
+ *   <tr><td>{@code resource.circuit_breaker.serve_stale.enabled}</td><td>{@code false}</td></tr>
+ *   <tr><td>{@code resource.circuit_breaker.serve_stale.window}</td><td>{@code 300} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class IntrospectionCache implements IntrospectionCacheMXBean
+{
+    private static final IntrospectionCache sInstance = new IntrospectionCache(
+            ServerConfig.getBoolean("resource.introspection_cache.enabled", true),
+            createStore(ServerConfig.getInt("resource.introspection_cache.max_size", 100000)),
+            ServerConfig.getLong("resource.introspection_cache.ttl", 60) * 1000L,
+            ServerConfig.getBoolean("resource.introspection_cache.refresh_ahead.enabled", true)
+                ? ServerConfig.getDouble("resource.introspection_cache.refresh_ahead.fraction", 0.8) : 0,
+            ServerConfig.getBoolean("resource.circuit_breaker.serve_stale.enabled", false)
+                ? ServerConfig.getLong("resource.circuit_breaker.serve_stale.window", 300) * 1000L : 0);
+
+
+    static
+    {
+        MBeans.register("IntrospectionCache", sInstance);
+    }
+
+
+    private static IntrospectionStore createStore(int maxSize)
+    {
+        if (maxSize <= 0)
+        {
+            return null;
+        }
+
+        String storage = ServerConfig.getString("resource.introspection_cache.storage", "heap");
+
+        if ("offheap".equals(storage))
+        {
+            return new OffHeapIntrospectionStore(maxSize,
+                    ServerConfig.getInt("resource.introspection_cache.offheap.slot_size", 512));
+        }
+
+        return new HeapIntrospectionStore(maxSize);
+    }
+
+
+    /**
+     * A cached introspection result.
+     */
+    static final class Entry
+    {
+        final IntrospectionResponse response;
+        final long expiresAt;
+        final long staleUntil;
+        final long refreshAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+
+
+        Entry(IntrospectionResponse response, long expiresAt, long staleUntil, long refreshAt)
+        {
+            this.response   = response;
+            this.expiresAt  = expiresAt;
+            this.staleUntil = staleUntil;
+            this.refreshAt  = refreshAt;
+        }
+    }
+
+
+    private final boolean mEnabled;
+    private final IntrospectionStore mStore;
+    private final long mTtl;
+    private final double mRefreshFraction;
+    private final long mStaleWindow;
+    private final LongAdder mHits = new LongAdder();
+    private final LongAdder mMisses = new LongAdder();
+    private final LongAdder mEvictions = new LongAdder();
+    private final LongAdder mCoalesced = new LongAdder();
+    private final LongAdder mStaleHits = new LongAdder();
+    private final LongAdder mRefreshes = new LongAdder();
+    private final LongAdder mRefreshesSkipped = new LongAdder();
+
+
+    IntrospectionCache(
+            boolean enabled, IntrospectionStore store, long ttl,
+            double refreshFraction, long staleWindow)
+    {
+        mEnabled         = enabled && store != null && 0 < ttl;
+        mStore           = store;
+        mTtl             = ttl;
+        mRefreshFraction = refreshFraction;
+        mStaleWindow     = staleWindow;
+    }
+
+
+    /**
+     * Get the cache shared by all the resource endpoints.
+     */
+    public static IntrospectionCache getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if this cache is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+
+    /**
+     * Get the cached introspection result.
+     *
+     * @param key
+     *         A key computed by {@link #computeKey(IntrospectionRequest, String)}.
+     *
+     * @return
+     *         The cached introspection result, or {@code null} if no
+     *         unexpired entry exists.
+     */
+    public IntrospectionResponse get(String key)
+    {
+        if (!mEnabled)
+        {
+            return null;
+        }
+
+        Entry entry = mStore.get(key);
+
+        if (entry == null)
+        {
+            mMisses.increment();
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (entry.expiresAt <= now)
+        {
+            // The entry has expired.
+            if (entry.staleUntil <= now)
+            {
+                mStore.removeExpired(key, now);
+            }
+
+            mMisses.increment();
+            return null;
+        }
+
+        mHits.increment();
+
+        return entry.response;
+    }
+
+
+    /**
+     * Get the cached introspection result even if it has expired, as long
+     * as it is within the staleness window and the access token itself has
+     * not expired. This method is intended to be used only while Authlete
+     * is unavailable.
+     *
+     * @param key
+     *         A key computed by {@link #computeKey(IntrospectionRequest, String)}.
+     *
+     * @return
+     *         The cached introspection result, or {@code null} if no
+     *         usable entry exists or serving stale results is disabled.
+     */
+    public IntrospectionResponse getStale(String key)
+    {
+        if (!mEnabled || mStaleWindow <= 0)
+        {
+            return null;
+        }
+
+        Entry entry = mStore.get(key);
+
+        if (entry == null || entry.staleUntil <= System.currentTimeMillis())
+        {
+            return null;
+        }
+
+        mStaleHits.increment();
+
+        return entry.response;
+    }
+
+
+    /**
+     * Check if the entry for the key should be refreshed ahead of its
+     * expiration, and if so, mark it as being refreshed. Only the first
+     * caller gets {@code true} until the refresh completes or is canceled.
+     *
+     * @param key
+     *         A key computed by {@link #computeKey(IntrospectionRequest, String)}.
+     *
+     * @return
+     *         {@code true} if the caller should refresh the entry.
+     */
+    public boolean startRefresh(String key)
+    {
+        if (!mEnabled || mRefreshFraction <= 0 || 1 <= mRefreshFraction)
+        {
+            return false;
+        }
+
+        return mStore.startRefresh(key, System.currentTimeMillis());
+    }
+
+
+    /**
+     * Let the entry for the key be refreshed again by a later caller of
+     * {@link #startRefresh(String)}. A refreshed entry put by {@link
+     * #put(String, IntrospectionResponse)} does not need this.
+     */
+    public void cancelRefresh(String key)
+    {
+        if (mEnabled)
+        {
+            mStore.cancelRefresh(key);
+        }
+    }
+
+
+    /**
+     * Cache an introspection result if it is cacheable. Only results whose
+     * action is {@code OK} and which do not carry a DPoP nonce (which must
+     * be checked by Authlete on every request) are cached.
+     *
+     * @param key
+     *         A key computed by {@link #computeKey(IntrospectionRequest, String)}.
+     *
+     * @param response
+     *         A response from Authlete's introspection API.
+     */
+    public void put(String key, IntrospectionResponse response)
+    {
+        if (!mEnabled || !isCacheable(response))
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        // The TTL of the entry is capped by the expiration time of the token.
+        long expiresAt  = Math.min(now + mTtl, response.getExpiresAt());
+        long staleUntil = Math.min(expiresAt + mStaleWindow, response.getExpiresAt());
+        long refreshAt  = now + (long)((expiresAt - now) * mRefreshFraction);
+
+        if (expiresAt <= now)
+        {
+            return;
+        }
+
+        int evicted = mStore.put(key, new Entry(response, expiresAt, staleUntil, refreshAt), now);
+
+        if (0 < evicted)
+        {
+            mEvictions.add(evicted);
+        }
+    }
+
+
+    /**
+     * Remove the entry for the key.
+     */
+    public void remove(String key)
+    {
+        if (mEnabled)
+        {
+            mStore.remove(key);
+        }
+    }
+
+
+    /**
+     * Pass all the entries that can be used at least as stale results to
+     * the action. Used by {@link CacheSnapshot}.
+     */
+    void forEach(BiConsumer<String, Entry> action)
+    {
+        if (!mEnabled)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        mStore.forEach((key, entry) -> {
+            if (now < entry.staleUntil)
+            {
+                action.accept(key, entry);
+            }
+        });
+    }
+
+
+    /**
+     * Put an entry restored from a snapshot unless it has expired
+     * meanwhile. Used by {@link CacheSnapshot}.
+     *
+     * @return
+     *         {@code true} if the entry has been put.
+     */
+    boolean restore(String key, Entry entry)
+    {
+        long now = System.currentTimeMillis();
+
+        if (!mEnabled || entry.staleUntil <= now)
+        {
+            return false;
+        }
+
+        mStore.put(key, entry, now);
+
+        return true;
+    }
+
+
+    @Override
+    public void clear()
+    {
+        if (mEnabled)
+        {
+            mStore.clear();
+        }
+    }
+
+
+    @Override
+    public long getHits()
+    {
+        return mHits.sum();
+    }
+
+
+    @Override
+    public long getMisses()
+    {
+        return mMisses.sum();
+    }
+
+
+    @Override
+    public long getEvictions()
+    {
+        return mEvictions.sum();
+    }
+
+
+    @Override
+    public long getCoalesced()
+    {
+        return mCoalesced.sum();
+    }
+
+
+    @Override
+    public long getStaleHits()
+    {
+        return mStaleHits.sum();
+    }
+
+
+    @Override
+    public long getRefreshes()
+    {
+        return mRefreshes.sum();
+    }
+
+
+    @Override
+    public long getRefreshesSkipped()
+    {
+        return mRefreshesSkipped.sum();
+    }
+
+
+    /**
+     * Record that an entry was refreshed in the background.
+     */
+    void recordRefresh()
+    {
+        mRefreshes.increment();
+    }
+
+
+    /**
+     * Record that a refresh was skipped because too many refreshes were
+     * in progress.
+     */
+    void recordRefreshSkipped()
+    {
+        mRefreshesSkipped.increment();
+    }
+
+
+    /**
+     * Record that a lookup was served by an introspection in flight.
+     */
+    void recordCoalesced()
+    {
+        mCoalesced.increment();
+    }
+
+
+    @Override
+    public int getSize()
+    {
+        return mEnabled ? mStore.size() : 0;
+    }
+
+
+    @Override
+    public String getStorage()
+    {
+        return mEnabled ? mStore.getName() : "none";
+    }
+
+
+    /**
+     * Check if an introspection result can be reused for other requests.
+     */
+    static boolean isCacheable(IntrospectionResponse response)
+    {
+        return response != null
+            && response.getAction() == Action.OK
+            && response.getDpopNonce() == null;
+    }
+
+
+    /**
+     * Compute the cache key for an introspection request.
+     *
+     * @param request
+     *         An introspection request.
+     *
+     * @param dpopKeyThumbprint
+     *         The JWK thumbprint of the public key in the DPoP proof of the
+     *         request, or {@code null} if the request has no DPoP proof.
+     *
+     * @return
+     *         The base64url-encoded SHA-256 hash of the token, the binding
+     *         material and the other conditions of the request.
+     */
+    public static String computeKey(IntrospectionRequest request, String dpopKeyThumbprint)
+    {
+        StringBuilder sb = new StringBuilder(256);
+
+        sb.append(request.getToken()).append('\0');
+        append(sb, computeCertificateThumbprint(request.getClientCertificate()));
+        append(sb, dpopKeyThumbprint);
+        append(sb, request.getSubject());
+
+        if (request.getScopes() != null)
+        {
+            for (String scope : request.getScopes())
+            {
+                sb.append(scope).append(' ');
+            }
+        }
+
+        return hash(sb.toString());
+    }
+
+
+    private static void append(StringBuilder sb, String value)
+    {
+        if (value != null)
+        {
+            sb.append(value);
+        }
+
+        sb.append('\0');
+    }
+
+
+    /**
+     * Compute the SHA-256 thumbprint of a PEM-encoded certificate.
+     *
+     * @param pem
+     *         A certificate in PEM format, or {@code null}.
+     *
+     * @return
+     *         The base64url-encoded SHA-256 hash of the DER encoding of the
+     *         certificate, or {@code null} if {@code pem} is {@code null}.
+     */
+    public static String computeCertificateThumbprint(String pem)
+    {
+        if (pem == null)
+        {
+            return null;
+        }
+
+        // Strip the PEM boundaries and whitespaces.
+        String base64 = pem
+                .replaceAll("-----(BEGIN|END)[^-]*-----", "")
+                .replaceAll("\\s", "");
+
+        byte[] der;
+
+        try
+        {
+            der = Base64.getDecoder().decode(base64);
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Not a valid PEM. Hash the value as is.
+            der = pem.getBytes(StandardCharsets.UTF_8);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sha256(der));
+    }
+
+
+    /**
+     * Compute the base64url-encoded SHA-256 hash of a string.
+     */
+    public static String hash(String value)
+    {
+        byte[] digest = sha256(value.getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+
+    static byte[] sha256(byte[] input)
+    {
+        try
+        {
+            return MessageDigest.getInstance("SHA-256").digest(input);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // This should not happen. SHA-256 is always available.
+            throw new IllegalStateException(e);
+        }
+    }
+}
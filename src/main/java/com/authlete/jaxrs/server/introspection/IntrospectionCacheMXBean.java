@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+/**
+ * JMX view of {@link IntrospectionCache}.
+ */
+public interface IntrospectionCacheMXBean
+{
+    /**
+     * The number of lookups that found a usable entry.
+     */
+    long getHits();
+
+
+    /**
+     * The number of lookups that did not find a usable entry.
+     */
+    long getMisses();
+
+
+    /**
+     * The number of entries removed to keep the cache within its size limit.
+     */
+    long getEvictions();
+
+
+    /**
+     * The number of lookups that missed the cache and waited for the result
+     * of an introspection already in flight for the same key instead of
+     * calling Authlete.
+     */
+    long getCoalesced();
+
+
+    /**
+     * The number of expired results served while Authlete was unavailable.
+     */
+    long getStaleHits();
+
+
+    /**
+     * The number of entries refreshed in the background before expiring.
+     */
+    long getRefreshes();
+
+
+    /**
+     * The number of background refreshes skipped because too many
+     * refreshes were in progress.
+     */
+    long getRefreshesSkipped();
+
+
+    /**
+     * The number of entries currently held.
+     */
+    int getSize();
+
+
+    /**
+     * The storage engine ({@code heap}, {@code offheap} or {@code none}).
+     */
+    String getStorage();
+
+
+    /**
+     * Remove all the entries.
+     */
+    void clear();
+}
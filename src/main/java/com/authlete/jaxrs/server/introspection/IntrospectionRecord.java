@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+
+
+/**
+ * The compact binary form of a cacheable introspection result, used by
+ * {@link OffHeapIntrospectionStore} and {@link CacheSnapshot}.
+ *
+ * <p>
+ * A record holds the client ID, the expiration time of the access token,
+ * the subject, the client ID alias, the certificate thumbprint, the DPoP
+ * nonce, the scopes and whether response signing is required. Other
+ * properties of introspection results (e.g. extra properties of access
+ * tokens) are not preserved.
+ * </p>
+ */
+final class IntrospectionRecord
+{
+    /**
+     * Flags in a record.
+     */
+    private static final int FLAG_RESPONSE_SIGNING_REQUIRED = 1;
+    private static final int FLAG_REFRESHABLE               = 2;
+
+
+    private IntrospectionRecord()
+    {
+    }
+
+
+    /**
+     * Encode an introspection result.
+     *
+     * @return
+     *         The record, or {@code null} if the result cannot be encoded
+     *         (a string is longer than 65535 bytes in modified UTF-8, or
+     *         there are more than {@link Short#MAX_VALUE} scopes).
+     */
+    static byte[] encode(IntrospectionResponse response)
+    {
+        String[] scopes = response.getScopes();
+
+        if (scopes != null && Short.MAX_VALUE < scopes.length)
+        {
+            // The count would wrap around in writeShort().
+            return null;
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(256);
+
+        try (DataOutputStream out = new DataOutputStream(baos))
+        {
+            int flags = 0;
+
+            if (response.isResponseSigningRequired())
+            {
+                flags |= FLAG_RESPONSE_SIGNING_REQUIRED;
+            }
+
+            if (response.isRefreshable())
+            {
+                flags |= FLAG_REFRESHABLE;
+            }
+
+            out.writeLong(response.getClientId());
+            out.writeLong(response.getExpiresAt());
+            out.writeByte(flags);
+            writeString(out, response.getSubject());
+            writeString(out, response.getClientIdAlias());
+            writeString(out, response.getCertificateThumbprint());
+            writeString(out, response.getDpopNonce());
+
+            out.writeShort((scopes != null) ? scopes.length : -1);
+
+            if (scopes != null)
+            {
+                for (String scope : scopes)
+                {
+                    writeString(out, scope);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            // A string is too long to be encoded.
+            return null;
+        }
+
+        return baos.toByteArray();
+    }
+
+
+    /**
+     * Decode a record written by {@link #encode(IntrospectionResponse)}.
+     */
+    static IntrospectionResponse decode(byte[] record)
+    {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record)))
+        {
+            IntrospectionResponse response = new IntrospectionResponse();
+
+            // Only successful results are cached.
+            response.setAction(Action.OK);
+            response.setExistent(true);
+            response.setUsable(true);
+            response.setSufficient(true);
+
+            response.setClientId(in.readLong());
+            response.setExpiresAt(in.readLong());
+
+            int flags = in.readByte();
+            response.setResponseSigningRequired((flags & FLAG_RESPONSE_SIGNING_REQUIRED) != 0);
+            response.setRefreshable((flags & FLAG_REFRESHABLE) != 0);
+
+            response.setSubject(readString(in));
+            response.setClientIdAlias(readString(in));
+            response.setCertificateThumbprint(readString(in));
+            response.setDpopNonce(readString(in));
+
+            int count = in.readShort();
+
+            if (0 <= count)
+            {
+                String[] scopes = new String[count];
+
+                for (int i = 0; i < count; i++)
+                {
+                    scopes[i] = readString(in);
+                }
+
+                response.setScopes(scopes);
+            }
+
+            return response;
+        }
+        catch (IOException e)
+        {
+            // Records are written by encode() and not corrupted.
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static void writeString(DataOutputStream out, String value) throws IOException
+    {
+        out.writeBoolean(value != null);
+
+        if (value != null)
+        {
+            out.writeUTF(value);
+        }
+    }
+
+
+    private static String readString(DataInputStream in) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.util.function.BiConsumer;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * Storage engine of {@link IntrospectionCache}.
+ *
+ * <p>
+ * Implementations must be thread-safe and bound the number of entries by
+ * evicting entries on insertion.
+ * </p>
+ */
+interface IntrospectionStore
+{
+    /**
+     * The name of the storage engine for monitoring.
+     */
+    String getName();
+
+
+    /**
+     * Get the entry for the key, whether it has expired or not.
+     *
+     * @return
+     *         The entry, or {@code null} if not found.
+     */
+    Entry get(String key);
+
+
+    /**
+     * Put an entry, replacing the existing entry for the key.
+     *
+     * @return
+     *         The number of unexpired entries evicted to make room.
+     */
+    int put(String key, Entry entry, long now);
+
+
+    /**
+     * Remove the entry for the key.
+     */
+    void remove(String key);
+
+
+    /**
+     * Remove the entry for the key if it cannot be used even as a stale
+     * result at the time.
+     */
+    void removeExpired(String key, long now);
+
+
+    /**
+     * Mark the entry for the key as being refreshed if its refresh time
+     * has come and no one else is refreshing it.
+     *
+     * @return
+     *         {@code true} if the entry has been marked by this call.
+     */
+    boolean startRefresh(String key, long now);
+
+
+    /**
+     * Clear the mark put by {@link #startRefresh(String, long)}.
+     */
+    void cancelRefresh(String key);
+
+
+    /**
+     * Pass all the entries to the action. Entries put or removed
+     * concurrently may or may not be passed.
+     */
+    void forEach(BiConsumer<String, Entry> action);
+
+
+    /**
+     * The number of entries.
+     */
+    int size();
+
+
+    /**
+     * Remove all the entries.
+     */
+    void clear();
+}
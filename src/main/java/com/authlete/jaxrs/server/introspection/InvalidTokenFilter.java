@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * A filter that rejects obviously invalid access tokens without asking
+ * Authlete.
+ *
+ * <p>
+ * {@link #check(String, String, String)} rejects an access token when:
+ * </p>
+ *
+ * <ol>
+ *   <li>it is longer than {@code resource.token_filter.max_length} or
+ *       contains characters not allowed by the {@code b64token} syntax of
+ *       RFC 6750 ({@code 400 Bad Request}), or
+ *   <li>it starts with a JOSE header (a base64url-encoded JSON object
+ *       followed by a period) but is not shaped as a JWS (3 parts) or a
+ *       JWE (5 parts) ({@code 400 Bad Request}), or
+ *   <li>Authlete has recently reported it as invalid for a request with
+ *       the same client certificate and without a DPoP proof
+ *       ({@code 401 Unauthorized}).
+ * </ol>
+ *
+ * <p>
+ * Opaque tokens may contain periods. Invalid tokens are remembered for {@code resource.token_filter.ttl}
+ * seconds, and at most {@code resource.token_filter.max_size} tokens (as
+ * hashes) are remembered at a time. The challenge in the {@code
+ * WWW-Authenticate} header uses the {@code DPoP} scheme for requests with
+ * a DPoP proof and {@code Bearer} otherwise. Rejections are reported by
+ * throwing {@link TokenRejectedException}, which is cheap to create.
+ * </p>
+ */
+public class InvalidTokenFilter implements InvalidTokenFilterMXBean
+{
+    private static final InvalidTokenFilter sInstance = new InvalidTokenFilter(
+            ServerConfig.getBoolean("resource.token_filter.enabled", true),
+            ServerConfig.getInt("resource.token_filter.max_length", 4096),
+            ServerConfig.getInt("resource.token_filter.max_size", 10000),
+            ServerConfig.getLong("resource.token_filter.ttl", 30) * 1000L);
+
+
+    static
+    {
+        MBeans.register("InvalidTokenFilter", sInstance);
+    }
+
+
+    /**
+     * The parameters of the WWW-Authenticate header for malformed tokens.
+     */
+    private static final String MALFORMED_PARAMETERS =
+            " error=\"invalid_request\",error_description=\"The access token is malformed.\"";
+
+
+    /**
+     * The parameters of the WWW-Authenticate header for known invalid tokens.
+     */
+    private static final String INVALID_PARAMETERS =
+            " error=\"invalid_token\",error_description=\"The access token is invalid or has expired.\"";
+
+
+    // The values of the WWW-Authenticate header. A request with a DPoP
+    // proof presents its token with the DPoP scheme (RFC 9449, 7.1).
+    private static final String BEARER_MALFORMED_CHALLENGE = "Bearer" + MALFORMED_PARAMETERS;
+    private static final String DPOP_MALFORMED_CHALLENGE   = "DPoP"   + MALFORMED_PARAMETERS;
+    private static final String BEARER_INVALID_CHALLENGE   = "Bearer" + INVALID_PARAMETERS;
+
+
+    private final boolean mEnabled;
+    private final int mMaxLength;
+    private final int mMaxSize;
+    private final long mTtl;
+
+
+    /**
+     * Hashes of invalid tokens mapped to the time when they are forgotten.
+     */
+    private final ConcurrentHashMap<String, Long> mInvalidTokens = new ConcurrentHashMap<>();
+    private final AtomicBoolean mEvicting = new AtomicBoolean();
+    private final LongAdder mMalformedRejections = new LongAdder();
+    private final LongAdder mKnownInvalidRejections = new LongAdder();
+
+
+    InvalidTokenFilter(boolean enabled, int maxLength, int maxSize, long ttl)
+    {
+        mEnabled   = enabled;
+        mMaxLength = maxLength;
+        mMaxSize   = maxSize;
+        mTtl       = ttl;
+    }
+
+
+    /**
+     * Get the filter shared by all the resource endpoints.
+     */
+    public static InvalidTokenFilter getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check an access token before it is sent to Authlete.
+     *
+     * @param accessToken
+     *         An access token. If {@code null}, nothing is checked so that
+     *         the library can report the missing access token.
+     *
+     * @param clientCertificate
+     *         The client certificate of the request, or {@code null}.
+     *
+     * @param dpop
+     *         The DPoP proof of the request, or {@code null}.
+     *
+     * @throws TokenRejectedException
+     *         The access token is malformed or known to be invalid.
+     */
+    public void check(String accessToken, String clientCertificate, String dpop) throws TokenRejectedException
+    {
+        if (!mEnabled || accessToken == null)
+        {
+            return;
+        }
+
+        if (!isWellFormed(accessToken))
+        {
+            mMalformedRejections.increment();
+
+            throw new TokenRejectedException(buildResponse(Status.BAD_REQUEST,
+                    (dpop != null) ? DPOP_MALFORMED_CHALLENGE : BEARER_MALFORMED_CHALLENGE));
+        }
+
+        if (dpop != null || mInvalidTokens.isEmpty())
+        {
+            return;
+        }
+
+        Long expiresAt = mInvalidTokens.get(computeKey(accessToken, clientCertificate));
+
+        if (expiresAt != null && System.currentTimeMillis() < expiresAt)
+        {
+            mKnownInvalidRejections.increment();
+
+            // Only requests without a DPoP proof are checked here.
+            throw new TokenRejectedException(buildResponse(Status.UNAUTHORIZED, BEARER_INVALID_CHALLENGE));
+        }
+    }
+
+
+    /**
+     * Remember an access token which Authlete has reported as invalid
+     * for a request without a DPoP proof.
+     *
+     * @param accessToken
+     *         The access token.
+     *
+     * @param clientCertificate
+     *         The client certificate of the request, or {@code null}.
+     */
+    public void recordInvalid(String accessToken, String clientCertificate)
+    {
+        if (!mEnabled || mMaxSize <= 0 || mTtl <= 0)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        mInvalidTokens.put(computeKey(accessToken, clientCertificate), now + mTtl);
+
+        if (mMaxSize < mInvalidTokens.size())
+        {
+            evict(now);
+        }
+    }
+
+
+    /**
+     * Pass the keys of the known-invalid tokens and the times when they are
+     * forgotten to the action. Used by {@link CacheSnapshot}.
+     */
+    void forEach(BiConsumer<String, Long> action)
+    {
+        long now = System.currentTimeMillis();
+
+        mInvalidTokens.forEach((key, expiresAt) -> {
+            if (now < expiresAt)
+            {
+                action.accept(key, expiresAt);
+            }
+        });
+    }
+
+
+    /**
+     * Remember a known-invalid token restored from a snapshot unless it
+     * can be forgotten already. Used by {@link CacheSnapshot}.
+     *
+     * @return
+     *         {@code true} if the token has been remembered.
+     */
+    boolean restore(String key, long expiresAt)
+    {
+        if (!mEnabled || mMaxSize <= mInvalidTokens.size() || expiresAt <= System.currentTimeMillis())
+        {
+            return false;
+        }
+
+        mInvalidTokens.put(key, expiresAt);
+
+        return true;
+    }
+
+
+    @Override
+    public void clear()
+    {
+        mInvalidTokens.clear();
+    }
+
+
+    @Override
+    public long getMalformedRejections()
+    {
+        return mMalformedRejections.sum();
+    }
+
+
+    @Override
+    public long getKnownInvalidRejections()
+    {
+        return mKnownInvalidRejections.sum();
+    }
+
+
+    @Override
+    public int getKnownInvalidSize()
+    {
+        return mInvalidTokens.size();
+    }
+
+
+    private void evict(long now)
+    {
+        if (!mEvicting.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            // Purge expired entries first.
+            mInvalidTokens.values().removeIf(expiresAt -> expiresAt <= now);
+
+            // Then evict arbitrary entries.
+            Iterator<Long> it = mInvalidTokens.values().iterator();
+
+            while (mMaxSize < mInvalidTokens.size() && it.hasNext())
+            {
+                it.next();
+                it.remove();
+            }
+        }
+        finally
+        {
+            mEvicting.set(false);
+        }
+    }
+
+
+    private static String computeKey(String accessToken, String clientCertificate)
+    {
+        if (clientCertificate == null)
+        {
+            return IntrospectionCache.hash(accessToken);
+        }
+
+        return IntrospectionCache.hash(accessToken + '\0' + clientCertificate);
+    }
+
+
+    private boolean isWellFormed(String token)
+    {
+        int length = token.length();
+
+        if (length == 0 || mMaxLength < length)
+        {
+            return false;
+        }
+
+        // RFC 6750, 2.1. Authorization Request Header Field
+        //
+        //   b64token = 1*( ALPHA / DIGIT / "-" / "." / "_" / "~" / "+" / "/" ) *"="
+        //
+        int periods = 0;
+        int padding = 0;
+
+        for (int i = 0; i < length; i++)
+        {
+            char c = token.charAt(i);
+
+            if (c == '=')
+            {
+                padding++;
+                continue;
+            }
+
+            if (0 < padding || !isB64TokenChar(c))
+            {
+                // A character after padding, or an illegal character.
+                return false;
+            }
+
+            if (c == '.')
+            {
+                periods++;
+            }
+        }
+
+        if (padding == length)
+        {
+            return false;
+        }
+
+        if (periods == 0 || !hasJoseHeader(token))
+        {
+            // An opaque token, which may contain periods.
+            return true;
+        }
+
+        // JWS Compact Serialization has 3 parts and JWE Compact
+        // Serialization has 5 parts. JWTs never have padding.
+        return (periods == 2 || periods == 4) && padding == 0 && hasJoseParts(token, periods);
+    }
+
+
+    /**
+     * Check if the first part of a token is a base64url-encoded JSON
+     * object, i.e. a JOSE header.
+     */
+    private static boolean hasJoseHeader(String token)
+    {
+        int end = token.indexOf('.');
+
+        for (int i = 0; i < end; i++)
+        {
+            char c = token.charAt(i);
+
+            if (c == '~' || c == '+' || c == '/' || c == '=')
+            {
+                // Not base64url.
+                return false;
+            }
+        }
+
+        byte[] header;
+
+        try
+        {
+            header = Base64.getUrlDecoder().decode(token.substring(0, end));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return false;
+        }
+
+        // JSON text may be surrounded by whitespace.
+        int first = 0;
+        int last  = header.length - 1;
+
+        while (first <= last && header[first] <= ' ')
+        {
+            first++;
+        }
+
+        while (first <= last && header[last] <= ' ')
+        {
+            last--;
+        }
+
+        return first < last && header[first] == '{' && header[last] == '}';
+    }
+
+
+    /**
+     * Check that no part of a JWS or a JWE is empty, except the encrypted
+     * key of a JWE.
+     */
+    private static boolean hasJoseParts(String token, int periods)
+    {
+        int part  = 0;
+        int start = 0;
+
+        for (int i = 0; i <= token.length(); i++)
+        {
+            if (i < token.length() && token.charAt(i) != '.')
+            {
+                continue;
+            }
+
+            if (i == start && !(periods == 4 && part == 1))
+            {
+                return false;
+            }
+
+            part++;
+            start = i + 1;
+        }
+
+        return true;
+    }
+
+
+    private static boolean isB64TokenChar(char c)
+    {
+        return ('A' <= c && c <= 'Z')
+            || ('a' <= c && c <= 'z')
+            || ('0' <= c && c <= '9')
+            || c == '-' || c == '.' || c == '_' || c == '~' || c == '+' || c == '/';
+    }
+
+
+    private static Response buildResponse(Status status, String challenge)
+    {
+        // The header values are prepared in advance. A new Response is built
+        // for each rejection because Response instances carry mutable
+        // headers and must not be shared among requests.
+        return Response
+                .status(status)
+                .header(HttpHeaders.WWW_AUTHENTICATE, challenge)
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header("Pragma", "no-cache")
+                .build();
+    }
+}
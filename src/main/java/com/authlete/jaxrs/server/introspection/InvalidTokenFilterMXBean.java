@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+/**
+ * JMX view of {@link InvalidTokenFilter}.
+ */
+public interface InvalidTokenFilterMXBean
+{
+    /**
+     * The number of access tokens rejected as malformed.
+     */
+    long getMalformedRejections();
+
+
+    /**
+     * The number of access tokens rejected because they had been found
+     * invalid recently.
+     */
+    long getKnownInvalidRejections();
+
+
+    /**
+     * The number of access tokens currently remembered as invalid.
+     */
+    int getKnownInvalidSize();
+
+
+    /**
+     * Forget all the access tokens remembered as invalid.
+     */
+    void clear();
+}
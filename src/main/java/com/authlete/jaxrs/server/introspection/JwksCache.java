@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.io.IOException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+
+/**
+ * A cache of the JWK Set of the authorization server.
+ *
+ * <p>
+ * The JWK Set is fetched from the {@code jwks_uri} of the authorization
+ * server and refreshed periodically by a background thread. When a key
+ * with an unknown key ID is requested, the JWK Set is refreshed on the
+ * spot, but not more often than once per {@link #MIN_REFRESH_INTERVAL}
+ * so that tokens with random key IDs cannot flood the authorization
+ * server.
+ * </p>
+ */
+class JwksCache
+{
+    /**
+     * The minimum interval between on-demand refreshes in milliseconds.
+     */
+    private static final long MIN_REFRESH_INTERVAL = 10000L;
+
+
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 5000;
+    private static final int SIZE_LIMIT = 512 * 1024;
+
+
+    private final URL mJwksUri;
+    private final AtomicBoolean mRefreshing = new AtomicBoolean();
+    private volatile JWKSet mJwks;
+    private volatile long mLastRefresh;
+
+
+    JwksCache(URL jwksUri, long refreshInterval)
+    {
+        mJwksUri = jwksUri;
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Fetch the JWK Set now and refresh it periodically.
+        scheduler.scheduleWithFixedDelay(
+                this::refresh, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+
+    /**
+     * Get the key identified by the key ID.
+     *
+     * @param kid
+     *         A key ID.
+     *
+     * @return
+     *         The key, or {@code null} if the JWK Set does not contain the
+     *         key even after refreshing it.
+     */
+    JWK getKey(String kid)
+    {
+        JWK key = findKey(kid);
+
+        if (key != null)
+        {
+            return key;
+        }
+
+        // The key may have been added by key rotation after the last refresh.
+        if (MIN_REFRESH_INTERVAL <= System.currentTimeMillis() - mLastRefresh)
+        {
+            refresh();
+            key = findKey(kid);
+        }
+
+        return key;
+    }
+
+
+    private JWK findKey(String kid)
+    {
+        JWKSet jwks = mJwks;
+
+        if (jwks == null || kid == null)
+        {
+            return null;
+        }
+
+        return jwks.getKeyByKeyId(kid);
+    }
+
+
+    private void refresh()
+    {
+        // Let only one thread fetch the JWK Set at a time.
+        if (!mRefreshing.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            mJwks = JWKSet.load(mJwksUri, CONNECT_TIMEOUT, READ_TIMEOUT, SIZE_LIMIT);
+        }
+        catch (IOException | ParseException cause)
+        {
+            // Keep using the current JWK Set.
+            System.err.format("Failed to fetch the JWK Set from %s: %s%n", mJwksUri, cause.getMessage());
+        }
+        finally
+        {
+            mLastRefresh = System.currentTimeMillis();
+            mRefreshing.set(false);
+        }
+    }
+}
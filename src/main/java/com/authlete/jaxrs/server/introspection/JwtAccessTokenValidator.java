@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import com.authlete.common.dto.IntrospectionRequest;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+
+/**
+ * A validator of JWT access tokens which works without asking Authlete.
+ *
+ * <p>
+ * When an access token is a JWT signed by a key in the JWK Set of the
+ * authorization server, its {@code typ} header, signature, {@code exp},
+ * {@code nbf}, {@code iss}, {@code aud}, {@code scope} and {@code cnf} are
+ * checked locally, and the result is reported in the form of an {@link
+ * IntrospectionResponse} so that the callers cannot tell whether the
+ * result came from Authlete or not.
+ * </p>
+ *
+ * <p>
+ * {@link #validate(IntrospectionRequest, DpopProof)} returns {@code null}
+ * when the access token cannot be judged locally (e.g. it is not a JWT, its
+ * key is unknown, or it is signed with an unsupported algorithm). In such
+ * cases, the caller falls back to Authlete's introspection API. JWTs whose
+ * {@code typ} is not {@code at+jwt} (RFC 9068, 4) are also left to Authlete,
+ * so that ID tokens, JARM responses and other JWTs signed by the same key
+ * are never accepted as access tokens.
+ * </p>
+ *
+ * <p>
+ * This validation mode is disabled by default. To enable it, set
+ * {@code resource.jwt_validation.enabled} to {@code true} and
+ * {@code resource.jwt_validation.jwks_uri} to the URL of the JWK Set
+ * document of the authorization server in {@code authlete.properties}.
+ * {@code resource.jwt_validation.issuer} and {@code
+ * resource.jwt_validation.audiences} are required as well; without them,
+ * the mode stays disabled.
+ * </p>
+ *
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc9068.html"
+ *      >RFC 9068 JSON Web Token (JWT) Profile for OAuth 2.0 Access Tokens</a>
+ */
+public class JwtAccessTokenValidator implements JwtAccessTokenValidatorMXBean
+{
+    private static final JwtAccessTokenValidator sInstance = create();
+
+
+    private final JwksCache mJwks;
+    private final String mIssuer;
+    private final Set<String> mAudiences;
+    private final long mClockSkew;
+    private final boolean mDpopNonceRequired;
+    private final LongAdder mAccepted = new LongAdder();
+    private final LongAdder mRejected = new LongAdder();
+    private final LongAdder mFallbacks = new LongAdder();
+
+
+    JwtAccessTokenValidator(
+            JwksCache jwks, String issuer, Set<String> audiences,
+            long clockSkew, boolean dpopNonceRequired)
+    {
+        mJwks              = jwks;
+        mIssuer            = issuer;
+        mAudiences         = audiences;
+        mClockSkew         = clockSkew;
+        mDpopNonceRequired = dpopNonceRequired;
+    }
+
+
+    private static JwtAccessTokenValidator create()
+    {
+        if (!ServerConfig.getBoolean("resource.jwt_validation.enabled", false))
+        {
+            return null;
+        }
+
+        String jwksUri = ServerConfig.getString("resource.jwt_validation.jwks_uri", null);
+
+        if (jwksUri == null)
+        {
+            System.err.println("resource.jwt_validation.jwks_uri is not set. JWT access tokens are not validated locally.");
+            return null;
+        }
+
+        String issuer = ServerConfig.getString("resource.jwt_validation.issuer", null);
+        Set<String> audiences = parseList(ServerConfig.getString("resource.jwt_validation.audiences", null));
+
+        if (issuer == null || audiences.isEmpty())
+        {
+            // Without them, tokens issued for other resource servers, or
+            // by other issuers sharing the key, would be accepted.
+            System.err.println("resource.jwt_validation.issuer and resource.jwt_validation.audiences are required. JWT access tokens are not validated locally.");
+            return null;
+        }
+
+        URL url;
+
+        try
+        {
+            url = new URL(jwksUri);
+        }
+        catch (MalformedURLException cause)
+        {
+            System.err.format("resource.jwt_validation.jwks_uri is malformed: %s%n", cause.getMessage());
+            return null;
+        }
+
+        long refreshInterval =
+                ServerConfig.getLong("resource.jwt_validation.jwks_refresh_interval", 300) * 1000L;
+
+        JwtAccessTokenValidator validator = new JwtAccessTokenValidator(
+                new JwksCache(url, refreshInterval), issuer, audiences,
+                ServerConfig.getLong("resource.jwt_validation.clock_skew", 30) * 1000L,
+                ServerConfig.getBoolean("resource.jwt_validation.dpop_nonce_required", false));
+
+        MBeans.register("JwtAccessTokenValidator", validator);
+
+        return validator;
+    }
+
+
+    private static Set<String> parseList(String value)
+    {
+        if (value == null)
+        {
+            return Collections.emptySet();
+        }
+
+        return new HashSet<>(Arrays.asList(value.trim().split("\\s*,\\s*")));
+    }
+
+
+    /**
+     * Get the validator.
+     *
+     * @return
+     *         The validator, or {@code null} if local validation of JWT
+     *         access tokens is disabled.
+     */
+    public static JwtAccessTokenValidator getInstance()
+    {
+        return sInstance;
+    }
+
+
+    @Override
+    public long getAccepted()
+    {
+        return mAccepted.sum();
+    }
+
+
+    @Override
+    public long getRejected()
+    {
+        return mRejected.sum();
+    }
+
+
+    @Override
+    public long getFallbacks()
+    {
+        return mFallbacks.sum();
+    }
+
+
+    /**
+     * Validate the access token in an introspection request locally.
+     *
+     * <p>
+     * When the access token is bound to a DPoP public key, this method only
+     * checks that the key of the DPoP proof matches the binding. The caller
+     * is responsible for verifying the DPoP proof itself.
+     * </p>
+     *
+     * @param request
+     *         An introspection request.
+     *
+     * @param proof
+     *         The DPoP proof of the request, or {@code null}.
+     *
+     * @return
+     *         The result of the validation, or {@code null} if the access
+     *         token has to be validated by Authlete.
+     */
+    IntrospectionResponse validate(IntrospectionRequest request, DpopProof proof)
+    {
+        String token = request.getToken();
+
+        if (!isJwsShaped(token))
+        {
+            // Probably an opaque access token.
+            return null;
+        }
+
+        if (proof != null && mDpopNonceRequired)
+        {
+            // DPoP nonces can be checked only by Authlete.
+            return fallback();
+        }
+
+        try
+        {
+            return validate(request, proof, SignedJWT.parse(token));
+        }
+        catch (ParseException | JOSEException e)
+        {
+            return fallback();
+        }
+    }
+
+
+    private IntrospectionResponse validate(
+            IntrospectionRequest request, DpopProof proof, SignedJWT jwt) throws ParseException, JOSEException
+    {
+        if (!isAccessTokenType(jwt.getHeader().getType()))
+        {
+            // Not a JWT access token, e.g. an ID token. Let Authlete judge.
+            return fallback();
+        }
+
+        JWK key = mJwks.getKey(jwt.getHeader().getKeyID());
+        JWSVerifier verifier = (key != null) ? createVerifier(key) : null;
+
+        if (verifier == null)
+        {
+            // Not signed by a known key with a supported algorithm.
+            return fallback();
+        }
+
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        Map<String, Object> cnf = claims.getJSONObjectClaim("cnf");
+        String jkt = (cnf != null) ? (String)cnf.get("jkt") : null;
+        String x5t = (cnf != null) ? (String)cnf.get("x5t#S256") : null;
+
+        // The authentication scheme used in error responses.
+        String scheme = (jkt != null || proof != null) ? "DPoP" : "Bearer";
+
+        if (!jwt.verify(verifier))
+        {
+            return unauthorized(scheme, "The signature of the access token is invalid.");
+        }
+
+        long now = System.currentTimeMillis();
+        Date exp = claims.getExpirationTime();
+        Date nbf = claims.getNotBeforeTime();
+
+        if (exp == null)
+        {
+            // RFC 9068 requires "exp". Let Authlete judge.
+            return fallback();
+        }
+
+        if (exp.getTime() + mClockSkew <= now)
+        {
+            return unauthorized(scheme, "The access token has expired.");
+        }
+
+        if (nbf != null && now + mClockSkew < nbf.getTime())
+        {
+            return unauthorized(scheme, "The access token is not valid yet.");
+        }
+
+        if (!mIssuer.equals(claims.getIssuer()))
+        {
+            return unauthorized(scheme, "The access token was issued by an unexpected issuer.");
+        }
+
+        if (!containsAny(claims.getAudience(), mAudiences))
+        {
+            return unauthorized(scheme, "The access token is not intended for this resource server.");
+        }
+
+        // Certificate binding (RFC 8705).
+        if (x5t != null && !x5t.equals(
+                IntrospectionCache.computeCertificateThumbprint(request.getClientCertificate())))
+        {
+            return unauthorized(scheme, "The access token is not bound to the client certificate.");
+        }
+
+        // DPoP binding (RFC 9449).
+        if (jkt != null)
+        {
+            if (proof == null || !jkt.equals(proof.getThumbprint()))
+            {
+                return unauthorized(scheme, "The access token is not bound to the DPoP public key.");
+            }
+        }
+        else if (proof != null)
+        {
+            // A DPoP proof for an access token not bound to a DPoP key.
+            return fallback();
+        }
+
+        String[] scopes = parseScopes(claims.getStringClaim("scope"));
+
+        if (!containsAll(scopes, request.getScopes()))
+        {
+            return forbidden(scheme, "insufficient_scope",
+                    "The access token does not cover the required scopes.");
+        }
+
+        String subject = claims.getSubject();
+
+        if (request.getSubject() != null && !request.getSubject().equals(subject))
+        {
+            return forbidden(scheme, "invalid_token",
+                    "The access token is not for the required subject.");
+        }
+
+        mAccepted.increment();
+
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(Action.OK);
+        response.setClientId(parseClientId(claims.getStringClaim("client_id")));
+        response.setSubject(subject);
+        response.setScopes(scopes);
+        response.setExpiresAt(exp.getTime());
+        response.setExistent(true);
+        response.setUsable(true);
+        response.setSufficient(true);
+
+        return response;
+    }
+
+
+    private static boolean isJwsShaped(String token)
+    {
+        int first = token.indexOf('.');
+
+        if (first < 0)
+        {
+            return false;
+        }
+
+        int second = token.indexOf('.', first + 1);
+
+        return 0 < second && token.indexOf('.', second + 1) < 0;
+    }
+
+
+    private static boolean isAccessTokenType(JOSEObjectType type)
+    {
+        if (type == null)
+        {
+            return false;
+        }
+
+        // Media type names are case-insensitive, and the "application/"
+        // prefix may be omitted (RFC 7515, 4.1.9).
+        String value = type.getType();
+
+        return "at+jwt".equalsIgnoreCase(value) || "application/at+jwt".equalsIgnoreCase(value);
+    }
+
+
+    private static JWSVerifier createVerifier(JWK key) throws JOSEException
+    {
+        if (key instanceof RSAKey)
+        {
+            return new RSASSAVerifier((RSAKey)key);
+        }
+
+        if (key instanceof ECKey)
+        {
+            return new ECDSAVerifier((ECKey)key);
+        }
+
+        return null;
+    }
+
+
+    private static boolean containsAny(List<String> values, Set<String> candidates)
+    {
+        if (values == null)
+        {
+            return false;
+        }
+
+        for (String value : values)
+        {
+            if (candidates.contains(value))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+
+    private static boolean containsAll(String[] scopes, String[] requiredScopes)
+    {
+        if (requiredScopes == null)
+        {
+            return true;
+        }
+
+        List<String> granted = Arrays.asList(scopes);
+
+        for (String required : requiredScopes)
+        {
+            if (!granted.contains(required))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    private static String[] parseScopes(String scope)
+    {
+        if (scope == null || scope.trim().isEmpty())
+        {
+            return new String[0];
+        }
+
+        return scope.trim().split(" +");
+    }
+
+
+    private static long parseClientId(String clientId)
+    {
+        if (clientId == null)
+        {
+            return 0;
+        }
+
+        try
+        {
+            return Long.parseLong(clientId);
+        }
+        catch (NumberFormatException e)
+        {
+            // Probably a client ID alias.
+            return 0;
+        }
+    }
+
+
+    private IntrospectionResponse fallback()
+    {
+        mFallbacks.increment();
+
+        return null;
+    }
+
+
+    private IntrospectionResponse unauthorized(String scheme, String description)
+    {
+        return error(Action.UNAUTHORIZED, scheme, "invalid_token", description);
+    }
+
+
+    private IntrospectionResponse forbidden(String scheme, String error, String description)
+    {
+        return error(Action.FORBIDDEN, scheme, error, description);
+    }
+
+
+    private IntrospectionResponse error(
+            Action action, String scheme, String error, String description)
+    {
+        mRejected.increment();
+
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(action);
+
+        // The value of the WWW-Authenticate header.
+        response.setResponseContent(String.format(
+                "%s error=\"%s\",error_description=\"%s\"", scheme, error, description));
+
+        return response;
+    }
+}
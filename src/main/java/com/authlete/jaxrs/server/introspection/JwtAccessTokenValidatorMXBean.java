@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+/**
+ * JMX view of {@link JwtAccessTokenValidator}.
+ */
+public interface JwtAccessTokenValidatorMXBean
+{
+    /**
+     * The number of JWT access tokens accepted locally.
+     */
+    long getAccepted();
+
+
+    /**
+     * The number of JWT access tokens rejected locally.
+     */
+    long getRejected();
+
+
+    /**
+     * The number of access tokens left to Authlete's introspection API.
+     */
+    long getFallbacks();
+}
@@ -0,0 +1,627 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * An {@link IntrospectionStore} that holds entries as compact binary records
+ * in direct buffers outside the heap.
+ *
+ * <p>
+ * The store is split into segments, each of which is an open-addressing
+ * table of fixed-size slots in one direct buffer, guarded by a {@link
+ * StampedLock}. Lookups are optimistic and take no lock unless they race
+ * with a write to the same segment. A key (the SHA-256 hash computed by
+ * {@code IntrospectionCache.computeKey()}) is looked up in {@link #PROBES}
+ * consecutive slots. When all of them are in use, or the store is full,
+ * the entry that expires first among them is evicted.
+ * </p>
+ *
+ * <p>
+ * A slot is laid out as follows. Introspection results whose records do
+ * not fit in a slot are not stored.
+ * </p>
+ *
+ * <pre>
+ *  0  state (1 byte), refreshing (1 byte), record length (2 bytes)
+ *  4  key (32 bytes)
+ * 36  expiresAt, staleUntil, refreshAt (8 bytes each)
+ * 60  record
+ * </pre>
+ *
+ * <p>
+ * A record is an introspection result encoded by {@link
+ * IntrospectionRecord}.
+ * </p>
+ */
+class OffHeapIntrospectionStore implements IntrospectionStore
+{
+    /**
+     * The number of slots where a key may be placed.
+     */
+    private static final int PROBES = 8;
+
+
+    private static final int OFFSET_STATE       = 0;
+    private static final int OFFSET_REFRESHING  = 1;
+    private static final int OFFSET_LENGTH      = 2;
+    private static final int OFFSET_KEY         = 4;
+    private static final int OFFSET_EXPIRES_AT  = 36;
+    private static final int OFFSET_STALE_UNTIL = 44;
+    private static final int OFFSET_REFRESH_AT  = 52;
+    private static final int OFFSET_RECORD      = 60;
+
+
+    private static final byte EMPTY = 0;
+    private static final byte USED  = 1;
+
+
+    /**
+     * A segment of the store.
+     */
+    private static final class Segment
+    {
+        final ByteBuffer buffer;
+        final StampedLock lock = new StampedLock();
+
+
+        Segment(int capacity)
+        {
+            buffer = ByteBuffer.allocateDirect(capacity);
+        }
+    }
+
+
+    /**
+     * A copy of a slot taken under a lock or an optimistic read.
+     */
+    private static final class Snapshot
+    {
+        long expiresAt;
+        long staleUntil;
+        long refreshAt;
+        byte[] record;
+    }
+
+
+    private final int mMaxSize;
+    private final int mSlotSize;
+    private final int mSlotsPerSegment;
+    private final Segment[] mSegments;
+    private final AtomicInteger mSize = new AtomicInteger();
+
+
+    OffHeapIntrospectionStore(int maxSize, int slotSize)
+    {
+        if (slotSize <= OFFSET_RECORD)
+        {
+            throw new IllegalArgumentException("The slot size must be greater than " + OFFSET_RECORD + ".");
+        }
+
+        // Keep the load factor at 0.75 at most.
+        long slots = Math.max((long)maxSize * 4 / 3, PROBES);
+
+        // Each segment must fit in a buffer of 1 GiB at most.
+        int segments = 64;
+
+        while ((1L << 30) < (slots / segments + 1) * slotSize)
+        {
+            segments *= 2;
+        }
+
+        mMaxSize         = maxSize;
+        mSlotSize        = slotSize;
+        mSlotsPerSegment = (int)Math.max(slots / segments + 1, PROBES);
+        mSegments        = new Segment[segments];
+
+        for (int i = 0; i < segments; i++)
+        {
+            mSegments[i] = new Segment(mSlotsPerSegment * slotSize);
+        }
+    }
+
+
+    @Override
+    public String getName()
+    {
+        return "offheap";
+    }
+
+
+    @Override
+    public Entry get(String key)
+    {
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+
+        // Read without locking first.
+        long stamp = segment.lock.tryOptimisticRead();
+        Snapshot snapshot = read(segment, k);
+
+        if (!segment.lock.validate(stamp))
+        {
+            // A write has happened meanwhile. Read again under the lock.
+            stamp = segment.lock.readLock();
+
+            try
+            {
+                snapshot = read(segment, k);
+            }
+            finally
+            {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+
+        if (snapshot == null)
+        {
+            return null;
+        }
+
+        return new Entry(IntrospectionRecord.decode(snapshot.record),
+                snapshot.expiresAt, snapshot.staleUntil, snapshot.refreshAt);
+    }
+
+
+    @Override
+    public int put(String key, Entry entry, long now)
+    {
+        byte[] record = IntrospectionRecord.encode(entry.response);
+
+        if (record == null || mSlotSize - OFFSET_RECORD < record.length)
+        {
+            // Too large to store. Do not leave an older result behind.
+            remove(key);
+            return 0;
+        }
+
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+        long stamp = segment.lock.writeLock();
+
+        try
+        {
+            int evicted = 0;
+            int offset = find(segment, k);
+
+            if (offset < 0)
+            {
+                offset = chooseSlot(segment, k);
+
+                if (segment.buffer.get(offset + OFFSET_STATE) == EMPTY)
+                {
+                    mSize.incrementAndGet();
+                }
+                else if (now < segment.buffer.getLong(offset + OFFSET_STALE_UNTIL))
+                {
+                    evicted = 1;
+                }
+            }
+
+            write(segment.buffer, offset, k, entry, record);
+
+            return evicted;
+        }
+        finally
+        {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    @Override
+    public void remove(String key)
+    {
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+        long stamp = segment.lock.writeLock();
+
+        try
+        {
+            int offset = find(segment, k);
+
+            if (0 <= offset)
+            {
+                clearSlot(segment.buffer, offset);
+            }
+        }
+        finally
+        {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    @Override
+    public void removeExpired(String key, long now)
+    {
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+        long stamp = segment.lock.writeLock();
+
+        try
+        {
+            int offset = find(segment, k);
+
+            if (0 <= offset && segment.buffer.getLong(offset + OFFSET_STALE_UNTIL) <= now)
+            {
+                clearSlot(segment.buffer, offset);
+            }
+        }
+        finally
+        {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    @Override
+    public boolean startRefresh(String key, long now)
+    {
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+
+        // This is called on every cache hit, and most entries are not due
+        // for a refresh. Check without locking first.
+        long stamp = segment.lock.tryOptimisticRead();
+        int offset = find(segment, k);
+        boolean due = 0 <= offset && isDue(segment.buffer, offset, now);
+
+        if (segment.lock.validate(stamp) && !due)
+        {
+            return false;
+        }
+
+        stamp = segment.lock.writeLock();
+
+        try
+        {
+            // Check again under the lock.
+            offset = find(segment, k);
+
+            if (offset < 0 || !isDue(segment.buffer, offset, now))
+            {
+                return false;
+            }
+
+            segment.buffer.put(offset + OFFSET_REFRESHING, (byte)1);
+
+            return true;
+        }
+        finally
+        {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    /**
+     * Check if the entry in the slot is due for a refresh and nobody is
+     * refreshing it.
+     */
+    private static boolean isDue(ByteBuffer buffer, int offset, long now)
+    {
+        return buffer.getLong(offset + OFFSET_REFRESH_AT) <= now &&
+                now < buffer.getLong(offset + OFFSET_EXPIRES_AT) &&
+                buffer.get(offset + OFFSET_REFRESHING) == 0;
+    }
+
+
+    @Override
+    public void cancelRefresh(String key)
+    {
+        long[] k = toKey(key);
+        Segment segment = segmentFor(k);
+        long stamp = segment.lock.writeLock();
+
+        try
+        {
+            int offset = find(segment, k);
+
+            if (0 <= offset)
+            {
+                segment.buffer.put(offset + OFFSET_REFRESHING, (byte)0);
+            }
+        }
+        finally
+        {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+
+    @Override
+    public void forEach(BiConsumer<String, Entry> action)
+    {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        byte[] key = new byte[32];
+
+        for (Segment segment : mSegments)
+        {
+            for (int i = 0; i < mSlotsPerSegment; i++)
+            {
+                Snapshot snapshot;
+                long stamp = segment.lock.readLock();
+
+                // Copy the slot under the lock and call the action outside.
+                try
+                {
+                    snapshot = readSlot(segment.buffer, i * mSlotSize, key);
+                }
+                finally
+                {
+                    segment.lock.unlockRead(stamp);
+                }
+
+                if (snapshot != null)
+                {
+                    action.accept(encoder.encodeToString(key), new Entry(
+                            IntrospectionRecord.decode(snapshot.record),
+                            snapshot.expiresAt, snapshot.staleUntil, snapshot.refreshAt));
+                }
+            }
+        }
+    }
+
+
+    @Override
+    public int size()
+    {
+        return mSize.get();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        for (Segment segment : mSegments)
+        {
+            long stamp = segment.lock.writeLock();
+
+            try
+            {
+                for (int i = 0; i < mSlotsPerSegment; i++)
+                {
+                    int offset = i * mSlotSize;
+
+                    if (segment.buffer.get(offset + OFFSET_STATE) != EMPTY)
+                    {
+                        clearSlot(segment.buffer, offset);
+                    }
+                }
+            }
+            finally
+            {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+
+    private static long[] toKey(String key)
+    {
+        byte[] hash;
+
+        try
+        {
+            hash = Base64.getUrlDecoder().decode(key);
+        }
+        catch (IllegalArgumentException e)
+        {
+            hash = null;
+        }
+
+        if (hash == null || hash.length != 32)
+        {
+            // Not a key computed by IntrospectionCache. Hash it.
+            hash = IntrospectionCache.sha256(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(hash);
+
+        return new long[] { buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong() };
+    }
+
+
+    private Segment segmentFor(long[] key)
+    {
+        // The number of segments is a power of 2.
+        return mSegments[(int)(key[0] >>> 32) & (mSegments.length - 1)];
+    }
+
+
+    private int firstSlot(long[] key)
+    {
+        return (int)Math.floorMod(key[1], (long)mSlotsPerSegment);
+    }
+
+
+    private int offsetOf(int first, int probe)
+    {
+        return ((first + probe) % mSlotsPerSegment) * mSlotSize;
+    }
+
+
+    /**
+     * Find the slot holding the key.
+     *
+     * @return
+     *         The offset of the slot, or -1 if not found.
+     */
+    private int find(Segment segment, long[] key)
+    {
+        ByteBuffer buffer = segment.buffer;
+        int first = firstSlot(key);
+
+        for (int i = 0; i < PROBES; i++)
+        {
+            int offset = offsetOf(first, i);
+
+            if (buffer.get(offset + OFFSET_STATE) == USED &&
+                    buffer.getLong(offset + OFFSET_KEY)      == key[0] &&
+                    buffer.getLong(offset + OFFSET_KEY +  8) == key[1] &&
+                    buffer.getLong(offset + OFFSET_KEY + 16) == key[2] &&
+                    buffer.getLong(offset + OFFSET_KEY + 24) == key[3])
+            {
+                return offset;
+            }
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * Choose a slot for a new key. An empty slot is chosen unless the store
+     * is full. Otherwise, the slot whose entry expires first is chosen.
+     */
+    private int chooseSlot(Segment segment, long[] key)
+    {
+        ByteBuffer buffer = segment.buffer;
+        int first = firstSlot(key);
+        int victim = -1;
+        long victimStaleUntil = Long.MAX_VALUE;
+        boolean full = mMaxSize <= mSize.get();
+
+        for (int i = 0; i < PROBES; i++)
+        {
+            int offset = offsetOf(first, i);
+
+            if (buffer.get(offset + OFFSET_STATE) == EMPTY)
+            {
+                if (!full)
+                {
+                    return offset;
+                }
+
+                if (victim < 0)
+                {
+                    victim = offset;
+                }
+
+                continue;
+            }
+
+            long staleUntil = buffer.getLong(offset + OFFSET_STALE_UNTIL);
+
+            if (victim < 0 || buffer.get(victim + OFFSET_STATE) == EMPTY || staleUntil < victimStaleUntil)
+            {
+                victim = offset;
+                victimStaleUntil = staleUntil;
+            }
+        }
+
+        return victim;
+    }
+
+
+    /**
+     * Copy the slot holding the key. The copy may be inconsistent if taken
+     * under an optimistic read; it is discarded in that case.
+     */
+    private Snapshot read(Segment segment, long[] key)
+    {
+        int offset = find(segment, key);
+
+        if (offset < 0)
+        {
+            return null;
+        }
+
+        ByteBuffer buffer = segment.buffer;
+        int length = buffer.getShort(offset + OFFSET_LENGTH) & 0xFFFF;
+
+        if (mSlotSize - OFFSET_RECORD < length)
+        {
+            // A torn read.
+            length = 0;
+        }
+
+        Snapshot snapshot   = new Snapshot();
+        snapshot.expiresAt  = buffer.getLong(offset + OFFSET_EXPIRES_AT);
+        snapshot.staleUntil = buffer.getLong(offset + OFFSET_STALE_UNTIL);
+        snapshot.refreshAt  = buffer.getLong(offset + OFFSET_REFRESH_AT);
+        snapshot.record     = new byte[length];
+
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + OFFSET_RECORD);
+        source.get(snapshot.record);
+
+        return snapshot;
+    }
+
+
+    /**
+     * Copy the slot at the offset and its key if it is in use.
+     */
+    private Snapshot readSlot(ByteBuffer buffer, int offset, byte[] key)
+    {
+        if (buffer.get(offset + OFFSET_STATE) != USED)
+        {
+            return null;
+        }
+
+        Snapshot snapshot   = new Snapshot();
+        snapshot.expiresAt  = buffer.getLong(offset + OFFSET_EXPIRES_AT);
+        snapshot.staleUntil = buffer.getLong(offset + OFFSET_STALE_UNTIL);
+        snapshot.refreshAt  = buffer.getLong(offset + OFFSET_REFRESH_AT);
+        snapshot.record     = new byte[buffer.getShort(offset + OFFSET_LENGTH) & 0xFFFF];
+
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + OFFSET_KEY);
+        source.get(key);
+        source.position(offset + OFFSET_RECORD);
+        source.get(snapshot.record);
+
+        return snapshot;
+    }
+
+
+    private static void write(ByteBuffer buffer, int offset, long[] key, Entry entry, byte[] record)
+    {
+        buffer.put(offset + OFFSET_STATE, USED);
+        buffer.put(offset + OFFSET_REFRESHING, (byte)0);
+        buffer.putShort(offset + OFFSET_LENGTH, (short)record.length);
+        buffer.putLong(offset + OFFSET_KEY,      key[0]);
+        buffer.putLong(offset + OFFSET_KEY +  8, key[1]);
+        buffer.putLong(offset + OFFSET_KEY + 16, key[2]);
+        buffer.putLong(offset + OFFSET_KEY + 24, key[3]);
+        buffer.putLong(offset + OFFSET_EXPIRES_AT,  entry.expiresAt);
+        buffer.putLong(offset + OFFSET_STALE_UNTIL, entry.staleUntil);
+        buffer.putLong(offset + OFFSET_REFRESH_AT,  entry.refreshAt);
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(offset + OFFSET_RECORD);
+        target.put(record);
+    }
+
+
+    private void clearSlot(ByteBuffer buffer, int offset)
+    {
+        buffer.put(offset + OFFSET_STATE, EMPTY);
+        mSize.decrementAndGet();
+    }
+}
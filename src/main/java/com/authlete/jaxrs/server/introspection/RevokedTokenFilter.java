@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * A filter of access tokens revoked or deleted at the authorization server.
+ *
+ * <p>
+ * Revoked tokens are reported by the authorization server (see {@code
+ * RevocationEventEndpoint}) and checked by {@link CachingApiHandler} before
+ * the introspection cache and local JWT validation are used, so that
+ * revocations take effect without waiting for cache entries to expire.
+ * </p>
+ *
+ * <p>
+ * Tokens are held as SHA-256 hashes in an exact set, which is fronted by a
+ * {@link BloomFilter} so that the check for a token that has not been
+ * revoked (almost every token) touches only a few words of memory. Both are
+ * lock-free. A revoked token is remembered until it expires, but not longer
+ * than {@code resource.revocation.retention} seconds. Because entries cannot
+ * be removed from a Bloom filter, it is rebuilt from the exact set every
+ * {@code resource.revocation.rebuild_interval} seconds by a background
+ * thread.
+ * </p>
+ *
+ * <p>
+ * A revoked token is never forgotten before its time. When the set holds
+ * {@code resource.revocation.max_size} tokens that cannot be forgotten yet,
+ * a newly revoked token is refused ({@link #getOverflows()}) and the filter
+ * overflows ({@link #isOverflowing()}) until that token can be forgotten.
+ * While the filter overflows, {@link CachingApiHandler} asks Authlete about
+ * every access token instead of using the introspection cache and local JWT
+ * validation, because they would accept the refused token.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.revocation.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.revocation.retention}</td><td>{@code 86400} (seconds)</td></tr>
+ *   <tr><td>{@code resource.revocation.max_size}</td><td>{@code 1000000}</td></tr>
+ *   <tr><td>{@code resource.revocation.bloom_bits}</td><td>{@code 16777216}</td></tr>
+ *   <tr><td>{@code resource.revocation.bloom_hashes}</td><td>{@code 7}</td></tr>
+ *   <tr><td>{@code resource.revocation.rebuild_interval}</td><td>{@code 60} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class RevokedTokenFilter implements RevokedTokenFilterMXBean
+{
+    private static final RevokedTokenFilter sInstance = new RevokedTokenFilter(
+            ServerConfig.getBoolean("resource.revocation.enabled", true),
+            ServerConfig.getLong("resource.revocation.retention", 86400) * 1000L,
+            ServerConfig.getInt("resource.revocation.max_size", 1000000),
+            ServerConfig.getLong("resource.revocation.bloom_bits", 16777216),
+            ServerConfig.getInt("resource.revocation.bloom_hashes", 7),
+            ServerConfig.getLong("resource.revocation.rebuild_interval", 60) * 1000L);
+
+
+    static
+    {
+        MBeans.register("RevokedTokenFilter", sInstance);
+    }
+
+
+    private final boolean mEnabled;
+    private final long mRetention;
+    private final int mMaxSize;
+    private final long mBloomBits;
+    private final int mBloomHashes;
+
+
+    /**
+     * Hashes of revoked tokens mapped to the time when they are forgotten.
+     */
+    private final ConcurrentHashMap<String, Long> mRevoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter mBloom;
+    private final LongAdder mEvents = new LongAdder();
+    private final LongAdder mRejections = new LongAdder();
+    private final LongAdder mOverflows = new LongAdder();
+
+
+    /**
+     * The time until which a refused token may be in use.
+     */
+    private final AtomicLong mOverflowUntil = new AtomicLong();
+
+
+    RevokedTokenFilter(
+            boolean enabled, long retention, int maxSize,
+            long bloomBits, int bloomHashes, long rebuildInterval)
+    {
+        mEnabled     = enabled;
+        mRetention   = retention;
+        mMaxSize     = maxSize;
+        mBloomBits   = bloomBits;
+        mBloomHashes = bloomHashes;
+        mBloom       = new BloomFilter(bloomBits, bloomHashes);
+
+        if (enabled && 0 < rebuildInterval)
+        {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revocation-filter-rebuilder");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            scheduler.scheduleWithFixedDelay(
+                    this::rebuild, rebuildInterval, rebuildInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    /**
+     * Get the filter shared by all the resource endpoints.
+     */
+    public static RevokedTokenFilter getInstance()
+    {
+        return sInstance;
+    }
+
+
+    /**
+     * Check if this filter is enabled.
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled;
+    }
+
+
+    /**
+     * Record a revoked access token.
+     *
+     * @param tokenHash
+     *         The base64url-encoded SHA-256 hash of the access token (see
+     *         {@link IntrospectionCache#hash(String)}).
+     *
+     * @param expiresAt
+     *         The expiration time of the access token in milliseconds since
+     *         the Unix epoch, or 0 if unknown.
+     *
+     * @return
+     *         {@code false} if {@code tokenHash} is not a valid hash.
+     */
+    public boolean revoke(String tokenHash, long expiresAt)
+    {
+        byte[] hash = decode(tokenHash);
+
+        if (hash == null)
+        {
+            return false;
+        }
+
+        mEvents.increment();
+
+        if (!mEnabled)
+        {
+            return true;
+        }
+
+        long now = System.currentTimeMillis();
+
+        // The token cannot be used after it expires.
+        long forgetAt = now + mRetention;
+
+        if (0 < expiresAt && expiresAt < forgetAt)
+        {
+            forgetAt = expiresAt;
+        }
+
+        if (forgetAt <= now)
+        {
+            return true;
+        }
+
+        if (!hasRoom(tokenHash, now))
+        {
+            overflow(forgetAt);
+
+            return true;
+        }
+
+        // The exact set first. See rebuild().
+        mRevoked.put(tokenHash, forgetAt);
+        mBloom.add(hash);
+
+        return true;
+    }
+
+
+    /**
+     * Check if this filter has refused revoked tokens that may still be in
+     * use because it was full. Results of the introspection cache and local
+     * JWT validation must not be trusted while this method returns {@code
+     * true}.
+     */
+    @Override
+    public boolean isOverflowing()
+    {
+        return System.currentTimeMillis() < mOverflowUntil.get();
+    }
+
+
+    /**
+     * Check if an access token has been revoked.
+     *
+     * @param accessToken
+     *         An access token.
+     *
+     * @return
+     *         {@code true} if the access token has been revoked.
+     */
+    public boolean isRevoked(String accessToken)
+    {
+        if (!mEnabled || mRevoked.isEmpty())
+        {
+            return false;
+        }
+
+        byte[] hash = IntrospectionCache.sha256(accessToken.getBytes(StandardCharsets.UTF_8));
+
+        if (!mBloom.mightContain(hash))
+        {
+            // Definitely not revoked.
+            return false;
+        }
+
+        Long forgetAt = mRevoked.get(Base64.getUrlEncoder().withoutPadding().encodeToString(hash));
+
+        if (forgetAt == null || forgetAt <= System.currentTimeMillis())
+        {
+            return false;
+        }
+
+        mRejections.increment();
+
+        return true;
+    }
+
+
+    /**
+     * Pass the hashes of the revoked tokens and the times when they are
+     * forgotten to the action. Used by {@link CacheSnapshot}.
+     */
+    void forEach(BiConsumer<String, Long> action)
+    {
+        long now = System.currentTimeMillis();
+
+        mRevoked.forEach((tokenHash, forgetAt) -> {
+            if (now < forgetAt)
+            {
+                action.accept(tokenHash, forgetAt);
+            }
+        });
+    }
+
+
+    /**
+     * Remember a revoked token restored from a snapshot unless it can be
+     * forgotten already. Used by {@link CacheSnapshot}.
+     *
+     * @return
+     *         {@code true} if the token has been remembered.
+     */
+    boolean restore(String tokenHash, long forgetAt)
+    {
+        byte[] hash = decode(tokenHash);
+
+        long now = System.currentTimeMillis();
+
+        if (!mEnabled || hash == null || forgetAt <= now)
+        {
+            return false;
+        }
+
+        if (!hasRoom(tokenHash, now))
+        {
+            overflow(forgetAt);
+
+            return false;
+        }
+
+        mRevoked.put(tokenHash, forgetAt);
+        mBloom.add(hash);
+
+        return true;
+    }
+
+
+    private static byte[] decode(String tokenHash)
+    {
+        if (tokenHash == null)
+        {
+            return null;
+        }
+
+        try
+        {
+            byte[] hash = Base64.getUrlDecoder().decode(tokenHash);
+
+            return (hash.length == 32) ? hash : null;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+
+    private boolean hasRoom(String tokenHash, long now)
+    {
+        if (mRevoked.size() < mMaxSize || mRevoked.containsKey(tokenHash))
+        {
+            return true;
+        }
+
+        // Purge forgettable entries. Entries that cannot be forgotten yet
+        // are never evicted.
+        mRevoked.values().removeIf(forgetAt -> forgetAt <= now);
+
+        return mRevoked.size() < mMaxSize;
+    }
+
+
+    private void overflow(long forgetAt)
+    {
+        mOverflows.increment();
+        mOverflowUntil.accumulateAndGet(forgetAt, Math::max);
+    }
+
+
+    private void rebuild()
+    {
+        long now = System.currentTimeMillis();
+
+        mRevoked.values().removeIf(forgetAt -> forgetAt <= now);
+
+        BloomFilter bloom = new BloomFilter(mBloomBits, mBloomHashes);
+        populate(bloom);
+        mBloom = bloom;
+
+        // revoke() may have added a hash to the previous filter after it
+        // was put into the exact set. Such a hash is found by this second
+        // pass, which starts after the swap.
+        populate(bloom);
+    }
+
+
+    private void populate(BloomFilter bloom)
+    {
+        for (String tokenHash : mRevoked.keySet())
+        {
+            bloom.add(decode(tokenHash));
+        }
+    }
+
+
+    @Override
+    public long getEvents()
+    {
+        return mEvents.sum();
+    }
+
+
+    @Override
+    public long getRejections()
+    {
+        return mRejections.sum();
+    }
+
+
+    @Override
+    public long getOverflows()
+    {
+        return mOverflows.sum();
+    }
+
+
+    @Override
+    public int getSize()
+    {
+        return mRevoked.size();
+    }
+
+
+    @Override
+    public void clear()
+    {
+        mRevoked.clear();
+        mOverflowUntil.set(0);
+        mBloom = new BloomFilter(mBloomBits, mBloomHashes);
+    }
+}
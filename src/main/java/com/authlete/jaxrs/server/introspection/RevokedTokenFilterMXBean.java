@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+/**
+ * JMX view of {@link RevokedTokenFilter}.
+ */
+public interface RevokedTokenFilterMXBean
+{
+    /**
+     * The number of revocation events received.
+     */
+    long getEvents();
+
+
+    /**
+     * The number of requests rejected because their access tokens had been
+     * revoked.
+     */
+    long getRejections();
+
+
+    /**
+     * The number of revoked tokens refused because the filter was full of
+     * tokens that could not be forgotten yet.
+     */
+    long getOverflows();
+
+
+    /**
+     * Whether refused revoked tokens may still be in use, in which case the
+     * introspection cache and local JWT validation are bypassed.
+     */
+    boolean isOverflowing();
+
+
+    /**
+     * The number of revoked tokens currently remembered.
+     */
+    int getSize();
+
+
+    /**
+     * Forget all the revoked tokens.
+     */
+    void clear();
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+
+
+/**
+ * A {@link WebApplicationException} thrown when an access token is rejected
+ * without asking Authlete.
+ *
+ * <p>
+ * The exception does not fill in its stack trace. Rejections are expected
+ * in large volumes under token-spray attacks, and the stack trace would
+ * never be looked at.
+ * </p>
+ */
+public class TokenRejectedException extends WebApplicationException
+{
+    private static final long serialVersionUID = 1L;
+
+
+    public TokenRejectedException(Response response)
+    {
+        super(response);
+    }
+
+
+    @Override
+    public Throwable fillInStackTrace()
+    {
+        // Skip capturing the stack trace.
+        return this;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+import javax.ws.rs.ServiceUnavailableException;
+
+
+/**
+ * Exception thrown by {@link PooledApiHandler} when a call to Authlete is
+ * not admitted because too many calls are in progress on this node.
+ *
+ * <p>
+ * Authlete has not been called, so {@link CircuitBreakerApiHandler} does
+ * not count the exception as a failure of Authlete. Like {@link
+ * CircuitOpenException}, it results in {@code 503 Service Unavailable}
+ * with a {@code Retry-After} header.
+ * </p>
+ */
+public class CallLimitExceededException extends ServiceUnavailableException
+{
+    private static final long serialVersionUID = 1L;
+
+
+    public CallLimitExceededException(String message)
+    {
+        super(message, 1L);
+    }
+
+
+    public CallLimitExceededException(String message, Throwable cause)
+    {
+        super(message, 1L, cause);
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * An {@link InvocationHandler} that puts a circuit breaker in front of
+ * all the methods of {@link AuthleteApi}.
+ *
+ * <p>
+ * Calls that fail with a network error or a {@code 5xx} response, or that
+ * succeed slower than the threshold, are counted as failures. After {@code
+ * resource.circuit_breaker.failure_threshold} consecutive failures, the
+ * circuit opens and calls fail immediately with {@link CircuitOpenException}
+ * ({@code 503 Service Unavailable}) for {@code
+ * resource.circuit_breaker.open_duration} seconds. Then a single
+ * trial call is let through; the circuit closes if it succeeds and opens
+ * again if it fails. Calls that were let through before the circuit opened
+ * do not close it when they finish.
+ * </p>
+ *
+ * <p>
+ * Calls rejected by {@link PooledApiHandler} before reaching Authlete
+ * ({@link CallLimitExceededException}) and other local errors are neither
+ * failures nor successes, so a burst of local traffic can neither open the
+ * circuit nor close it.
+ * </p>
+ *
+ * <p>
+ * State transitions are logged and counted. See {@code CachingApiHandler}
+ * for the policy to serve stale introspection results while the circuit
+ * is open.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.circuit_breaker.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.circuit_breaker.failure_threshold}</td><td>{@code 5}</td></tr>
+ *   <tr><td>{@code resource.circuit_breaker.open_duration}</td><td>{@code 30} (seconds)</td></tr>
+ *   <tr><td>{@code resource.circuit_breaker.slow_call_threshold}</td><td>{@code 10} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class CircuitBreakerApiHandler implements InvocationHandler, CircuitBreakerApiHandlerMXBean
+{
+    /**
+     * States of the circuit.
+     */
+    enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+
+    /**
+     * Calls let through the circuit.
+     */
+    private enum Permit
+    {
+        /**
+         * A call while the circuit is closed.
+         */
+        NORMAL,
+
+        /**
+         * The single call while the circuit is half-open, which decides
+         * whether the circuit closes or opens again.
+         */
+        TRIAL
+    }
+
+
+    private static final Logger sLogger = Logger.getLogger(CircuitBreakerApiHandler.class.getName());
+
+
+    private final AuthleteApi mApi;
+    private final int mFailureThreshold;
+    private final long mOpenDuration;
+    private final long mSlowCallThreshold;
+    private final AtomicReference<State> mState = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger mConsecutiveFailures = new AtomicInteger();
+    private volatile long mOpenedAt;
+    private final LongAdder mOpened = new LongAdder();
+    private final LongAdder mRejected = new LongAdder();
+    private final LongAdder mFailures = new LongAdder();
+
+
+    CircuitBreakerApiHandler(
+            AuthleteApi api, int failureThreshold, long openDuration, long slowCallThreshold)
+    {
+        mApi               = api;
+        mFailureThreshold  = failureThreshold;
+        mOpenDuration      = openDuration;
+        mSlowCallThreshold = slowCallThreshold;
+    }
+
+
+    /**
+     * Wrap an {@link AuthleteApi} with a circuit breaker.
+     *
+     * @param api
+     *         An {@link AuthleteApi} instance that communicates with Authlete.
+     *
+     * @return
+     *         An {@link AuthleteApi} instance guarded by a circuit breaker.
+     *         If the circuit breaker is disabled, {@code api} itself is
+     *         returned.
+     */
+    public static AuthleteApi wrap(AuthleteApi api)
+    {
+        if (!ServerConfig.getBoolean("resource.circuit_breaker.enabled", true))
+        {
+            return api;
+        }
+
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(api,
+                ServerConfig.getInt("resource.circuit_breaker.failure_threshold", 5),
+                ServerConfig.getLong("resource.circuit_breaker.open_duration", 30) * 1000L,
+                ServerConfig.getLong("resource.circuit_breaker.slow_call_threshold", 10) * 1000L);
+
+        MBeans.register("AuthleteCircuitBreaker", handler);
+
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class }, handler);
+    }
+
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        // Methods that do not communicate with Authlete.
+        if (method.getDeclaringClass() == Object.class || "getSettings".equals(method.getName()))
+        {
+            return invokeDirectly(method, args);
+        }
+
+        Permit permit = tryAcquire();
+
+        if (permit == null)
+        {
+            mRejected.increment();
+            throw new CircuitOpenException(getRetryAfter());
+        }
+
+        long started = System.currentTimeMillis();
+        Object result;
+
+        try
+        {
+            result = invokeDirectly(method, args);
+        }
+        catch (AuthleteApiException e)
+        {
+            if (isFailure(e))
+            {
+                onFailure(permit);
+            }
+            else
+            {
+                // Authlete is working although it rejected the request.
+                onSuccess(permit);
+            }
+
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            // Rejected on this node (e.g. CallLimitExceededException) or
+            // failed locally. It tells nothing about Authlete, so the trial
+            // call, if any, is left to the next caller.
+            releaseTrial(permit);
+            throw t;
+        }
+
+        if (0 < mSlowCallThreshold && mSlowCallThreshold <= System.currentTimeMillis() - started)
+        {
+            // Authlete is too slow.
+            onFailure(permit);
+        }
+        else
+        {
+            onSuccess(permit);
+        }
+
+        return result;
+    }
+
+
+    private Object invokeDirectly(Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(mApi, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    private static boolean isFailure(AuthleteApiException e)
+    {
+        int status = e.getStatusCode();
+
+        // A network error (no status code) or a server error.
+        return status == 0 || 500 <= status;
+    }
+
+
+    /**
+     * Get a permit to call Authlete.
+     *
+     * @return
+     *         The permit, or {@code null} if the call has to fail fast.
+     */
+    private Permit tryAcquire()
+    {
+        State state = mState.get();
+
+        if (state == State.CLOSED)
+        {
+            return Permit.NORMAL;
+        }
+
+        if (state == State.HALF_OPEN)
+        {
+            // A trial call is in progress.
+            return null;
+        }
+
+        if (System.currentTimeMillis() - mOpenedAt < mOpenDuration)
+        {
+            return null;
+        }
+
+        // Let only the caller that makes the transition try.
+        return transition(State.OPEN, State.HALF_OPEN) ? Permit.TRIAL : null;
+    }
+
+
+    private long getRetryAfter()
+    {
+        long remaining = mOpenedAt + mOpenDuration - System.currentTimeMillis();
+
+        // In seconds, rounded up. A trial call may be in progress.
+        return Math.max(1, (remaining + 999) / 1000);
+    }
+
+
+    private void releaseTrial(Permit permit)
+    {
+        if (permit == Permit.TRIAL)
+        {
+            // Let the next caller make the trial call. The circuit has been
+            // open long enough, so the transition is not logged again.
+            mState.compareAndSet(State.HALF_OPEN, State.OPEN);
+        }
+    }
+
+
+    private void onSuccess(Permit permit)
+    {
+        mConsecutiveFailures.set(0);
+
+        // Only the trial call closes the circuit. A call that was let
+        // through before the circuit opened may finish now, but it does
+        // not show that Authlete has recovered.
+        if (permit == Permit.TRIAL)
+        {
+            transition(State.HALF_OPEN, State.CLOSED);
+        }
+    }
+
+
+    private void onFailure(Permit permit)
+    {
+        mFailures.increment();
+
+        if (permit == Permit.TRIAL)
+        {
+            // The trial call failed.
+            mOpenedAt = System.currentTimeMillis();
+            transition(State.HALF_OPEN, State.OPEN);
+            return;
+        }
+
+        if (mState.get() == State.CLOSED &&
+                mFailureThreshold <= mConsecutiveFailures.incrementAndGet())
+        {
+            mOpenedAt = System.currentTimeMillis();
+            transition(State.CLOSED, State.OPEN);
+        }
+    }
+
+
+    private boolean transition(State from, State to)
+    {
+        if (!mState.compareAndSet(from, to))
+        {
+            return false;
+        }
+
+        if (to == State.OPEN)
+        {
+            mOpened.increment();
+            sLogger.warning(String.format(
+                    "Circuit to Authlete: %s -> %s (calls fail fast for %d ms)", from, to, mOpenDuration));
+        }
+        else
+        {
+            sLogger.info(String.format("Circuit to Authlete: %s -> %s", from, to));
+        }
+
+        return true;
+    }
+
+
+    @Override
+    public String getState()
+    {
+        return mState.get().name();
+    }
+
+
+    @Override
+    public int getConsecutiveFailures()
+    {
+        return mConsecutiveFailures.get();
+    }
+
+
+    @Override
+    public long getFailures()
+    {
+        return mFailures.sum();
+    }
+
+
+    @Override
+    public long getOpened()
+    {
+        return mOpened.sum();
+    }
+
+
+    @Override
+    public long getRejected()
+    {
+        return mRejected.sum();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+/**
+ * JMX view of {@link CircuitBreakerApiHandler}.
+ */
+public interface CircuitBreakerApiHandlerMXBean
+{
+    /**
+     * The state of the circuit ({@code CLOSED}, {@code OPEN} or {@code HALF_OPEN}).
+     */
+    String getState();
+
+
+    /**
+     * The number of consecutive failures while the circuit is closed.
+     */
+    int getConsecutiveFailures();
+
+
+    /**
+     * The total number of failed calls to Authlete.
+     */
+    long getFailures();
+
+
+    /**
+     * The number of times the circuit has opened.
+     */
+    long getOpened();
+
+
+    /**
+     * The number of calls rejected without calling Authlete.
+     */
+    long getRejected();
+}
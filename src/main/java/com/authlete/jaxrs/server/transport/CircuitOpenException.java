@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+import javax.ws.rs.ServiceUnavailableException;
+
+
+/**
+ * Exception thrown by {@link CircuitBreakerApiHandler} instead of calling
+ * Authlete while the circuit is open.
+ *
+ * <p>
+ * The exception is a {@link ServiceUnavailableException}, so it passes
+ * through the handlers of authlete-java-jaxrs (which turn {@code
+ * AuthleteApiException} into {@code 500 Internal Server Error}) and
+ * results in {@code 503 Service Unavailable} with a {@code Retry-After}
+ * header telling when the next trial call can be made. Like other
+ * fail-fast rejections, it does not fill in its stack trace.
+ * </p>
+ */
+public class CircuitOpenException extends ServiceUnavailableException
+{
+    private static final long serialVersionUID = 1L;
+
+
+    /**
+     * Constructor.
+     *
+     * @param retryAfter
+     *         The number of seconds after which the request can be retried.
+     */
+    public CircuitOpenException(long retryAfter)
+    {
+        super("The circuit to Authlete is open.", retryAfter);
+    }
+
+
+    @Override
+    public Throwable fillInStackTrace()
+    {
+        // Skip capturing the stack trace.
+        return this;
+    }
+}
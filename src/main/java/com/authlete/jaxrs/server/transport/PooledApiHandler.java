@@ -0,0 +1,398 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.Settings;
+import com.authlete.jaxrs.server.ServerConfig;
+import com.authlete.jaxrs.server.util.MBeans;
+
+
+/**
+ * An {@link InvocationHandler} that limits the number of concurrent calls
+ * of {@link AuthleteApi} methods and tunes the JDK's keep-alive cache so
+ * that connections to Authlete are reused.
+ *
+ * <p>
+ * This handler is a concurrency limiter, not a connection pool. The
+ * connections themselves are owned by {@link HttpURLConnection}, which is
+ * used by {@link AuthleteApi} implementations in authlete-java-common. It
+ * keeps idle connections alive and reuses them, but does not limit the
+ * number of connections and keeps only 5 idle connections per destination
+ * by default. This handler does the following so that connections are
+ * reused instead of being re-established with TLS handshakes.
+ * </p>
+ *
+ * <ul>
+ *   <li>Admits at most {@code resource.authlete.pool.max_connections}
+ *       concurrent calls to Authlete with a fair {@link Semaphore}, so that
+ *       no more connections are needed than the JDK keeps alive. Callers
+ *       wait for a permit at most {@code
+ *       resource.authlete.pool.acquire_timeout} seconds, and then fail
+ *       with {@link CallLimitExceededException}.
+ *   <li>Makes the JDK keep as many idle connections as the number of
+ *       permits ({@code http.keepAlive} and {@code http.maxConnections}).
+ *   <li>Configures the TLS session cache of the default {@link SSLContext}
+ *       so that new connections can resume TLS sessions.
+ *   <li>Applies the connect and read timeouts to {@link Settings}.
+ *   <li>Opens connections to Authlete in the background at startup.
+ * </ul>
+ *
+ * <p>
+ * {@link HttpURLConnection} does not support HTTP/2. Multiplexing requires
+ * an {@link AuthleteApi} implementation based on another HTTP client.
+ * </p>
+ *
+ * <p>
+ * Configuration keys in {@code authlete.properties}:
+ * </p>
+ *
+ * <blockquote>
+ * <table border="1" cellpadding="5" style="border-collapse: collapse;">
+ *   <tr><th>Key</th><th>Default</th></tr>
+ *   <tr><td>{@code resource.authlete.pool.enabled}</td><td>{@code true}</td></tr>
+ *   <tr><td>{@code resource.authlete.pool.max_connections}</td><td>{@code 64}</td></tr>
+ *   <tr><td>{@code resource.authlete.pool.acquire_timeout}</td><td>{@code 5} (seconds)</td></tr>
+ *   <tr><td>{@code resource.authlete.pool.prewarm}</td><td>{@code 4} (connections)</td></tr>
+ *   <tr><td>{@code resource.authlete.connect_timeout}</td><td>{@code 5} (seconds)</td></tr>
+ *   <tr><td>{@code resource.authlete.read_timeout}</td><td>{@code 30} (seconds)</td></tr>
+ *   <tr><td>{@code resource.authlete.tls_session_cache_size}</td><td>{@code 1000}</td></tr>
+ *   <tr><td>{@code resource.authlete.tls_session_timeout}</td><td>{@code 86400} (seconds)</td></tr>
+ * </table>
+ * </blockquote>
+ */
+public class PooledApiHandler implements InvocationHandler, PooledApiHandlerMXBean
+{
+    private final AuthleteApi mApi;
+    private final int mMaxConnections;
+    private final long mAcquireTimeout;
+    private final Semaphore mPermits;
+    private final LongAdder mAcquired = new LongAdder();
+    private final LongAdder mAcquireTimeouts = new LongAdder();
+    private final LongAdder mWaitNanos = new LongAdder();
+    private final AtomicLong mMaxWaitNanos = new AtomicLong();
+
+
+    PooledApiHandler(AuthleteApi api, int maxConnections, long acquireTimeout)
+    {
+        mApi            = api;
+        mMaxConnections = maxConnections;
+        mAcquireTimeout = acquireTimeout;
+        mPermits        = new Semaphore(maxConnections, true);
+    }
+
+
+    /**
+     * Configure the transport and wrap an {@link AuthleteApi} so that the
+     * number of its concurrent calls is limited.
+     *
+     * <p>
+     * This method has to be called before any connection to Authlete is
+     * made, because the JDK reads {@code http.maxConnections} only once.
+     * </p>
+     *
+     * @param api
+     *         An {@link AuthleteApi} instance that communicates with Authlete.
+     *
+     * @return
+     *         An {@link AuthleteApi} instance whose calls are limited. If
+     *         the limiter is disabled, {@code api} itself is returned after
+     *         the timeouts are applied.
+     */
+    public static AuthleteApi wrap(AuthleteApi api)
+    {
+        configureTimeouts(api.getSettings());
+
+        if (!ServerConfig.getBoolean("resource.authlete.pool.enabled", true))
+        {
+            return api;
+        }
+
+        int maxConnections = ServerConfig.getInt("resource.authlete.pool.max_connections", 64);
+
+        configureKeepAlive(maxConnections);
+        configureTlsSessionCache();
+
+        PooledApiHandler handler = new PooledApiHandler(api, maxConnections,
+                ServerConfig.getLong("resource.authlete.pool.acquire_timeout", 5) * 1000L);
+
+        MBeans.register("AuthleteCallLimiter", handler);
+
+        prewarm(Math.min(maxConnections, ServerConfig.getInt("resource.authlete.pool.prewarm", 4)));
+
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class }, handler);
+    }
+
+
+    private static void configureTimeouts(Settings settings)
+    {
+        settings.setConnectionTimeout(
+                (int)(ServerConfig.getLong("resource.authlete.connect_timeout", 5) * 1000L));
+
+        settings.setReadTimeout(
+                (int)(ServerConfig.getLong("resource.authlete.read_timeout", 30) * 1000L));
+    }
+
+
+    private static void configureKeepAlive(int maxConnections)
+    {
+        // Respect the values given by -D options.
+        if (System.getProperty("http.keepAlive") == null)
+        {
+            System.setProperty("http.keepAlive", "true");
+        }
+
+        if (System.getProperty("http.maxConnections") == null)
+        {
+            // The maximum number of idle connections kept per destination.
+            System.setProperty("http.maxConnections", String.valueOf(maxConnections));
+        }
+    }
+
+
+    private static void configureTlsSessionCache()
+    {
+        try
+        {
+            // HttpsURLConnection uses the default SSLContext unless
+            // another socket factory is set.
+            SSLSessionContext context = SSLContext.getDefault().getClientSessionContext();
+
+            context.setSessionCacheSize(
+                    ServerConfig.getInt("resource.authlete.tls_session_cache_size", 1000));
+            context.setSessionTimeout(
+                    ServerConfig.getInt("resource.authlete.tls_session_timeout", 86400));
+        }
+        catch (NoSuchAlgorithmException cause)
+        {
+            System.err.format("Failed to configure the TLS session cache: %s%n", cause.getMessage());
+        }
+    }
+
+
+    private static void prewarm(int connections)
+    {
+        String baseUrl = ServerConfig.getString("base_url", null);
+
+        if (connections <= 0 || baseUrl == null)
+        {
+            return;
+        }
+
+        // Let all the threads connect at the same time. Otherwise, they
+        // would reuse one connection.
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int i = 0; i < connections; i++)
+        {
+            Thread thread = new Thread(() -> connect(baseUrl, start), "authlete-prewarm-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        start.countDown();
+    }
+
+
+    private static void connect(String baseUrl, CountDownLatch start)
+    {
+        try
+        {
+            start.await();
+
+            HttpURLConnection conn = (HttpURLConnection)new URL(baseUrl).openConnection();
+            conn.setRequestMethod("HEAD");
+            conn.setConnectTimeout(
+                    (int)(ServerConfig.getLong("resource.authlete.connect_timeout", 5) * 1000L));
+
+            // The status code does not matter. Consume the response so that
+            // the connection is returned to the keep-alive cache.
+            int status = conn.getResponseCode();
+
+            try (InputStream in = (400 <= status) ? conn.getErrorStream() : conn.getInputStream())
+            {
+                drain(in);
+            }
+        }
+        catch (IOException cause)
+        {
+            // The connection will be established on the first call instead.
+            System.err.format("Failed to pre-warm a connection to %s: %s%n", baseUrl, cause.getMessage());
+        }
+        catch (InterruptedException cause)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    private static void drain(InputStream in) throws IOException
+    {
+        if (in == null)
+        {
+            return;
+        }
+
+        byte[] buffer = new byte[1024];
+
+        while (in.read(buffer) != -1)
+        {
+            // Discard the data.
+        }
+    }
+
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        // Methods that do not communicate with Authlete.
+        if (method.getDeclaringClass() == Object.class || "getSettings".equals(method.getName()))
+        {
+            return invokeDirectly(method, args);
+        }
+
+        acquire();
+
+        try
+        {
+            return invokeDirectly(method, args);
+        }
+        finally
+        {
+            mPermits.release();
+        }
+    }
+
+
+    private Object invokeDirectly(Method method, Object[] args) throws Throwable
+    {
+        try
+        {
+            return method.invoke(mApi, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    private void acquire()
+    {
+        long started = System.nanoTime();
+        boolean acquired;
+
+        try
+        {
+            acquired = mPermits.tryAcquire(mAcquireTimeout, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new CallLimitExceededException("Interrupted while waiting for a permit to call Authlete.", e);
+        }
+
+        long waited = System.nanoTime() - started;
+        mWaitNanos.add(waited);
+        mMaxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired)
+        {
+            mAcquireTimeouts.increment();
+            throw new CallLimitExceededException("Timed out waiting for a permit to call Authlete.");
+        }
+
+        mAcquired.increment();
+    }
+
+
+    @Override
+    public int getMaxConnections()
+    {
+        return mMaxConnections;
+    }
+
+
+    @Override
+    public int getActive()
+    {
+        return mMaxConnections - mPermits.availablePermits();
+    }
+
+
+    @Override
+    public int getAvailablePermits()
+    {
+        return mPermits.availablePermits();
+    }
+
+
+    @Override
+    public int getWaiting()
+    {
+        return mPermits.getQueueLength();
+    }
+
+
+    @Override
+    public long getAcquired()
+    {
+        return mAcquired.sum();
+    }
+
+
+    @Override
+    public long getAcquireTimeouts()
+    {
+        return mAcquireTimeouts.sum();
+    }
+
+
+    @Override
+    public double getAverageWaitMillis()
+    {
+        long count = mAcquired.sum() + mAcquireTimeouts.sum();
+
+        return (count == 0) ? 0 : mWaitNanos.sum() / 1e6 / count;
+    }
+
+
+    @Override
+    public double getMaxWaitMillis()
+    {
+        return mMaxWaitNanos.get() / 1e6;
+    }
+}
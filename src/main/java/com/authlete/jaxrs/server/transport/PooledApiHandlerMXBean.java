@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+/**
+ * JMX view of {@link PooledApiHandler}.
+ */
+public interface PooledApiHandlerMXBean
+{
+    /**
+     * The maximum number of concurrent calls to Authlete.
+     */
+    int getMaxConnections();
+
+
+    /**
+     * The number of calls to Authlete in progress.
+     */
+    int getActive();
+
+
+    /**
+     * The number of calls that can start without waiting. This is not the
+     * number of idle connections, which is managed by the JDK.
+     */
+    int getAvailablePermits();
+
+
+    /**
+     * The number of callers waiting for a permit.
+     */
+    int getWaiting();
+
+
+    /**
+     * The number of times a permit was obtained.
+     */
+    long getAcquired();
+
+
+    /**
+     * The number of callers that gave up waiting for a permit.
+     */
+    long getAcquireTimeouts();
+
+
+    /**
+     * The average time in milliseconds spent waiting for a permit.
+     */
+    double getAverageWaitMillis();
+
+
+    /**
+     * The longest time in milliseconds spent waiting for a permit.
+     */
+    double getMaxWaitMillis();
+}
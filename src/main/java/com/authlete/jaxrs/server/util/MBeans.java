@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.util;
+
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/**
+ * Utility to expose metrics of this resource server via JMX.
+ *
+ * <p>
+ * MBeans are registered under the domain {@code com.authlete.jaxrs.server}
+ * and can be inspected with any JMX client (e.g. JConsole) or exporter.
+ * </p>
+ */
+public final class MBeans
+{
+    private static final String DOMAIN = "com.authlete.jaxrs.server";
+
+
+    private MBeans()
+    {
+    }
+
+
+    /**
+     * Register an MBean as {@code com.authlete.jaxrs.server:type={type}}.
+     * An MBean already registered with the same name (e.g. by a previous
+     * deployment of this web application) is replaced.
+     *
+     * @param type
+     *         The value of the {@code type} key of the object name.
+     *
+     * @param mbean
+     *         The MBean to register.
+     */
+    public static void register(String type, Object mbean)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName  name   = new ObjectName(DOMAIN + ":type=" + type);
+
+            if (server.isRegistered(name))
+            {
+                server.unregisterMBean(name);
+            }
+
+            server.registerMBean(mbean, name);
+        }
+        catch (Exception cause)
+        {
+            // Metrics are not essential. Just write an error log.
+            System.err.format("Failed to register the MBean '%s': %s%n", type, cause.getMessage());
+        }
+    }
+}
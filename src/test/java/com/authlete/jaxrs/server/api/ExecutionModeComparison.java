@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.Response;
+
+
+/**
+ * A load harness that compares the execution modes of {@link
+ * AsyncRequestExecutor} in a simulated servlet container.
+ *
+ * <p>
+ * The container is a fixed pool of {@code containerThreads} threads, as in
+ * Jetty. {@code requests} Authlete-bound requests are submitted at once,
+ * and each of them waits {@code authleteLatency} milliseconds for Authlete.
+ * While they are processed, a cheap request that does not call Authlete
+ * (a probe) is submitted every {@code probeInterval} milliseconds, and the
+ * time it waits for a container thread is recorded.
+ * </p>
+ *
+ * <pre>
+ * $ mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.authlete.jaxrs.server.api.ExecutionModeComparison \
+ *     -DcontainerThreads=16 -DauthleteLatency=50
+ * </pre>
+ *
+ * <p>
+ * The {@code virtual} mode is skipped unless the harness runs on Java 21 or
+ * newer.
+ * </p>
+ */
+public class ExecutionModeComparison
+{
+    private static final int CONTAINER_THREADS = Integer.getInteger("containerThreads", 16);
+    private static final int EXECUTOR_THREADS  = Integer.getInteger("executorThreads", 64);
+    private static final long AUTHLETE_LATENCY = Long.getLong("authleteLatency", 50);
+    private static final int REQUESTS          = Integer.getInteger("requests", 2000);
+    private static final long PROBE_INTERVAL   = Long.getLong("probeInterval", 5);
+
+
+    public static void main(String[] args) throws Exception
+    {
+        System.out.format("container threads = %d, executor threads = %d, Authlete latency = %d ms, requests = %d%n%n",
+                CONTAINER_THREADS, EXECUTOR_THREADS, AUTHLETE_LATENCY, REQUESTS);
+        System.out.format("%-8s %12s %14s %14s %14s%n",
+                "mode", "req/s", "probe p50 ms", "probe p99 ms", "probe max ms");
+
+        for (String mode : new String[] { "sync", "async", "virtual" })
+        {
+            // Warm up, then measure.
+            run(mode, false);
+            run(mode, true);
+        }
+    }
+
+
+    private static void run(String mode, boolean report) throws Exception
+    {
+        AsyncRequestExecutor executor = new AsyncRequestExecutor(
+                mode, EXECUTOR_THREADS, REQUESTS, REQUESTS, 0);
+
+        if (!mode.equals(executor.getMode()))
+        {
+            if (report)
+            {
+                System.out.format("%-8s %12s%n", mode, "unavailable");
+            }
+
+            return;
+        }
+
+        ExecutorService container = Executors.newFixedThreadPool(CONTAINER_THREADS);
+        CountDownLatch done = new CountDownLatch(REQUESTS);
+        long started = System.nanoTime();
+
+        for (int i = 0; i < REQUESTS; i++)
+        {
+            container.execute(() -> executor.submit(suspended(done), () -> callAuthlete()));
+        }
+
+        long[] probes = new long[REQUESTS];
+        int count = 0;
+
+        // Measure how long cheap requests wait for a container thread
+        // while the Authlete-bound requests are being processed.
+        while (done.getCount() != 0 && count < probes.length)
+        {
+            long submitted = System.nanoTime();
+            CountDownLatch probe = new CountDownLatch(1);
+            container.execute(probe::countDown);
+            probe.await();
+            probes[count++] = System.nanoTime() - submitted;
+
+            Thread.sleep(PROBE_INTERVAL);
+        }
+
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        container.shutdown();
+
+        if (!report)
+        {
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(probes, Math.max(count, 1));
+        Arrays.sort(sorted);
+
+        System.out.format("%-8s %12.0f %14.2f %14.2f %14.2f%n", mode,
+                REQUESTS / (elapsed / 1e9),
+                percentile(sorted, 0.50) / 1e6,
+                percentile(sorted, 0.99) / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+
+    private static Response callAuthlete()
+    {
+        try
+        {
+            Thread.sleep(AUTHLETE_LATENCY);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return null;
+    }
+
+
+    private static long percentile(long[] sorted, double fraction)
+    {
+        return sorted[(int)Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+    }
+
+
+    /**
+     * A suspended response that counts down the latch when it is resumed.
+     */
+    private static AsyncResponse suspended(CountDownLatch done)
+    {
+        AtomicInteger resumed = new AtomicInteger();
+
+        return (AsyncResponse)Proxy.newProxyInstance(
+                AsyncResponse.class.getClassLoader(),
+                new Class<?>[] { AsyncResponse.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("resume") && resumed.getAndIncrement() == 0)
+                    {
+                        done.countDown();
+                        return true;
+                    }
+
+                    return (method.getReturnType() == boolean.class) ? Boolean.FALSE : null;
+                });
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.authlete.jaxrs.server.db.ClaimSet;
+import com.authlete.jaxrs.server.db.UserClaims;
+import com.authlete.jaxrs.server.db.UserDao;
+import com.authlete.jaxrs.server.db.UserRecord;
+import com.authlete.jaxrs.server.db.UserRepository;
+
+
+/**
+ * Tests of {@link UserInfoClaimsCache} used by {@link UserInfoRequestHandlerSpiImpl}.
+ */
+public class UserInfoClaimsCacheTest
+{
+    /**
+     * Announces an update of the user while the claims are being read,
+     * as another request or node would.
+     */
+    private static final class UpdatingRepository implements UserRepository
+    {
+        final UserRepository delegate;
+
+
+        /**
+         * The subject of the user to announce an update of, if any.
+         */
+        volatile String updated;
+
+
+        UpdatingRepository(UserRepository delegate)
+        {
+            this.delegate = delegate;
+        }
+
+
+        @Override
+        public UserRecord findBySubject(String subject)
+        {
+            return delegate.findBySubject(subject);
+        }
+
+
+        @Override
+        public UserRecord findByLoginId(String loginId)
+        {
+            return delegate.findByLoginId(loginId);
+        }
+
+
+        @Override
+        public UserRecord findByEmail(String email)
+        {
+            return delegate.findByEmail(email);
+        }
+
+
+        @Override
+        public UserRecord findByPhoneNumber(String phoneNumber)
+        {
+            return delegate.findByPhoneNumber(phoneNumber);
+        }
+
+
+        @Override
+        public UserClaims findClaims(String subject, ClaimSet claims)
+        {
+            UserClaims result = delegate.findClaims(subject, claims);
+
+            if (updated != null)
+            {
+                UserDao.invalidate(updated);
+            }
+
+            return result;
+        }
+
+
+        @Override
+        public int size()
+        {
+            return delegate.size();
+        }
+    }
+
+
+    private static final String[] CLAIM_NAMES = { "name", "email" };
+
+
+    private UserRepository mOriginal;
+    private UpdatingRepository mRepository;
+    private UserInfoClaimsCache mCache;
+
+
+    @Before
+    public void setUp()
+    {
+        mOriginal   = UserDao.getRepository();
+        mRepository = new UpdatingRepository(mOriginal);
+        mCache      = new UserInfoClaimsCache(true, 100, 8, 60000);
+
+        UserDao.setRepository(mRepository);
+    }
+
+
+    @After
+    public void tearDown()
+    {
+        mCache.close();
+        UserDao.setRepository(mOriginal);
+    }
+
+
+    private UserInfoRequestHandlerSpiImpl prepare(String subject)
+    {
+        UserInfoRequestHandlerSpiImpl spi = new UserInfoRequestHandlerSpiImpl(mCache);
+        spi.prepareUserClaims(subject, CLAIM_NAMES);
+
+        return spi;
+    }
+
+
+    @Test
+    public void assembledClaimsAreCached()
+    {
+        prepare("1001");
+        assertEquals(1, mCache.getSize());
+
+        UserInfoRequestHandlerSpiImpl spi = prepare("1001");
+        assertEquals(1, mCache.getHits());
+        assertEquals("John Flibble Smith", spi.getUserClaim("name", null));
+        assertEquals("john@example.com", spi.getUserClaim("email", null));
+    }
+
+
+    @Test
+    public void invalidationDiscardsCachedClaims()
+    {
+        prepare("1001");
+        assertEquals(1, mCache.getSize());
+
+        UserDao.invalidate("1001");
+        assertEquals(0, mCache.getSize());
+        assertEquals(1, mCache.getInvalidations());
+    }
+
+
+    @Test
+    public void invalidationDuringAssemblyPreventsCaching()
+    {
+        mRepository.updated = "1001";
+
+        // The claims read before the update are served to this request
+        // but must not be served to later ones.
+        UserInfoRequestHandlerSpiImpl spi = prepare("1001");
+        assertEquals("John Flibble Smith", spi.getUserClaim("name", null));
+        assertEquals(0, mCache.getSize());
+
+        mRepository.updated = null;
+
+        prepare("1001");
+        assertEquals(1, mCache.getSize());
+    }
+
+
+    @Test
+    public void invalidationOfOtherUserDoesNotPreventCaching()
+    {
+        mRepository.updated = "1002";
+
+        prepare("1001");
+        assertEquals(1, mCache.getSize());
+    }
+
+
+    @Test
+    public void closedCacheIgnoresInvalidations()
+    {
+        prepare("1001");
+        mCache.close();
+
+        UserDao.invalidate("1001");
+        assertEquals(1, mCache.getSize());
+        assertEquals(0, mCache.getInvalidations());
+    }
+
+
+    @Test
+    public void unknownUserIsNotCached()
+    {
+        UserInfoRequestHandlerSpiImpl spi = prepare("9999");
+
+        assertNull(spi.getUserClaim("name", null));
+        assertEquals(0, mCache.getSize());
+    }
+}
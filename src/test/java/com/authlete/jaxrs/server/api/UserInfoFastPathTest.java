@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.api;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.core.Response;
+import org.junit.Test;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.jaxrs.UserInfoRequestHandler.Params;
+import com.authlete.jaxrs.spi.UserInfoRequestHandlerSpi;
+
+
+/**
+ * Tests of {@link UserInfoFastPath}.
+ */
+public class UserInfoFastPathTest
+{
+    /**
+     * An endpoint whose full flow calls {@code userinfo} once and turns an
+     * error into a 500 response.
+     */
+    private static class FullFlow extends UserInfoEndpoint
+    {
+        AuthleteApiException failure;
+
+
+        @Override
+        public Response handle(AuthleteApi api, UserInfoRequestHandlerSpi spi, Params params)
+        {
+            try
+            {
+                api.userinfo(null);
+            }
+            catch (AuthleteApiException e)
+            {
+                failure = e;
+            }
+
+            return Response.serverError().build();
+        }
+    }
+
+
+    @Test
+    public void apiErrorIsDelegatedWithoutSecondCall()
+    {
+        AtomicInteger calls = new AtomicInteger();
+        AuthleteApiException failure = new AuthleteApiException("Authlete is down.");
+
+        AuthleteApi api = (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                (proxy, method, args) -> {
+                    calls.incrementAndGet();
+                    throw failure;
+                });
+
+        UserInfoFastPath fastPath = new UserInfoFastPath(true, 30000);
+        FullFlow endpoint = new FullFlow();
+
+        Response response = fastPath.handle(endpoint, api, null, new Params());
+
+        assertEquals(500, response.getStatus());
+
+        // The full flow sees the original error.
+        assertSame(failure, endpoint.failure);
+        assertEquals(1, calls.get());
+        assertEquals(1, fastPath.getDelegated());
+    }
+}
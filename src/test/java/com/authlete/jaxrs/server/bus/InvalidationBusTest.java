@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.bus;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.After;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link InvalidationBus} over {@link LoopbackTransport}.
+ */
+public class InvalidationBusTest
+{
+    private static final String SECRET = "secret";
+
+
+    private final List<InvalidationBus> mBuses = new ArrayList<>();
+
+
+    @After
+    public void tearDown()
+    {
+        for (InvalidationBus bus : mBuses)
+        {
+            bus.stop();
+        }
+    }
+
+
+    private InvalidationBus start(String secret, int repeat, BlockingQueue<String[]> received)
+    {
+        InvalidationBus bus = new InvalidationBus(
+                new LoopbackTransport(), 10, 1400, repeat, 60000, 30000, secret);
+
+        if (received != null)
+        {
+            bus.subscribe(InvalidationBus.USER_UPDATED, received::add);
+        }
+
+        bus.start();
+        mBuses.add(bus);
+
+        return bus;
+    }
+
+
+    private static void awaitBatches(InvalidationBus sender, long batches) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 10000;
+
+        while (sender.getBatchesSent() < batches && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(10);
+        }
+
+        assertTrue(batches <= sender.getBatchesSent());
+    }
+
+
+    private static byte[] sign(String payload) throws Exception
+    {
+        byte[] bytes = payload.getBytes(StandardCharsets.US_ASCII);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        byte[] batch = Arrays.copyOf(bytes, bytes.length + 32);
+        System.arraycopy(mac.doFinal(bytes), 0, batch, bytes.length, 32);
+
+        return batch;
+    }
+
+
+    @Test
+    public void roundTrip() throws Exception
+    {
+        BlockingQueue<String[]> received = new LinkedBlockingQueue<>();
+        BlockingQueue<String[]> self = new LinkedBlockingQueue<>();
+        InvalidationBus receiver = start(SECRET, 1, received);
+        InvalidationBus sender = start(SECRET, 1, self);
+
+        sender.publish(InvalidationBus.USER_UPDATED, "user 1");
+
+        assertArrayEquals(new String[] { "user 1" }, received.poll(10, TimeUnit.SECONDS));
+        assertEquals(1, receiver.getReceived());
+
+        // The sender ignores its own messages.
+        assertTrue(self.isEmpty());
+        assertEquals(0, sender.getReceived());
+    }
+
+
+    @Test
+    public void batchWithBadMacIsRejected() throws Exception
+    {
+        BlockingQueue<String[]> received = new LinkedBlockingQueue<>();
+        InvalidationBus receiver = start(SECRET, 1, received);
+        InvalidationBus sender = start("another secret", 1, null);
+
+        sender.publish(InvalidationBus.USER_UPDATED, "1001");
+        awaitBatches(sender, 1);
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, receiver.getRejectedBatches());
+    }
+
+
+    @Test
+    public void repeatedBatchIsAppliedOnce() throws Exception
+    {
+        BlockingQueue<String[]> received = new LinkedBlockingQueue<>();
+        InvalidationBus receiver = start(SECRET, 3, received);
+        InvalidationBus sender = start(SECRET, 3, null);
+
+        sender.publish(InvalidationBus.USER_UPDATED, "1001");
+        awaitBatches(sender, 3);
+
+        assertEquals(1, received.size());
+        assertEquals(1, receiver.getReceived());
+        assertEquals(2, receiver.getDuplicates());
+    }
+
+
+    @Test
+    public void staleBatchIsRejected() throws Exception
+    {
+        BlockingQueue<String[]> received = new LinkedBlockingQueue<>();
+        InvalidationBus receiver = start(SECRET, 1, received);
+        LoopbackTransport transport = new LoopbackTransport();
+
+        // A validly signed batch recorded an hour ago.
+        long sentAt = System.currentTimeMillis() - 3600 * 1000L;
+        transport.send(sign("IB1 node " + sentAt + "\n1 USER_UPDATED 1001"));
+
+        assertTrue(received.isEmpty());
+        assertEquals(1, receiver.getRejectedBatches());
+
+        // The same batch sent now is accepted.
+        transport.send(sign("IB1 node " + System.currentTimeMillis() + "\n1 USER_UPDATED 1001"));
+
+        assertEquals(1, received.size());
+    }
+}
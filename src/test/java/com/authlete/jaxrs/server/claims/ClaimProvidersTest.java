@@ -0,0 +1,371 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.claims;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link ClaimProviders} with local stub providers.
+ */
+public class ClaimProvidersTest
+{
+    private static final String PREFIX = ClaimProvidersTest.class.getName() + "$";
+    private static final AtomicInteger sProfileCalls = new AtomicInteger();
+    private static volatile CountDownLatch sSlowStarted;
+    private static volatile CountDownLatch sSlowInterrupted;
+    private static volatile CountDownLatch sBlockingStarted;
+    private static volatile CountDownLatch sBlockingReleased;
+
+
+    public static class ProfileProvider implements ClaimProvider
+    {
+        @Override
+        public String getName()
+        {
+            return "test-profile";
+        }
+
+
+        @Override
+        public Set<String> getClaimNames()
+        {
+            return new HashSet<>(Arrays.asList("nickname", "website"));
+        }
+
+
+        @Override
+        public Map<String, Object> getClaims(String subject, Set<String> claimNames)
+        {
+            sProfileCalls.incrementAndGet();
+
+            Map<String, Object> claims = new HashMap<>();
+            claims.put("nickname", "Johnny");
+            claims.put("website", "https://example.com/" + subject);
+
+            return claims;
+        }
+    }
+
+
+    public static class LoyaltyProvider implements ClaimProvider
+    {
+        @Override
+        public String getName()
+        {
+            return "test-loyalty";
+        }
+
+
+        @Override
+        public Set<String> getClaimNames()
+        {
+            return new HashSet<>(Arrays.asList("nickname", "loyalty_tier"));
+        }
+
+
+        @Override
+        public Map<String, Object> getClaims(String subject, Set<String> claimNames)
+        {
+            Map<String, Object> claims = new HashMap<>();
+            claims.put("nickname", "Loyal John");
+            claims.put("loyalty_tier", "gold");
+
+            return claims;
+        }
+    }
+
+
+    public static class SlowProvider implements ClaimProvider
+    {
+        @Override
+        public String getName()
+        {
+            return "test-slow";
+        }
+
+
+        @Override
+        public Set<String> getClaimNames()
+        {
+            return Collections.singleton("credit_score");
+        }
+
+
+        @Override
+        public Map<String, Object> getClaims(String subject, Set<String> claimNames) throws Exception
+        {
+            sSlowStarted.countDown();
+
+            try
+            {
+                Thread.sleep(5000);
+            }
+            catch (InterruptedException e)
+            {
+                sSlowInterrupted.countDown();
+                throw e;
+            }
+
+            return Collections.singletonMap("credit_score", 700);
+        }
+    }
+
+
+    public static class FailingProvider implements ClaimProvider
+    {
+        @Override
+        public String getName()
+        {
+            return "test-failing";
+        }
+
+
+        @Override
+        public Set<String> getClaimNames()
+        {
+            return Collections.singleton("kyc_level");
+        }
+
+
+        @Override
+        public Map<String, Object> getClaims(String subject, Set<String> claimNames) throws Exception
+        {
+            throw new Exception("KYC service is down");
+        }
+    }
+
+
+    public static class BlockingProvider extends ProfileProvider
+    {
+        @Override
+        public String getName()
+        {
+            return "test-blocking";
+        }
+
+
+        @Override
+        public Map<String, Object> getClaims(String subject, Set<String> claimNames)
+        {
+            sBlockingStarted.countDown();
+
+            try
+            {
+                sBlockingReleased.await(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            return super.getClaims(subject, claimNames);
+        }
+    }
+
+
+    public static class UnconstructibleProvider extends ProfileProvider
+    {
+        public UnconstructibleProvider(String name)
+        {
+        }
+    }
+
+
+    @BeforeClass
+    public static void configure()
+    {
+        System.setProperty("resource.claim_provider.test-profile.failure_policy", "Sometimes");
+        System.setProperty("resource.claim_provider.test-slow.timeout", "100");
+        System.setProperty("resource.claim_provider.test-failing.failure_policy", "fail");
+    }
+
+
+    @AfterClass
+    public static void unconfigure()
+    {
+        System.clearProperty("resource.claim_provider.test-profile.failure_policy");
+        System.clearProperty("resource.claim_provider.test-slow.timeout");
+        System.clearProperty("resource.claim_provider.test-failing.failure_policy");
+    }
+
+
+    @Before
+    public void resetCalls()
+    {
+        sProfileCalls.set(0);
+        sSlowStarted     = new CountDownLatch(1);
+        sSlowInterrupted = new CountDownLatch(1);
+        sBlockingStarted  = new CountDownLatch(1);
+        sBlockingReleased = new CountDownLatch(1);
+    }
+
+
+    private static ClaimProviders create(String... simpleNames)
+    {
+        StringBuilder classNames = new StringBuilder();
+
+        for (String simpleName : simpleNames)
+        {
+            classNames.append(PREFIX).append(simpleName).append(',');
+        }
+
+        return new ClaimProviders(ClaimProviders.loadProviders(classNames.toString()), 4, 10);
+    }
+
+
+    @Test
+    public void unknownFailurePolicyFallsBackToOmit()
+    {
+        List<ManagedClaimProvider> providers = ClaimProviders.loadProviders(PREFIX + "ProfileProvider");
+
+        assertEquals(1, providers.size());
+        assertEquals("omit", providers.get(0).getFailurePolicy());
+    }
+
+
+    @Test
+    public void unloadableProvidersAreSkipped()
+    {
+        List<ManagedClaimProvider> providers = ClaimProviders.loadProviders(
+                "com.example.NoSuchProvider, java.lang.String, " +
+                PREFIX + "UnconstructibleProvider, " + PREFIX + "ProfileProvider");
+
+        assertEquals(1, providers.size());
+        assertEquals("test-profile", providers.get(0).getName());
+    }
+
+
+    @Test
+    public void firstProviderWins()
+    {
+        Map<String, Object> claims = create("ProfileProvider", "LoyaltyProvider")
+                .start("1001", new String[] { "nickname", "loyalty_tier", "name" }).await();
+
+        assertEquals("Johnny", claims.get("nickname"));
+        assertEquals("gold", claims.get("loyalty_tier"));
+        assertFalse(claims.containsKey("name"));
+    }
+
+
+    @Test
+    public void slowProviderIsOmitted()
+    {
+        long started = System.nanoTime();
+
+        Map<String, Object> claims = create("SlowProvider", "ProfileProvider")
+                .start("1001", new String[] { "credit_score", "nickname" }).await();
+
+        assertFalse(claims.containsKey("credit_score"));
+        assertEquals("Johnny", claims.get("nickname"));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2));
+    }
+
+
+    @Test
+    public void cancelInterruptsProviders() throws InterruptedException
+    {
+        PendingClaims pending = create("SlowProvider").start("1001", new String[] { "credit_score" });
+
+        assertTrue(sSlowStarted.await(1, TimeUnit.SECONDS));
+        pending.cancel();
+
+        assertTrue(sSlowInterrupted.await(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test(expected = ClaimProviderException.class)
+    public void failPolicyFailsRequest()
+    {
+        create("FailingProvider").start("1001", new String[] { "kyc_level" }).await();
+    }
+
+
+    @Test
+    public void failPolicyCancelsOtherProviders() throws InterruptedException
+    {
+        PendingClaims pending = create("FailingProvider", "SlowProvider")
+                .start("1001", new String[] { "kyc_level", "credit_score" });
+
+        assertTrue(sSlowStarted.await(1, TimeUnit.SECONDS));
+
+        try
+        {
+            pending.await();
+            fail();
+        }
+        catch (ClaimProviderException e)
+        {
+            // Expected.
+        }
+
+        assertTrue(sSlowInterrupted.await(1, TimeUnit.SECONDS));
+    }
+
+
+    @Test
+    public void cachedUntilInvalidated()
+    {
+        ClaimProviders providers = create("ProfileProvider");
+        String[] claimNames = { "nickname" };
+
+        providers.start("1001", claimNames).await();
+        providers.start("1001", claimNames).await();
+        assertEquals(1, sProfileCalls.get());
+
+        providers.invalidate("1001");
+        assertEquals("Johnny", providers.start("1001", claimNames).await().get("nickname"));
+        assertEquals(2, sProfileCalls.get());
+    }
+
+
+    @Test
+    public void invalidationDuringCallIsNotCached() throws InterruptedException
+    {
+        ClaimProviders providers = create("BlockingProvider");
+        String[] claimNames = { "nickname" };
+
+        PendingClaims pending = providers.start("1001", claimNames);
+        assertTrue(sBlockingStarted.await(1, TimeUnit.SECONDS));
+
+        // The user is updated while the provider is being called.
+        providers.invalidate("1001");
+        sBlockingReleased.countDown();
+        pending.await();
+
+        providers.start("1001", claimNames).await();
+        assertEquals(2, sProfileCalls.get());
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link CachingUserRepository}.
+ */
+public class CachingUserRepositoryTest
+{
+    /**
+     * A repository that records the claims read from it.
+     */
+    private static class CountingRepository extends InMemoryUserRepository
+    {
+        final List<ClaimSet> reads = new ArrayList<>();
+        Runnable duringRead;
+
+
+        CountingRepository(List<UserEntity> users)
+        {
+            super(users);
+        }
+
+
+        @Override
+        public UserClaims findClaims(String subject, ClaimSet claims)
+        {
+            reads.add(claims);
+
+            if (duringRead != null)
+            {
+                duringRead.run();
+            }
+
+            return super.findClaims(subject, claims);
+        }
+    }
+
+
+    private static final ClaimSet NAME  = ClaimSet.of("name");
+    private static final ClaimSet EMAIL = ClaimSet.of("email");
+
+
+    private static CountingRepository createRepository(int users)
+    {
+        List<UserEntity> entities = new ArrayList<>();
+
+        for (int i = 0; i < users; i++)
+        {
+            entities.add(new UserEntity(String.valueOf(1001 + i), "user" + i, "password",
+                    "User " + i, "user" + i + "@example.com", null, null, null));
+        }
+
+        return new CountingRepository(entities);
+    }
+
+
+    @Test
+    public void hitIsServedFromCache()
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 60000);
+
+        assertEquals("User 0", cache.findClaims("1001", NAME).get(Claim.NAME));
+        assertEquals("User 0", cache.findClaims("1001", NAME).get(Claim.NAME));
+
+        assertEquals(1, repository.reads.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+
+    @Test
+    public void missingSubjectIsCached()
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 60000);
+
+        assertNull(cache.findClaims("9999", NAME));
+        assertNull(cache.findClaims("9999", EMAIL));
+
+        assertEquals(1, repository.reads.size());
+    }
+
+
+    @Test
+    public void partialMissReadsUnion()
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 60000);
+
+        cache.findClaims("1001", NAME);
+        UserClaims claims = cache.findClaims("1001", EMAIL);
+
+        // Only the requested claims are returned.
+        assertEquals(EMAIL, claims.getClaims());
+
+        // The cached claims are read again together with the new ones.
+        assertEquals(NAME.union(EMAIL), repository.reads.get(1));
+
+        // Both are served from the cache now.
+        cache.findClaims("1001", NAME);
+        cache.findClaims("1001", NAME.union(EMAIL));
+        assertEquals(2, repository.reads.size());
+    }
+
+
+    @Test
+    public void invalidationDuringReadIsNotOverwritten()
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 60000);
+
+        repository.duringRead = () -> cache.invalidate("1001");
+        cache.findClaims("1001", NAME);
+        repository.duringRead = null;
+
+        // The result of the read is not cached.
+        assertEquals(0, cache.getSize());
+
+        cache.findClaims("1001", NAME);
+        assertEquals(2, repository.reads.size());
+    }
+
+
+    @Test
+    public void invalidationDiscardsEntry()
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 60000);
+
+        cache.findClaims("1001", NAME);
+        cache.invalidate("1001");
+        cache.findClaims("1001", NAME);
+
+        assertEquals(2, repository.reads.size());
+        assertEquals(1, cache.getInvalidations());
+    }
+
+
+    @Test
+    public void expiredEntryIsReadAgain() throws InterruptedException
+    {
+        CountingRepository repository = createRepository(1);
+        CachingUserRepository cache = new CachingUserRepository(repository, 100, 50);
+
+        cache.findClaims("1001", NAME);
+        Thread.sleep(100);
+        cache.findClaims("1001", EMAIL);
+
+        // The expired claims are not read again.
+        assertEquals(2, repository.reads.size());
+        assertEquals(EMAIL, repository.reads.get(1));
+    }
+
+
+    @Test
+    public void entriesAreEvictedBeyondLimit()
+    {
+        CountingRepository repository = createRepository(11);
+        CachingUserRepository cache = new CachingUserRepository(repository, 10, 60000);
+
+        for (int i = 0; i < 11; i++)
+        {
+            cache.findClaims(String.valueOf(1001 + i), NAME);
+        }
+
+        // Shrunk to 90% of the limit.
+        assertEquals(9, cache.getSize());
+        assertEquals(2, cache.getEvictions());
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.Evidence;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Issuer;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * Tests of {@link FragmentVerifiedClaimsRepository}.
+ */
+public class FragmentVerifiedClaimsRepositoryTest
+{
+    private static final String[] REQUESTS = {
+        "{\"verification\":{\"trust_framework\":null},\"claims\":{\"given_name\":null,\"address\":null}}",
+        "{\"verification\":{\"trust_framework\":{\"value\":\"de_aml\"},\"time\":null,"
+            + "\"verification_process\":null},\"claims\":{\"family_name\":null}}",
+        "{\"verification\":{\"trust_framework\":null,\"evidence\":[{\"type\":{\"value\":\"id_document\"},"
+            + "\"method\":{\"value\":\"pipp\"},\"document\":{\"type\":null,\"issuer\":{\"country\":null}}}]},"
+            + "\"claims\":{\"given_name\":null}}",
+        "{\"verification\":{\"trust_framework\":null,\"evidence\":null},\"claims\":{\"birthdate\":null}}",
+        "{\"verification\":{\"trust_framework\":{\"value\":\"eidas\"}},\"claims\":{\"given_name\":null}}",
+        "{\"verification\":{\"trust_framework\":null},\"claims\":{\"nickname\":null}}",
+    };
+
+
+    private static VerifiedClaims createVerifiedClaims()
+    {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("locality", "Augsburg");
+        address.put("country", "DE");
+
+        return new VerifiedClaims()
+                .setVerification(new Verification()
+                        .setTrustFramework("de_aml")
+                        .setTime("2012-04-23T18:25:43+01")
+                        .setVerificationProcess("676q3636461467647q8498785747q487")
+                        .addEvidence(new IDDocument()
+                                .setMethod("pipp")
+                                .setDocument(new Document()
+                                        .setType("idcard")
+                                        .setIssuer(new Issuer().setName("Stadt Augsburg").setCountry("DE"))
+                                        .setNumber("53554554")
+                                        .setDateOfIssuance("2012-04-23")
+                                        .setDateOfExpiry("2022-04-22")))
+                        .addEvidence(new IDDocument()
+                                .setMethod("sripp")
+                                .setTime("2012-04-22T11:30Z")))
+                .setClaims(new Claims()
+                        .putClaim("given_name", "Max")
+                        .putClaim("family_name", "Meier")
+                        .putClaim("birthdate", "1956-01-28")
+                        .putClaim("address", address));
+    }
+
+
+    /**
+     * Describe verified claims in a form that can be compared.
+     */
+    private static String describe(VerifiedClaims verifiedClaims)
+    {
+        if (verifiedClaims == null)
+        {
+            return null;
+        }
+
+        Verification verification = verifiedClaims.getVerification();
+        StringBuilder sb = new StringBuilder()
+                .append(verification.getTrustFramework()).append('|')
+                .append(verification.getTime()).append('|')
+                .append(verification.getVerificationProcess()).append('|')
+                .append(verifiedClaims.getClaims());
+
+        if (verification.getEvidence() != null)
+        {
+            for (Evidence evidence : verification.getEvidence())
+            {
+                IDDocument idDocument = (IDDocument)evidence;
+                Document document = idDocument.getDocument();
+
+                sb.append('|').append(idDocument.getMethod()).append(',').append(idDocument.getTime());
+
+                if (document != null)
+                {
+                    Issuer issuer = document.getIssuer();
+
+                    sb.append(',').append(document.getType()).append(',').append(document.getNumber())
+                      .append(',').append(document.getDateOfIssuance()).append(',').append(document.getDateOfExpiry())
+                      .append(',').append((issuer != null) ? issuer.getName() + "/" + issuer.getCountry() : null);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+
+    @Test
+    public void selectionMatchesObjects()
+    {
+        VerifiedClaims verifiedClaims = createVerifiedClaims();
+        VerifiedClaimsRepository objects = subject -> verifiedClaims;
+        FragmentVerifiedClaimsRepository fragments = new FragmentVerifiedClaimsRepository();
+        fragments.put("1003", verifiedClaims);
+
+        for (String request : REQUESTS)
+        {
+            VerifiedClaimsMatcher matcher = new VerifiedClaimsMatchers(10).get(
+                    "{\"verified_claims\":" + request + "}");
+
+            assertEquals(request, describe(objects.findSelected("1003", matcher)),
+                    describe(fragments.findSelected("1003", matcher)));
+        }
+
+        assertEquals(describe(verifiedClaims), describe(fragments.findBySubject("1003")));
+        assertNull(fragments.findSelected("1004", VerifiedClaimsMatcher.ALL));
+    }
+
+
+    @Test
+    public void objectValuesAreDecodedOnce()
+    {
+        FragmentVerifiedClaimsRepository fragments = new FragmentVerifiedClaimsRepository();
+        fragments.put("1003", createVerifiedClaims());
+
+        VerifiedClaimsMatcher matcher = new VerifiedClaimsMatchers(10).get(
+                "{\"verified_claims\":" + REQUESTS[0] + "}");
+
+        Object address = fragments.findSelected("1003", matcher).getClaims().get("address");
+
+        assertEquals("Augsburg", ((Map<?, ?>)address).get("locality"));
+        assertSame(address, fragments.findSelected("1003", matcher).getClaims().get("address"));
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.VerifiedClaims;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * Tests of {@link JdbcUserRepository} and {@link JdbcVerifiedClaimsRepository}
+ * against an in-memory H2 database that has the documented schema.
+ */
+public class JdbcRepositoryTest
+{
+    private static final String URL = "jdbc:h2:mem:users;DB_CLOSE_DELAY=-1";
+
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE users (" +
+        "  subject                VARCHAR(255) PRIMARY KEY," +
+        "  login_id               VARCHAR(255) UNIQUE," +
+        "  password               VARCHAR(255)," +
+        "  email_key              VARCHAR(255)," +
+        "  phone_number_key       VARCHAR(32)," +
+        "  name                   VARCHAR(255)," +
+        "  given_name             VARCHAR(255)," +
+        "  family_name            VARCHAR(255)," +
+        "  middle_name            VARCHAR(255)," +
+        "  nickname               VARCHAR(255)," +
+        "  preferred_username     VARCHAR(255)," +
+        "  profile                VARCHAR(1024)," +
+        "  picture                VARCHAR(1024)," +
+        "  website                VARCHAR(1024)," +
+        "  email                  VARCHAR(255)," +
+        "  email_verified         BOOLEAN," +
+        "  gender                 VARCHAR(32)," +
+        "  birthdate              VARCHAR(10)," +
+        "  zoneinfo               VARCHAR(64)," +
+        "  locale                 VARCHAR(35)," +
+        "  phone_number           VARCHAR(64)," +
+        "  phone_number_verified  BOOLEAN," +
+        "  address_formatted      VARCHAR(1024)," +
+        "  address_street_address VARCHAR(255)," +
+        "  address_locality       VARCHAR(255)," +
+        "  address_region         VARCHAR(255)," +
+        "  address_postal_code    VARCHAR(32)," +
+        "  address_country        VARCHAR(255)," +
+        "  updated_at             TIMESTAMP" +
+        ")",
+        "CREATE INDEX users_email_key ON users (email_key)",
+        "CREATE INDEX users_phone_number_key ON users (phone_number_key)",
+        "CREATE TABLE verified_claims (" +
+        "  subject              VARCHAR(255) PRIMARY KEY," +
+        "  trust_framework      VARCHAR(255) NOT NULL," +
+        "  verification_time    VARCHAR(32)," +
+        "  verification_process VARCHAR(255)" +
+        ")",
+        "CREATE TABLE verified_claims_evidence (" +
+        "  subject              VARCHAR(255) NOT NULL," +
+        "  seq                  INTEGER NOT NULL," +
+        "  method               VARCHAR(32)," +
+        "  document_type        VARCHAR(64)," +
+        "  document_number      VARCHAR(255)," +
+        "  issuer_name          VARCHAR(255)," +
+        "  issuer_country       VARCHAR(64)," +
+        "  date_of_issuance     VARCHAR(10)," +
+        "  date_of_expiry       VARCHAR(10)," +
+        "  PRIMARY KEY (subject, seq)" +
+        ")",
+        "CREATE TABLE verified_claims_claims (" +
+        "  subject              VARCHAR(255) NOT NULL," +
+        "  seq                  INTEGER NOT NULL," +
+        "  name                 VARCHAR(255) NOT NULL," +
+        "  claim_value          VARCHAR(1024)," +
+        "  PRIMARY KEY (subject, seq)" +
+        ")",
+    };
+
+
+    private static final String[] DATA = {
+        "INSERT INTO users (subject, login_id, password, email_key, phone_number_key, " +
+        "  name, given_name, family_name, email, email_verified, phone_number, " +
+        "  address_locality, address_country, updated_at) VALUES (" +
+        "  '1001', 'john', 'john', 'john@example.com', '+15555550101', " +
+        "  'John Smith', 'John', 'Smith', 'John@Example.com', TRUE, '+1 (555) 555-0101', " +
+        "  'Springfield', 'US', TIMESTAMP '2020-01-01 00:00:00')",
+        "INSERT INTO users (subject, login_id, password, name) VALUES (" +
+        "  '1003', 'max', 'max', 'Max Meier')",
+        "INSERT INTO verified_claims VALUES (" +
+        "  '1003', 'de_aml', '2012-04-23T18:25:43+01', '676q3636461467647q8498785747q487')",
+        "INSERT INTO verified_claims_evidence VALUES (" +
+        "  '1003', 1, 'pipp', 'idcard', '53554554', 'Stadt Augsburg', 'DE', '2012-04-23', '2022-04-22')",
+        "INSERT INTO verified_claims_evidence VALUES (" +
+        "  '1003', 2, 'pipp', 'passport', 'C01X00T47', 'Bundesrepublik Deutschland', 'DE', '2015-01-01', '2025-01-01')",
+        "INSERT INTO verified_claims_claims VALUES ('1003', 1, 'given_name', 'Max')",
+        "INSERT INTO verified_claims_claims VALUES ('1003', 2, 'family_name', 'Meier')",
+        "INSERT INTO verified_claims_claims VALUES ('1003', 3, 'birthdate', '1956-01-28')",
+    };
+
+
+    // Keeps the in-memory database open.
+    private static Connection sConnection;
+
+
+    @BeforeClass
+    public static void createDatabase() throws SQLException
+    {
+        sConnection = DriverManager.getConnection(URL);
+
+        try (Statement statement = sConnection.createStatement())
+        {
+            for (String sql : SCHEMA)
+            {
+                statement.execute(sql);
+            }
+
+            for (String sql : DATA)
+            {
+                statement.execute(sql);
+            }
+        }
+    }
+
+
+    @AfterClass
+    public static void dropDatabase() throws SQLException
+    {
+        sConnection.close();
+    }
+
+
+    private static JdbcDatabase createJdbcDatabase(int maxStatements)
+    {
+        return new JdbcDatabase(URL, new Properties(), 1, maxStatements, 1000, 0, 0);
+    }
+
+
+    @Test
+    public void findClaims()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            UserClaims claims = new JdbcUserRepository(database).findClaims("1001",
+                    ClaimSet.of("name", "email_verified", "address", "updated_at"));
+
+            assertEquals("1001", claims.getSubject());
+            assertEquals("John Smith", claims.get(Claim.NAME));
+            assertEquals(Boolean.TRUE, claims.get(Claim.EMAIL_VERIFIED));
+            assertEquals(1577836800L, claims.get(Claim.UPDATED_AT));
+
+            Address address = (Address)claims.get(Claim.ADDRESS);
+            assertEquals("Springfield", address.getLocality());
+            assertEquals("US", address.getCountry());
+
+            // Not requested.
+            assertNull(claims.get(Claim.GIVEN_NAME));
+            assertNull(claims.get(Claim.EMAIL));
+        }
+    }
+
+
+    @Test
+    public void findClaimsOfMissingValues()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            UserClaims claims = new JdbcUserRepository(database).findClaims("1003",
+                    ClaimSet.of("name", "email_verified", "address", "updated_at"));
+
+            assertEquals("Max Meier", claims.get(Claim.NAME));
+            assertNull(claims.get(Claim.EMAIL_VERIFIED));
+            assertNull(claims.get(Claim.ADDRESS));
+            assertNull(claims.get(Claim.UPDATED_AT));
+        }
+    }
+
+
+    @Test
+    public void getBySubject()
+    {
+        UserRepository original = UserDao.getRepository();
+
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            UserDao.setRepository(new JdbcUserRepository(database));
+
+            UserClaims claims = UserDao.getBySubject("1001", ClaimSet.of("given_name", "family_name"));
+
+            assertEquals("John", claims.get(Claim.GIVEN_NAME));
+            assertEquals("Smith", claims.get(Claim.FAMILY_NAME));
+            assertNull(claims.get(Claim.NAME));
+
+            assertNull(UserDao.getBySubject("9999", ClaimSet.of("given_name")));
+        }
+        finally
+        {
+            UserDao.setRepository(original);
+        }
+    }
+
+
+    @Test
+    public void findByIdentifiers()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            JdbcUserRepository repository = new JdbcUserRepository(database);
+
+            UserRecord user = repository.findByLoginId("john");
+            assertEquals("1001", user.getSubject());
+            assertEquals("john", user.getPassword());
+
+            assertEquals("1001", repository.findByEmail("JOHN@example.COM").getSubject());
+            assertEquals("1001", repository.findByPhoneNumber("+1 555-555-0101").getSubject());
+            assertEquals("1003", repository.findBySubject("1003").getSubject());
+            assertNull(repository.findByLoginId("nobody"));
+            assertEquals(2, repository.size());
+        }
+    }
+
+
+    @Test
+    public void statementsPreparedOncePerConnection()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(2))
+        {
+            JdbcUserRepository repository = new JdbcUserRepository(database);
+            ClaimSet a = ClaimSet.of("name");
+            ClaimSet b = ClaimSet.of("email");
+            ClaimSet c = ClaimSet.of("phone_number");
+
+            repository.findClaims("1001", a);
+            repository.findClaims("1001", b);
+            repository.findClaims("1001", a);
+            assertEquals(2, database.getStatementsPrepared());
+
+            // Evicts the statement for b, which is the least recently used.
+            repository.findClaims("1001", c);
+            repository.findClaims("1001", a);
+            assertEquals(3, database.getStatementsPrepared());
+
+            repository.findClaims("1001", b);
+            assertEquals(4, database.getStatementsPrepared());
+
+            // The evicted statement has been closed and the queries still work.
+            assertEquals("John Smith", repository.findClaims("1001", a).get(Claim.NAME));
+            assertEquals(1, database.getConnectionsOpened());
+            assertEquals(0, database.getQueryErrors());
+        }
+    }
+
+
+    @Test
+    public void findVerifiedClaims()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            VerifiedClaims vc = new JdbcVerifiedClaimsRepository(database).findBySubject("1003");
+
+            assertEquals("de_aml", vc.getVerification().getTrustFramework());
+            assertEquals("2012-04-23T18:25:43+01", vc.getVerification().getTime());
+            assertEquals(2, vc.getVerification().getEvidence().size());
+
+            IDDocument passport = (IDDocument)vc.getVerification().getEvidence().get(1);
+            assertEquals("passport", passport.getDocument().getType());
+            assertEquals("Bundesrepublik Deutschland", passport.getDocument().getIssuer().getName());
+
+            assertEquals(Arrays.asList("given_name", "family_name", "birthdate"),
+                    new ArrayList<>(vc.getClaims().keySet()));
+            assertEquals("Meier", vc.getClaims().get("family_name"));
+
+            assertNull(new JdbcVerifiedClaimsRepository(database).findBySubject("1001"));
+        }
+    }
+
+
+    @Test
+    public void findVerifiedClaimsWithoutEvidence()
+    {
+        // {"verification":{"trust_framework":null},"claims":{"given_name":null}}
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("verification", Collections.singletonMap("trust_framework", null));
+        request.put("claims", Collections.singletonMap("given_name", null));
+        VerifiedClaimsMatcher matcher = VerifiedClaimsMatcher.compile(request);
+
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            VerifiedClaims vc = new JdbcVerifiedClaimsRepository(database).findBySubject("1003", matcher);
+
+            // The evidence is not queried.
+            assertEquals(2, database.getQueries());
+            assertNull(vc.getVerification().getEvidence());
+
+            VerifiedClaims selected = matcher.apply(vc);
+            assertEquals("de_aml", selected.getVerification().getTrustFramework());
+            assertEquals(Collections.singletonMap("given_name", "Max"), selected.getClaims());
+        }
+    }
+
+
+    @Test
+    public void findVerifiedClaimsWithSelectedEvidence()
+    {
+        // {"verification":{"trust_framework":null,
+        //   "evidence":[{"document":{"type":{"value":"passport"}}}]},
+        //  "claims":{"family_name":null}}
+        Map<String, Object> verification = new LinkedHashMap<>();
+        verification.put("trust_framework", null);
+        verification.put("evidence", Collections.singletonList(
+                Collections.singletonMap("document", Collections.singletonMap("type",
+                        Collections.singletonMap("value", "passport")))));
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("verification", verification);
+        request.put("claims", Collections.singletonMap("family_name", null));
+        VerifiedClaimsMatcher matcher = VerifiedClaimsMatcher.compile(request);
+
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            VerifiedClaims selected = matcher.apply(
+                    new JdbcVerifiedClaimsRepository(database).findBySubject("1003", matcher));
+
+            assertEquals(3, database.getQueries());
+
+            List<?> evidence = selected.getVerification().getEvidence();
+            assertEquals(1, evidence.size());
+            assertEquals("passport", ((IDDocument)evidence.get(0)).getDocument().getType());
+            assertEquals(Collections.singletonMap("family_name", "Meier"), selected.getClaims());
+        }
+    }
+
+
+    @Test
+    public void sessionRunsQueriesOnOneConnection()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            List<Connection> connections = new ArrayList<>();
+
+            int count = database.withConnection(session -> {
+                session.query("SELECT COUNT(*) FROM users",
+                        statement -> connections.add(statement.getConnection()),
+                        resultSet -> null);
+
+                return session.query("SELECT COUNT(*) FROM verified_claims_claims",
+                        statement -> connections.add(statement.getConnection()),
+                        resultSet -> resultSet.next() ? resultSet.getInt(1) : -1);
+            });
+
+            assertEquals(3, count);
+            assertSame(connections.get(0), connections.get(1));
+            assertEquals(2, database.getQueries());
+            assertEquals(1, database.getIdle());
+        }
+    }
+
+
+    @Test
+    public void failedSessionClosesConnection()
+    {
+        try (JdbcDatabase database = createJdbcDatabase(64))
+        {
+            try
+            {
+                database.withConnection(session -> session.query(
+                        "SELECT no_such_column FROM users", statement -> {}, resultSet -> null));
+                fail();
+            }
+            catch (DataAccessException e)
+            {
+                // Expected.
+            }
+
+            assertEquals(1, database.getQueryErrors());
+            assertEquals(0, database.getIdle());
+            assertEquals(0, database.getActive());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link LanguageTag}.
+ */
+public class LanguageTagTest
+{
+    private static List<String> fallbacks(String tag)
+    {
+        List<String> list = new ArrayList<>();
+
+        for (LanguageTag fallback : LanguageTag.of(tag).getFallbacks())
+        {
+            list.add(fallback.toString());
+        }
+
+        return list;
+    }
+
+
+    @Test
+    public void tagsAreNormalized()
+    {
+        assertEquals("zh-Hant-TW", LanguageTag.of("zh-hant-tw").toString());
+        assertEquals("ja-JP", LanguageTag.of(" ja-jp ").toString());
+        assertEquals(LanguageTag.of("JA-JP"), LanguageTag.of("ja-JP"));
+        assertSame(LanguageTag.of("en-gb"), LanguageTag.of("en-GB"));
+    }
+
+
+    @Test
+    public void malformedTagsAreRejected()
+    {
+        assertNull(LanguageTag.of(null));
+        assertNull(LanguageTag.of(""));
+        assertNull(LanguageTag.of("not a tag"));
+        assertNull(LanguageTag.of("und"));
+    }
+
+
+    @Test
+    public void fallbacksFollowLookupScheme()
+    {
+        assertEquals(Arrays.asList("zh-Hant-TW", "zh-Hant", "zh"), fallbacks("zh-Hant-TW"));
+        assertEquals(Arrays.asList("ja"), fallbacks("ja"));
+
+        // A single-character subtag is removed together with the next one.
+        assertEquals(Arrays.asList("de-DE-x-goethe", "de-DE", "de"), fallbacks("de-DE-x-goethe"));
+        assertEquals(Arrays.asList("en-a-bbb-x-ccc", "en-a-bbb", "en"), fallbacks("en-a-bbb-x-ccc"));
+    }
+
+
+    @Test
+    public void cacheStopsGrowing()
+    {
+        // Fill the cache with tags that requests might send.
+        for (int i = 0; i < 20000; i++)
+        {
+            LanguageTag.of("en-x-" + Integer.toString(i, 36));
+        }
+
+        // Tags beyond the limit are still resolved, but not cached.
+        LanguageTag first = LanguageTag.of("en-x-beyond");
+
+        assertEquals("en-x-beyond", first.toString());
+        assertEquals(first, LanguageTag.of("en-x-beyond"));
+        assertNotSame(first, LanguageTag.of("en-x-beyond"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link LocalizedClaims}.
+ */
+public class LocalizedClaimsTest
+{
+    private static LocalizedClaims create()
+    {
+        return LocalizedClaims.builder()
+                .add(Claim.NAME, "ja", "山田太郎")
+                .add(Claim.NAME, "ja-Kana-JP", "ヤマダタロウ")
+                .add(Claim.FAMILY_NAME, "ja", "山田")
+                .add(Claim.NAME, "en", "Taro")
+                .add(Claim.NAME, "en", "Taro Yamada")
+                .add(Claim.NICKNAME, "not a tag", "ignored")
+                .add(Claim.NICKNAME, "fr", null)
+                .build();
+    }
+
+
+    @Test
+    public void mostSpecificVariantIsUsed()
+    {
+        LocalizedClaims claims = create();
+
+        assertEquals("ヤマダタロウ", claims.get(Claim.NAME, LanguageTag.of("ja-Kana-JP")));
+        assertEquals("山田太郎", claims.get(Claim.NAME, LanguageTag.of("ja-JP")));
+        assertEquals("山田太郎", claims.get(Claim.NAME, LanguageTag.of("ja")));
+        assertEquals("山田", claims.get(Claim.FAMILY_NAME, LanguageTag.of("ja-Kana-JP")));
+
+        // The latest value of the same tag wins.
+        assertEquals("Taro Yamada", claims.get(Claim.NAME, LanguageTag.of("en-US")));
+
+        assertNull(claims.get(Claim.NAME, LanguageTag.of("fr")));
+        assertNull(claims.get(Claim.GIVEN_NAME, LanguageTag.of("ja")));
+    }
+
+
+    @Test
+    public void invalidVariantsAreIgnored()
+    {
+        LocalizedClaims claims = create();
+
+        assertTrue(claims.contains(Claim.NAME));
+        assertTrue(claims.contains(Claim.FAMILY_NAME));
+        assertFalse(claims.contains(Claim.NICKNAME));
+        assertNull(LocalizedClaims.builder().add(Claim.NAME, "und", "x").build());
+    }
+
+
+    @Test
+    public void untaggedValueIsNotFallback()
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+        values[Claim.NAME.ordinal()] = "Taro Yamada";
+        UserRecord record = UserRecords.of("1001", "taro", null, values, create());
+
+        assertEquals("Taro Yamada", record.getClaim("name", null));
+        assertEquals("山田太郎", record.getClaim("name", "ja-JP"));
+        assertNull(record.getClaim("name", "fr"));
+        assertNull(record.getClaim("name", "not a tag"));
+        assertNull(record.getClaim("no_such_claim", null));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import com.authlete.jaxrs.server.db.UpdatableUserRepository.Update;
+
+
+/**
+ * Tests of {@link UpdatableUserRepository}.
+ */
+public class UpdatableUserRepositoryTest
+{
+    private static UserRecord user(String subject, String loginId, String email)
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+        values[Claim.EMAIL.ordinal()] = email;
+
+        return UserRecords.of(subject, loginId, null, values, null);
+    }
+
+
+    private static UpdatableUserRepository createRepository()
+    {
+        return new UpdatableUserRepository(new InMemoryUserRepository(Arrays.asList(
+                user("1001", "john", "john@example.com"),
+                user("1002", "jane", "jane@example.com"))));
+    }
+
+
+    @Test
+    public void everyBatchPublishesVersion()
+    {
+        UpdatableUserRepository repository = createRepository();
+        assertEquals(0, repository.getVersion());
+
+        assertEquals(1, repository.apply(Collections.singletonList(
+                Update.upsert(user("1003", "max", "max@example.com")))));
+        assertEquals(2, repository.apply(Collections.emptyList()));
+        assertEquals(2, repository.getVersion());
+
+        assertEquals("max", repository.findBySubject("1003").getLoginId());
+        assertEquals(3, repository.size());
+    }
+
+
+    @Test
+    public void changedKeyOfBaseUserIsShadowed()
+    {
+        UpdatableUserRepository repository = createRepository();
+
+        repository.apply(Collections.singletonList(
+                Update.upsert(user("1001", "john", "john@example.org"))));
+
+        // The base still has the old address, but the user no longer does.
+        assertNull(repository.findByEmail("john@example.com"));
+        assertEquals("1001", repository.findByEmail("JOHN@example.org").getSubject());
+
+        // Keys that have not changed are found in the overlay.
+        assertSame(repository.findBySubject("1001"), repository.findByLoginId("john"));
+        assertEquals(2, repository.size());
+    }
+
+
+    @Test
+    public void deletedBaseUserIsShadowed()
+    {
+        UpdatableUserRepository repository = createRepository();
+
+        repository.apply(Collections.singletonList(Update.delete("1002")));
+
+        assertNull(repository.findBySubject("1002"));
+        assertNull(repository.findByLoginId("jane"));
+        assertNull(repository.findByEmail("jane@example.com"));
+        assertNull(repository.findClaims("1002", ClaimSet.ALL));
+        assertEquals(1, repository.size());
+    }
+
+
+    @Test
+    public void keyFreedInEarlierBatchCanBeTaken()
+    {
+        UpdatableUserRepository repository = createRepository();
+
+        repository.apply(Collections.singletonList(
+                Update.upsert(user("1003", "max", "max@example.com"))));
+        repository.apply(Collections.singletonList(
+                Update.upsert(user("1003", "max", "max@example.org"))));
+        repository.apply(Collections.singletonList(
+                Update.upsert(user("1004", "moritz", "max@example.com"))));
+
+        assertEquals("1004", repository.findByEmail("max@example.com").getSubject());
+        assertEquals("1003", repository.findByEmail("max@example.org").getSubject());
+    }
+
+
+    @Test
+    public void manyBatchesMatchModel()
+    {
+        Random random = new Random(42);
+        List<UserRecord> base = new ArrayList<>();
+        Map<String, String> emails = new HashMap<>();
+
+        for (int i = 0; i < 50; i++)
+        {
+            base.add(user("s" + i, "l" + i, "s" + i + ".0@example.com"));
+            emails.put("s" + i, "s" + i + ".0@example.com");
+        }
+
+        UpdatableUserRepository repository =
+                new UpdatableUserRepository(new InMemoryUserRepository(base));
+        Set<String> usedEmails = new HashSet<>(emails.values());
+
+        for (int batch = 1; batch <= 300; batch++)
+        {
+            List<Update> updates = new ArrayList<>();
+
+            for (int n = random.nextInt(20) + 1; 0 < n; n--)
+            {
+                String subject = "s" + random.nextInt(100);
+
+                if (random.nextInt(4) == 0)
+                {
+                    updates.add(Update.delete(subject));
+                    emails.remove(subject);
+                }
+                else
+                {
+                    // Every upsert changes the email address.
+                    String email = subject + "." + batch + "." + n + "@example.com";
+                    updates.add(Update.upsert(user(subject, "l" + subject.substring(1), email)));
+                    emails.put(subject, email);
+                    usedEmails.add(email);
+                }
+            }
+
+            assertEquals(batch, repository.apply(updates));
+            assertEquals(emails.size(), repository.size());
+
+            for (int i = 0; i < 100; i++)
+            {
+                String subject = "s" + i;
+                UserRecord record = repository.findBySubject(subject);
+
+                assertEquals(emails.containsKey(subject), record != null);
+                assertSame(record, repository.findByLoginId("l" + i));
+
+                if (record != null)
+                {
+                    assertEquals(emails.get(subject), record.getClaim(Claim.EMAIL));
+                }
+            }
+
+            for (String email : usedEmails)
+            {
+                UserRecord record = repository.findByEmail(email);
+                String subject = (record != null) ? record.getSubject() : null;
+
+                assertEquals(email, (subject != null) ? emails.get(subject) : null,
+                        (subject != null) ? email : null);
+            }
+        }
+    }
+}
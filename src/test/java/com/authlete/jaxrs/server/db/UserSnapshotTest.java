@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import com.authlete.common.dto.Address;
+
+
+/**
+ * Tests of snapshots written by {@link UserSnapshotBuilder} and read by
+ * {@link SnapshotUserRepository}.
+ */
+public class UserSnapshotTest
+{
+    private static final String JSON =
+        "[" +
+        " {\"subject\":\"1001\",\"login_id\":\"john\",\"password\":\"secret\"," +
+        "  \"name\":\"John Smith\",\"email\":\"John@Example.com\",\"email_verified\":true," +
+        "  \"gender\":\"male\",\"updated_at\":1700000000," +
+        "  \"address\":{\"locality\":\"Palo Alto\",\"region\":\"CA\",\"country\":\"USA\"}}," +
+        " {\"subject\":\"1002\",\"login_id\":\"jane\",\"name\":null," +
+        "  \"email\":\"john@example.com\",\"gender\":\"female\",\"phone_number\":\"+1 555-555-0102\"}," +
+        " {\"subject\":\"1001\",\"login_id\":\"dup\",\"name\":\"Duplicate\"}," +
+        " {\"login_id\":\"nosubject\"}" +
+        "]";
+
+
+    private static final String CSV =
+        "subject,login_id,password,name,email,email_verified,gender,updated_at,address_region,address_country\n" +
+        "1001,john,secret,\"Smith, John\",john@example.com,true,male,2023-11-14T22:13:20Z,CA,USA\n" +
+        "1002,jane,,,,,,,,\n";
+
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+
+    private SnapshotUserRepository build(String name, String content) throws IOException
+    {
+        Path input = mFolder.getRoot().toPath().resolve(name);
+        Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+
+        Path snapshot = mFolder.getRoot().toPath().resolve("users.snapshot");
+        UserSnapshotBuilder.build(name.endsWith(".csv")
+                ? UserSnapshotBuilder.readCsv(input) : UserSnapshotBuilder.readJson(input), snapshot);
+
+        return SnapshotUserRepository.open(snapshot);
+    }
+
+
+    @Test
+    public void jsonRoundTrip() throws IOException
+    {
+        SnapshotUserRepository repository = build("users.json", JSON);
+
+        // The user without a subject is skipped.
+        assertEquals(3, repository.size());
+
+        UserRecord john = repository.findBySubject("1001");
+        assertEquals("john", john.getLoginId());
+        assertEquals("secret", john.getPassword());
+        assertEquals("John Smith", john.getClaim(Claim.NAME));
+        assertEquals(Boolean.TRUE, john.getClaim(Claim.EMAIL_VERIFIED));
+        assertEquals("male", john.getClaim(Claim.GENDER));
+        assertEquals(1700000000L, john.getClaim(Claim.UPDATED_AT));
+
+        Address address = (Address)john.getClaim(Claim.ADDRESS);
+        assertEquals("Palo Alto", address.getLocality());
+        assertEquals("CA", address.getRegion());
+        assertEquals("USA", address.getCountry());
+        assertNull(address.getFormatted());
+
+        UserRecord jane = repository.findByPhoneNumber("+1 (555) 555-0102");
+        assertEquals("1002", jane.getSubject());
+        assertNull(jane.getPassword());
+        assertNull(jane.getClaim(Claim.NAME));
+        assertNull(jane.getClaim(Claim.ADDRESS));
+        assertEquals("female", jane.getClaim(Claim.GENDER));
+
+        assertNull(repository.findBySubject("9999"));
+        assertNull(repository.findByLoginId("nosubject"));
+    }
+
+
+    @Test
+    public void firstUserWinsDuplicateKeys() throws IOException
+    {
+        SnapshotUserRepository repository = build("users.json", JSON);
+
+        // The subject of the third user and the email address of the second
+        // user are taken by the first user.
+        assertEquals("john", repository.findBySubject("1001").getLoginId());
+        assertEquals("1001", repository.findByEmail("JOHN@example.com").getSubject());
+
+        // The other keys of the duplicates still find them.
+        assertEquals("Duplicate", repository.findByLoginId("dup").getClaim(Claim.NAME));
+        assertEquals("1002", repository.findByLoginId("jane").getSubject());
+    }
+
+
+    @Test
+    public void findClaimsDecodesRequestedClaims() throws IOException
+    {
+        SnapshotUserRepository repository = build("users.json", JSON);
+
+        UserClaims claims = repository.findClaims("1001", ClaimSet.of("gender", "address", "updated_at"));
+
+        assertEquals("male", claims.get(Claim.GENDER));
+        assertEquals("USA", ((Address)claims.get(Claim.ADDRESS)).getCountry());
+        assertEquals(1700000000L, claims.get(Claim.UPDATED_AT));
+        assertNull(claims.get(Claim.NAME));
+
+        assertNull(repository.findClaims("1002", ClaimSet.of("name")).get(Claim.NAME));
+    }
+
+
+    @Test
+    public void taggedClaimIsNotAvailable() throws IOException
+    {
+        UserRecord john = build("users.json", JSON).findBySubject("1001");
+
+        assertEquals("John Smith", john.getClaim("name", null));
+        assertNull(john.getClaim("name", "ja"));
+    }
+
+
+    @Test
+    public void userWithLocalizedClaimsIsRejected() throws IOException
+    {
+        try
+        {
+            build("users.json", "[{\"subject\":\"1001\",\"name\":\"Taro\",\"name#ja\":\"太郎\"}]");
+            fail();
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("1001"));
+        }
+    }
+
+
+    @Test
+    public void csvRoundTrip() throws IOException
+    {
+        SnapshotUserRepository repository = build("users.csv", CSV);
+
+        assertEquals(2, repository.size());
+
+        UserRecord john = repository.findByEmail("john@example.com");
+        assertEquals("Smith, John", john.getClaim(Claim.NAME));
+        assertEquals(Boolean.TRUE, john.getClaim(Claim.EMAIL_VERIFIED));
+        assertEquals(1700000000L, john.getClaim(Claim.UPDATED_AT));
+        assertEquals("CA", ((Address)john.getClaim(Claim.ADDRESS)).getRegion());
+
+        UserRecord jane = repository.findByLoginId("jane");
+        assertNull(jane.getPassword());
+        assertNull(jane.getClaim(Claim.NAME));
+        assertNull(jane.getClaim(Claim.ADDRESS));
+        assertNull(jane.getClaim(Claim.EMAIL_VERIFIED));
+    }
+
+
+    /**
+     * Build a snapshot of one user whose only claim is a dictionary
+     * reference, so that the record ends with the tag.
+     */
+    private byte[] buildMinimal() throws IOException
+    {
+        Object[] values = new Object[Claim.VALUES.length];
+        values[Claim.GENDER.ordinal()] = "male";
+
+        Path snapshot = mFolder.getRoot().toPath().resolve("minimal.snapshot");
+        UserSnapshotBuilder.build(Collections.singletonList(
+                UserRecords.of("1", null, null, values, null)), snapshot);
+
+        return Files.readAllBytes(snapshot);
+    }
+
+
+    private static void assertBroken(byte[] snapshot)
+    {
+        try
+        {
+            new SnapshotUserRepository(ByteBuffer.wrap(snapshot));
+            fail("The broken snapshot was opened.");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("The user snapshot is broken"));
+        }
+    }
+
+
+    @Test
+    public void minimalSnapshotOpens() throws IOException
+    {
+        SnapshotUserRepository repository = new SnapshotUserRepository(ByteBuffer.wrap(buildMinimal()));
+
+        assertEquals("male", repository.findBySubject("1").getClaim(Claim.GENDER));
+    }
+
+
+    @Test
+    public void dictionaryTagOutOfBoundsIsRejectedAtOpen() throws IOException
+    {
+        byte[] snapshot = buildMinimal();
+        int keysAt = ByteBuffer.wrap(snapshot).getInt(UserSnapshotFormat.KEYS);
+
+        // The tag of the gender refers to the 6th entry of the dictionary,
+        // which has only one.
+        assertEquals(1, snapshot[keysAt - 1]);
+        snapshot[keysAt - 1] = (5 << 1) | 1;
+
+        assertBroken(snapshot);
+    }
+
+
+    @Test
+    public void indexEntryOutsideRecordIsRejectedAtOpen() throws IOException
+    {
+        byte[] snapshot = buildMinimal();
+        ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+        int index = buffer.getInt(UserSnapshotFormat.INDEXES + UserSnapshotFormat.SUBJECT_INDEX * 4);
+
+        // Point the subject index into the middle of the record.
+        buffer.putInt(index + 8, buffer.getInt(index + 8) + 1);
+
+        assertBroken(snapshot);
+    }
+
+
+    @Test
+    public void sectionOutOfBoundsIsRejectedAtOpen() throws IOException
+    {
+        byte[] snapshot = buildMinimal();
+        ByteBuffer.wrap(snapshot).putInt(UserSnapshotFormat.KEYS, snapshot.length + 1);
+
+        assertBroken(snapshot);
+    }
+}
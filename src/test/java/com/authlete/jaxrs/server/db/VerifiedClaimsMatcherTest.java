@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.db;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import com.authlete.common.assurance.Claims;
+import com.authlete.common.assurance.Document;
+import com.authlete.common.assurance.Evidence;
+import com.authlete.common.assurance.IDDocument;
+import com.authlete.common.assurance.Verification;
+import com.authlete.common.assurance.VerifiedClaims;
+
+
+/**
+ * Tests of {@link VerifiedClaimsMatcher} and {@link VerifiedClaimsMatchers}.
+ */
+public class VerifiedClaimsMatcherTest
+{
+    private static final DateTimeFormatter SHORT_OFFSET =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssX");
+
+
+    private static VerifiedClaims verifiedClaims(String trustFramework, String time)
+    {
+        return new VerifiedClaims()
+                .setVerification(new Verification()
+                        .setTrustFramework(trustFramework)
+                        .setTime(time)
+                        .setEvidence(Arrays.<Evidence>asList(
+                                new IDDocument()
+                                        .setMethod("pipp")
+                                        .setTime(time)
+                                        .setDocument(new Document().setType("idcard").setNumber("53554554")),
+                                new IDDocument()
+                                        .setMethod("sripp")
+                                        .setDocument(new Document().setType("passport")))))
+                .setClaims(new Claims()
+                        .putClaim("given_name", "Max")
+                        .putClaim("family_name", "Meier"));
+    }
+
+
+    private static VerifiedClaims verifiedClaims(String trustFramework)
+    {
+        return verifiedClaims(trustFramework, "2012-04-23T18:25:43+01");
+    }
+
+
+    private static VerifiedClaimsMatcher matcher(String verifiedClaimsRequest)
+    {
+        return new VerifiedClaimsMatchers(10).get(
+                "{\"verified_claims\":" + verifiedClaimsRequest + "}");
+    }
+
+
+    @Test
+    public void valueAndValuesConstrainTrustFramework()
+    {
+        VerifiedClaims available = verifiedClaims("de_aml");
+
+        assertNotNull(matcher("{\"verification\":{\"trust_framework\":{\"value\":\"de_aml\"}},"
+                + "\"claims\":{\"given_name\":null}}").apply(available));
+        assertNotNull(matcher("{\"verification\":{\"trust_framework\":{\"values\":[\"eidas\",\"de_aml\"]}},"
+                + "\"claims\":{\"given_name\":null}}").apply(available));
+        assertNull(matcher("{\"verification\":{\"trust_framework\":{\"value\":\"eidas\"}},"
+                + "\"claims\":{\"given_name\":null}}").apply(available));
+    }
+
+
+    @Test
+    public void valueConstrainsClaim()
+    {
+        VerifiedClaims selected = matcher("{\"verification\":{\"trust_framework\":null},"
+                + "\"claims\":{\"given_name\":{\"value\":\"Max\"},\"family_name\":{\"value\":\"Schmidt\"}}}")
+                .apply(verifiedClaims("de_aml"));
+
+        assertEquals("Max", selected.getClaims().get("given_name"));
+        assertNull(selected.getClaims().get("family_name"));
+        assertEquals("de_aml", selected.getVerification().getTrustFramework());
+        assertNull(selected.getVerification().getTime());
+        assertNull(selected.getVerification().getEvidence());
+    }
+
+
+    @Test
+    public void offsetWithoutMinutesIsParsed()
+    {
+        assertEquals(VerifiedClaimsMatcher.parseTime("2012-04-23T18:25:43+01:00"),
+                VerifiedClaimsMatcher.parseTime("2012-04-23T18:25:43+01"));
+        assertEquals(VerifiedClaimsMatcher.parseTime("2012-04-23T18:25:43-05:00"),
+                VerifiedClaimsMatcher.parseTime("2012-04-23T18:25:43-05"));
+        assertEquals(-1, VerifiedClaimsMatcher.parseTime("yesterday"));
+    }
+
+
+    @Test
+    public void maxAgeRejectsOldVerification()
+    {
+        // Verified 10 minutes ago, with an offset that lacks minutes.
+        String time = OffsetDateTime.now(ZoneOffset.ofHours(1)).minusMinutes(10).format(SHORT_OFFSET);
+        VerifiedClaims available = verifiedClaims("de_aml", time);
+
+        VerifiedClaims selected = matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"time\":{\"max_age\":3600}},\"claims\":{\"given_name\":null}}").apply(available);
+
+        assertEquals(time, selected.getVerification().getTime());
+        assertNull(matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"time\":{\"max_age\":60}},\"claims\":{\"given_name\":null}}").apply(available));
+
+        // A verification of unknown age does not satisfy max_age.
+        assertNull(matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"time\":{\"max_age\":3600}},\"claims\":{\"given_name\":null}}")
+                .apply(verifiedClaims("de_aml", null)));
+    }
+
+
+    @Test
+    public void firstSatisfiedElementOfArrayIsUsed()
+    {
+        VerifiedClaimsMatcher matcher = matcher("["
+                + "{\"verification\":{\"trust_framework\":{\"value\":\"eidas\"}},\"claims\":{\"given_name\":null}},"
+                + "{\"verification\":{\"trust_framework\":{\"value\":\"de_aml\"}},\"claims\":{\"family_name\":null}},"
+                + "{\"verification\":{\"trust_framework\":null},\"claims\":{\"given_name\":null}}]");
+
+        VerifiedClaims selected = matcher.apply(verifiedClaims("de_aml"));
+
+        assertEquals("Meier", selected.getClaims().get("family_name"));
+        assertNull(selected.getClaims().get("given_name"));
+
+        selected = matcher.apply(verifiedClaims("it_spid"));
+
+        assertEquals("Max", selected.getClaims().get("given_name"));
+        assertNull(selected.getClaims().get("family_name"));
+    }
+
+
+    @Test
+    public void evidenceIsFiltered()
+    {
+        VerifiedClaims selected = matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"evidence\":[{\"type\":{\"value\":\"id_document\"},\"method\":{\"value\":\"sripp\"},"
+                + "\"document\":{\"type\":null}}]},\"claims\":{\"given_name\":null}}")
+                .apply(verifiedClaims("de_aml"));
+
+        List<Evidence> evidence = selected.getVerification().getEvidence();
+
+        assertEquals(1, evidence.size());
+
+        IDDocument document = (IDDocument)evidence.get(0);
+
+        assertEquals("sripp", document.getMethod());
+        assertNull(document.getTime());
+        assertEquals("passport", document.getDocument().getType());
+        assertNull(document.getDocument().getNumber());
+
+        // Evidence of a type other than id_document is never returned.
+        selected = matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"evidence\":[{\"type\":{\"value\":\"qes\"}}]},\"claims\":{\"given_name\":null}}")
+                .apply(verifiedClaims("de_aml"));
+
+        assertNull(selected.getVerification().getEvidence());
+    }
+
+
+    @Test
+    public void evidenceWithoutElementsReturnsAllElements()
+    {
+        VerifiedClaims selected = matcher("{\"verification\":{\"trust_framework\":null,"
+                + "\"evidence\":null},\"claims\":{\"given_name\":null}}")
+                .apply(verifiedClaims("de_aml"));
+
+        List<Evidence> evidence = selected.getVerification().getEvidence();
+
+        assertEquals(2, evidence.size());
+        assertEquals("53554554", ((IDDocument)evidence.get(0)).getDocument().getNumber());
+    }
+
+
+    @Test
+    public void requestsOfSameShapeShareMatcher()
+    {
+        VerifiedClaimsMatchers matchers = new VerifiedClaimsMatchers(10);
+
+        VerifiedClaimsMatcher first = matchers.get("{\"email\":null,\"verified_claims\":"
+                + "{\"verification\":{\"trust_framework\":null},\"claims\":{\"given_name\":null}}}");
+        VerifiedClaimsMatcher second = matchers.get("{\"verified_claims\":"
+                + "{\"claims\":{\"given_name\":null},\"verification\":{\"trust_framework\":null}}}");
+        VerifiedClaimsMatcher third = matchers.get("{\"email\":null,\"verified_claims\":"
+                + "{\"verification\":{\"trust_framework\":null},\"claims\":{\"given_name\":null}}}");
+
+        assertSame(first, second);
+        assertSame(first, third);
+        assertEquals(1, matchers.getCompilations());
+        assertEquals(1, matchers.getSharedShapes());
+        assertEquals(1, matchers.getHits());
+        assertEquals(1, matchers.getSize());
+    }
+
+
+    @Test
+    public void onlyMalformedRequestsAreCounted()
+    {
+        VerifiedClaimsMatchers matchers = new VerifiedClaimsMatchers(10);
+
+        assertSame(VerifiedClaimsMatcher.ALL, matchers.get(null));
+        assertSame(VerifiedClaimsMatcher.ALL, matchers.get("{\"email\":null}"));
+        assertEquals(0, matchers.getMalformed());
+
+        assertSame(VerifiedClaimsMatcher.ALL, matchers.get("{\"verified_claims\":"));
+        assertSame(VerifiedClaimsMatcher.ALL, matchers.get("{\"verified_claims\":\"given_name\"}"));
+        assertEquals(2, matchers.getMalformed());
+    }
+}
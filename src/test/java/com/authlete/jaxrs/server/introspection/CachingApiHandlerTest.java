@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.common.dto.IntrospectionRequest;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+
+
+/**
+ * Tests of the coalescing of concurrent introspections in {@link
+ * CachingApiHandler}.
+ */
+public class CachingApiHandlerTest
+{
+    private static final int CALLERS = 32;
+
+
+    /**
+     * A stub of Authlete's introspection API that counts calls and blocks
+     * until it is released.
+     */
+    private static class CountingIntrospection
+    {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile RuntimeException failure;
+
+
+        AuthleteApi create()
+        {
+            return (AuthleteApi)Proxy.newProxyInstance(
+                    AuthleteApi.class.getClassLoader(),
+                    new Class<?>[] { AuthleteApi.class },
+                    (proxy, method, args) -> {
+                        if (!"introspection".equals(method.getName()))
+                        {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+
+                        calls.incrementAndGet();
+                        release.await(10, TimeUnit.SECONDS);
+
+                        if (failure != null)
+                        {
+                            throw failure;
+                        }
+
+                        IntrospectionResponse response = new IntrospectionResponse();
+                        response.setAction(Action.OK);
+                        response.setSubject("1001");
+                        response.setScopes(new String[] { "openid" });
+                        response.setExpiresAt(System.currentTimeMillis() + 3600 * 1000L);
+
+                        return response;
+                    });
+        }
+    }
+
+
+    private ExecutorService mExecutor;
+
+
+    @Before
+    public void setUp()
+    {
+        mExecutor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+
+    @After
+    public void tearDown()
+    {
+        mExecutor.shutdownNow();
+    }
+
+
+    private static AuthleteApi wrap(AuthleteApi api, boolean cacheEnabled)
+    {
+        return wrap(api, cacheEnabled, new RevokedTokenFilter(false, 0, 0, 64, 1, 0));
+    }
+
+
+    private static AuthleteApi wrap(
+            AuthleteApi api, boolean cacheEnabled, RevokedTokenFilter revokedTokens)
+    {
+        IntrospectionCache cache = new IntrospectionCache(
+                cacheEnabled, new HeapIntrospectionStore(100), 60 * 1000L, 0, 0);
+
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                new CachingApiHandler(api, cache, null, revokedTokens));
+    }
+
+
+    private List<Future<IntrospectionResponse>> burst(AuthleteApi api, CountingIntrospection stub)
+            throws InterruptedException
+    {
+        CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<IntrospectionResponse>> results = new ArrayList<>();
+
+        for (int i = 0; i < CALLERS; i++)
+        {
+            results.add(mExecutor.submit(() -> {
+                started.countDown();
+                return api.introspection(new IntrospectionRequest().setToken("token"));
+            }));
+        }
+
+        // Let all the callers reach the introspection in flight before
+        // Authlete answers.
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        stub.release.countDown();
+
+        return results;
+    }
+
+
+    @Test
+    public void burstWithoutCacheMakesOneCall() throws Exception
+    {
+        CountingIntrospection stub = new CountingIntrospection();
+        AuthleteApi api = wrap(stub.create(), false);
+
+        List<Future<IntrospectionResponse>> results = burst(api, stub);
+        IntrospectionResponse first = results.get(0).get(10, TimeUnit.SECONDS);
+
+        for (Future<IntrospectionResponse> result : results)
+        {
+            // All the callers share the result of the single call.
+            assertSame(first, result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, stub.calls.get());
+    }
+
+
+    @Test
+    public void burstWithCacheMakesOneCall() throws Exception
+    {
+        CountingIntrospection stub = new CountingIntrospection();
+        AuthleteApi api = wrap(stub.create(), true);
+
+        for (Future<IntrospectionResponse> result : burst(api, stub))
+        {
+            assertEquals(Action.OK, result.get(10, TimeUnit.SECONDS).getAction());
+        }
+
+        // Later requests are served from the cache.
+        api.introspection(new IntrospectionRequest().setToken("token"));
+
+        assertEquals(1, stub.calls.get());
+    }
+
+
+    @Test
+    public void failureIsSharedByAllCallers() throws Exception
+    {
+        CountingIntrospection stub = new CountingIntrospection();
+        stub.failure = new AuthleteApiException("Authlete is down.");
+        AuthleteApi api = wrap(stub.create(), true);
+
+        for (Future<IntrospectionResponse> result : burst(api, stub))
+        {
+            try
+            {
+                result.get(10, TimeUnit.SECONDS);
+            }
+            catch (ExecutionException e)
+            {
+                assertSame(stub.failure, e.getCause());
+                continue;
+            }
+
+            throw new AssertionError("The failure of the call was not propagated.");
+        }
+
+        assertEquals(1, stub.calls.get());
+    }
+
+
+    @Test
+    public void overflowingRevocationFilterBypassesCache()
+    {
+        CountingIntrospection stub = new CountingIntrospection();
+        stub.release.countDown();
+
+        RevokedTokenFilter revokedTokens = new RevokedTokenFilter(true, 60 * 1000L, 1, 64, 1, 0);
+        AuthleteApi api = wrap(stub.create(), true, revokedTokens);
+
+        api.introspection(new IntrospectionRequest().setToken("token"));
+        api.introspection(new IntrospectionRequest().setToken("token"));
+        assertEquals(1, stub.calls.get());
+
+        // The second revoked token is refused, and it could be any token.
+        revokedTokens.revoke(IntrospectionCache.hash("other"), 0);
+        revokedTokens.revoke(IntrospectionCache.hash("another"), 0);
+
+        api.introspection(new IntrospectionRequest().setToken("token"));
+        assertEquals(2, stub.calls.get());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import java.util.Arrays;
+import org.junit.Test;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+
+
+/**
+ * Tests of {@link IntrospectionRecord}.
+ */
+public class IntrospectionRecordTest
+{
+    private static IntrospectionResponse createResponse(String[] scopes)
+    {
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(Action.OK);
+        response.setClientId(1234L);
+        response.setSubject("1001");
+        response.setScopes(scopes);
+        response.setExpiresAt(1800000000000L);
+
+        return response;
+    }
+
+
+    @Test
+    public void roundTrip()
+    {
+        String[] scopes = { "openid", "profile" };
+        IntrospectionResponse decoded = IntrospectionRecord.decode(
+                IntrospectionRecord.encode(createResponse(scopes)));
+
+        assertEquals(Action.OK, decoded.getAction());
+        assertEquals(1234L, decoded.getClientId());
+        assertEquals("1001", decoded.getSubject());
+        assertEquals(1800000000000L, decoded.getExpiresAt());
+        assertArrayEquals(scopes, decoded.getScopes());
+    }
+
+
+    @Test
+    public void maximumScopeCount()
+    {
+        String[] scopes = new String[Short.MAX_VALUE];
+        Arrays.fill(scopes, "s");
+
+        byte[] record = IntrospectionRecord.encode(createResponse(scopes));
+
+        assertNotNull(record);
+        assertEquals(Short.MAX_VALUE, IntrospectionRecord.decode(record).getScopes().length);
+    }
+
+
+    @Test
+    public void tooManyScopes()
+    {
+        // The count would wrap around to a negative number.
+        String[] scopes = new String[Short.MAX_VALUE + 1];
+        Arrays.fill(scopes, "s");
+
+        assertNull(IntrospectionRecord.encode(createResponse(scopes)));
+    }
+}
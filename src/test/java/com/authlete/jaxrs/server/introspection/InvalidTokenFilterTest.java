@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link InvalidTokenFilter}.
+ */
+public class InvalidTokenFilterTest
+{
+    // {"alg":"RS256"}
+    private static final String HEADER = "eyJhbGciOiJSUzI1NiJ9";
+
+
+    private final InvalidTokenFilter mFilter = new InvalidTokenFilter(true, 4096, 100, 60000);
+
+
+    private Response reject(String token, String dpop)
+    {
+        try
+        {
+            mFilter.check(token, null, dpop);
+        }
+        catch (TokenRejectedException e)
+        {
+            return e.getResponse();
+        }
+
+        fail("Not rejected: " + token);
+        return null;
+    }
+
+
+    @Test
+    public void opaqueTokensAreAccepted()
+    {
+        mFilter.check("Ny6z9hP0CNePPxBq5Jw1TGGVH0C6PRzL7jaxn0gYNYE", null, null);
+        mFilter.check("abc.def", null, null);
+        mFilter.check("v1..opaque.token~+/==", null, null);
+    }
+
+
+    @Test
+    public void joseShapedTokensAreAccepted()
+    {
+        mFilter.check(HEADER + ".eyJzdWIiOiIxMDAxIn0.c2lnbmF0dXJl", null, null);
+
+        // The encrypted key of a JWE may be empty.
+        mFilter.check(HEADER + "..aXY.Y2lwaGVydGV4dA.dGFn", null, null);
+    }
+
+
+    @Test
+    public void malformedJoseTokensAreRejected()
+    {
+        assertEquals(400, reject(HEADER + ".eyJzdWIiOiIxMDAxIn0", null).getStatus());
+        assertEquals(400, reject(HEADER + "..c2lnbmF0dXJl", null).getStatus());
+        assertEquals(400, reject(HEADER + ".a.b.c.d.e", null).getStatus());
+    }
+
+
+    @Test
+    public void illegalCharactersAreRejected()
+    {
+        assertEquals(400, reject("abc def", null).getStatus());
+        assertEquals(400, reject("abc=def", null).getStatus());
+        assertEquals(400, reject("===", null).getStatus());
+    }
+
+
+    @Test
+    public void challengeUsesSchemeOfRequest()
+    {
+        String bearer = reject("abc def", null).getHeaderString(HttpHeaders.WWW_AUTHENTICATE);
+        String dpop   = reject("abc def", "proof").getHeaderString(HttpHeaders.WWW_AUTHENTICATE);
+
+        assertTrue(bearer, bearer.startsWith("Bearer error=\"invalid_request\""));
+        assertTrue(dpop, dpop.startsWith("DPoP error=\"invalid_request\""));
+    }
+
+
+    @Test
+    public void knownInvalidTokensAreRejected()
+    {
+        mFilter.recordInvalid("abc.def", null);
+
+        Response response = reject("abc.def", null);
+        assertEquals(401, response.getStatus());
+        assertTrue(response.getHeaderString(HttpHeaders.WWW_AUTHENTICATE).startsWith("Bearer error=\"invalid_token\""));
+
+        // Not checked for requests with a DPoP proof or another certificate.
+        mFilter.check("abc.def", null, "proof");
+        mFilter.check("abc.def", "certificate", null);
+    }
+}
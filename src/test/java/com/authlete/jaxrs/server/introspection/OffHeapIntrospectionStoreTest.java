@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import com.authlete.common.dto.IntrospectionResponse;
+import com.authlete.common.dto.IntrospectionResponse.Action;
+import com.authlete.jaxrs.server.introspection.IntrospectionCache.Entry;
+
+
+/**
+ * Tests of {@link OffHeapIntrospectionStore}.
+ */
+public class OffHeapIntrospectionStoreTest
+{
+    private static final long NOW = 1800000000000L;
+
+
+    private final OffHeapIntrospectionStore mStore = new OffHeapIntrospectionStore(100, 512);
+
+
+    private static Entry createEntry(long expiresAt, long refreshAt)
+    {
+        IntrospectionResponse response = new IntrospectionResponse();
+        response.setAction(Action.OK);
+        response.setSubject("1001");
+        response.setScopes(new String[] { "openid" });
+        response.setExpiresAt(expiresAt);
+
+        return new Entry(response, expiresAt, expiresAt, refreshAt);
+    }
+
+
+    @Test
+    public void putAndGet()
+    {
+        mStore.put("key", createEntry(NOW + 1000, NOW + 800), NOW);
+
+        Entry entry = mStore.get("key");
+
+        assertEquals("1001", entry.response.getSubject());
+        assertEquals(NOW + 1000, entry.expiresAt);
+        assertEquals(NOW + 800, entry.refreshAt);
+        assertNull(mStore.get("other"));
+    }
+
+
+    @Test
+    public void entryIsRefreshedOnlyWhenDue()
+    {
+        mStore.put("key", createEntry(NOW + 1000, NOW + 800), NOW);
+
+        // Not due yet.
+        assertFalse(mStore.startRefresh("key", NOW + 500));
+
+        // Exactly one caller refreshes it.
+        assertTrue(mStore.startRefresh("key", NOW + 900));
+        assertFalse(mStore.startRefresh("key", NOW + 900));
+
+        // A later caller may try again after a cancellation.
+        mStore.cancelRefresh("key");
+        assertTrue(mStore.startRefresh("key", NOW + 900));
+
+        // Expired entries and unknown keys are not refreshed.
+        mStore.cancelRefresh("key");
+        assertFalse(mStore.startRefresh("key", NOW + 1000));
+        assertFalse(mStore.startRefresh("other", NOW + 900));
+    }
+
+
+    @Test
+    public void putResetsRefresh()
+    {
+        mStore.put("key", createEntry(NOW + 1000, NOW + 800), NOW);
+        assertTrue(mStore.startRefresh("key", NOW + 900));
+
+        // The refreshed result replaces the entry.
+        mStore.put("key", createEntry(NOW + 2000, NOW + 1800), NOW + 900);
+
+        assertFalse(mStore.startRefresh("key", NOW + 1000));
+        assertTrue(mStore.startRefresh("key", NOW + 1900));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.introspection;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+/**
+ * Tests of {@link RevokedTokenFilter}.
+ */
+public class RevokedTokenFilterTest
+{
+    private final RevokedTokenFilter mFilter = new RevokedTokenFilter(true, 60000, 2, 4096, 3, 0);
+
+
+    private static String hash(String token)
+    {
+        return IntrospectionCache.hash(token);
+    }
+
+
+    @Test
+    public void revokedTokenIsRejected()
+    {
+        assertTrue(mFilter.revoke(hash("a"), 0));
+
+        assertTrue(mFilter.isRevoked("a"));
+        assertFalse(mFilter.isRevoked("b"));
+        assertFalse(mFilter.isOverflowing());
+    }
+
+
+    @Test
+    public void fullFilterRefusesTokensWithoutForgettingOthers()
+    {
+        mFilter.revoke(hash("a"), 0);
+        mFilter.revoke(hash("b"), 0);
+        mFilter.revoke(hash("c"), 0);
+
+        // No token is forgotten before its time.
+        assertTrue(mFilter.isRevoked("a"));
+        assertTrue(mFilter.isRevoked("b"));
+        assertFalse(mFilter.isRevoked("c"));
+
+        assertEquals(2, mFilter.getSize());
+        assertEquals(1, mFilter.getOverflows());
+        assertTrue(mFilter.isOverflowing());
+    }
+
+
+    @Test
+    public void overflowEndsWhenRefusedTokenExpires() throws InterruptedException
+    {
+        mFilter.revoke(hash("a"), 0);
+        mFilter.revoke(hash("b"), 0);
+        mFilter.revoke(hash("c"), System.currentTimeMillis() + 100);
+
+        assertTrue(mFilter.isOverflowing());
+
+        Thread.sleep(200);
+
+        assertFalse(mFilter.isOverflowing());
+    }
+
+
+    @Test
+    public void forgettableTokensMakeRoom() throws InterruptedException
+    {
+        mFilter.revoke(hash("a"), System.currentTimeMillis() + 100);
+        mFilter.revoke(hash("b"), 0);
+
+        Thread.sleep(200);
+
+        mFilter.revoke(hash("c"), 0);
+
+        assertTrue(mFilter.isRevoked("c"));
+        assertEquals(0, mFilter.getOverflows());
+        assertFalse(mFilter.isOverflowing());
+    }
+
+
+    @Test
+    public void revokingRememberedTokenAgainIsNotAnOverflow()
+    {
+        mFilter.revoke(hash("a"), 0);
+        mFilter.revoke(hash("b"), 0);
+        mFilter.revoke(hash("a"), 0);
+
+        assertEquals(0, mFilter.getOverflows());
+        assertFalse(mFilter.isOverflowing());
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2026 Authlete, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the
+ * License.
+ */
+package com.authlete.jaxrs.server.transport;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import org.junit.Test;
+import com.authlete.common.api.AuthleteApi;
+import com.authlete.common.api.AuthleteApiException;
+import com.authlete.common.dto.IntrospectionRequest;
+
+
+/**
+ * Tests of {@link CircuitBreakerApiHandler}.
+ */
+public class CircuitBreakerApiHandlerTest
+{
+    private static final int THRESHOLD = 3;
+
+
+    private final AtomicInteger mCalls = new AtomicInteger();
+
+
+    private AuthleteApi wrap(CircuitBreakerApiHandler handler)
+    {
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class }, handler);
+    }
+
+
+    private AuthleteApi failing(Supplier<RuntimeException> failure)
+    {
+        return (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                (proxy, method, args) -> {
+                    mCalls.incrementAndGet();
+                    throw failure.get();
+                });
+    }
+
+
+    private static void introspect(AuthleteApi api, Class<? extends RuntimeException> expected)
+    {
+        try
+        {
+            api.introspection(new IntrospectionRequest());
+        }
+        catch (RuntimeException e)
+        {
+            assertEquals(expected, e.getClass());
+            return;
+        }
+
+        fail("No exception was thrown.");
+    }
+
+
+    @Test
+    public void localRejectionsDoNotOpenTheCircuit()
+    {
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(
+                failing(() -> new CallLimitExceededException("Timed out.")), THRESHOLD, 30000, 0);
+        AuthleteApi api = wrap(handler);
+
+        for (int i = 0; i < THRESHOLD * 10; i++)
+        {
+            introspect(api, CallLimitExceededException.class);
+        }
+
+        assertEquals("CLOSED", handler.getState());
+        assertEquals(0, handler.getFailures());
+        assertEquals(THRESHOLD * 10, mCalls.get());
+    }
+
+
+    @Test
+    public void networkErrorsOpenTheCircuit()
+    {
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(
+                failing(() -> new AuthleteApiException("Connection refused.")), THRESHOLD, 30000, 0);
+        AuthleteApi api = wrap(handler);
+
+        for (int i = 0; i < THRESHOLD; i++)
+        {
+            introspect(api, AuthleteApiException.class);
+        }
+
+        assertEquals("OPEN", handler.getState());
+
+        try
+        {
+            api.introspection(new IntrospectionRequest());
+            fail("The circuit did not fail fast.");
+        }
+        catch (CircuitOpenException e)
+        {
+            // 503 with the time until the trial call.
+            Response response = e.getResponse();
+            assertEquals(503, response.getStatus());
+            assertEquals("30", response.getHeaderString(HttpHeaders.RETRY_AFTER));
+        }
+
+        assertEquals(THRESHOLD, mCalls.get());
+    }
+
+
+    @Test
+    public void localRejectionOfTrialCallKeepsTheCircuitOpen() throws Exception
+    {
+        AtomicInteger mode = new AtomicInteger();
+
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(
+                failing(() -> (mode.get() == 0)
+                        ? new AuthleteApiException("Connection refused.")
+                        : new CallLimitExceededException("Timed out.")),
+                THRESHOLD, 50, 0);
+        AuthleteApi api = wrap(handler);
+
+        for (int i = 0; i < THRESHOLD; i++)
+        {
+            introspect(api, AuthleteApiException.class);
+        }
+
+        Thread.sleep(100);
+        mode.set(1);
+
+        // The trial call is rejected locally. It does not close the circuit,
+        // and the next caller can make the trial call.
+        introspect(api, CallLimitExceededException.class);
+        assertEquals("OPEN", handler.getState());
+        introspect(api, CallLimitExceededException.class);
+        assertEquals(THRESHOLD + 2, mCalls.get());
+    }
+
+
+    @Test
+    public void localErrorOfTrialCallKeepsTheCircuitOpen() throws Exception
+    {
+        AtomicInteger mode = new AtomicInteger();
+
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(
+                failing(() -> (mode.get() == 0)
+                        ? new AuthleteApiException("Connection refused.")
+                        : new IllegalStateException("Bug.")),
+                THRESHOLD, 50, 0);
+        AuthleteApi api = wrap(handler);
+
+        for (int i = 0; i < THRESHOLD; i++)
+        {
+            introspect(api, AuthleteApiException.class);
+        }
+
+        Thread.sleep(100);
+        mode.set(1);
+
+        introspect(api, IllegalStateException.class);
+        assertEquals("OPEN", handler.getState());
+    }
+
+
+    @Test
+    public void lateSuccessDoesNotCloseTheCircuit() throws Exception
+    {
+        CountDownLatch lateCall  = new CountDownLatch(1);
+        CountDownLatch trialCall = new CountDownLatch(1);
+        CountDownLatch trialStarted = new CountDownLatch(1);
+
+        AuthleteApi delegate = (AuthleteApi)Proxy.newProxyInstance(
+                AuthleteApi.class.getClassLoader(),
+                new Class<?>[] { AuthleteApi.class },
+                (proxy, method, args) -> {
+                    int call = mCalls.incrementAndGet();
+
+                    if (call == 1)
+                    {
+                        // Started while the circuit is closed, succeeds late.
+                        lateCall.await();
+                        return null;
+                    }
+
+                    if (call == THRESHOLD + 2)
+                    {
+                        trialStarted.countDown();
+                        trialCall.await();
+                    }
+
+                    throw new AuthleteApiException("Connection refused.");
+                });
+
+        CircuitBreakerApiHandler handler = new CircuitBreakerApiHandler(delegate, THRESHOLD, 50, 0);
+        AuthleteApi api = wrap(handler);
+
+        Thread late = new Thread(() -> api.introspection(new IntrospectionRequest()));
+        late.start();
+
+        while (mCalls.get() == 0)
+        {
+            Thread.sleep(1);
+        }
+
+        for (int i = 0; i < THRESHOLD; i++)
+        {
+            introspect(api, AuthleteApiException.class);
+        }
+
+        Thread.sleep(100);
+
+        Thread trial = new Thread(() -> introspect(api, AuthleteApiException.class));
+        trial.start();
+        trialStarted.await();
+        assertEquals("HALF_OPEN", handler.getState());
+
+        lateCall.countDown();
+        late.join();
+        assertEquals("HALF_OPEN", handler.getState());
+
+        trialCall.countDown();
+        trial.join();
+        assertEquals("OPEN", handler.getState());
+    }
+}